@@ -0,0 +1,152 @@
+package org.example.AI;
+
+import org.example.AI.search.AlphaBeta;
+import org.example.AI.search.ContexteRecherche;
+import org.example.AI.search.MoveSorter;
+import org.example.chess.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * Analyse en continu (sans limite de temps) d'une position.
+ * </p>
+ *
+ * <p>
+ * Un seul thread, créé une fois, fait de l'iterative deepening sur la
+ * position courante et publie la meilleure ligne à chaque profondeur.
+ * Quand la position change, la recherche en cours est interrompue (le
+ * drapeau d'arrêt est vu à chaque noeud) et repart aussitôt sur la nouvelle
+ * position. La table de transposition est celle du moteur : elle reste
+ * chaude d'une position à l'autre.
+ * </p>
+ *
+ * <p>
+ * Utilisable par la GUI comme par un outil en console.
+ * </p>
+ */
+public final class AnalyseContinue {
+
+    private static final int PROFONDEUR_MAX = 64;
+
+    private final Consumer<String> observateur;
+    private final Object verrou = new Object();
+    private final Thread thread;
+
+    // Position demandée (null = en pause) et drapeau d'arrêt de la recherche en cours
+    private Plateau positionDemandee;
+    private long generation;
+    private AtomicBoolean stopCourant = new AtomicBoolean(false);
+    private boolean termine;
+
+    /**
+     * @param observateur reçoit une ligne par profondeur terminée (appelé
+     *                    depuis le thread d'analyse)
+     */
+    public AnalyseContinue(Consumer<String> observateur) {
+        if (observateur == null)
+            throw new IllegalArgumentException("observateur null");
+        this.observateur = observateur;
+        this.thread = new Thread(this::boucle, "analyse-continue");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * <p>
+     * Analyse cette position (copiée) ; interrompt l'analyse en cours.
+     * </p>
+     */
+    public void definirPosition(Plateau plateau) {
+        if (plateau == null)
+            throw new IllegalArgumentException("plateau null");
+        Plateau copie = plateau.copie();
+        synchronized (verrou) {
+            stopCourant.set(true);
+            positionDemandee = copie;
+            generation++;
+            verrou.notifyAll();
+        }
+    }
+
+    /**
+     * <p>Met l'analyse en pause (ex. pendant que l'IA joue).</p>
+     */
+    public void suspendre() {
+        synchronized (verrou) {
+            stopCourant.set(true);
+            positionDemandee = null;
+            generation++;
+        }
+    }
+
+    /**
+     * <p>Arrête définitivement le thread d'analyse.</p>
+     */
+    public void arreter() {
+        synchronized (verrou) {
+            termine = true;
+            stopCourant.set(true);
+            verrou.notifyAll();
+        }
+    }
+
+    private void boucle() {
+        long derniereGeneration = -1;
+        while (true) {
+            Plateau plateau;
+            AtomicBoolean stop;
+            long gen;
+            synchronized (verrou) {
+                while (!termine && (positionDemandee == null || generation == derniereGeneration)) {
+                    try {
+                        verrou.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (termine)
+                    return;
+                plateau = positionDemandee;
+                gen = generation;
+                stop = new AtomicBoolean(false);
+                stopCourant = stop;
+            }
+            derniereGeneration = gen;
+            analyser(plateau, stop);
+        }
+    }
+
+    private void analyser(Plateau plateau, AtomicBoolean stop) {
+        List<Coup> coups = GenerateurCoups.genererLegaux(plateau);
+        if (coups.isEmpty()) {
+            observateur.accept(plateau.estEnEchec(plateau.trait()) ? "Analyse: mat" : "Analyse: pat");
+            return;
+        }
+
+        AlphaBeta.table().nouvelleRecherche();
+        ContexteRecherche.remettreCompteursAZero();
+        MoveSorter.trierCoups(coups, plateau);
+
+        long debut = System.currentTimeMillis();
+        Coup meilleur = coups.get(0);
+        for (int depth = 1; depth <= PROFONDEUR_MAX && !stop.get(); depth++) {
+            MoveSorter.placerEnPremier(coups, meilleur);
+            RechercheMinimaxAlphaBeta.MoveScore res = RechercheMinimaxAlphaBeta.chercherIteration(plateau, coups,
+                    depth, stop, null);
+            if (res == null)
+                return;
+            meilleur = res.coup;
+
+            List<Coup> pv = RechercheMinimaxAlphaBeta.extrairePV(plateau, meilleur, depth);
+            observateur.accept(String.format("Analyse prof %d: %d (%d noeuds, %d ms) %s",
+                    depth, res.score, ContexteRecherche.totalNoeuds(),
+                    System.currentTimeMillis() - debut, RechercheMinimaxAlphaBeta.pvEnTexte(pv)));
+
+            if (Math.abs(res.score) >= Evaluation.SCORE_MAT - 100)
+                return;
+        }
+    }
+}
@@ -0,0 +1,768 @@
+package org.example.AI;
+
+import org.example.chess.Couleur;
+import org.example.chess.Coup;
+import org.example.chess.GenerateurCoups;
+import org.example.chess.NotationEchecs;
+import org.example.chess.Plateau;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Construction d'un livre Polyglot ({@link OpeningBook}) à partir de
+ * fichiers PGN, quelle que soit leur taille : la mémoire utilisée est
+ * bornée par les options, pas par le nombre de parties.
+ * </p>
+ *
+ * <ol>
+ *   <li>Lecture : le thread appelant lit les fichiers en flux et envoie
+ *   les parties par lots à une file bornée.</li>
+ *   <li>Rejeu : chaque thread du pool rejoue les coups SAN sur un
+ *   {@link Plateau} ({@link NotationEchecs}) jusqu'à la profondeur voulue
+ *   et compte, par (clé Polyglot, coup), les gains, nulles et pertes du
+ *   camp qui joue le coup. Sa table pleine, il l'écrit triée dans un
+ *   fichier temporaire et repart de zéro.</li>
+ *   <li>Fusion : les fichiers temporaires sont fusionnés (par paquets de
+ *   {@value #FUSION_MAX} au plus) ; les comptes d'un même coup sont
+ *   sommés, puis chaque coup devient une entrée de poids
+ *   {@code 2 * gains + nulles}, ramené à 16 bits position par position.</li>
+ * </ol>
+ *
+ * <p>
+ * Usage : {@code ConstructeurLivre <sortie.bin> <parties.pgn>...
+ * [-plies N] [-min N] [-entrees N]}. Les parties sans résultat
+ * ({@code *}) sont ignorées ; une partie dont un coup est illisible ou
+ * illégal s'arrête à ce coup.
+ * </p>
+ */
+public final class ConstructeurLivre {
+
+    private static final int PARTIES_PAR_LOT = 256;
+    private static final int FUSION_MAX = 128;
+    private static final int POIDS_MAX = 0xFFFF;
+
+    private static final int GAIN = 0;
+    private static final int NULLE = 1;
+    private static final int PERTE = 2;
+
+    private final Polyglot polyglot;
+    private final int plies;
+    private final int partiesMin;
+    private final int entreesParThread;
+    private final int threads;
+
+    /**
+     * @param plies            demi-coups retenus au début de chaque partie
+     * @param partiesMin       parties minimum pour garder un coup
+     * @param entreesParThread taille de la table de chaque thread avant
+     *                         écriture sur disque (24 octets par entrée,
+     *                         le double en capacité)
+     * @param threads          threads de rejeu
+     */
+    public ConstructeurLivre(int plies, int partiesMin, int entreesParThread, int threads) {
+        this(Polyglot.standard(), plies, partiesMin, entreesParThread, threads);
+    }
+
+    ConstructeurLivre(Polyglot polyglot, int plies, int partiesMin, int entreesParThread, int threads) {
+        if (plies < 1 || partiesMin < 1 || threads < 1)
+            throw new IllegalArgumentException("plies, minimum et threads >= 1 attendus");
+        if (entreesParThread < 1024 || entreesParThread > 1 << 28)
+            throw new IllegalArgumentException("entrees par thread hors limites : " + entreesParThread);
+        this.polyglot = polyglot;
+        this.plies = plies;
+        this.partiesMin = partiesMin;
+        this.entreesParThread = entreesParThread;
+        this.threads = threads;
+    }
+
+    /** Bilan d'une construction. */
+    public record Bilan(long parties, long ignorees, long positions, double secondesRejeu, int fichiersTemporaires,
+            long entrees, long octets, double secondes, long tasMax) {
+
+        public double partiesParSeconde() {
+            return secondesRejeu > 0 ? parties / secondesRejeu : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d parties (%,d ignorees), %,d positions en %.1f s : %,.0f parties/s%n"
+                    + "%d fichier(s) temporaire(s), %,d entrees (%,d octets), %.1f s au total, pic du tas %,d Mo",
+                    parties, ignorees, positions, secondesRejeu, partiesParSeconde(), fichiersTemporaires, entrees,
+                    octets, secondes, tasMax >> 20);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int plies = 40;
+        int partiesMin = 1;
+        int entrees = 1 << 20;
+        List<Path> pgn = new ArrayList<>();
+        Path sortie = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-plies" -> plies = Integer.parseInt(args[++i]);
+                case "-min" -> partiesMin = Integer.parseInt(args[++i]);
+                case "-entrees" -> entrees = Integer.parseInt(args[++i]);
+                default -> {
+                    if (sortie == null)
+                        sortie = Path.of(args[i]);
+                    else
+                        pgn.add(Path.of(args[i]));
+                }
+            }
+        }
+        if (sortie == null || pgn.isEmpty()) {
+            System.err.println("Usage : ConstructeurLivre <sortie.bin> <parties.pgn>... [-plies 40] [-min 1]"
+                    + " [-entrees 1048576]");
+            return;
+        }
+        ConstructeurLivre constructeur = new ConstructeurLivre(plies, partiesMin, entrees,
+                Runtime.getRuntime().availableProcessors());
+        System.out.println(constructeur.construire(pgn, sortie));
+    }
+
+    /**
+     * <p>
+     * Construit le livre {@code sortie} ; les fichiers temporaires vont
+     * dans un répertoire à côté, supprimé à la fin.
+     * </p>
+     */
+    public Bilan construire(List<Path> pgn, Path sortie) throws IOException {
+        if (pgn == null || pgn.isEmpty() || sortie == null)
+            throw new IllegalArgumentException("fichiers PGN et sortie requis");
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            pool.resetPeakUsage();
+        long debut = System.nanoTime();
+        Path parent = sortie.toAbsolutePath().getParent();
+        Path temporaire = Files.createTempDirectory(parent, "livre-");
+        ExecutorService executeur = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "constructeur-livre");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            BlockingQueue<Lot> file = new ArrayBlockingQueue<>(threads * 4);
+            List<Rejeu> rejeux = new ArrayList<>();
+            List<Future<Void>> resultats = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Rejeu r = new Rejeu(file, temporaire, i);
+                rejeux.add(r);
+                resultats.add(executeur.submit(r));
+            }
+            long ignorees = lire(pgn, file, resultats);
+            for (int i = 0; i < threads; i++)
+                mettre(file, Lot.FIN, resultats);
+            attendre(resultats);
+            double secondesRejeu = (System.nanoTime() - debut) / 1e9;
+
+            long parties = 0;
+            long positions = 0;
+            List<Path> runs = new ArrayList<>();
+            for (Rejeu r : rejeux) {
+                parties += r.parties;
+                ignorees += r.ignorees;
+                positions += r.positions;
+                runs.addAll(r.runs);
+            }
+            int fichiers = runs.size();
+            long entrees = fusionner(runs, temporaire, sortie);
+            return new Bilan(parties, ignorees, positions, secondesRejeu, fichiers, entrees, Files.size(sortie),
+                    (System.nanoTime() - debut) / 1e9, picDuTas());
+        } finally {
+            executeur.shutdownNow();
+            supprimer(temporaire);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Lecture des fichiers PGN
+    // ------------------------------------------------------------------
+
+    /** Lit les parties et les envoie par lots ; renvoie le nombre de parties sans résultat. */
+    private long lire(List<Path> pgn, BlockingQueue<Lot> file, List<Future<Void>> resultats) throws IOException {
+        long ignorees = 0;
+        Lot lot = new Lot();
+        StringBuilder coups = new StringBuilder(1024);
+        for (Path chemin : pgn) {
+            try (BufferedReader lecteur = Files.newBufferedReader(chemin, StandardCharsets.ISO_8859_1)) {
+                int resultat = -1;
+                String fen = null;
+                String ligne;
+                while ((ligne = lecteur.readLine()) != null) {
+                    if (ligne.startsWith("[")) {
+                        // Une étiquette après des coups : nouvelle partie
+                        if (coups.length() > 0) {
+                            ignorees += ajouter(lot, coups, resultat, fen);
+                            resultat = -1;
+                            fen = null;
+                            if (lot.n == PARTIES_PAR_LOT) {
+                                mettre(file, lot, resultats);
+                                lot = new Lot();
+                            }
+                        }
+                        if (ligne.startsWith("[Result "))
+                            resultat = resultat(valeurEtiquette(ligne));
+                        else if (ligne.startsWith("[FEN "))
+                            fen = valeurEtiquette(ligne);
+                    } else if (!ligne.isBlank()) {
+                        coups.append(ligne).append('\n');
+                    }
+                }
+                if (coups.length() > 0)
+                    ignorees += ajouter(lot, coups, resultat, fen);
+            }
+        }
+        if (lot.n > 0)
+            mettre(file, lot, resultats);
+        return ignorees;
+    }
+
+    private static int ajouter(Lot lot, StringBuilder coups, int resultat, String fen) {
+        String texte = coups.toString();
+        coups.setLength(0);
+        if (resultat < 0)
+            return 1;
+        lot.textes[lot.n] = texte;
+        lot.fens[lot.n] = fen;
+        lot.resultats[lot.n++] = resultat;
+        return 0;
+    }
+
+    private static String valeurEtiquette(String ligne) {
+        int a = ligne.indexOf('"');
+        int b = ligne.lastIndexOf('"');
+        return a >= 0 && b > a ? ligne.substring(a + 1, b) : "";
+    }
+
+    /** Résultat pour les Blancs, -1 si la partie n'est pas finie. */
+    private static int resultat(String valeur) {
+        return switch (valeur) {
+            case "1-0" -> GAIN;
+            case "0-1" -> PERTE;
+            case "1/2-1/2" -> NULLE;
+            default -> -1;
+        };
+    }
+
+    /** File bornée : bloque tant que les threads de rejeu sont en retard (sauf s'ils ont échoué). */
+    private static void mettre(BlockingQueue<Lot> file, Lot lot, List<Future<Void>> resultats) throws IOException {
+        try {
+            while (!file.offer(lot, 100, TimeUnit.MILLISECONDS)) {
+                for (Future<Void> f : resultats) {
+                    if (f.isDone())
+                        attendre(List.of(f));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("construction interrompue", e);
+        }
+    }
+
+    private static void attendre(List<Future<Void>> resultats) throws IOException {
+        try {
+            for (Future<Void> f : resultats)
+                f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("construction interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io)
+                throw io;
+            throw new IllegalStateException("erreur de rejeu", e.getCause());
+        }
+    }
+
+    /** Parties envoyées ensemble à un thread de rejeu. */
+    private static final class Lot {
+
+        static final Lot FIN = new Lot();
+
+        final String[] textes = new String[PARTIES_PAR_LOT];
+        final String[] fens = new String[PARTIES_PAR_LOT];
+        final int[] resultats = new int[PARTIES_PAR_LOT];
+        int n;
+    }
+
+    // ------------------------------------------------------------------
+    // Rejeu
+    // ------------------------------------------------------------------
+
+    /** Un thread de rejeu : sa table de comptes et ses fichiers temporaires. */
+    private final class Rejeu implements Callable<Void> {
+
+        private final BlockingQueue<Lot> file;
+        private final Path repertoire;
+        private final int numero;
+        private final Comptes comptes = new Comptes(entreesParThread);
+        final List<Path> runs = new ArrayList<>();
+        long parties;
+        long ignorees;
+        long positions;
+
+        Rejeu(BlockingQueue<Lot> file, Path repertoire, int numero) {
+            this.file = file;
+            this.repertoire = repertoire;
+            this.numero = numero;
+        }
+
+        @Override
+        public Void call() throws IOException, InterruptedException {
+            while (true) {
+                Lot lot = file.take();
+                if (lot == Lot.FIN)
+                    break;
+                for (int i = 0; i < lot.n; i++)
+                    rejouer(lot.textes[i], lot.fens[i], lot.resultats[i]);
+            }
+            if (comptes.taille > 0)
+                vider();
+            return null;
+        }
+
+        private void rejouer(String texte, String fen, int resultatBlancs) throws IOException {
+            Plateau p;
+            try {
+                p = fen == null ? Plateau.positionInitiale() : Plateau.depuisFEN(fen);
+            } catch (RuntimeException e) {
+                ignorees++;
+                return;
+            }
+            parties++;
+            int ply = 0;
+            int i = 0;
+            int n = texte.length();
+            while (ply < plies && i < n) {
+                char c = texte.charAt(i);
+                if (c == '{') {
+                    int f = texte.indexOf('}', i);
+                    i = f < 0 ? n : f + 1;
+                } else if (c == ';') {
+                    int f = texte.indexOf('\n', i);
+                    i = f < 0 ? n : f + 1;
+                } else if (c == '(') {
+                    i = finVariante(texte, i);
+                } else if (Character.isWhitespace(c) || c == '.') {
+                    i++;
+                } else {
+                    int f = i;
+                    while (f < n && !Character.isWhitespace(texte.charAt(f)) && "{;(".indexOf(texte.charAt(f)) < 0)
+                        f++;
+                    // Numéro de coup (\d+\.+), seul ou collé au coup : "12.", "12...e5"
+                    int d = i;
+                    while (d < f && Character.isDigit(texte.charAt(d)))
+                        d++;
+                    if (d > i && d < f && texte.charAt(d) == '.') {
+                        while (d < f && texte.charAt(d) == '.')
+                            d++;
+                        i = d;
+                    }
+                    String jeton = texte.substring(i, f);
+                    i = f;
+                    if (jeton.isEmpty() || jeton.charAt(0) == '$')
+                        continue;
+                    // Résultat : fin de la partie ("0-0" et "0-0-0" sont des roques)
+                    if (jeton.equals("1-0") || jeton.equals("0-1") || jeton.equals("1/2-1/2") || jeton.equals("*"))
+                        break;
+                    List<Coup> legaux = GenerateurCoups.genererLegaux(p);
+                    Coup coup = NotationEchecs.depuisSAN(jeton, legaux);
+                    if (coup == null)
+                        break;
+                    int resultat = p.trait() == Couleur.BLANC ? resultatBlancs : PERTE - resultatBlancs;
+                    if (!comptes.ajouter(polyglot.cle(p), Polyglot.encoder(coup), resultat))
+                        vider();
+                    positions++;
+                    p.jouer(coup);
+                    ply++;
+                }
+            }
+        }
+
+        /** Écrit la table triée dans un nouveau fichier temporaire et la vide. */
+        private void vider() throws IOException {
+            Path run = repertoire.resolve("run-" + numero + "-" + runs.size());
+            comptes.ecrire(run);
+            runs.add(run);
+        }
+    }
+
+    /** Position après la parenthèse fermante d'une variante (imbriquée ou non). */
+    private static int finVariante(String texte, int i) {
+        int profondeur = 0;
+        for (int n = texte.length(); i < n; i++) {
+            char c = texte.charAt(i);
+            if (c == '{') {
+                int f = texte.indexOf('}', i);
+                if (f < 0)
+                    return n;
+                i = f;
+            } else if (c == '(') {
+                profondeur++;
+            } else if (c == ')' && --profondeur == 0) {
+                return i + 1;
+            }
+        }
+        return texte.length();
+    }
+
+    /**
+     * <p>
+     * Comptes par (clé, coup) d'un thread : adressage ouvert, au plus à
+     * moitié plein ; trié par clé (non signée) puis coup à l'écriture.
+     * </p>
+     */
+    private static final class Comptes {
+
+        private final int maximum;
+        private final int masque;
+        private final long[] cles;
+        private final int[] coups;
+        private final int[][] resultats = new int[3][];
+        int taille;
+
+        Comptes(int maximum) {
+            int capacite = Integer.highestOneBit(maximum - 1) << 2;
+            this.maximum = maximum;
+            this.masque = capacite - 1;
+            cles = new long[capacite];
+            coups = new int[capacite];
+            Arrays.fill(coups, -1);
+            for (int r = 0; r < 3; r++)
+                resultats[r] = new int[capacite];
+        }
+
+        /** Ajoute une partie ; faux si la table est pleine (à vider). */
+        boolean ajouter(long cle, int coup, int resultat) {
+            long h = (cle ^ coup * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+            int i = (int) (h >>> 40) & masque;
+            while (coups[i] >= 0 && (cles[i] != cle || coups[i] != coup))
+                i = (i + 1) & masque;
+            if (coups[i] < 0) {
+                cles[i] = cle;
+                coups[i] = coup;
+                taille++;
+            }
+            resultats[resultat][i]++;
+            return taille < maximum;
+        }
+
+        void ecrire(Path fichier) throws IOException {
+            // Tassement des entrées au début des tableaux, puis tri
+            int n = 0;
+            for (int i = 0; i <= masque; i++) {
+                if (coups[i] < 0)
+                    continue;
+                if (i != n)
+                    echanger(i, n);
+                n++;
+            }
+            trier(0, n - 1);
+            try (DataOutputStream sortie = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(fichier), 1 << 16))) {
+                for (int i = 0; i < n; i++)
+                    Enregistrement.ecrire(sortie, cles[i], coups[i], resultats[GAIN][i], resultats[NULLE][i],
+                            resultats[PERTE][i]);
+            }
+            Arrays.fill(coups, -1);
+            for (int r = 0; r < 3; r++)
+                Arrays.fill(resultats[r], 0);
+            taille = 0;
+        }
+
+        private void trier(int bas, int haut) {
+            while (haut - bas > 16) {
+                int m = (bas + haut) >>> 1;
+                long pivotCle = cles[m];
+                int pivotCoup = coups[m];
+                int i = bas;
+                int j = haut;
+                while (i <= j) {
+                    while (comparer(i, pivotCle, pivotCoup) < 0)
+                        i++;
+                    while (comparer(j, pivotCle, pivotCoup) > 0)
+                        j--;
+                    if (i <= j)
+                        echanger(i++, j--);
+                }
+                // Récursion sur la plus petite partie : pile bornée
+                if (j - bas < haut - i) {
+                    trier(bas, j);
+                    bas = i;
+                } else {
+                    trier(i, haut);
+                    haut = j;
+                }
+            }
+            for (int i = bas + 1; i <= haut; i++) {
+                for (int j = i; j > bas && comparer(j - 1, cles[j], coups[j]) > 0; j--)
+                    echanger(j, j - 1);
+            }
+        }
+
+        private int comparer(int i, long cle, int coup) {
+            int c = Long.compareUnsigned(cles[i], cle);
+            return c != 0 ? c : Integer.compare(coups[i], coup);
+        }
+
+        private void echanger(int i, int j) {
+            long c = cles[i];
+            cles[i] = cles[j];
+            cles[j] = c;
+            int k = coups[i];
+            coups[i] = coups[j];
+            coups[j] = k;
+            for (int[] r : resultats) {
+                int v = r[i];
+                r[i] = r[j];
+                r[j] = v;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Fusion
+    // ------------------------------------------------------------------
+
+    /** Fusionne les fichiers temporaires dans le livre ; renvoie le nombre d'entrées écrites. */
+    private long fusionner(List<Path> runs, Path temporaire, Path sortie) throws IOException {
+        // Trop de fichiers ouverts à la fois : fusions intermédiaires
+        int passe = 0;
+        while (runs.size() > FUSION_MAX) {
+            List<Path> suivants = new ArrayList<>();
+            for (int i = 0; i < runs.size(); i += FUSION_MAX) {
+                List<Path> paquet = runs.subList(i, Math.min(runs.size(), i + FUSION_MAX));
+                Path fusion = temporaire.resolve("fusion-" + passe + "-" + suivants.size());
+                try (DataOutputStream s = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(fusion), 1 << 16))) {
+                    fusionner(paquet, (cle, coup, g, n, p) -> Enregistrement.ecrire(s, cle, coup, g, n, p));
+                }
+                for (Path r : paquet)
+                    Files.delete(r);
+                suivants.add(fusion);
+            }
+            runs = suivants;
+            passe++;
+        }
+
+        Path provisoire = sortie.resolveSibling(sortie.getFileName() + ".tmp");
+        long entrees;
+        try (DataOutputStream s = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(provisoire), 1 << 16))) {
+            EcrivainLivre livre = new EcrivainLivre(s);
+            fusionner(runs, livre);
+            livre.finir();
+            entrees = livre.entrees;
+        }
+        Files.move(provisoire, sortie, StandardCopyOption.REPLACE_EXISTING);
+        return entrees;
+    }
+
+    /** Fusion k-voies : chaque (clé, coup) sort une fois, comptes sommés, dans l'ordre. */
+    private static void fusionner(List<Path> runs, Destination destination) throws IOException {
+        PriorityQueue<Curseur> tas = new PriorityQueue<>();
+        List<Curseur> ouverts = new ArrayList<>();
+        try {
+            for (Path r : runs) {
+                Curseur c = new Curseur(r);
+                ouverts.add(c);
+                if (c.avancer())
+                    tas.add(c);
+            }
+            while (!tas.isEmpty()) {
+                Curseur c = tas.poll();
+                long cle = c.cle;
+                int coup = c.coup;
+                long g = c.gains;
+                long n = c.nulles;
+                long p = c.pertes;
+                if (c.avancer())
+                    tas.add(c);
+                while (!tas.isEmpty() && tas.peek().cle == cle && tas.peek().coup == coup) {
+                    Curseur d = tas.poll();
+                    g += d.gains;
+                    n += d.nulles;
+                    p += d.pertes;
+                    if (d.avancer())
+                        tas.add(d);
+                }
+                destination.accepter(cle, coup, sature(g), sature(n), sature(p));
+            }
+        } finally {
+            for (Curseur c : ouverts)
+                c.entree.close();
+        }
+    }
+
+    private static int sature(long v) {
+        return (int) Math.min(v, Integer.MAX_VALUE);
+    }
+
+    @FunctionalInterface
+    private interface Destination {
+        void accepter(long cle, int coup, int gains, int nulles, int pertes) throws IOException;
+    }
+
+    /** Format des fichiers temporaires : clé, coup, gains, nulles, pertes (22 octets). */
+    private static final class Enregistrement {
+
+        private Enregistrement() {
+        }
+
+        static void ecrire(DataOutputStream s, long cle, int coup, int gains, int nulles, int pertes)
+                throws IOException {
+            s.writeLong(cle);
+            s.writeShort(coup);
+            s.writeInt(gains);
+            s.writeInt(nulles);
+            s.writeInt(pertes);
+        }
+    }
+
+    /** Lecture séquentielle d'un fichier temporaire. */
+    private static final class Curseur implements Comparable<Curseur> {
+
+        final DataInputStream entree;
+        long cle;
+        int coup;
+        int gains;
+        int nulles;
+        int pertes;
+
+        Curseur(Path fichier) throws IOException {
+            entree = new DataInputStream(new BufferedInputStream(Files.newInputStream(fichier), 1 << 16));
+        }
+
+        boolean avancer() throws IOException {
+            try {
+                cle = entree.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            coup = entree.readUnsignedShort();
+            gains = entree.readInt();
+            nulles = entree.readInt();
+            pertes = entree.readInt();
+            return true;
+        }
+
+        @Override
+        public int compareTo(Curseur autre) {
+            int c = Long.compareUnsigned(cle, autre.cle);
+            return c != 0 ? c : Integer.compare(coup, autre.coup);
+        }
+    }
+
+    /**
+     * <p>
+     * Écrit les entrées Polyglot, une position à la fois : coups filtrés
+     * ({@code partiesMin}, poids nul), poids ramenés sous 65535, du plus
+     * joué au moins joué.
+     * </p>
+     */
+    private final class EcrivainLivre implements Destination {
+
+        private final DataOutputStream sortie;
+        private long cle;
+        private int n;
+        private int[] coups = new int[64];
+        private long[] scores = new long[64];
+        long entrees;
+
+        EcrivainLivre(DataOutputStream sortie) {
+            this.sortie = sortie;
+        }
+
+        @Override
+        public void accepter(long cle, int coup, int gains, int nulles, int pertes) throws IOException {
+            if (n > 0 && cle != this.cle)
+                finir();
+            this.cle = cle;
+            long parties = (long) gains + nulles + pertes;
+            long score = 2L * gains + nulles;
+            if (parties < partiesMin || score == 0)
+                return;
+            if (n == coups.length) {
+                coups = Arrays.copyOf(coups, n * 2);
+                scores = Arrays.copyOf(scores, n * 2);
+            }
+            coups[n] = coup;
+            scores[n++] = score;
+        }
+
+        void finir() throws IOException {
+            long max = 0;
+            for (int i = 0; i < n; i++)
+                max = Math.max(max, scores[i]);
+            // Tri par score décroissant (quelques coups par position)
+            for (int i = 1; i < n; i++) {
+                for (int j = i; j > 0 && scores[j] > scores[j - 1]; j--) {
+                    long s = scores[j];
+                    scores[j] = scores[j - 1];
+                    scores[j - 1] = s;
+                    int c = coups[j];
+                    coups[j] = coups[j - 1];
+                    coups[j - 1] = c;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                long poids = max > POIDS_MAX ? Math.max(1, scores[i] * POIDS_MAX / max) : scores[i];
+                sortie.writeLong(cle);
+                sortie.writeShort(coups[i]);
+                sortie.writeShort((int) poids);
+                sortie.writeInt(0);
+                entrees++;
+            }
+            n = 0;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Divers
+    // ------------------------------------------------------------------
+
+    /** Somme des pics d'occupation des zones du tas depuis le début de la construction. */
+    private static long picDuTas() {
+        long pic = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null)
+                pic += pool.getPeakUsage().getUsed();
+        }
+        return pic;
+    }
+
+    private static void supprimer(Path repertoire) throws IOException {
+        if (!Files.exists(repertoire))
+            return;
+        try (var fichiers = Files.list(repertoire)) {
+            for (Path f : (Iterable<Path>) fichiers::iterator)
+                Files.deleteIfExists(f);
+        }
+        Files.deleteIfExists(repertoire);
+    }
+}
@@ -2,8 +2,7 @@ package org.example.AI;
 
 import org.example.chess.*;
 import org.example.AI.evaluation.*;
-
-import java.util.List;
+import org.example.AI.nnue.EvaluationNnue;
 
 /**
  * <p>
@@ -15,8 +14,64 @@ import java.util.List;
  * </p>
  * <ul>
  * <li><b>Début/Milieu</b> : matériel + mobilité</li>
- * <li><b>Finale</b> : matériel + activité du roi + pions avancés/poussés</li>
+ * <li><b>Finale</b> : matériel + mobilité + activité du roi + pions avancés/poussés</li>
  * </ul>
+ *
+ * <p>
+ * La structure de pions (passés, isolés, doublés, arriérés) vient de la
+ * table de hachage des pions du thread ({@link TablePions}), qui fournit
+ * aussi les attaques de pions.
+ * </p>
+ *
+ * <p>
+ * Mobilité, sécurité du roi et menaces partagent les attaques de toutes les
+ * pièces, calculées une fois par noeud dans le tampon du thread
+ * ({@link InfosAttaques}).
+ * </p>
+ *
+ * <p>
+ * Matériel, tables pièce-case et bonus de finale liés à la case sont tenus à
+ * jour par le plateau (scores milieu/finale packés + phase entière) : la
+ * feuille ne fait plus qu'une interpolation entière.
+ * </p>
+ *
+ * <p>
+ * Aucune génération de coups ici : mat et pat sont détectés par la recherche
+ * (la quiescence cherche les parades quand le camp au trait est en échec),
+ * et la mobilité vient des bitboards d'attaque.
+ * </p>
+ *
+ * <p>
+ * {@link #evaluer(Plateau, int, int)} est l'entrée "paresseuse" de la
+ * quiescence : matériel, tables et structure de pions d'abord ; si les
+ * termes d'attaque, bornés par leur amplitude maximale, ne peuvent plus
+ * ramener le score dans la fenêtre, on renvoie une borne sans calculer les
+ * attaques.
+ * </p>
+ *
+ * <p>
+ * La signature de matériel ({@link TableMateriel}) donne les déséquilibres
+ * (paire de fous...), les facteurs d'échelle des finales peu gagnables, et
+ * reconnaît les finales évaluées directement ({@link FinalesConnues} :
+ * nulles mortes, KBNK, tour ou dame contre roi seul, roi et pion contre
+ * roi d'après {@link BitbaseKpk}).
+ * </p>
+ *
+ * <p>
+ * Un cache partagé (clé de Zobrist → score) évite de réévaluer les positions
+ * déjà vues, d'une itération ou d'un thread à l'autre.
+ * </p>
+ *
+ * <p>
+ * En mode {@link ModeEvaluation#NNUE}, le score vient du réseau de neurones
+ * ({@link EvaluationNnue}) ; les clés du cache sont alors décalées pour que
+ * les deux évaluations ne se mélangent pas lors d'un match A/B.
+ * </p>
+ *
+ * <p>
+ * Avec {@code -Dchess.eval.profil=true}, chaque appel alimente
+ * {@link ProfilEvaluation} (temps et contribution par terme).
+ * </p>
  */
 public final class Evaluation {
 
@@ -28,37 +83,205 @@ public final class Evaluation {
 
     public static final int SCORE_MAT = 1_000_000;
 
+    private static volatile CacheEvaluation cache = new CacheEvaluation(1 << 18);
+    private static volatile ModeEvaluation mode = ModeEvaluation.CLASSIQUE;
+
+    // Distingue les entrées du cache écrites par le réseau
+    private static final long SEL_NNUE = 0x9E3779B97F4A7C15L;
+
+    static {
+        PieceSquareTable.installer();
+        // Roi et pion contre roi : table générée en fond, sondée dès qu'elle est prête
+        BitbaseKpk.lancer();
+    }
+
     private Evaluation() {
     }
 
     public static int evaluer(Plateau plateau) {
+        return evaluer(plateau, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * <p>
+     * Évaluation avec sortie anticipée hors de la fenêtre [alpha, beta]
+     * (scores du point de vue des Blancs, comme la recherche).
+     * </p>
+     *
+     * <p>
+     * Si le score est forcément {@code <= alpha}, renvoie une borne haute
+     * {@code <= alpha} ; s'il est forcément {@code >= beta}, une borne basse
+     * {@code >= beta}. Sinon le score exact. Seuls les scores exacts vont au
+     * cache.
+     * </p>
+     */
+    public static int evaluer(Plateau plateau, int alpha, int beta) {
         if (plateau == null)
             throw new IllegalArgumentException("plateau null");
 
-        List<Coup> coupsLegaux = GenerateurCoups.genererLegaux(plateau);
-        if (coupsLegaux.isEmpty()) {
-            boolean enEchec = plateau.estEnEchec(plateau.trait());
-            if (enEchec) {
-                return (plateau.trait() == Couleur.BLANC) ? -SCORE_MAT : SCORE_MAT;
+        // Profilage : constante fausse par défaut, branches supprimées par le JIT
+        ProfilEvaluation profil = ProfilEvaluation.ACTIF ? ProfilEvaluation.duThread() : null;
+        if (profil != null)
+            profil.appel();
+
+        CacheEvaluation c = cache;
+        boolean nnue = (mode == ModeEvaluation.NNUE);
+        long cle = nnue ? plateau.cle() ^ SEL_NNUE : plateau.cle();
+        int enCache = c.sonder(cle);
+        if (enCache != CacheEvaluation.ABSENT) {
+            if (profil != null)
+                profil.succesCache();
+            return enCache;
+        }
+        long t = profil != null ? profil.debutMesure() : 0L;
+
+        // Finales reconnues d'après la signature de matériel : score direct
+        TableMateriel materiel = TableMateriel.courante();
+        int cleMateriel = TableMateriel.cle(plateau);
+        int reconnu = FinalesConnues.evaluer(plateau, materiel.finale(cleMateriel));
+        if (reconnu != FinalesConnues.ABSENT) {
+            c.stocker(cle, reconnu);
+            if (profil != null)
+                profil.finaleReconnue();
+            return reconnu;
+        }
+
+        if (nnue) {
+            int score = EvaluationNnue.evaluer(plateau);
+            c.stocker(cle, score);
+            if (profil != null) {
+                profil.mesurer(ProfilEvaluation.Terme.RESEAU, t);
+                profil.reseau(score);
+            }
+            return score;
+        }
+
+        int packe = plateau.scorePacke();
+        assert packe == PieceSquareTable.scorePackeComplet(plateau) : "scores incrémentaux désynchronisés";
+
+        int phase = Math.min(plateau.phase(), ScoresIncrementaux.PHASE_MAX);
+        int desequilibre = materiel.desequilibre(plateau, cleMateriel);
+        packe += desequilibre;
+        int facteurBlanc = materiel.facteur(plateau, cleMateriel, true);
+        int facteurNoir = materiel.facteur(plateau, cleMateriel, false);
+        if (profil != null)
+            t = profil.mesurer(ProfilEvaluation.Terme.MATERIEL, t);
+
+        TablePions pions = TablePions.duThread();
+        int entree = pions.sonder(plateau);
+        packe += pions.score(entree);
+        if (profil != null)
+            t = profil.mesurer(ProfilEvaluation.Terme.PIONS, t);
+
+        // Sortie paresseuse : les termes d'attaque restent dans [-amplitude noire, +amplitude blanche],
+        // et le score final croît avec chacun d'eux (facteurs d'échelle positifs)
+        long attaquesPionsBlancs = pions.attaques(entree, true);
+        long attaquesPionsNoirs = pions.attaques(entree, false);
+        int borneHaute = interpoler(packe + amplitudeAttaques(plateau, attaquesPionsBlancs, attaquesPionsNoirs, true),
+                phase, facteurBlanc, facteurNoir);
+        if (borneHaute <= alpha) {
+            if (profil != null) {
+                profil.mesurer(ProfilEvaluation.Terme.ATTAQUES, t);
+                profil.sortieParesseuse();
             }
-            return 0; // pat
+            return borneHaute;
         }
+        int borneBasse = interpoler(packe - amplitudeAttaques(plateau, attaquesPionsBlancs, attaquesPionsNoirs, false),
+                phase, facteurBlanc, facteurNoir);
+        if (borneBasse >= beta) {
+            if (profil != null) {
+                profil.mesurer(ProfilEvaluation.Terme.ATTAQUES, t);
+                profil.sortieParesseuse();
+            }
+            return borneBasse;
+        }
+
+        InfosAttaques infos = InfosAttaques.duThread();
+        infos.calculer(plateau, attaquesPionsBlancs, attaquesPionsNoirs);
+        if (profil != null)
+            t = profil.mesurer(ProfilEvaluation.Terme.ATTAQUES, t);
+
+        int mobilite = Mobilite.scoreMobilite(infos);
+        if (profil != null)
+            t = profil.mesurer(ProfilEvaluation.Terme.MOBILITE, t);
+        int securite = SecuriteRoi.scoreSecurite(plateau, infos);
+        if (profil != null)
+            t = profil.mesurer(ProfilEvaluation.Terme.SECURITE, t);
+        int menaces = Menaces.scoreMenaces(plateau, infos);
+        if (profil != null)
+            profil.mesurer(ProfilEvaluation.Terme.MENACES, t);
 
-        double phase = GamePhase.calculerPhase(plateau);
+        packe += mobilite + securite + menaces;
+        int score = interpoler(packe, phase, facteurBlanc, facteurNoir);
+        c.stocker(cle, score);
+        if (profil != null)
+            profil.classique(plateau, phase, desequilibre, pions.score(entree), mobilite, securite, menaces);
+        return score;
+    }
 
-        int scoreDebut = 0;
-        scoreDebut += Materiel.scoreMateriel(plateau);
-        scoreDebut += Mobilite.scoreMobilite(plateau);
+    /** Amplitude maximale (packée) des termes calculés à partir des attaques. */
+    private static int amplitudeAttaques(Plateau plateau, long attaquesPionsBlancs, long attaquesPionsNoirs,
+            boolean hausse) {
+        return Mobilite.amplitudeMax(plateau, hausse)
+                + SecuriteRoi.amplitudeMax(plateau, attaquesPionsBlancs, attaquesPionsNoirs, hausse)
+                + Menaces.amplitudeMax(plateau, attaquesPionsBlancs, attaquesPionsNoirs, hausse);
+    }
 
-        int scoreFinale = 0;
-        scoreFinale += Materiel.scoreMateriel(plateau);
-        scoreFinale += SecuriteRoi.scoreRoiActifFinale(plateau);
-        scoreFinale += StructurePions.scorePionsFinale(plateau);
+    /**
+     * Interpolation entière milieu/finale d'un score packé, la partie finale
+     * réduite par le facteur d'échelle du camp qu'elle avantage.
+     */
+    private static int interpoler(int packe, int phase, int facteurBlanc, int facteurNoir) {
+        int eg = ScoresIncrementaux.eg(packe);
+        eg = eg * (eg > 0 ? facteurBlanc : facteurNoir) / TableMateriel.FACTEUR_NORMAL;
+        return (ScoresIncrementaux.mg(packe) * phase + eg * (ScoresIncrementaux.PHASE_MAX - phase))
+                / ScoresIncrementaux.PHASE_MAX;
+    }
 
-        double score = phase * scoreDebut + (1.0 - phase) * scoreFinale;
+    public static ModeEvaluation mode() {
+        return mode;
+    }
 
-        score += PieceSquareTable.scorePositionnelPieceSquare(plateau, phase);
+    /**
+     * <p>
+     * Choisit l'évaluation des prochaines recherches (tous threads) ; à
+     * appeler hors recherche.
+     * </p>
+     *
+     * <p>
+     * Un changement de mode efface la table de transposition, les
+     * historiques et la variante précédente
+     * ({@link RechercheMinimaxAlphaBeta#reinitialiserEtat()}) : ils ne
+     * disent pas quelle évaluation les a écrits, et un match A/B ne doit pas
+     * laisser un camp chercher avec les scores et les bornes de l'autre.
+     * </p>
+     *
+     * @throws IllegalStateException mode NNUE sans réseau chargé
+     */
+    public static void definirMode(ModeEvaluation nouveau) {
+        if (nouveau == null)
+            throw new IllegalArgumentException("mode null");
+        if (nouveau == ModeEvaluation.NNUE && !EvaluationNnue.estCharge())
+            throw new IllegalStateException("aucun réseau NNUE chargé");
+        if (nouveau == mode)
+            return;
+        mode = nouveau;
+        RechercheMinimaxAlphaBeta.reinitialiserEtat();
+    }
+
+    public static CacheEvaluation cache() {
+        return cache;
+    }
 
-        return (int) Math.round(score);
+    /**
+     * <p>
+     * Remplace le cache d'évaluation (nouvelle taille) ; à appeler hors
+     * recherche.
+     * </p>
+     *
+     * @param entrees nombre d'entrées
+     */
+    public static void redimensionnerCache(int entrees) {
+        cache = new CacheEvaluation(entrees);
     }
 }
@@ -0,0 +1,14 @@
+package org.example.AI;
+
+/**
+ * <p>
+ * Fonction d'évaluation utilisée par les recherches (voir
+ * {@link Evaluation#definirMode(ModeEvaluation)}).
+ * </p>
+ */
+public enum ModeEvaluation {
+    /** Termes écrits à la main (matériel, tables, pions, mobilité). */
+    CLASSIQUE,
+    /** Réseau de neurones HalfKP (org.example.AI.nnue), s'il est chargé. */
+    NNUE
+}
@@ -0,0 +1,15 @@
+package org.example.AI;
+
+/**
+ * <p>
+ * Moteurs de recherche disponibles pour l'IA.
+ * </p>
+ */
+public enum Moteur {
+    /** Iterative deepening + Alpha-Bêta (moteur par défaut). */
+    ALPHA_BETA,
+    /** Solveur de mat (nombres de preuve), repli sur Alpha-Bêta. */
+    SOLVEUR_MAT,
+    /** Monte Carlo Tree Search (PUCT), parallélisme d'arbre. */
+    MCTS
+}
@@ -0,0 +1,215 @@
+package org.example.AI;
+
+import org.example.chess.Coup;
+import org.example.chess.Plateau;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>
+ * Livre d'ouvertures au format Polyglot ({@code .bin}) : entrées de 16
+ * octets (clé sur 8, coup sur 2, poids sur 2, apprentissage sur 4), en
+ * gros-boutiste et triées par clé ({@link Polyglot}).
+ * </p>
+ *
+ * <p>
+ * Le fichier est projeté en mémoire par segments de 1 Gio, sans rien
+ * copier : un livre de plusieurs centaines de Mo s'ouvre immédiatement.
+ * Une recherche calcule la clé de la position, trouve par dichotomie la
+ * première entrée de cette clé, puis tire un coup au hasard en proportion
+ * des poids ; O(log n) lectures, sans allocation.
+ * </p>
+ *
+ * <p>
+ * Le livre courant ({@link #getInstance()}) est celui de la propriété
+ * {@code -Dchess.book=...}, remplacé par {@link #load(String)} ; sans
+ * livre, l'instance courante est vide ({@link #isLoaded()} faux). Le
+ * format ne donne pas de noms d'ouvertures : {@link #getLastOpeningName()}
+ * renvoie le nom du livre dont vient le dernier coup.
+ * </p>
+ */
+public final class OpeningBook {
+
+    public static final String PROPRIETE_CHEMIN = "chess.book";
+
+    private static final int TAILLE_ENTREE = 16;
+    // Multiple de la taille d'une entrée : aucune entrée n'est à cheval sur deux segments
+    private static final int SEGMENT = 1 << 30;
+
+    private static final OpeningBook VIDE = new OpeningBook(null, null, new MappedByteBuffer[0], 0);
+
+    private static volatile OpeningBook instance = VIDE;
+
+    static {
+        String chemin = System.getProperty(PROPRIETE_CHEMIN);
+        if (chemin != null && !chemin.isBlank())
+            load(chemin);
+    }
+
+    private final Polyglot polyglot;
+    private final String nom;
+    private final MappedByteBuffer[] segments;
+    private final long nbEntrees;
+    private volatile String derniereOuverture;
+
+    private OpeningBook(Polyglot polyglot, String nom, MappedByteBuffer[] segments, long nbEntrees) {
+        this.polyglot = polyglot;
+        this.nom = nom;
+        this.segments = segments;
+        this.nbEntrees = nbEntrees;
+    }
+
+    /** Livre courant (jamais null ; vide si aucun livre n'est chargé). */
+    public static OpeningBook getInstance() {
+        return instance;
+    }
+
+    /**
+     * <p>
+     * Ouvre un livre et en fait le livre courant. En cas d'échec (fichier
+     * illisible ou mal formé, table Random64 absente), le message est
+     * affiché, le livre courant est gardé et un livre vide est renvoyé.
+     * </p>
+     */
+    public static OpeningBook load(String chemin) {
+        if (chemin == null || chemin.isBlank())
+            throw new IllegalArgumentException("chemin du livre vide");
+        try {
+            OpeningBook livre = ouvrir(Path.of(chemin));
+            instance = livre;
+            System.out.println("Livre d'ouvertures : " + livre.nbEntrees + " entrees (" + livre.nom + ")");
+            return livre;
+        } catch (IOException e) {
+            System.err.println("Livre d'ouvertures non charge (" + chemin + ") : " + e.getMessage());
+            return VIDE;
+        }
+    }
+
+    private static OpeningBook ouvrir(Path fichier) throws IOException {
+        Polyglot polyglot = Polyglot.standard();
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long taille = canal.size();
+            if (taille % TAILLE_ENTREE != 0)
+                throw new IOException("taille non multiple de " + TAILLE_ENTREE + " octets");
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((taille + SEGMENT - 1) / SEGMENT)];
+            for (int i = 0; i < segments.length; i++) {
+                long debut = (long) i * SEGMENT;
+                segments[i] = canal.map(FileChannel.MapMode.READ_ONLY, debut, Math.min(SEGMENT, taille - debut));
+            }
+            String nom = fichier.getFileName().toString();
+            if (nom.endsWith(".bin"))
+                nom = nom.substring(0, nom.length() - 4);
+            return new OpeningBook(polyglot, nom, segments, taille / TAILLE_ENTREE);
+        }
+    }
+
+    public boolean isLoaded() {
+        return nbEntrees > 0;
+    }
+
+    /** Nombre d'entrées (coups) du livre. */
+    public long taille() {
+        return nbEntrees;
+    }
+
+    /**
+     * <p>
+     * Coup du livre pour cette position, tiré en proportion des poids parmi
+     * ceux qui sont dans {@code legaux} (l'objet renvoyé en vient) ; null si
+     * la position n'est pas dans le livre ou si tous ses coups ont un poids
+     * nul.
+     * </p>
+     *
+     * @param ply demi-coups joués ; inutile au format Polyglot, où la clé
+     *            suffit (une position du livre l'est à tout moment de la
+     *            partie)
+     */
+    public Coup lookup(Plateau plateau, List<Coup> legaux, int ply) {
+        if (!isLoaded())
+            return null;
+        long cle = polyglot.cle(plateau);
+        long premiere = premiere(cle);
+        int total = 0;
+        for (long i = premiere; i < nbEntrees && cle(i) == cle; i++) {
+            if (coupLegal(coup(i), legaux) != null)
+                total += poids(i);
+        }
+        if (total == 0)
+            return null;
+        int tirage = ThreadLocalRandom.current().nextInt(total);
+        for (long i = premiere; i < nbEntrees && cle(i) == cle; i++) {
+            Coup coup = coupLegal(coup(i), legaux);
+            if (coup == null)
+                continue;
+            tirage -= poids(i);
+            if (tirage < 0) {
+                derniereOuverture = nom;
+                return coup;
+            }
+        }
+        return null;
+    }
+
+    /** Vrai si {@code coup} est un coup du livre (de poids non nul) dans cette position. */
+    public boolean contient(Plateau plateau, Coup coup) {
+        if (!isLoaded())
+            return false;
+        long cle = polyglot.cle(plateau);
+        for (long i = premiere(cle); i < nbEntrees && cle(i) == cle; i++) {
+            if (poids(i) > 0 && Polyglot.correspond(coup(i), coup)) {
+                derniereOuverture = nom;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Nom du livre dont vient le dernier coup trouvé, null avant le premier. */
+    public String getLastOpeningName() {
+        return derniereOuverture;
+    }
+
+    /** Indice de la première entrée de clé {@code cle} ou plus grande (ordre non signé). */
+    private long premiere(long cle) {
+        long bas = 0;
+        long haut = nbEntrees;
+        while (bas < haut) {
+            long milieu = (bas + haut) >>> 1;
+            if (Long.compareUnsigned(cle(milieu), cle) < 0)
+                bas = milieu + 1;
+            else
+                haut = milieu;
+        }
+        return bas;
+    }
+
+    private static Coup coupLegal(int code, List<Coup> legaux) {
+        for (int i = 0, n = legaux.size(); i < n; i++) {
+            Coup coup = legaux.get(i);
+            if (Polyglot.correspond(code, coup))
+                return coup;
+        }
+        return null;
+    }
+
+    private long cle(long i) {
+        long position = i * TAILLE_ENTREE;
+        return segments[(int) (position / SEGMENT)].getLong((int) (position % SEGMENT));
+    }
+
+    private int coup(long i) {
+        long position = i * TAILLE_ENTREE + 8;
+        return segments[(int) (position / SEGMENT)].getShort((int) (position % SEGMENT)) & 0xFFFF;
+    }
+
+    private int poids(long i) {
+        long position = i * TAILLE_ENTREE + 10;
+        return segments[(int) (position / SEGMENT)].getShort((int) (position % SEGMENT)) & 0xFFFF;
+    }
+}
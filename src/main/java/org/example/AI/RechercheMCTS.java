@@ -0,0 +1,366 @@
+package org.example.AI;
+
+import org.example.AI.evaluation.ProfilEvaluation;
+import org.example.AI.search.MoveSorter;
+import org.example.AI.search.Quiescence;
+import org.example.chess.*;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * Second moteur : Monte Carlo Tree Search avec sélection PUCT.
+ * </p>
+ *
+ * <ul>
+ * <li>Pas de partie aléatoire : la feuille est notée par la quiescence
+ * (donc {@link Evaluation#evaluer}), convertie en valeur dans [-1, 1]</li>
+ * <li>Parallélisme d'arbre : tous les coeurs descendent dans le même arbre,
+ * avec une <b>perte virtuelle</b> pour qu'ils ne suivent pas tous le même
+ * chemin</li>
+ * <li>Les noeuds sont stockés dans une arène (tableaux primitifs parallèles),
+ * pas un objet par noeud</li>
+ * <li>Une position répétée sur le chemin vaut nulle, sans être
+ * développée</li>
+ * </ul>
+ */
+public final class RechercheMCTS {
+
+    private static final int NUM_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService pool = Executors.newFixedThreadPool(NUM_THREADS, r -> {
+        Thread t = new Thread(r);
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Nombre maximal de noeuds de l'arène. */
+    private static final int CAPACITE = 1 << 20;
+
+    /** Constante d'exploration PUCT. */
+    private static final double C_PUCT = 1.5;
+
+    /**
+     * Priors : logit = note MVV-LVA / ECHELLE_PRIOR, borné à LOGIT_MAX. Une
+     * capture gagnante pèse au plus e^1.5 ≈ 4.5 fois un coup calme, qui garde
+     * donc un poids réel.
+     */
+    private static final double ECHELLE_PRIOR = 1000.0;
+    private static final double LOGIT_MAX = 1.5;
+
+    /** Échelle centipions -> valeur (tanh(score / ECHELLE)). */
+    private static final double ECHELLE_VALEUR = 400.0;
+
+    /** Valeurs stockées en virgule fixe pour les additions atomiques. */
+    private static final double VIRGULE_FIXE = 1 << 16;
+
+    private static final int PROFONDEUR_MAX = 256;
+
+    private static final AtomicBoolean JAMAIS = new AtomicBoolean(false);
+
+    private RechercheMCTS() {
+    }
+
+    public static Coup meilleurCoup(Plateau plateau, Niveau niveau) {
+        return meilleurCoup(plateau, niveau, null, null);
+    }
+
+    public static Coup meilleurCoup(Plateau plateau, Niveau niveau, org.example.gui.ProfilerPartie profiler,
+            Consumer<String> observateur) {
+        if (plateau == null)
+            throw new IllegalArgumentException("plateau null");
+        if (niveau == null)
+            throw new IllegalArgumentException("niveau null");
+
+        List<Coup> coups = GenerateurCoups.genererLegaux(plateau);
+        if (coups.isEmpty())
+            return null;
+        if (coups.size() == 1)
+            return coups.get(0);
+
+        long tempsMaxMs = switch (niveau) {
+            case FACILE -> 1000L;
+            case MOYEN -> 2500L;
+            case DIFFICILE -> 5000L;
+        };
+
+        long startTime = System.currentTimeMillis();
+        if (ProfilEvaluation.ACTIF)
+            ProfilEvaluation.remettreAZero();
+        AtomicBoolean timeIsUp = new AtomicBoolean(false);
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        timer.schedule(() -> timeIsUp.set(true), tempsMaxMs, TimeUnit.MILLISECONDS);
+
+        Arbre arbre = new Arbre(CAPACITE);
+        arbre.developper(0, plateau.copie());
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < NUM_THREADS; t++) {
+            futures.add(pool.submit(() -> arbre.travailler(plateau, timeIsUp)));
+        }
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException | ExecutionException e) {
+                timeIsUp.set(true);
+            }
+        }
+        timer.shutdownNow();
+
+        int meilleurEnfant = arbre.enfantLePlusVisite(0);
+        Coup meilleur = Coup.decoder(arbre.coup[meilleurEnfant]);
+
+        long tempsTotal = System.currentTimeMillis() - startTime;
+        int playouts = arbre.visitesRacine();
+
+        if (observateur != null) {
+            int debut = arbre.premierEnfant[0];
+            for (int i = debut; i < debut + arbre.nbEnfants[0]; i++) {
+                int n = arbre.visites(i);
+                if (n == 0)
+                    continue;
+                Coup c = Coup.decoder(arbre.coup[i]);
+                observateur.accept(String.format("MCTS: %s-%s (N: %d, Q: %.3f)",
+                        c.depart().versAlgebrique(), c.arrivee().versAlgebrique(), n, arbre.q(i)));
+            }
+        }
+
+        if (profiler != null) {
+            profiler.enregistrerCoup(plateau.trait() == Couleur.BLANC, tempsTotal, arbre.profondeurMax.get());
+        }
+
+        System.out.println(
+                "IA MCTS (" + niveau + ") a joue " + meilleur.depart().versAlgebrique() + "-"
+                        + meilleur.arrivee().versAlgebrique()
+                        + " (Playouts: " + playouts + ", Noeuds: " + arbre.prochainLibre.get()
+                        + ", Prof max: " + arbre.profondeurMax.get() + ", Temps: " + tempsTotal + "ms)");
+        if (ProfilEvaluation.ACTIF)
+            System.out.print(ProfilEvaluation.rapport());
+
+        return meilleur;
+    }
+
+    /**
+     * Arène de noeuds. Le noeud {@code i} est décrit par la case {@code i} de
+     * chaque tableau ; ses enfants sont contigus à partir de
+     * {@code premierEnfant[i]}.
+     */
+    private static final class Arbre {
+
+        private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+        private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+        private static final VarHandle OCTETS = MethodHandles.arrayElementVarHandle(byte[].class);
+
+        private static final byte NON_DEVELOPPE = 0;
+        private static final byte EN_COURS = 1;
+        private static final byte DEVELOPPE = 2;
+        private static final byte TERMINAL = 3;
+
+        private final int capacite;
+
+        /** Coup encodé menant au noeud ({@link Coup#encoder()}). */
+        final int[] coup;
+        final int[] premierEnfant;
+        final int[] nbEnfants;
+        final float[] prior;
+        /** Visites (perte virtuelle incluse pendant une descente). */
+        final int[] visites;
+        /** Somme des valeurs, du point de vue du camp qui a joué le coup. */
+        final long[] somme;
+        final byte[] etat;
+        /** Valeur exacte des noeuds terminaux (mat / pat). */
+        final float[] valeurTerminale;
+
+        final AtomicInteger prochainLibre = new AtomicInteger(1);
+        final AtomicInteger profondeurMax = new AtomicInteger(0);
+
+        Arbre(int capacite) {
+            this.capacite = capacite;
+            this.coup = new int[capacite];
+            this.premierEnfant = new int[capacite];
+            this.nbEnfants = new int[capacite];
+            this.prior = new float[capacite];
+            this.visites = new int[capacite];
+            this.somme = new long[capacite];
+            this.etat = new byte[capacite];
+            this.valeurTerminale = new float[capacite];
+        }
+
+        int visites(int noeud) {
+            return (int) INTS.getOpaque(visites, noeud);
+        }
+
+        int visitesRacine() {
+            int total = 0;
+            int debut = premierEnfant[0];
+            for (int i = debut; i < debut + nbEnfants[0]; i++) {
+                total += visites(i);
+            }
+            return total;
+        }
+
+        double q(int noeud) {
+            int n = visites(noeud);
+            if (n == 0)
+                return 0.0;
+            return ((long) LONGS.getOpaque(somme, noeud) / VIRGULE_FIXE) / n;
+        }
+
+        int enfantLePlusVisite(int noeud) {
+            int debut = premierEnfant[noeud];
+            int meilleur = debut;
+            for (int i = debut + 1; i < debut + nbEnfants[noeud]; i++) {
+                if (visites(i) > visites(meilleur))
+                    meilleur = i;
+            }
+            return meilleur;
+        }
+
+        /**
+         * Boucle d'un thread : descentes successives depuis sa propre copie
+         * de la racine jusqu'à la fin du temps ou une arène pleine.
+         */
+        void travailler(Plateau racine, AtomicBoolean timeIsUp) {
+            Plateau plateau = racine.copie();
+            int[] chemin = new int[PROFONDEUR_MAX + 1];
+            EtatPlateau[] sauvegardes = new EtatPlateau[PROFONDEUR_MAX];
+
+            while (!timeIsUp.get()) {
+                int longueur = 0;
+                int noeud = 0;
+                chemin[longueur++] = noeud;
+                boolean nulle = false;
+
+                // 1) Sélection (avec perte virtuelle)
+                while ((byte) OCTETS.getAcquire(etat, noeud) == DEVELOPPE && longueur <= PROFONDEUR_MAX) {
+                    int enfant = selectionner(noeud);
+                    INTS.getAndAdd(visites, enfant, 1);
+                    LONGS.getAndAdd(somme, enfant, -(long) VIRGULE_FIXE);
+                    sauvegardes[longueur - 1] = plateau.jouerAvecSauvegarde(Coup.decoder(coup[enfant]));
+                    chemin[longueur++] = enfant;
+                    noeud = enfant;
+                    // Nulle qui dépend du chemin : on s'arrête sans marquer le noeud (une
+                    // position répétée a des coups, elle ne peut pas être un mat)
+                    if (plateau.estRepetition()) {
+                        nulle = true;
+                        break;
+                    }
+                }
+
+                // 2) Développement + évaluation de la feuille
+                double valeur;
+                byte etatFeuille = (byte) OCTETS.getAcquire(etat, noeud);
+                if (nulle) {
+                    valeur = 0.0;
+                } else if (etatFeuille == TERMINAL) {
+                    valeur = valeurTerminale[noeud];
+                } else if (etatFeuille == NON_DEVELOPPE
+                        && OCTETS.compareAndSet(etat, noeud, NON_DEVELOPPE, EN_COURS)) {
+                    valeur = developper(noeud, plateau);
+                } else {
+                    // Un autre thread développe ce noeud (ou profondeur max) : simple évaluation
+                    valeur = evaluerFeuille(plateau);
+                }
+
+                // 3) Remontée : on retire la perte virtuelle et on ajoute la valeur
+                for (int k = longueur - 1; k >= 1; k--) {
+                    LONGS.getAndAdd(somme, chemin[k], (long) ((valeur + 1.0) * VIRGULE_FIXE));
+                    valeur = -valeur;
+                    plateau.annuler(sauvegardes[k - 1]);
+                }
+                INTS.getAndAdd(visites, 0, 1);
+
+                profondeurMax.accumulateAndGet(longueur - 1, Math::max);
+
+                if (prochainLibre.get() >= capacite - 256)
+                    break;
+            }
+        }
+
+        /**
+         * PUCT : Q + c * P * sqrt(N parent) / (1 + N enfant).
+         */
+        private int selectionner(int noeud) {
+            int debut = premierEnfant[noeud];
+            int fin = debut + nbEnfants[noeud];
+            double racineN = Math.sqrt(Math.max(1, visites(noeud)));
+
+            int meilleur = debut;
+            double meilleurScore = Double.NEGATIVE_INFINITY;
+            for (int i = debut; i < fin; i++) {
+                int n = visites(i);
+                double q = (n == 0) ? 0.0 : ((long) LONGS.getOpaque(somme, i) / VIRGULE_FIXE) / n;
+                double score = q + C_PUCT * prior[i] * racineN / (1 + n);
+                if (score > meilleurScore) {
+                    meilleurScore = score;
+                    meilleur = i;
+                }
+            }
+            return meilleur;
+        }
+
+        /**
+         * Crée les enfants du noeud et retourne la valeur de la feuille, du
+         * point de vue du camp qui vient de jouer pour y arriver.
+         */
+        double developper(int noeud, Plateau plateau) {
+            List<Coup> coups = GenerateurCoups.genererLegaux(plateau);
+            if (coups.isEmpty()) {
+                // Mat : le camp qui vient de jouer a gagné ; pat : nul
+                float v = plateau.estEnEchec(plateau.trait()) ? 1.0f : 0.0f;
+                valeurTerminale[noeud] = v;
+                OCTETS.setRelease(etat, noeud, TERMINAL);
+                return v;
+            }
+
+            int n = coups.size();
+            int debut = prochainLibre.getAndAdd(n);
+            if (debut + n > capacite) {
+                OCTETS.setRelease(etat, noeud, NON_DEVELOPPE);
+                return evaluerFeuille(plateau);
+            }
+
+            // Priors : softmax des notes MVV-LVA bornées (les coups calmes à 0)
+            double[] logits = new double[n];
+            double max = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < n; k++) {
+                logits[k] = Math.min(LOGIT_MAX, MoveSorter.evaluerCoupPourTri(coups.get(k), plateau) / ECHELLE_PRIOR);
+                max = Math.max(max, logits[k]);
+            }
+            double total = 0.0;
+            for (int k = 0; k < n; k++) {
+                logits[k] = Math.exp(logits[k] - max);
+                total += logits[k];
+            }
+
+            for (int k = 0; k < n; k++) {
+                int i = debut + k;
+                coup[i] = coups.get(k).encoder();
+                prior[i] = (float) (logits[k] / total);
+            }
+            premierEnfant[noeud] = debut;
+            nbEnfants[noeud] = n;
+            OCTETS.setRelease(etat, noeud, DEVELOPPE);
+
+            return evaluerFeuille(plateau);
+        }
+
+        /**
+         * Quiescence (centipions, point de vue des blancs) convertie en valeur
+         * dans [-1, 1] pour le camp qui vient de jouer.
+         */
+        private static double evaluerFeuille(Plateau plateau) {
+            int score = Quiescence.quiescenceSearch(plateau, -Evaluation.SCORE_MAT, Evaluation.SCORE_MAT,
+                    JAMAIS);
+            double v = Math.tanh(score / ECHELLE_VALEUR);
+            // Le trait est au camp qui n'a pas joué : on inverse pour les noirs au trait
+            return (plateau.trait() == Couleur.BLANC) ? -v : v;
+        }
+    }
+}
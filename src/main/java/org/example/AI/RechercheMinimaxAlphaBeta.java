@@ -1,8 +1,12 @@
 package org.example.AI;
 
+import org.example.AI.evaluation.ProfilEvaluation;
 import org.example.AI.search.AlphaBeta;
+import org.example.AI.search.ContexteRecherche;
 import org.example.AI.search.MoveSorter;
+import org.example.AI.search.TableTransposition;
 import org.example.AI.search.TimeOutException;
+import org.example.AI.tablebases.Syzygy;
 import org.example.chess.*;
 
 import java.util.*;
@@ -14,6 +18,12 @@ import java.util.function.Consumer;
  * Recherche avec Iterative Deepening Search (IDS), et limite de temps.
  * Orchestre multithreading et delegue un thread de temps et le Minimax a
  * AlphaBeta.
+ *
+ * L'etat du moteur (table de transposition, historique, variante principale)
+ * est conserve d'un coup a l'autre : si la position courante est sur la
+ * variante principale precedente, on repart pres de la profondeur deja
+ * atteinte avec le coup attendu en premier. Il n'est efface qu'en debut de
+ * partie ou si la position n'a plus de lien avec la recherche precedente.
  */
 public final class RechercheMinimaxAlphaBeta {
 
@@ -33,6 +43,12 @@ public final class RechercheMinimaxAlphaBeta {
     // Compteur de demi-coups joues
     private static volatile int currentPly = 0;
 
+    // Etat conserve entre deux recherches (voir preparerEtat)
+    private static Plateau racinePrecedente;
+    private static List<Coup> pvPrecedente = List.of();
+    private static long[] clesPvPrecedente = new long[0];
+    private static int profondeurPrecedente;
+
     private RechercheMinimaxAlphaBeta() {
     }
 
@@ -60,6 +76,19 @@ public final class RechercheMinimaxAlphaBeta {
         // Le ply commence a 0 au debut de la partie
         currentPly = 0;
         currentOpeningName = "Unknown";
+        reinitialiserEtat();
+    }
+
+    /**
+     * Oublie tout ce que le moteur a appris (table, historique, variante).
+     */
+    public static synchronized void reinitialiserEtat() {
+        AlphaBeta.table().effacer();
+        ContexteRecherche.effacerTous();
+        racinePrecedente = null;
+        pvPrecedente = List.of();
+        clesPvPrecedente = new long[0];
+        profondeurPrecedente = 0;
     }
 
     /**
@@ -67,13 +96,9 @@ public final class RechercheMinimaxAlphaBeta {
      */
     public static void verifierOuverture(Plateau plateauAvant, List<Coup> legauxAvant, Coup coupJoue) {
         OpeningBook book = OpeningBook.getInstance();
-        if (book != null && book.isLoaded() && currentPly <= 12) {
-            Coup expected = book.lookup(plateauAvant, legauxAvant, currentPly);
-            if (expected != null && expected.depart() == coupJoue.depart()
-                    && expected.arrivee() == coupJoue.arrivee()) {
-                if (book.getLastOpeningName() != null) {
-                    currentOpeningName = book.getLastOpeningName();
-                }
+        if (book.isLoaded() && book.contient(plateauAvant, coupJoue)) {
+            if (book.getLastOpeningName() != null) {
+                currentOpeningName = book.getLastOpeningName();
             }
         }
     }
@@ -103,9 +128,10 @@ public final class RechercheMinimaxAlphaBeta {
             return null;
 
         // ========== OPENING BOOK LOOKUP ==========
+        // Tant que la position est dans le livre, quel que soit le nombre de coups joues
         OpeningBook book = OpeningBook.getInstance();
 
-        if (book != null && book.isLoaded() && currentPly <= 12) {
+        if (book.isLoaded()) {
             Coup bookCoup = book.lookup(plateau, coups, currentPly);
             if (bookCoup != null) {
                 // Mise a jour du nom de l'ouverture pour la GUI
@@ -118,6 +144,14 @@ public final class RechercheMinimaxAlphaBeta {
         }
         // ========== END OPENING BOOK ==========
 
+        // Tables de finales : coup qui convertit le plus vite (distance DTZ), sans recherche
+        Coup coupTable = Syzygy.coupRacine(plateau, coups);
+        if (coupTable != null) {
+            System.out.println("[IA] Tablebase move: " + coupTable.depart().versAlgebrique() + "-"
+                    + coupTable.arrivee().versAlgebrique());
+            return coupTable;
+        }
+
         long tempsMaxMs = switch (niveau) {
             case FACILE -> 1000L;
             case MOYEN -> 2500L;
@@ -137,79 +171,42 @@ public final class RechercheMinimaxAlphaBeta {
 
         MoveSorter.trierCoups(coups, plateau);
 
+        // Profondeur de la derniere iteration terminee de cette recherche (0 si
+        // aucune) ; sans iteration terminee, le coup joue est celui de la
+        // recherche precedente ou le premier apres tri
         Coup meilleurGlobal = coups.get(0);
-        int profondeurAtteinte = 1;
+        int profondeurAtteinte = 0;
+        int profondeurDepart = 1;
+
+        // Reprise de la recherche precedente si la position etait prevue
+        Graine graine = preparerEtat(plateau, coups);
+        if (graine != null) {
+            meilleurGlobal = graine.coupAttendu();
+            profondeurDepart = Math.max(1, Math.min(graine.profondeur(), maxDepth));
+        }
+        AlphaBeta.table().nouvelleRecherche();
+        ContexteRecherche.remettreCompteursAZero();
+        Evaluation.cache().remettreCompteursAZero();
+        if (ProfilEvaluation.ACTIF)
+            ProfilEvaluation.remettreAZero();
 
         ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
         timer.schedule(() -> timeIsUp.set(true), tempsMaxMs, TimeUnit.MILLISECONDS);
 
-        for (int depth = 1; depth <= maxDepth; depth++) {
+        for (int depth = profondeurDepart; depth <= maxDepth; depth++) {
             if (timeIsUp.get())
                 break;
 
             try {
                 MoveSorter.placerEnPremier(coups, meilleurGlobal);
 
-                List<Future<MoveScore>> futures = new ArrayList<>();
-                final int currentDepth = depth;
-                for (Coup coup : coups) {
-                    Callable<MoveScore> task = () -> {
-                        Plateau copie = plateau.copie();
-                        copie.jouerAvecSauvegarde(coup);
-                        int alpha = -Evaluation.SCORE_MAT;
-                        int beta = Evaluation.SCORE_MAT;
-                        int eval = AlphaBeta.minimax(copie, currentDepth - 1, alpha, beta, timeIsUp);
-                        return new MoveScore(coup, eval);
-                    };
-                    futures.add(pool.submit(task));
-                }
-
-                int bestScoreIter = blancsJouent ? Integer.MIN_VALUE : Integer.MAX_VALUE;
-                Coup meilleurIter = null;
-                boolean searchAborted = false;
-
-                for (Future<MoveScore> future : futures) {
-                    try {
-                        MoveScore res = future.get();
-
-                        if (observateur != null) {
-                            String info = String.format("Prof %d: %s-%s (Score: %d)",
-                                    currentDepth,
-                                    res.coup.depart().versAlgebrique(),
-                                    res.coup.arrivee().versAlgebrique(),
-                                    res.score);
-                            observateur.accept(info);
-                        }
-
-                        if (blancsJouent) {
-                            if (res.score > bestScoreIter) {
-                                bestScoreIter = res.score;
-                                meilleurIter = res.coup;
-                            }
-                        } else {
-                            if (res.score < bestScoreIter) {
-                                bestScoreIter = res.score;
-                                meilleurIter = res.coup;
-                            }
-                        }
-                    } catch (ExecutionException e) {
-                        if (e.getCause() instanceof TimeOutException) {
-                            searchAborted = true;
-                        }
-                    } catch (InterruptedException e) {
-                        searchAborted = true;
-                    }
-                }
-
-                for (Future<MoveScore> future : futures) {
-                    future.cancel(true);
-                }
+                MoveScore res = chercherIteration(plateau, coups, depth, timeIsUp, observateur);
 
-                if (!searchAborted && !timeIsUp.get() && meilleurIter != null) {
-                    meilleurGlobal = meilleurIter;
+                if (res != null && !timeIsUp.get()) {
+                    meilleurGlobal = res.coup;
                     profondeurAtteinte = depth;
 
-                    if (Math.abs(bestScoreIter) >= Evaluation.SCORE_MAT - 100) {
+                    if (Math.abs(res.score) >= Evaluation.SCORE_MAT - 100) {
                         break;
                     }
                 } else {
@@ -223,6 +220,9 @@ public final class RechercheMinimaxAlphaBeta {
 
         timer.shutdownNow();
 
+        List<Coup> pv = extrairePV(plateau, meilleurGlobal, Math.max(1, profondeurAtteinte));
+        memoriserEtat(plateau, pv, profondeurAtteinte);
+
         long tempsTotal = System.currentTimeMillis() - startTime;
         if (profiler != null) {
             profiler.enregistrerCoup(blancsJouent, tempsTotal, profondeurAtteinte);
@@ -231,16 +231,195 @@ public final class RechercheMinimaxAlphaBeta {
         System.out.println(
                 "IA (" + niveau + ") a joue " + meilleurGlobal.depart().versAlgebrique() + "-"
                         + meilleurGlobal.arrivee().versAlgebrique()
-                        + " (Prof: " + profondeurAtteinte + ", Temps: " + tempsTotal + "ms)");
+                        + " (Prof: " + profondeurAtteinte + ", Temps: " + tempsTotal + "ms"
+                        + ", " + ContexteRecherche.resumeCompteurs()
+                        + String.format(", Cache eval: %.0f%%", 100 * Evaluation.cache().tauxSucces())
+                        + (graine != null ? ", reprise prof " + profondeurDepart : "")
+                        + ", PV: " + pvEnTexte(pv) + ")");
+        if (ProfilEvaluation.ACTIF)
+            System.out.print(ProfilEvaluation.rapport());
 
         return meilleurGlobal;
     }
 
+    /**
+     * Une iteration de l'IDS : tous les coups racine a la profondeur donnee,
+     * repartis sur le pool. Retourne le meilleur coup et son score, ou null si
+     * la recherche a ete interrompue (temps ecoule ou arret demande).
+     */
+    static MoveScore chercherIteration(Plateau plateau, List<Coup> coups, int depth, AtomicBoolean timeIsUp,
+            Consumer<String> observateur) {
+        boolean blancsJouent = (plateau.trait() == Couleur.BLANC);
+
+        List<Future<MoveScore>> futures = new ArrayList<>();
+        for (Coup coup : coups) {
+            Callable<MoveScore> task = () -> {
+                Plateau copie = plateau.copie();
+                copie.jouerAvecSauvegarde(coup);
+                int alpha = -Evaluation.SCORE_MAT;
+                int beta = Evaluation.SCORE_MAT;
+                ContexteRecherche ctx = ContexteRecherche.duThread();
+                ctx.definirCoupRacine(coup);
+                int eval = AlphaBeta.minimax(copie, depth - 1, alpha, beta, timeIsUp, 1, ctx);
+                return new MoveScore(coup, eval);
+            };
+            futures.add(pool.submit(task));
+        }
+
+        int bestScoreIter = blancsJouent ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        Coup meilleurIter = null;
+        boolean searchAborted = false;
+
+        for (Future<MoveScore> future : futures) {
+            try {
+                MoveScore res = future.get();
+
+                if (observateur != null) {
+                    String info = String.format("Prof %d: %s-%s (Score: %d)",
+                            depth,
+                            res.coup.depart().versAlgebrique(),
+                            res.coup.arrivee().versAlgebrique(),
+                            res.score);
+                    observateur.accept(info);
+                }
+
+                if (blancsJouent) {
+                    if (res.score > bestScoreIter) {
+                        bestScoreIter = res.score;
+                        meilleurIter = res.coup;
+                    }
+                } else {
+                    if (res.score < bestScoreIter) {
+                        bestScoreIter = res.score;
+                        meilleurIter = res.coup;
+                    }
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TimeOutException) {
+                    searchAborted = true;
+                }
+            } catch (InterruptedException e) {
+                searchAborted = true;
+            }
+        }
+
+        for (Future<MoveScore> future : futures) {
+            future.cancel(true);
+        }
+
+        if (searchAborted || timeIsUp.get() || meilleurIter == null)
+            return null;
+
+        AlphaBeta.table().stocker(plateau.cle(), depth, bestScoreIter, TableTransposition.EXACTE,
+                meilleurIter.encoder(), 0);
+        return new MoveScore(meilleurIter, bestScoreIter);
+    }
+
+    /**
+     * Decide quoi garder de la recherche precedente.
+     *
+     * Retourne la graine (coup attendu + profondeur de reprise) si la position
+     * est sur la variante principale precedente, null sinon. Si la position
+     * n'est meme pas atteignable en 2 demi-coups depuis la racine precedente
+     * (nouvelle partie, position chargee, annulation), tout est efface.
+     */
+    private static synchronized Graine preparerEtat(Plateau plateau, List<Coup> coups) {
+        if (racinePrecedente == null)
+            return null;
+
+        long cle = plateau.cle();
+        for (int i = 0; i < clesPvPrecedente.length; i++) {
+            if (clesPvPrecedente[i] == cle && i + 1 < pvPrecedente.size()) {
+                Coup attendu = trouverCoup(coups, pvPrecedente.get(i + 1));
+                if (attendu != null) {
+                    return new Graine(attendu, profondeurPrecedente - (i + 1));
+                }
+            }
+        }
+
+        if (!atteignable(racinePrecedente, cle, 2)) {
+            reinitialiserEtat();
+        }
+        return null;
+    }
+
+    private static synchronized void memoriserEtat(Plateau plateau, List<Coup> pv, int profondeur) {
+        racinePrecedente = plateau.copie();
+        pvPrecedente = pv;
+        profondeurPrecedente = profondeur;
+
+        clesPvPrecedente = new long[pv.size()];
+        Plateau copie = plateau.copie();
+        for (int i = 0; i < pv.size(); i++) {
+            copie.jouer(pv.get(i));
+            clesPvPrecedente[i] = copie.cle();
+        }
+    }
+
+    private static boolean atteignable(Plateau depuis, long cle, int demiCoups) {
+        if (depuis.cle() == cle)
+            return true;
+        if (demiCoups == 0)
+            return false;
+        for (Coup c : GenerateurCoups.genererLegaux(depuis)) {
+            EtatPlateau s = depuis.jouerAvecSauvegarde(c);
+            boolean ok = atteignable(depuis, cle, demiCoups - 1);
+            depuis.annuler(s);
+            if (ok)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Variante principale : on suit les coups de la table de transposition.
+     */
+    static List<Coup> extrairePV(Plateau plateau, Coup premier, int longueurMax) {
+        List<Coup> pv = new ArrayList<>();
+        Plateau copie = plateau.copie();
+        Coup coup = premier;
+        while (coup != null && pv.size() < longueurMax) {
+            pv.add(coup);
+            copie.jouer(coup);
+            long entree = AlphaBeta.table().sonder(copie.cle());
+            if (entree == 0L || TableTransposition.coup(entree) == 0)
+                break;
+            coup = trouverCoup(GenerateurCoups.genererLegaux(copie),
+                    Coup.decoder(TableTransposition.coup(entree)));
+        }
+        return pv;
+    }
+
+    private static Coup trouverCoup(List<Coup> coups, Coup cherche) {
+        if (cherche == null)
+            return null;
+        for (Coup c : coups) {
+            if (c.depart().equals(cherche.depart()) && c.arrivee().equals(cherche.arrivee())
+                    && c.piecePromotion() == cherche.piecePromotion()) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    static String pvEnTexte(List<Coup> pv) {
+        StringBuilder sb = new StringBuilder();
+        for (Coup c : pv) {
+            if (sb.length() > 0)
+                sb.append(' ');
+            sb.append(c.depart().versAlgebrique()).append(c.arrivee().versAlgebrique());
+        }
+        return sb.toString();
+    }
+
     public static Coup meilleurCoup(Plateau plateau, Niveau niveau) {
         return meilleurCoup(plateau, niveau, null);
     }
 
-    private static class MoveScore {
+    private record Graine(Coup coupAttendu, int profondeur) {
+    }
+
+    static class MoveScore {
         Coup coup;
         int score;
 
@@ -0,0 +1,394 @@
+package org.example.AI;
+
+import org.example.AI.search.TimeOutException;
+import org.example.chess.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * Solveur de mat par <b>recherche par nombres de preuve</b> (df-pn).
+ * </p>
+ *
+ * <p>
+ * Contrairement à l'Alpha-Bêta, il ne cherche pas « le meilleur coup » mais
+ * répond à une seule question : le camp au trait peut-il forcer le mat en N
+ * coups ?
+ * </p>
+ * <ul>
+ * <li><b>Noeud OU</b> : l'attaquant joue, un seul coup gagnant suffit</li>
+ * <li><b>Noeud ET</b> : le défenseur joue, toutes ses réponses doivent
+ * perdre</li>
+ * </ul>
+ *
+ * <p>
+ * Chaque noeud porte un nombre de preuve (pn) et un nombre de réfutation (dn)
+ * ; on développe toujours la branche la plus facile à conclure. Les résultats
+ * sont gardés dans une table de taille fixe (mémoire bornée), indexée par la
+ * clé de Zobrist et le nombre de demi-coups restants, par paires de cases :
+ * une entrée conclue (prouvée ou réfutée) ou plus profonde chasse en
+ * priorité les autres. Une entrée perdue est simplement recalculée.
+ * </p>
+ */
+public final class SolveurMat {
+
+    /** Nombre d'entrées par défaut de la table (puissance de 2). */
+    public static final int TAILLE_TABLE_DEFAUT = 1 << 20;
+
+    private static final int INFINI = 100_000_000;
+
+    private SolveurMat() {
+    }
+
+    /** Issue d'une résolution. */
+    public enum Statut {
+        /** Mat forcé trouvé. */
+        PROUVE,
+        /** Pas de mat forcé dans la limite. */
+        REFUTE,
+        /** Budget épuisé avant de conclure. */
+        INCONNU
+    }
+
+    /**
+     * Résultat d'une résolution.
+     *
+     * @param statut  issue
+     * @param coup    premier coup du mat (null si non prouvé)
+     * @param coups   longueur du mat prouvé, en coups de l'attaquant (0 sinon)
+     * @param noeuds  noeuds développés
+     * @param tempsMs durée
+     */
+    public record Resultat(Statut statut, Coup coup, int coups, long noeuds, long tempsMs) {
+    }
+
+    /**
+     * <p>
+     * Cherche un mat en au plus {@code coupsMax} coups pour le camp au trait.
+     * </p>
+     *
+     * <p>
+     * On essaie mat en 1, puis en 2, etc. : la table est conservée d'un essai à
+     * l'autre (les sous-arbres déjà résolus servent directement).
+     * </p>
+     *
+     * @param plateau   position (non modifiée)
+     * @param coupsMax  N du « mat en N »
+     * @param noeudsMax budget de noeuds (≤ 0 = illimité)
+     * @return résultat
+     */
+    public static Resultat resoudre(Plateau plateau, int coupsMax, long noeudsMax) {
+        return resoudre(plateau, coupsMax, noeudsMax, new AtomicBoolean(false), TAILLE_TABLE_DEFAUT);
+    }
+
+    /**
+     * <p>
+     * Variante avec arrêt externe et taille de table choisie.
+     * </p>
+     *
+     * @param plateau      position (non modifiée)
+     * @param coupsMax     N du « mat en N »
+     * @param noeudsMax    budget de noeuds (≤ 0 = illimité)
+     * @param stop         drapeau d'arrêt (ex. limite de temps)
+     * @param tailleTable  nombre d'entrées (arrondi à la puissance de 2
+     *                     inférieure)
+     * @return résultat
+     */
+    public static Resultat resoudre(Plateau plateau, int coupsMax, long noeudsMax, AtomicBoolean stop,
+            int tailleTable) {
+        if (plateau == null)
+            throw new IllegalArgumentException("plateau null");
+        if (coupsMax < 1)
+            throw new IllegalArgumentException("coupsMax doit être >= 1");
+
+        return resoudre(plateau, coupsMax, noeudsMax, stop, Long.MAX_VALUE, tailleTable);
+    }
+
+    private static Resultat resoudre(Plateau plateau, int coupsMax, long noeudsMax, AtomicBoolean stop,
+            long limiteNanos, int tailleTable) {
+        long debut = System.currentTimeMillis();
+        Recherche r = new Recherche(plateau.copie(), noeudsMax, stop, limiteNanos, tailleTable);
+
+        try {
+            for (int n = 1; n <= coupsMax; n++) {
+                Coup coup = r.prouver(2 * n - 1);
+                if (coup != null) {
+                    return new Resultat(Statut.PROUVE, coup, n, r.noeuds, System.currentTimeMillis() - debut);
+                }
+            }
+        } catch (TimeOutException e) {
+            return new Resultat(Statut.INCONNU, null, 0, r.noeuds, System.currentTimeMillis() - debut);
+        }
+        return new Resultat(Statut.REFUTE, null, 0, r.noeuds, System.currentTimeMillis() - debut);
+    }
+
+    /**
+     * <p>
+     * Mode moteur : cherche un mat forcé dans le temps du niveau, sinon se
+     * replie sur {@link RechercheMinimaxAlphaBeta}.
+     * </p>
+     */
+    public static Coup meilleurCoup(Plateau plateau, Niveau niveau, org.example.gui.ProfilerPartie profiler,
+            Consumer<String> observateur) {
+        if (plateau == null)
+            throw new IllegalArgumentException("plateau null");
+        if (niveau == null)
+            throw new IllegalArgumentException("niveau null");
+
+        long tempsMaxMs = switch (niveau) {
+            case FACILE -> 500L;
+            case MOYEN -> 1200L;
+            case DIFFICILE -> 2500L;
+        };
+
+        int coupsMax = switch (niveau) {
+            case FACILE -> 3;
+            case MOYEN -> 5;
+            case DIFFICILE -> 12;
+        };
+
+        // Échéance vérifiée pendant la recherche (pas de minuterie par appel)
+        Resultat res = resoudre(plateau, coupsMax, 0L, new AtomicBoolean(false),
+                System.nanoTime() + tempsMaxMs * 1_000_000L, TAILLE_TABLE_DEFAUT);
+
+        if (observateur != null) {
+            observateur.accept(String.format("Mat: %s (%d noeuds, %d ms)", res.statut(), res.noeuds(),
+                    res.tempsMs()));
+        }
+
+        if (res.statut() == Statut.PROUVE) {
+            System.out.println("IA (" + niveau + ", mat en " + res.coups() + ") a joue "
+                    + res.coup().depart().versAlgebrique() + "-" + res.coup().arrivee().versAlgebrique()
+                    + " (Noeuds: " + res.noeuds() + ", Temps: " + res.tempsMs() + "ms)");
+            if (profiler != null) {
+                profiler.enregistrerCoup(plateau.trait() == Couleur.BLANC, res.tempsMs(), 2 * res.coups() - 1);
+            }
+            return res.coup();
+        }
+
+        return RechercheMinimaxAlphaBeta.meilleurCoup(plateau, niveau, profiler, observateur);
+    }
+
+    /**
+     * État d'une résolution : plateau de travail + table bornée.
+     */
+    private static final class Recherche {
+        private final Plateau plateau;
+        private final long noeudsMax;
+        private final AtomicBoolean stop;
+        private final long limiteNanos;
+
+        private final int masque;
+        private final long[] cles;
+        private final int[] pns;
+        private final int[] dns;
+        private final int[] restes;
+
+        private long noeuds;
+
+        Recherche(Plateau plateau, long noeudsMax, AtomicBoolean stop, long limiteNanos, int tailleTable) {
+            this.plateau = plateau;
+            this.noeudsMax = noeudsMax;
+            this.stop = stop;
+            this.limiteNanos = limiteNanos;
+
+            int taille = Integer.highestOneBit(Math.max(1024, tailleTable));
+            this.masque = taille - 1;
+            this.cles = new long[taille];
+            this.pns = new int[taille];
+            this.dns = new int[taille];
+            this.restes = new int[taille];
+        }
+
+        /**
+         * Prouve un mat en {@code restants} demi-coups (impair) ; retourne le
+         * coup gagnant ou null si réfuté. Une entrée écrasée entre-temps n'est
+         * pas une réfutation : la preuve est refaite.
+         */
+        Coup prouver(int restants) {
+            long cle = cleTable(plateau.cle(), restants);
+            while (!conclu(cle))
+                mid(restants, INFINI, INFINI);
+            if (pns[trouver(cle)] != 0)
+                return null;
+
+            // Le coup gagnant est l'enfant prouvé
+            for (Coup coup : GenerateurCoups.genererLegaux(plateau)) {
+                EtatPlateau s = plateau.jouerAvecSauvegarde(coup);
+                try {
+                    long cleEnfant = cleTable(plateau.cle(), restants - 1);
+                    while (!conclu(cleEnfant))
+                        mid(restants - 1, INFINI, INFINI);
+                    if (pns[trouver(cleEnfant)] == 0)
+                        return coup;
+                } finally {
+                    plateau.annuler(s);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Développement multiple itératif (df-pn) : on reste dans ce noeud
+         * tant que ses nombres sont sous les seuils.
+         */
+        private void mid(int restants, int seuilPn, int seuilDn) {
+            noeuds++;
+            if ((noeudsMax > 0 && noeuds > noeudsMax) || stop.get()
+                    || ((noeuds & 1023) == 0 && System.nanoTime() > limiteNanos))
+                throw new TimeOutException();
+
+            long cle = cleTable(plateau.cle(), restants);
+            if (restants == 0) {
+                // Limite de coups atteinte (feuille absente de la table)
+                evaluerFeuille(cle);
+                return;
+            }
+            boolean noeudOu = (restants % 2) == 1;
+
+            List<Coup> coups = GenerateurCoups.genererLegaux(plateau);
+            if (coups.isEmpty()) {
+                // OU sans coup : l'attaquant est maté ou pat -> réfuté
+                // ET sans coup : mat si échec, sinon pat
+                boolean mat = !noeudOu && plateau.estEnEchec(plateau.trait());
+                stocker(cle, restants, mat ? 0 : INFINI, mat ? INFINI : 0);
+                return;
+            }
+
+            int n = coups.size();
+            long[] clesEnfants = new long[n];
+            for (int k = 0; k < n; k++) {
+                EtatPlateau s = plateau.jouerAvecSauvegarde(coups.get(k));
+                clesEnfants[k] = cleTable(plateau.cle(), restants - 1);
+                if (restants - 1 == 0 && trouver(clesEnfants[k]) < 0) {
+                    evaluerFeuille(clesEnfants[k]);
+                }
+                plateau.annuler(s);
+            }
+
+            while (true) {
+                int pn;
+                int dn;
+                int meilleur = -1;
+                int valeurMeilleur = INFINI + 1;
+                int second = INFINI;
+
+                if (noeudOu) {
+                    pn = INFINI;
+                    dn = 0;
+                    for (int k = 0; k < n; k++) {
+                        int j = trouver(clesEnfants[k]);
+                        int cpn = j >= 0 ? pns[j] : 1;
+                        int cdn = j >= 0 ? dns[j] : 1;
+                        dn = Math.min(INFINI, dn + cdn);
+                        if (cpn < valeurMeilleur) {
+                            second = valeurMeilleur;
+                            valeurMeilleur = cpn;
+                            meilleur = k;
+                        } else if (cpn < second) {
+                            second = cpn;
+                        }
+                    }
+                    pn = valeurMeilleur;
+                } else {
+                    pn = 0;
+                    dn = INFINI;
+                    for (int k = 0; k < n; k++) {
+                        int j = trouver(clesEnfants[k]);
+                        int cpn = j >= 0 ? pns[j] : 1;
+                        int cdn = j >= 0 ? dns[j] : 1;
+                        pn = Math.min(INFINI, pn + cpn);
+                        if (cdn < valeurMeilleur) {
+                            second = valeurMeilleur;
+                            valeurMeilleur = cdn;
+                            meilleur = k;
+                        } else if (cdn < second) {
+                            second = cdn;
+                        }
+                    }
+                    dn = valeurMeilleur;
+                }
+
+                if (pn >= seuilPn || dn >= seuilDn || pn == 0 || dn == 0) {
+                    stocker(cle, restants, pn, dn);
+                    return;
+                }
+
+                int j = trouver(clesEnfants[meilleur]);
+                int cpn = j >= 0 ? pns[j] : 1;
+                int cdn = j >= 0 ? dns[j] : 1;
+
+                int seuilPnEnfant;
+                int seuilDnEnfant;
+                if (noeudOu) {
+                    seuilPnEnfant = Math.min(seuilPn, Math.min(INFINI, second + 1));
+                    seuilDnEnfant = Math.min(INFINI, seuilDn - dn + cdn);
+                } else {
+                    seuilDnEnfant = Math.min(seuilDn, Math.min(INFINI, second + 1));
+                    seuilPnEnfant = Math.min(INFINI, seuilPn - pn + cpn);
+                }
+
+                EtatPlateau s = plateau.jouerAvecSauvegarde(coups.get(meilleur));
+                mid(restants - 1, seuilPnEnfant, seuilDnEnfant);
+                plateau.annuler(s);
+            }
+        }
+
+        /**
+         * Dernier demi-coup (noeud ET, 0 restant) : prouvé seulement si le
+         * défenseur est maté.
+         */
+        private void evaluerFeuille(long cle) {
+            boolean mat = plateau.estEnEchec(plateau.trait())
+                    && GenerateurCoups.genererLegaux(plateau).isEmpty();
+            stocker(cle, 0, mat ? 0 : INFINI, mat ? INFINI : 0);
+        }
+
+        /** Case de la clé dans sa paire, -1 si absente. */
+        private int trouver(long cle) {
+            int i = (int) (cle & masque);
+            if (cles[i] == cle)
+                return i;
+            return cles[i ^ 1] == cle ? i ^ 1 : -1;
+        }
+
+        private boolean conclu(long cle) {
+            int i = trouver(cle);
+            return i >= 0 && (pns[i] == 0 || dns[i] == 0 || pns[i] >= INFINI || dns[i] >= INFINI);
+        }
+
+        /**
+         * Écrit dans la case de la même clé si elle existe, sinon remplace la
+         * moins utile de la paire : une entrée non conclue avant une conclue,
+         * puis celle qui a le moins de demi-coups restants.
+         */
+        private void stocker(long cle, int restants, int pn, int dn) {
+            int i = trouver(cle);
+            if (i < 0) {
+                int a = (int) (cle & masque);
+                i = priorite(a ^ 1) < priorite(a) ? a ^ 1 : a;
+            }
+            cles[i] = cle;
+            pns[i] = pn;
+            dns[i] = dn;
+            restes[i] = restants;
+        }
+
+        private int priorite(int i) {
+            if (cles[i] == 0L)
+                return -1;
+            boolean concluE = pns[i] == 0 || dns[i] == 0;
+            return (concluE ? 1 << 16 : 0) + restes[i];
+        }
+
+        /**
+         * La même position n'a pas la même valeur selon le nombre de
+         * demi-coups restants : on les mélange dans la clé.
+         */
+        private static long cleTable(long cle, int restants) {
+            return cle ^ (restants * 0x9E3779B97F4A7C15L);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package org.example.AI.evaluation;
+
+import org.example.chess.Coup;
+import org.example.chess.Couleur;
+import org.example.chess.EtatPlateau;
+import org.example.chess.GenerateurCoups;
+import org.example.chess.Masques;
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Base de finales roi et pion contre roi : un bit par position, gagnée ou
+ * non pour le camp du pion.
+ * </p>
+ *
+ * <p>
+ * Les positions sont ramenées au pion blanc sur les colonnes a à d (symétrie
+ * verticale avec échange des couleurs si le pion est noir, symétrie
+ * horizontale au-delà de la colonne d). Indice :
+ * {@code ((trait * 24 + pion) * 64 + roiNoir) * 64 + roiBlanc}, avec
+ * {@code pion = colonne * 6 + (rangée - 2)} ; 24 x 64 x 64 bits par camp au
+ * trait, dans un {@code long[]} de 24 Ko.
+ * </p>
+ *
+ * <p>
+ * Génération par analyse rétrograde sur de vrais {@link Plateau} : chaque
+ * position légale est construite, ses coups légaux viennent de
+ * {@link GenerateurCoups} et ses successeurs sont notés une fois pour toutes.
+ * Sont terminales : la prise du pion (nulle), la sous-promotion en cavalier
+ * ou fou (nulle), la promotion en dame ou tour (gagnée, sauf si la pièce
+ * est prise aussitôt ou si les Noirs sont pat), le mat et le pat. Puis on
+ * itère jusqu'au point fixe : les Blancs gagnent si un coup mène à une
+ * position gagnée, les Noirs perdent si tous leurs coups y mènent. Le reste
+ * est nul.
+ * </p>
+ *
+ * <p>
+ * La table est générée une fois, au démarrage ({@link #lancer()}, appelé au
+ * chargement de l'évaluation), sur un thread de fond : tant qu'elle n'est
+ * pas prête, {@link #sonder} répond {@link #INCONNU} et
+ * l'évaluation ordinaire s'applique. Une fois publiée, elle est en lecture
+ * seule et partagée par tous les threads.
+ * </p>
+ */
+public final class BitbaseKpk {
+
+    public static final int INCONNU = 0;
+    public static final int GAIN = 1;
+    public static final int NUL = 2;
+
+    private static final int CASES_PION = 24;
+    private static final int NB = 2 * CASES_PION * 64 * 64;
+
+    // Valeurs pendant la génération (GAIN et NUL comme ci-dessus)
+    private static final byte INVALIDE = 3;
+
+    // Successeurs terminaux dans la liste d'adjacence
+    private static final int SUCC_GAIN = -1;
+    private static final int SUCC_NUL = -2;
+
+    private static volatile long[] bits;
+    private static volatile boolean lancee;
+
+    private BitbaseKpk() {
+    }
+
+    /**
+     * <p>
+     * Résultat pour le camp du pion ({@link #GAIN} ou {@link #NUL}), ou
+     * {@link #INCONNU} si la table n'est pas encore prête ou si la position
+     * n'est pas roi et pion contre roi. N'alloue rien.
+     * </p>
+     */
+    public static int sonder(Plateau p) {
+        long pionsBlancs = p.bitboard(Piece.PION_BLANC);
+        long pionsNoirs = p.bitboard(Piece.PION_NOIR);
+        if (Long.bitCount(p.occupes()) != 3 || Long.bitCount(pionsBlancs | pionsNoirs) != 1)
+            return INCONNU;
+        long[] b = bits;
+        if (b == null)
+            return INCONNU;
+
+        boolean blancFort = pionsBlancs != 0L;
+        int pion = Long.numberOfTrailingZeros(blancFort ? pionsBlancs : pionsNoirs);
+        int roiFort = Long.numberOfTrailingZeros(p.bitboard(blancFort ? Piece.ROI_BLANC : Piece.ROI_NOIR));
+        int roiFaible = Long.numberOfTrailingZeros(p.bitboard(blancFort ? Piece.ROI_NOIR : Piece.ROI_BLANC));
+        int trait = (p.trait() == Couleur.BLANC) == blancFort ? 0 : 1;
+        if (!blancFort) {
+            // Symétrie verticale : le pion noir devient blanc
+            pion ^= 56;
+            roiFort ^= 56;
+            roiFaible ^= 56;
+        }
+        if ((pion & 7) >= 4) {
+            pion ^= 7;
+            roiFort ^= 7;
+            roiFaible ^= 7;
+        }
+        int i = indice(trait, pion, roiFaible, roiFort);
+        return (b[i >>> 6] & (1L << i)) != 0L ? GAIN : NUL;
+    }
+
+    /** Vrai si la table est générée. */
+    public static boolean prete() {
+        return bits != null;
+    }
+
+    /** Lance la génération sur un thread de fond (une seule fois). */
+    public static synchronized void lancer() {
+        if (lancee)
+            return;
+        lancee = true;
+        Thread t = new Thread(() -> bits = generer(), "bitbase-kpk");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * <p>
+     * Génère la table (bloquant, sans la publier) : bit à 1 pour chaque
+     * position gagnée par les Blancs.
+     * </p>
+     */
+    public static long[] generer() {
+        byte[] valeurs = new byte[NB];
+        int[] debuts = new int[NB + 1];
+        int[] successeurs = new int[NB * 8];
+        int nb = 0;
+
+        for (int i = 0; i < NB; i++) {
+            debuts[i] = nb;
+            int trait = i / (CASES_PION * 64 * 64);
+            int pion = caseDuPion((i / (64 * 64)) % CASES_PION);
+            int roiNoir = (i / 64) % 64;
+            int roiBlanc = i % 64;
+            if (!estValide(trait, pion, roiNoir, roiBlanc)) {
+                valeurs[i] = INVALIDE;
+                continue;
+            }
+
+            Plateau p = Plateau.depuisFEN(fen(trait, pion, roiNoir, roiBlanc));
+            boolean blanc = trait == 0;
+            List<Coup> coups = GenerateurCoups.genererLegaux(p);
+            if (coups.isEmpty()) {
+                valeurs[i] = (byte) (!blanc && p.estEnEchec(Couleur.NOIR) ? GAIN : NUL);
+                continue;
+            }
+            for (Coup coup : coups) {
+                if (nb == successeurs.length)
+                    successeurs = java.util.Arrays.copyOf(successeurs, nb * 2);
+                successeurs[nb++] = successeur(p, coup);
+            }
+        }
+        debuts[NB] = nb;
+
+        // Point fixe : seuls les gains se propagent, le reste finit nul
+        boolean change = true;
+        while (change) {
+            change = false;
+            for (int i = 0; i < NB; i++) {
+                if (valeurs[i] != INCONNU)
+                    continue;
+                boolean blanc = i < NB / 2;
+                boolean gain = !blanc;
+                for (int j = debuts[i]; j < debuts[i + 1]; j++) {
+                    int s = successeurs[j];
+                    boolean g = s == SUCC_GAIN || (s >= 0 && valeurs[s] == GAIN);
+                    if (blanc && g) {
+                        gain = true;
+                        break;
+                    }
+                    if (!blanc && !g) {
+                        gain = false;
+                        break;
+                    }
+                }
+                if (gain) {
+                    valeurs[i] = GAIN;
+                    change = true;
+                }
+            }
+        }
+
+        long[] resultat = new long[NB / 64];
+        for (int i = 0; i < NB; i++) {
+            if (valeurs[i] == GAIN)
+                resultat[i >>> 6] |= 1L << i;
+        }
+        return resultat;
+    }
+
+    /** Successeur d'un coup : indice de la position atteinte, ou résultat terminal. */
+    private static int successeur(Plateau p, Coup coup) {
+        if (coup.estCapture())
+            return SUCC_NUL;
+        EtatPlateau sauvegarde = p.jouerAvecSauvegarde(coup);
+        try {
+            if (coup.estPromotion()) {
+                Piece promue = coup.piecePromotion();
+                if (promue != Piece.DAME_BLANCHE && promue != Piece.TOUR_BLANC)
+                    return SUCC_NUL;
+                List<Coup> reponses = GenerateurCoups.genererLegaux(p);
+                if (reponses.isEmpty())
+                    return p.estEnEchec(Couleur.NOIR) ? SUCC_GAIN : SUCC_NUL;
+                for (Coup r : reponses) {
+                    if (r.estCapture())
+                        return SUCC_NUL;
+                }
+                return SUCC_GAIN;
+            }
+            int trait = p.trait() == Couleur.BLANC ? 0 : 1;
+            int pion = Long.numberOfTrailingZeros(p.bitboard(Piece.PION_BLANC));
+            int roiNoir = Long.numberOfTrailingZeros(p.bitboard(Piece.ROI_NOIR));
+            int roiBlanc = Long.numberOfTrailingZeros(p.bitboard(Piece.ROI_BLANC));
+            return indice(trait, pion, roiNoir, roiBlanc);
+        } finally {
+            p.annuler(sauvegarde);
+        }
+    }
+
+    /** Rois distincts et non voisins, pion libre, et les Noirs pas en échec avec les Blancs au trait. */
+    private static boolean estValide(int trait, int pion, int roiNoir, int roiBlanc) {
+        if (roiNoir == roiBlanc || roiNoir == pion || roiBlanc == pion)
+            return false;
+        if ((Masques.attaquesRoi(roiBlanc) & (1L << roiNoir)) != 0L)
+            return false;
+        // Le pion blanc (a8 = 0 : il monte vers les petits indices) attaque pion - 9 et pion - 7
+        long attaquesPion = (((1L << pion) >>> 9) & ~Masques.FILE_H) | (((1L << pion) >>> 7) & ~Masques.FILE_A);
+        return trait == 1 || (attaquesPion & (1L << roiNoir)) == 0L;
+    }
+
+    private static int indice(int trait, int pion, int roiNoir, int roiBlanc) {
+        int colonne = pion & 7;
+        int rangee = 8 - (pion >>> 3);
+        return ((trait * CASES_PION + colonne * 6 + (rangee - 2)) * 64 + roiNoir) * 64 + roiBlanc;
+    }
+
+    private static int caseDuPion(int pion) {
+        int colonne = pion / 6;
+        int rangee = pion % 6 + 2;
+        return (8 - rangee) * 8 + colonne;
+    }
+
+    private static String fen(int trait, int pion, int roiNoir, int roiBlanc) {
+        StringBuilder sb = new StringBuilder(32);
+        for (int ligne = 0; ligne < 8; ligne++) {
+            int vides = 0;
+            for (int colonne = 0; colonne < 8; colonne++) {
+                int sq = ligne * 8 + colonne;
+                char c = sq == pion ? 'P' : sq == roiBlanc ? 'K' : sq == roiNoir ? 'k' : 0;
+                if (c == 0) {
+                    vides++;
+                    continue;
+                }
+                if (vides > 0)
+                    sb.append(vides);
+                vides = 0;
+                sb.append(c);
+            }
+            if (vides > 0)
+                sb.append(vides);
+            if (ligne < 7)
+                sb.append('/');
+        }
+        return sb.append(trait == 0 ? " w - - 0 1" : " b - - 0 1").toString();
+    }
+
+    /**
+     * <p>
+     * Mesure : temps de génération, nombre de gains, coût d'une sonde sur des
+     * positions roi et pion contre roi tirées au hasard.
+     * </p>
+     */
+    public static void main(String[] args) {
+        int rondes = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        long[] table = null;
+        for (int r = 0; r < rondes; r++) {
+            long debut = System.nanoTime();
+            table = generer();
+            System.out.printf("Generation : %.1f ms%n", (System.nanoTime() - debut) / 1e6);
+        }
+        int gains = 0;
+        for (long mot : table)
+            gains += Long.bitCount(mot);
+        System.out.printf("%d positions gagnees sur %d indices (%d octets)%n", gains, NB, table.length * 8);
+        bits = table;
+        lancee = true;
+
+        java.util.Random hasard = new java.util.Random(46);
+        Plateau[] positions = new Plateau[4096];
+        for (int n = 0; n < positions.length;) {
+            int trait = hasard.nextInt(2);
+            int pion = caseDuPion(hasard.nextInt(CASES_PION)) ^ (hasard.nextBoolean() ? 7 : 0);
+            int roiNoir = hasard.nextInt(64);
+            int roiBlanc = hasard.nextInt(64);
+            if (estValide(trait, pion, roiNoir, roiBlanc))
+                positions[n++] = Plateau.depuisFEN(fen(trait, pion, roiNoir, roiBlanc));
+        }
+        long somme = 0;
+        for (int r = 0; r < 5; r++) {
+            long debut = System.nanoTime();
+            for (int k = 0; k < 1_000_000; k++)
+                somme += sonder(positions[k & (positions.length - 1)]);
+            System.out.printf("Sonde : %.1f ns%n", (System.nanoTime() - debut) / 1e6);
+        }
+        System.out.println("(controle " + somme + ")");
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.AI.evaluation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Cache d'évaluations de taille fixe, partagé par tous les threads de
+ * recherche.
+ * </p>
+ *
+ * <p>
+ * Une entrée = un seul {@code long} : les bits hauts de la clé de Zobrist
+ * (vérification) et le score dans les 20 bits bas. Lecture et écriture sont
+ * atomiques (accès "opaque"), donc sans verrou : deux threads qui écrivent la
+ * même case laissent l'une ou l'autre entrée, jamais un mélange. L'indice
+ * vient des bits bas de la clé ; une collision sur les bits hauts est
+ * possible mais rarissime.
+ * </p>
+ */
+public final class CacheEvaluation {
+
+    /** Retour de {@link #sonder(long)} quand la position n'est pas en cache. */
+    public static final int ABSENT = Integer.MIN_VALUE;
+
+    private static final VarHandle ENTREES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int BITS_SCORE = 20;
+    private static final long MASQUE_SCORE = (1L << BITS_SCORE) - 1;
+    private static final int DECALAGE = 1 << (BITS_SCORE - 1);
+
+    private final long[] entrees;
+    private final int masque;
+
+    private final LongAdder sondages = new LongAdder();
+    private final LongAdder succes = new LongAdder();
+
+    /**
+     * @param taille nombre d'entrées (arrondi à la puissance de 2 inférieure)
+     */
+    public CacheEvaluation(int taille) {
+        int n = Integer.highestOneBit(Math.max(1024, taille));
+        this.entrees = new long[n];
+        this.masque = n - 1;
+    }
+
+    /**
+     * <p>Score en cache pour cette clé, ou {@link #ABSENT}.</p>
+     */
+    public int sonder(long cle) {
+        sondages.increment();
+        long e = (long) ENTREES.getOpaque(entrees, (int) (cle & masque));
+        if (e == 0L || ((e ^ cle) & ~MASQUE_SCORE) != 0L)
+            return ABSENT;
+        succes.increment();
+        return (int) (e & MASQUE_SCORE) - DECALAGE;
+    }
+
+    public void stocker(long cle, int score) {
+        if (score < -DECALAGE || score >= DECALAGE)
+            return;
+        long e = (cle & ~MASQUE_SCORE) | (score + DECALAGE);
+        ENTREES.setOpaque(entrees, (int) (cle & masque), e);
+    }
+
+    /** Vide le cache (les évaluations ont changé). */
+    public void effacer() {
+        for (int i = 0; i < entrees.length; i++) {
+            ENTREES.setOpaque(entrees, i, 0L);
+        }
+    }
+
+    public int taille() {
+        return entrees.length;
+    }
+
+    public long sondages() {
+        return sondages.sum();
+    }
+
+    public long succes() {
+        return succes.sum();
+    }
+
+    /** Taux de succès (0..1) depuis la dernière remise à zéro. */
+    public double tauxSucces() {
+        long s = sondages.sum();
+        return s == 0 ? 0.0 : succes.sum() / (double) s;
+    }
+
+    public void remettreCompteursAZero() {
+        sondages.reset();
+        succes.reset();
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.AI.evaluation;
+
+import org.example.AI.Evaluation;
+import org.example.chess.Masques;
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+
+/**
+ * <p>
+ * Finales reconnues par leur signature de matériel ({@link TableMateriel}),
+ * évaluées directement sans les termes ordinaires :
+ * </p>
+ *
+ * <ul>
+ *   <li>matériel insuffisant (rois seuls, une pièce mineure, fous tous de
+ *   même couleur) : nulle exacte ;</li>
+ *   <li>roi, fou et cavalier contre roi : gain, en poussant le roi adverse
+ *   vers un coin de la couleur du fou ;</li>
+ *   <li>tour ou dame contre roi seul : gain, en poussant le roi adverse vers
+ *   un bord et en rapprochant les rois ;</li>
+ *   <li>roi et pion contre roi : résultat exact de {@link BitbaseKpk} (nulle,
+ *   ou gain en poussant le pion), évaluation ordinaire tant que la table
+ *   n'est pas prête.</li>
+ * </ul>
+ *
+ * <p>
+ * Les gains valent au moins {@link #SCORE_GAIN_CONNU}, bien au-dessus de
+ * tout score ordinaire et bien en dessous des scores de mat : la recherche
+ * préfère toute ligne qui y mène, puis le mat réel quand elle le voit.
+ * </p>
+ */
+public final class FinalesConnues {
+
+    /** Pas de score reconnu : évaluation ordinaire. */
+    public static final int ABSENT = Integer.MIN_VALUE;
+
+    public static final int SCORE_GAIN_CONNU = 10_000;
+
+    private static final int POIDS_BORD = 20;
+    private static final int POIDS_RAPPROCHEMENT = 10;
+    private static final int POIDS_AVANCE_PION = 20;
+
+    private FinalesConnues() {
+    }
+
+    /**
+     * @param finale code de {@link TableMateriel#finale(int)}
+     * @return score du point de vue des Blancs, ou {@link #ABSENT}
+     */
+    public static int evaluer(Plateau p, int finale) {
+        if (finale == TableMateriel.AUCUNE)
+            return ABSENT;
+        boolean blancFort = (finale & 1) == 0;
+        int score = switch (finale >> 1) {
+            case TableMateriel.INSUFFISANT -> p.estMaterielInsuffisant() ? 0 : ABSENT;
+            case TableMateriel.KBNK -> kbnk(p, blancFort);
+            case TableMateriel.KXK -> kxk(p, blancFort);
+            case TableMateriel.KPK -> kpk(p, blancFort);
+            default -> ABSENT;
+        };
+        if (score == ABSENT || score == 0)
+            return score;
+        return blancFort ? score : -score;
+    }
+
+    /** Gain contre roi seul : matériel, roi adverse au bord, rois rapprochés. */
+    private static int kxk(Plateau p, boolean blancFort) {
+        int fort = caseRoi(p, blancFort);
+        int faible = caseRoi(p, !blancFort);
+        if (fort < 0 || faible < 0)
+            return ABSENT;
+        int materiel = Math.abs(Materiel.scoreMateriel(p));
+        return SCORE_GAIN_CONNU + materiel + POIDS_BORD * (3 - distanceBord(faible))
+                + POIDS_RAPPROCHEMENT * (7 - distance(fort, faible));
+    }
+
+    /**
+     * Fou et cavalier : le mat ne se donne que dans un coin de la couleur du
+     * fou ; on pousse le roi adverse vers le plus proche d'entre eux.
+     */
+    private static int kbnk(Plateau p, boolean blancFort) {
+        int fort = caseRoi(p, blancFort);
+        int faible = caseRoi(p, !blancFort);
+        if (fort < 0 || faible < 0)
+            return ABSENT;
+        long fou = p.bitboard(blancFort ? Piece.FOU_BLANC : Piece.FOU_NOIR);
+        boolean fouBlanc = (fou & Masques.CASES_BLANCHES) != 0L;
+        // a8 (0) et h1 (63) sont blanches, h8 (7) et a1 (56) noires ; distance en lignes + colonnes
+        int coin = fouBlanc ? Math.min(manhattan(faible, 0), manhattan(faible, 63))
+                : Math.min(manhattan(faible, 7), manhattan(faible, 56));
+        return SCORE_GAIN_CONNU + Evaluation.VALEUR_CAVALIER + Evaluation.VALEUR_FOU
+                + POIDS_BORD * (14 - coin) + POIDS_RAPPROCHEMENT * (7 - distance(fort, faible));
+    }
+
+    /** Roi et pion contre roi : nulle, ou gain d'autant plus grand que le pion est avancé. */
+    private static int kpk(Plateau p, boolean blancFort) {
+        int resultat = BitbaseKpk.sonder(p);
+        if (resultat == BitbaseKpk.INCONNU)
+            return ABSENT;
+        if (resultat == BitbaseKpk.NUL)
+            return 0;
+        long pion = p.bitboard(blancFort ? Piece.PION_BLANC : Piece.PION_NOIR);
+        int ligne = Long.numberOfTrailingZeros(pion) / 8;
+        // a8 = 0 : le pion blanc avance vers la ligne 0, le noir vers la ligne 7
+        int avance = blancFort ? 6 - ligne : ligne - 1;
+        return SCORE_GAIN_CONNU + Evaluation.VALEUR_PION + POIDS_AVANCE_PION * avance;
+    }
+
+    private static int caseRoi(Plateau p, boolean blanc) {
+        long roi = p.bitboard(blanc ? Piece.ROI_BLANC : Piece.ROI_NOIR);
+        return roi == 0L ? -1 : Long.numberOfTrailingZeros(roi);
+    }
+
+    /** Distance de roi entre deux cases. */
+    private static int distance(int a, int b) {
+        return Math.max(Math.abs(a / 8 - b / 8), Math.abs(a % 8 - b % 8));
+    }
+
+    private static int manhattan(int a, int b) {
+        return Math.abs(a / 8 - b / 8) + Math.abs(a % 8 - b % 8);
+    }
+
+    private static int distanceBord(int sq) {
+        int ligne = sq / 8;
+        int colonne = sq % 8;
+        return Math.min(Math.min(ligne, 7 - ligne), Math.min(colonne, 7 - colonne));
+    }
+}
@@ -0,0 +1,168 @@
+package org.example.AI.evaluation;
+
+import org.example.chess.Masques;
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+import org.example.chess.Rayons;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Attaques des deux camps, calculées une seule fois par noeud évalué et
+ * partagées par les termes de l'évaluation (mobilité, sécurité du roi,
+ * menaces).
+ * </p>
+ *
+ * <ul>
+ *   <li>cases attaquées par type de pièce (pion à roi), et par tout le camp ;</li>
+ *   <li>cases attaquées au moins deux fois ;</li>
+ *   <li>zone du roi (sa case et ses voisines) ;</li>
+ *   <li>cases sûres attaquées par type, Blancs moins Noirs (mobilité) ;</li>
+ *   <li>cases de la zone du roi adverse attaquées, par type d'attaquant.</li>
+ * </ul>
+ *
+ * <p>
+ * Un objet par thread ({@link #duThread()}), réécrit à chaque
+ * {@link #calculer} : aucune allocation par noeud. Les attaques de pions
+ * viennent de la table des pions.
+ * </p>
+ */
+public final class InfosAttaques {
+
+    private static final Piece[] PIECES = Piece.values();
+
+    private static final int PION = 0;
+    private static final int CAVALIER = 1;
+    private static final int FOU = 2;
+    private static final int TOUR = 3;
+    private static final int DAME = 4;
+    private static final int ROI = 5;
+
+    private static final ThreadLocal<InfosAttaques> PAR_THREAD = ThreadLocal.withInitial(InfosAttaques::new);
+
+    // Indexés par [camp * 6 + type], camp 0 = Blancs
+    private final long[] parType = new long[12];
+    // Indexés par camp
+    private final long[] toutes = new long[2];
+    private final long[] doubles = new long[2];
+    private final long[] zonesRoi = new long[2];
+    private final int[] casesRoi = new int[2];
+    private final int[] attaquesZone = new int[12];
+    private final int[] mobilite = new int[6];
+
+    /** Brouillon des termes qui comptent leurs traits avant de les pondérer. */
+    final int[] traits = new int[Math.max(SecuriteRoi.NB_TRAITS, Menaces.NB_TRAITS)];
+
+    private InfosAttaques() {
+    }
+
+    /** Tampon du thread courant. */
+    public static InfosAttaques duThread() {
+        return PAR_THREAD.get();
+    }
+
+    /**
+     * <p>Remplit le tampon pour ce plateau.</p>
+     *
+     * @param attaquesPionsBlancs cases attaquées par les pions blancs (table des pions)
+     * @param attaquesPionsNoirs idem pour les Noirs
+     */
+    public void calculer(Plateau p, long attaquesPionsBlancs, long attaquesPionsNoirs) {
+        Arrays.fill(attaquesZone, 0);
+        Arrays.fill(mobilite, 0);
+
+        long roiBlanc = p.bitboard(Piece.ROI_BLANC);
+        long roiNoir = p.bitboard(Piece.ROI_NOIR);
+        casesRoi[0] = roiBlanc == 0L ? -1 : Long.numberOfTrailingZeros(roiBlanc);
+        casesRoi[1] = roiNoir == 0L ? -1 : Long.numberOfTrailingZeros(roiNoir);
+        zonesRoi[0] = casesRoi[0] < 0 ? 0L : roiBlanc | Masques.attaquesRoi(casesRoi[0]);
+        zonesRoi[1] = casesRoi[1] < 0 ? 0L : roiNoir | Masques.attaquesRoi(casesRoi[1]);
+
+        long occ = p.occupes();
+        camp(0, p, occ, attaquesPionsBlancs, doublesPionsBlancs(p.bitboard(Piece.PION_BLANC)),
+                ~p.blancs() & ~attaquesPionsNoirs, zonesRoi[1], 1);
+        camp(1, p, occ, attaquesPionsNoirs, doublesPionsNoirs(p.bitboard(Piece.PION_NOIR)),
+                ~p.noirs() & ~attaquesPionsBlancs, zonesRoi[0], -1);
+    }
+
+    private void camp(int c, Plateau p, long occ, long attaquesPions, long doublesPions, long surs,
+            long zoneAdverse, int signe) {
+        int base = c * 6;
+        long tout = attaquesPions;
+        long deux = doublesPions;
+        parType[base + PION] = attaquesPions;
+        attaquesZone[base + PION] = Long.bitCount(attaquesPions & zoneAdverse);
+
+        for (int type = CAVALIER; type <= ROI; type++) {
+            long union = 0L;
+            for (long bb = p.bitboard(PIECES[base + type]); bb != 0L; bb &= bb - 1) {
+                int idx = Long.numberOfTrailingZeros(bb);
+                long a = switch (type) {
+                    case CAVALIER -> Masques.attaquesCavalier(idx);
+                    case FOU -> Rayons.attaquesDiagonales(idx, occ);
+                    case TOUR -> Rayons.attaquesHorizontalesEtVerticales(idx, occ);
+                    case DAME -> Rayons.attaquesDiagonales(idx, occ)
+                            | Rayons.attaquesHorizontalesEtVerticales(idx, occ);
+                    default -> Masques.attaquesRoi(idx);
+                };
+                deux |= tout & a;
+                tout |= a;
+                union |= a;
+                if (type != ROI) {
+                    mobilite[type] += signe * Long.bitCount(a & surs);
+                    attaquesZone[base + type] += Long.bitCount(a & zoneAdverse);
+                }
+            }
+            parType[base + type] = union;
+        }
+        toutes[c] = tout;
+        doubles[c] = deux;
+    }
+
+    private static long doublesPionsBlancs(long pions) {
+        return ((pions >>> 7) & ~Masques.FILE_A) & ((pions >>> 9) & ~Masques.FILE_H);
+    }
+
+    private static long doublesPionsNoirs(long pions) {
+        return ((pions << 7) & ~Masques.FILE_H) & ((pions << 9) & ~Masques.FILE_A);
+    }
+
+    /** Cases attaquées par les pièces de ce type (0 = pion ... 5 = roi). */
+    public long parType(boolean blanc, int type) {
+        return parType[(blanc ? 0 : 6) + type];
+    }
+
+    /** Cases attaquées par le camp. */
+    public long toutes(boolean blanc) {
+        return toutes[blanc ? 0 : 1];
+    }
+
+    /** Cases attaquées au moins deux fois par le camp. */
+    public long doubles(boolean blanc) {
+        return doubles[blanc ? 0 : 1];
+    }
+
+    /** Case du roi et cases voisines (vide sans roi). */
+    public long zoneRoi(boolean blanc) {
+        return zonesRoi[blanc ? 0 : 1];
+    }
+
+    /** Indice de la case du roi, -1 sans roi. */
+    public int caseRoi(boolean blanc) {
+        return casesRoi[blanc ? 0 : 1];
+    }
+
+    /** Cases sûres attaquées par ce type (1 = cavalier ... 4 = dame), Blancs moins Noirs. */
+    public int mobilite(int type) {
+        return mobilite[type];
+    }
+
+    /**
+     * Cases de la zone du roi adverse attaquées par les pièces de ce type du
+     * camp, comptées une fois par pièce attaquante.
+     */
+    public int attaquesZoneRoi(boolean blanc, int type) {
+        return attaquesZone[(blanc ? 0 : 6) + type];
+    }
+}
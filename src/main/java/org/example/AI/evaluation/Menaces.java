@@ -0,0 +1,121 @@
+package org.example.AI.evaluation;
+
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+
+/**
+ * <p>
+ * Menaces, à partir des attaques partagées ({@link InfosAttaques}) : pièces
+ * attaquées par une pièce de moindre valeur, et pièces attaquées sans
+ * défenseur.
+ * </p>
+ *
+ * <p>
+ * Termes statiques, comptés du point de vue de l'attaquant sans tenir
+ * compte du trait : la quiescence résout les prises réelles.
+ * </p>
+ */
+public final class Menaces {
+
+    // Valeurs par défaut : attaque de pion, de pièce mineure sur tour/dame, de tour sur dame, pièce en prise
+    private static final int[] TERMES_MG = { 30, 20, 20, 10 };
+    private static final int[] TERMES_EG = { 25, 20, 20, 10 };
+
+    /** Traits de {@link #compterTraits}, dans l'ordre des paramètres à partir de {@link ParametresEvaluation#MENACE_PION}. */
+    public static final int NB_TRAITS = 4;
+
+    private static final int PION = 0;
+    private static final int CAVALIER = 1;
+    private static final int FOU = 2;
+    private static final int TOUR = 3;
+
+    private Menaces() {
+    }
+
+    /**
+     * <p>Menaces, Blancs moins Noirs, score packé.</p>
+     */
+    public static int scoreMenaces(Plateau p, InfosAttaques infos) {
+        int[] traits = infos.traits;
+        compterTraits(p, infos, traits);
+        ParametresEvaluation parametres = ParametresEvaluation.courants();
+        int score = 0;
+        for (int k = 0; k < NB_TRAITS; k++)
+            score += traits[k] * parametres.packe(ParametresEvaluation.MENACE_PION + k);
+        return score;
+    }
+
+    /**
+     * <p>
+     * Traits de menace, Blancs moins Noirs : pièces (hors pions et roi)
+     * attaquées par un pion (0), tours et dames attaquées par une pièce
+     * mineure (1), dames attaquées par une tour (2), pièces hors roi
+     * attaquées et non défendues (3).
+     * </p>
+     */
+    public static void compterTraits(Plateau p, InfosAttaques infos, int[] traits) {
+        traits[0] = menacesPion(infos, pieces(p, false), true) - menacesPion(infos, pieces(p, true), false);
+        traits[1] = Long.bitCount(majeures(p, false) & mineures(infos, true))
+                - Long.bitCount(majeures(p, true) & mineures(infos, false));
+        traits[2] = Long.bitCount(p.bitboard(Piece.DAME_NOIRE) & infos.parType(true, TOUR))
+                - Long.bitCount(p.bitboard(Piece.DAME_BLANCHE) & infos.parType(false, TOUR));
+        traits[3] = Long.bitCount(suspendues(p, infos, false)) - Long.bitCount(suspendues(p, infos, true));
+    }
+
+    /**
+     * <p>
+     * Plus forte variation (packée, positive) des menaces dans un sens, pour
+     * l'évaluation paresseuse : chaque trait compte au plus les pièces
+     * adverses qu'il peut viser. Les attaques de pions, déjà connues,
+     * resserrent la borne : une pièce défendue par un pion n'est jamais en
+     * prise.
+     * </p>
+     */
+    public static int amplitudeMax(Plateau p, long attaquesPionsBlancs, long attaquesPionsNoirs, boolean hausse) {
+        ParametresEvaluation parametres = ParametresEvaluation.courants();
+        long piecesB = pieces(p, true);
+        long piecesN = pieces(p, false);
+        long ciblesB = p.blancs() & ~p.bitboard(Piece.ROI_BLANC) & ~attaquesPionsBlancs;
+        long ciblesN = p.noirs() & ~p.bitboard(Piece.ROI_NOIR) & ~attaquesPionsNoirs;
+        return parametres.amplitude(ParametresEvaluation.MENACE_PION, Long.bitCount(piecesN & attaquesPionsBlancs),
+                Long.bitCount(piecesB & attaquesPionsNoirs), hausse)
+                + parametres.amplitude(ParametresEvaluation.MENACE_MINEURE, Long.bitCount(majeures(p, false)),
+                        Long.bitCount(majeures(p, true)), hausse)
+                + parametres.amplitude(ParametresEvaluation.MENACE_TOUR, Long.bitCount(p.bitboard(Piece.DAME_NOIRE)),
+                        Long.bitCount(p.bitboard(Piece.DAME_BLANCHE)), hausse)
+                + parametres.amplitude(ParametresEvaluation.SUSPENDUE, Long.bitCount(ciblesN), Long.bitCount(ciblesB),
+                        hausse);
+    }
+
+    /** Valeurs par défaut, dans la disposition de {@link ParametresEvaluation}. */
+    static void termesParDefaut(int[] mg, int[] eg) {
+        System.arraycopy(TERMES_MG, 0, mg, ParametresEvaluation.MENACE_PION, NB_TRAITS);
+        System.arraycopy(TERMES_EG, 0, eg, ParametresEvaluation.MENACE_PION, NB_TRAITS);
+    }
+
+    private static int menacesPion(InfosAttaques infos, long cibles, boolean attaquant) {
+        return Long.bitCount(cibles & infos.parType(attaquant, PION));
+    }
+
+    /** Cavaliers, fous, tours et dames du camp. */
+    private static long pieces(Plateau p, boolean blanc) {
+        long camp = blanc ? p.blancs() : p.noirs();
+        return camp & ~p.bitboard(blanc ? Piece.PION_BLANC : Piece.PION_NOIR)
+                & ~p.bitboard(blanc ? Piece.ROI_BLANC : Piece.ROI_NOIR);
+    }
+
+    private static long majeures(Plateau p, boolean blanc) {
+        return blanc ? p.bitboard(Piece.TOUR_BLANC) | p.bitboard(Piece.DAME_BLANCHE)
+                : p.bitboard(Piece.TOUR_NOIRE) | p.bitboard(Piece.DAME_NOIRE);
+    }
+
+    private static long mineures(InfosAttaques infos, boolean blanc) {
+        return infos.parType(blanc, CAVALIER) | infos.parType(blanc, FOU);
+    }
+
+    /** Pièces du camp (hors roi) attaquées par l'adversaire et non défendues. */
+    private static long suspendues(Plateau p, InfosAttaques infos, boolean blanc) {
+        long camp = (blanc ? p.blancs() : p.noirs()) & ~p.bitboard(blanc ? Piece.ROI_BLANC : Piece.ROI_NOIR);
+        return camp & infos.toutes(!blanc) & ~infos.toutes(blanc);
+    }
+}
@@ -1,18 +1,100 @@
 package org.example.AI.evaluation;
 
-import org.example.chess.Couleur;
-import org.example.chess.GenerateurCoups;
+import org.example.chess.Piece;
 import org.example.chess.Plateau;
+import org.example.chess.ScoresIncrementaux;
 
+/**
+ * <p>
+ * Mobilité par type de pièce, à partir des bitboards d'attaque (pas de
+ * génération de coups) : on compte les cases "sûres" que chaque cavalier,
+ * fou, tour et dame attaque, c'est-à-dire ni occupées par un allié ni
+ * attaquées par un pion adverse.
+ * </p>
+ *
+ * <p>
+ * Les attaques viennent de {@link InfosAttaques}, calculées une fois par
+ * noeud et partagées avec la sécurité du roi et les menaces.
+ * </p>
+ */
 public final class Mobilite {
-    private static final int BONUS_MOBILITE_PAR_COUP = 2;
+    // Bonus par case sûre, milieu de partie / finale (valeurs par défaut de ParametresEvaluation)
+    private static final int[] BONUS_MG = { 0, 4, 5, 2, 1, 0 };
+    private static final int[] BONUS_EG = { 0, 4, 5, 4, 2, 0 };
+    // Nombre maximal de cases attaquées, plateau vide
+    private static final int[] CASES_MAX = { 0, 8, 13, 14, 27, 0 };
+
+    private static final Piece[] PIECES = Piece.values();
+
+    private static final int CAVALIER = 1;
+    private static final int DAME = 4;
 
     private Mobilite() {
     }
 
+    /**
+     * <p>Mobilité blanche - mobilité noire, scores milieu/finale packés.</p>
+     */
     public static int scoreMobilite(Plateau p) {
-        int nbCoups = GenerateurCoups.genererLegaux(p).size();
-        int bonus = nbCoups * BONUS_MOBILITE_PAR_COUP;
-        return (p.trait() == Couleur.BLANC) ? bonus : -bonus;
+        return scoreMobilite(p, StructurePions.attaquesPionsBlancs(p.bitboard(Piece.PION_BLANC)),
+                StructurePions.attaquesPionsNoirs(p.bitboard(Piece.PION_NOIR)));
+    }
+
+    /**
+     * <p>Idem, avec les attaques de pions déjà connues (table des pions).</p>
+     */
+    public static int scoreMobilite(Plateau p, long attaquesPionsBlancs, long attaquesPionsNoirs) {
+        InfosAttaques infos = InfosAttaques.duThread();
+        infos.calculer(p, attaquesPionsBlancs, attaquesPionsNoirs);
+        return scoreMobilite(infos);
+    }
+
+    /**
+     * <p>Idem, à partir des attaques déjà calculées pour ce noeud.</p>
+     */
+    public static int scoreMobilite(InfosAttaques infos) {
+        ParametresEvaluation parametres = ParametresEvaluation.courants();
+        int mg = 0;
+        int eg = 0;
+        for (int type = CAVALIER; type <= DAME; type++) {
+            mg += infos.mobilite(type) * parametres.mg(ParametresEvaluation.MOBILITE + type - 1);
+            eg += infos.mobilite(type) * parametres.eg(ParametresEvaluation.MOBILITE + type - 1);
+        }
+        return ScoresIncrementaux.packer(mg, eg);
+    }
+
+    /**
+     * <p>
+     * Plus forte variation possible (scores packés, positive) de la mobilité
+     * dans un sens : chaque pièce attaque au plus {@code CASES_MAX} cases,
+     * et chaque case compte pour son bonus s'il va dans ce sens. La mobilité
+     * est donc dans [-amplitudeMax(baisse), +amplitudeMax(hausse)].
+     * </p>
+     *
+     * @param hausse vers les Blancs (sinon vers les Noirs)
+     */
+    public static int amplitudeMax(Plateau p, boolean hausse) {
+        ParametresEvaluation parametres = ParametresEvaluation.courants();
+        int mg = 0;
+        int eg = 0;
+        for (int type = CAVALIER; type <= DAME; type++) {
+            int bonusMg = parametres.mg(ParametresEvaluation.MOBILITE + type - 1);
+            int bonusEg = parametres.eg(ParametresEvaluation.MOBILITE + type - 1);
+            int blancs = Long.bitCount(p.bitboard(PIECES[type])) * CASES_MAX[type];
+            int noirs = Long.bitCount(p.bitboard(PIECES[type + 6])) * CASES_MAX[type];
+            // Une case blanche monte le score si le bonus est positif, une noire s'il est négatif
+            int signe = hausse ? 1 : -1;
+            mg += blancs * Math.max(0, signe * bonusMg) + noirs * Math.max(0, -signe * bonusMg);
+            eg += blancs * Math.max(0, signe * bonusEg) + noirs * Math.max(0, -signe * bonusEg);
+        }
+        return ScoresIncrementaux.packer(mg, eg);
+    }
+
+    /** Bonus par défaut, dans la disposition de {@link ParametresEvaluation}. */
+    static void bonusParDefaut(int[] mg, int[] eg) {
+        for (int type = CAVALIER; type <= DAME; type++) {
+            mg[ParametresEvaluation.MOBILITE + type - 1] = BONUS_MG[type];
+            eg[ParametresEvaluation.MOBILITE + type - 1] = BONUS_EG[type];
+        }
     }
 }
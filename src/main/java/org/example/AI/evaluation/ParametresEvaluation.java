@@ -0,0 +1,320 @@
+package org.example.AI.evaluation;
+
+import org.example.AI.Evaluation;
+import org.example.chess.Case;
+import org.example.chess.ScoresIncrementaux;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Tous les poids réglables de l'évaluation classique, chacun en deux
+ * valeurs : milieu de partie (mg) et finale (eg).
+ * </p>
+ *
+ * <ul>
+ *   <li>matériel (pion à dame) ;</li>
+ *   <li>tables pièce-case, 6 x 64, du point de vue des Blancs (case 0 = a8) ;</li>
+ *   <li>mobilité par case sûre (cavalier à dame) ;</li>
+ *   <li>structure de pions : passés selon l'avance, isolés, doublés, arriérés ;</li>
+ *   <li>sécurité du roi : cases de sa zone attaquées (par type d'attaquant,
+ *   et deux fois), bouclier de pions ;</li>
+ *   <li>menaces : pièces attaquées par une pièce de moindre valeur, pièces
+ *   en prise non défendues ;</li>
+ *   <li>déséquilibres de matériel : paire de fous, cavaliers et tours selon
+ *   le nombre de pions du camp ({@link TableMateriel}).</li>
+ * </ul>
+ *
+ * <p>
+ * L'évaluation est linéaire en ces poids (à l'interpolation de phase et aux
+ * facteurs d'échelle des finales près),
+ * ce qui permet de les régler par descente de gradient ({@link ReglageTexel}).
+ * Les valeurs par défaut sont celles écrites à la main dans
+ * {@link PieceSquareTable}, {@link Mobilite}, {@link TablePions},
+ * {@link SecuriteRoi}, {@link Menaces}, {@link TableMateriel} et
+ * {@link StructurePions}.
+ * </p>
+ *
+ * <p>
+ * Au démarrage, les paramètres viennent du fichier désigné par
+ * {@code -Dchess.eval.parametres=...}, sinon de la ressource
+ * {@code /parametres-evaluation.txt}, sinon des valeurs par défaut. Format :
+ * une ligne {@code nom mg eg} par paramètre, {@code #} pour les
+ * commentaires ; les paramètres absents gardent leur valeur par défaut.
+ * </p>
+ */
+public final class ParametresEvaluation {
+
+    public static final String PROPRIETE_FICHIER = "chess.eval.parametres";
+    public static final String RESSOURCE = "/parametres-evaluation.txt";
+
+    /** Matériel, indexé par type (0 = pion ... 4 = dame). */
+    public static final int MATERIEL = 0;
+    /** Tables pièce-case : {@code PST + type * 64 + case} (case vue des Blancs). */
+    public static final int PST = MATERIEL + 5;
+    /** Mobilité, indexée par {@code type - 1} (cavalier ... dame). */
+    public static final int MOBILITE = PST + 6 * 64;
+    /** Pions passés, indexés par l'avance (0 à 7). */
+    public static final int PASSE = MOBILITE + 4;
+    public static final int ISOLE = PASSE + 8;
+    public static final int DOUBLE = ISOLE + 1;
+    public static final int ARRIERE = DOUBLE + 1;
+    /** Cases de la zone du roi adverse attaquées, indexées par type d'attaquant (pion ... dame). */
+    public static final int ROI_ATTAQUE = ARRIERE + 1;
+    public static final int ROI_DOUBLE = ROI_ATTAQUE + 5;
+    public static final int BOUCLIER = ROI_DOUBLE + 1;
+    public static final int MENACE_PION = BOUCLIER + 1;
+    public static final int MENACE_MINEURE = MENACE_PION + 1;
+    public static final int MENACE_TOUR = MENACE_MINEURE + 1;
+    public static final int SUSPENDUE = MENACE_TOUR + 1;
+    public static final int PAIRE_FOUS = SUSPENDUE + 1;
+    /** Par cavalier et par pion du camp au-delà de cinq. */
+    public static final int CAVALIER_PIONS = PAIRE_FOUS + 1;
+    /** Par tour et par pion du camp au-delà de cinq. */
+    public static final int TOUR_PIONS = CAVALIER_PIONS + 1;
+    public static final int NB = TOUR_PIONS + 1;
+
+    private static final String[] TYPES = { "pion", "cavalier", "fou", "tour", "dame", "roi" };
+    private static final String[] NOMS = new String[NB];
+    private static final Map<String, Integer> INDICES = new HashMap<>();
+
+    static {
+        for (int t = 0; t < 5; t++)
+            NOMS[MATERIEL + t] = "materiel." + TYPES[t];
+        for (int t = 0; t < 6; t++) {
+            for (int sq = 0; sq < 64; sq++)
+                NOMS[PST + t * 64 + sq] = "pst." + TYPES[t] + "." + Case.depuisIndice(sq).versAlgebrique();
+        }
+        for (int t = 1; t <= 4; t++)
+            NOMS[MOBILITE + t - 1] = "mobilite." + TYPES[t];
+        for (int a = 0; a < 8; a++)
+            NOMS[PASSE + a] = "pions.passe." + a;
+        NOMS[ISOLE] = "pions.isole";
+        NOMS[DOUBLE] = "pions.double";
+        NOMS[ARRIERE] = "pions.arriere";
+        for (int t = 0; t < 5; t++)
+            NOMS[ROI_ATTAQUE + t] = "roi.attaque." + TYPES[t];
+        NOMS[ROI_DOUBLE] = "roi.double";
+        NOMS[BOUCLIER] = "roi.bouclier";
+        NOMS[MENACE_PION] = "menace.pion";
+        NOMS[MENACE_MINEURE] = "menace.mineure";
+        NOMS[MENACE_TOUR] = "menace.tour";
+        NOMS[SUSPENDUE] = "menace.suspendue";
+        NOMS[PAIRE_FOUS] = "materiel.paire_fous";
+        NOMS[CAVALIER_PIONS] = "materiel.cavalier_pions";
+        NOMS[TOUR_PIONS] = "materiel.tour_pions";
+        for (int i = 0; i < NB; i++)
+            INDICES.put(NOMS[i], i);
+    }
+
+    private static volatile ParametresEvaluation courants;
+    private static volatile int version;
+
+    private final int[] mg = new int[NB];
+    private final int[] eg = new int[NB];
+
+    private ParametresEvaluation() {
+    }
+
+    /** Copie des valeurs écrites à la main. */
+    public static ParametresEvaluation defauts() {
+        ParametresEvaluation p = new ParametresEvaluation();
+        int[] materiel = { Evaluation.VALEUR_PION, Evaluation.VALEUR_CAVALIER, Evaluation.VALEUR_FOU,
+                Evaluation.VALEUR_TOUR, Evaluation.VALEUR_DAME };
+        for (int t = 0; t < 5; t++)
+            p.definir(MATERIEL + t, materiel[t], materiel[t]);
+        PieceSquareTable.tablesParDefaut(p.mg, p.eg);
+        Mobilite.bonusParDefaut(p.mg, p.eg);
+        TablePions.termesParDefaut(p.mg, p.eg);
+        SecuriteRoi.termesParDefaut(p.mg, p.eg);
+        Menaces.termesParDefaut(p.mg, p.eg);
+        TableMateriel.termesParDefaut(p.mg, p.eg);
+        return p;
+    }
+
+    /** Copie modifiable. */
+    public ParametresEvaluation copie() {
+        ParametresEvaluation p = new ParametresEvaluation();
+        System.arraycopy(mg, 0, p.mg, 0, NB);
+        System.arraycopy(eg, 0, p.eg, 0, NB);
+        return p;
+    }
+
+    public int mg(int indice) {
+        return mg[indice];
+    }
+
+    public int eg(int indice) {
+        return eg[indice];
+    }
+
+    public void definir(int indice, int valeurMg, int valeurEg) {
+        if (indice < 0 || indice >= NB)
+            throw new IllegalArgumentException("indice de paramètre invalide : " + indice);
+        mg[indice] = valeurMg;
+        eg[indice] = valeurEg;
+    }
+
+    /** Score packé mg/eg d'un paramètre. */
+    public int packe(int indice) {
+        return ScoresIncrementaux.packer(mg[indice], eg[indice]);
+    }
+
+    /**
+     * <p>
+     * Plus forte variation (packée, positive) d'un terme linéaire "Blancs
+     * moins Noirs" dont le compte blanc est au plus {@code maxBlancs} et le
+     * compte noir au plus {@code maxNoirs} : borne de l'évaluation paresseuse.
+     * </p>
+     *
+     * @param hausse vers les Blancs (sinon vers les Noirs)
+     */
+    public int amplitude(int indice, int maxBlancs, int maxNoirs, boolean hausse) {
+        int signe = hausse ? 1 : -1;
+        int amplitudeMg = maxBlancs * Math.max(0, signe * mg[indice]) + maxNoirs * Math.max(0, -signe * mg[indice]);
+        int amplitudeEg = maxBlancs * Math.max(0, signe * eg[indice]) + maxNoirs * Math.max(0, -signe * eg[indice]);
+        return ScoresIncrementaux.packer(amplitudeMg, amplitudeEg);
+    }
+
+    public static String nom(int indice) {
+        return NOMS[indice];
+    }
+
+    // ------------------------------------------------------------------
+    // Paramètres en service
+    // ------------------------------------------------------------------
+
+    /** Paramètres utilisés par l'évaluation (ne pas modifier : copier). */
+    public static ParametresEvaluation courants() {
+        ParametresEvaluation p = courants;
+        if (p == null) {
+            synchronized (ParametresEvaluation.class) {
+                if (courants == null)
+                    appliquer(chargerAuDemarrage());
+                p = courants;
+            }
+        }
+        return p;
+    }
+
+    /** Change à chaque installation (caches dérivés à invalider). */
+    public static int version() {
+        return version;
+    }
+
+    /**
+     * <p>
+     * Met ces paramètres en service : nouvelle table incrémentale (les
+     * plateaux se recalculent au prochain accès), tables de pions et cache
+     * d'évaluation invalidés. À appeler hors recherche.
+     * </p>
+     */
+    public static void installer(ParametresEvaluation parametres) {
+        if (parametres == null)
+            throw new IllegalArgumentException("parametres null");
+        synchronized (ParametresEvaluation.class) {
+            appliquer(parametres.copie());
+        }
+        Evaluation.cache().effacer();
+    }
+
+    private static void appliquer(ParametresEvaluation p) {
+        ScoresIncrementaux.installer(PieceSquareTable.construireTablePackee(p));
+        courants = p;
+        version++;
+    }
+
+    private static ParametresEvaluation chargerAuDemarrage() {
+        String fichier = System.getProperty(PROPRIETE_FICHIER);
+        try {
+            if (fichier != null)
+                return lire(Path.of(fichier));
+            try (InputStream in = ParametresEvaluation.class.getResourceAsStream(RESSOURCE)) {
+                if (in != null)
+                    return lire(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Parametres d'evaluation illisibles, valeurs par defaut : " + e.getMessage());
+        }
+        return defauts();
+    }
+
+    // ------------------------------------------------------------------
+    // Fichier texte
+    // ------------------------------------------------------------------
+
+    public static ParametresEvaluation lire(Path fichier) throws IOException {
+        if (fichier == null)
+            throw new IllegalArgumentException("fichier null");
+        try (Reader r = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+            return lire(r);
+        }
+    }
+
+    /**
+     * <p>Lit des lignes {@code nom mg eg} par-dessus les valeurs par défaut.</p>
+     *
+     * @throws IllegalArgumentException ligne mal formée ou nom inconnu
+     */
+    public static ParametresEvaluation lire(Reader lecteur) throws IOException {
+        ParametresEvaluation p = defauts();
+        BufferedReader br = new BufferedReader(lecteur);
+        String ligne;
+        int numero = 0;
+        while ((ligne = br.readLine()) != null) {
+            numero++;
+            int diese = ligne.indexOf('#');
+            if (diese >= 0)
+                ligne = ligne.substring(0, diese);
+            ligne = ligne.trim();
+            if (ligne.isEmpty())
+                continue;
+            String[] champs = ligne.split("\\s+");
+            Integer indice = INDICES.get(champs[0]);
+            if (champs.length != 3 || indice == null)
+                throw new IllegalArgumentException("ligne " + numero + " invalide : " + ligne);
+            try {
+                p.definir(indice, Integer.parseInt(champs[1]), Integer.parseInt(champs[2]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("ligne " + numero + " invalide : " + ligne, e);
+            }
+        }
+        return p;
+    }
+
+    public void ecrire(Path fichier) throws IOException {
+        if (fichier == null)
+            throw new IllegalArgumentException("fichier null");
+        try (Writer w = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8)) {
+            ecrire(w);
+        }
+    }
+
+    public void ecrire(Writer w) throws IOException {
+        w.write("# Paramètres d'évaluation : nom mg eg\n");
+        for (int i = 0; i < NB; i++)
+            w.write(NOMS[i] + ' ' + mg[i] + ' ' + eg[i] + '\n');
+        w.flush();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ParametresEvaluation p && Arrays.equals(mg, p.mg) && Arrays.equals(eg, p.eg);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(mg) + Arrays.hashCode(eg);
+    }
+}
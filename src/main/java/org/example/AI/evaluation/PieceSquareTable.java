@@ -1,7 +1,10 @@
 package org.example.AI.evaluation;
 
+import org.example.AI.Evaluation;
+import org.example.chess.Case;
 import org.example.chess.Piece;
 import org.example.chess.Plateau;
+import org.example.chess.ScoresIncrementaux;
 
 public final class PieceSquareTable {
 
@@ -63,6 +66,82 @@ public final class PieceSquareTable {
     private PieceSquareTable() {
     }
 
+    /**
+     * <p>
+     * Force l'installation des paramètres d'évaluation et de la table
+     * incrémentale (appelé par {@link Evaluation} au chargement).
+     * </p>
+     */
+    public static void installer() {
+        ParametresEvaluation.courants();
+    }
+
+    /**
+     * <p>
+     * Valeurs par défaut des tables pièce-case, dans la disposition de
+     * {@link ParametresEvaluation}, y compris les bonus de finale qui ne
+     * dépendent que de la case : roi actif et pions avancés.
+     * </p>
+     */
+    static void tablesParDefaut(int[] mg, int[] eg) {
+        int base = ParametresEvaluation.PST;
+        for (int sq = 0; sq < 64; sq++) {
+            mg[base + sq] = PST_PION[sq];
+            eg[base + sq] = PST_PION[sq] + StructurePions.bonusPionAvance(sq, true);
+            mg[base + 64 + sq] = eg[base + 64 + sq] = PST_CAVALIER[sq];
+            mg[base + 128 + sq] = eg[base + 128 + sq] = PST_FOU[sq];
+            // Tour et dame : pas de table écrite à la main (0)
+            mg[base + 320 + sq] = PST_ROI_MILIEU[sq];
+            eg[base + 320 + sq] = PST_ROI_FINALE[sq] + SecuriteRoi.bonusRoiActif(Case.depuisIndice(sq));
+        }
+    }
+
+    /**
+     * <p>
+     * Table [pièce][case] des scores packés mg/eg pour
+     * {@link ScoresIncrementaux} : matériel + tables pièce-case. Signée :
+     * négative pour les pièces noires (tables retournées).
+     * </p>
+     */
+    static int[] construireTablePackee(ParametresEvaluation parametres) {
+        int[] table = new int[12 * 64];
+        for (Piece piece : Piece.values()) {
+            for (int idx = 0; idx < 64; idx++)
+                table[piece.ordinal() * 64 + idx] = scorePiece(parametres, piece, idx);
+        }
+        return table;
+    }
+
+    private static int scorePiece(ParametresEvaluation parametres, Piece piece, int idx) {
+        boolean blanc = piece.ordinal() < 6;
+        int type = piece.ordinal() % 6;
+        int sq = blanc ? idx : (idx ^ 56);
+        int indicePst = ParametresEvaluation.PST + type * 64 + sq;
+        int mg = parametres.mg(indicePst);
+        int eg = parametres.eg(indicePst);
+        if (type < 5) {
+            mg += parametres.mg(ParametresEvaluation.MATERIEL + type);
+            eg += parametres.eg(ParametresEvaluation.MATERIEL + type);
+        }
+        return blanc ? ScoresIncrementaux.packer(mg, eg) : ScoresIncrementaux.packer(-mg, -eg);
+    }
+
+    /**
+     * <p>
+     * Recalcul complet (sans la table) de ce que {@link Plateau#scorePacke()}
+     * tient à jour : sert de vérification en mode debug ({@code -ea}).
+     * </p>
+     */
+    public static int scorePackeComplet(Plateau p) {
+        ParametresEvaluation parametres = ParametresEvaluation.courants();
+        int total = 0;
+        for (Piece piece : Piece.values()) {
+            for (long bb = p.bitboard(piece); bb != 0L; bb &= bb - 1)
+                total += scorePiece(parametres, piece, Long.numberOfTrailingZeros(bb));
+        }
+        return total;
+    }
+
     private static int evaluerPST(long bitboard, int[] pst, boolean isBlanc) {
         int score = 0;
         long tmp = bitboard;
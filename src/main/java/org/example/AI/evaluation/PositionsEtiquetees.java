@@ -0,0 +1,249 @@
+package org.example.AI.evaluation;
+
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+import org.example.chess.ScoresIncrementaux;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Positions étiquetées par le résultat de la partie, réduites à leurs
+ * "traits" d'évaluation : l'évaluation classique est
+ * {@code (phase * somme(coef * mg) + (24 - phase) * somme(coef * eg)) / 24},
+ * sur les paramètres de {@link ParametresEvaluation}.
+ * </p>
+ *
+ * <p>
+ * Stockage compact en tableaux primitifs, sans objet par position : pour
+ * chaque position, les traits non nuls (indice de paramètre sur 16 bits,
+ * coefficient sur 8 bits, Blancs moins Noirs), la phase et le résultat.
+ * Une quarantaine de traits par position, soit environ 130 octets.
+ * </p>
+ *
+ * <p>
+ * Les facteurs d'échelle et les finales reconnues de {@link TableMateriel}
+ * ne sont pas linéaires : le modèle les ignore. Les finales reconnues
+ * (score direct) sont écartées au chargement.
+ * </p>
+ */
+public final class PositionsEtiquetees {
+
+    private static final Piece[] PIECES = Piece.values();
+
+    private int nombre;
+    private int[] debuts = new int[1024 + 1];
+    private byte[] phases = new byte[1024];
+    private byte[] resultats = new byte[1024];
+
+    private int nombreTraits;
+    private short[] indices = new short[64 * 1024];
+    private byte[] coefs = new byte[64 * 1024];
+
+    // Brouillons d'extraction (chargement sur un seul thread)
+    private final int[] dense = new int[ParametresEvaluation.NB];
+    private final int[] touches = new int[ParametresEvaluation.NB];
+    private final boolean[] marques = new boolean[ParametresEvaluation.NB];
+    private final int[] traitsPions = new int[TablePions.NB_TRAITS];
+    private final int[] traitsRoi = new int[SecuriteRoi.NB_TRAITS];
+    private final int[] traitsMenaces = new int[Menaces.NB_TRAITS];
+    private final int[] traitsMateriel = new int[TableMateriel.NB_TRAITS];
+
+    /**
+     * <p>
+     * Lit un fichier d'une position par ligne : FEN (4 à 6 champs) suivie
+     * du résultat, sous la forme {@code 1-0}, {@code 0-1}, {@code 1/2-1/2}
+     * (éventuellement entre guillemets) ou d'un nombre {@code 1.0 / 0.5 / 0.0},
+     * éventuellement entre crochets. Les lignes illisibles sont ignorées.
+     * </p>
+     */
+    public static PositionsEtiquetees charger(Path fichier) throws IOException {
+        if (fichier == null)
+            throw new IllegalArgumentException("fichier null");
+        PositionsEtiquetees positions = new PositionsEtiquetees();
+        try (BufferedReader r = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+            String ligne;
+            while ((ligne = r.readLine()) != null) {
+                String[] champs = ligne.trim().split("\\s+");
+                if (champs.length < 5)
+                    continue;
+                int finFen = 4;
+                while (finFen < Math.min(6, champs.length - 1) && estEntier(champs[finFen]))
+                    finFen++;
+                int resultat = lireResultat(champs, finFen);
+                if (resultat < 0)
+                    continue;
+                try {
+                    Plateau p = Plateau.depuisFEN(String.join(" ", Arrays.copyOf(champs, finFen)));
+                    if (TableMateriel.courante().finale(TableMateriel.cle(p)) == TableMateriel.AUCUNE)
+                        positions.ajouter(p, resultat / 2.0);
+                } catch (IllegalArgumentException e) {
+                    // FEN invalide : ligne ignorée
+                }
+            }
+        }
+        return positions;
+    }
+
+    private static boolean estEntier(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (!Character.isDigit(s.charAt(i)))
+                return false;
+        }
+        return !s.isEmpty();
+    }
+
+    /** Résultat en demi-points (0, 1, 2), ou -1. */
+    private static int lireResultat(String[] champs, int debut) {
+        for (int i = debut; i < champs.length; i++) {
+            String s = champs[i].replaceAll("[\"\\[\\];]", "");
+            switch (s) {
+                case "1-0", "1", "1.0" -> { return 2; }
+                case "0-1", "0", "0.0" -> { return 0; }
+                case "1/2-1/2", "0.5", ".5" -> { return 1; }
+                default -> { }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * <p>Ajoute une position et le résultat de sa partie (1 = gain blanc, 0,5, 0).</p>
+     */
+    public void ajouter(Plateau plateau, double resultat) {
+        if (plateau == null)
+            throw new IllegalArgumentException("plateau null");
+        if (resultat != 0.0 && resultat != 0.5 && resultat != 1.0)
+            throw new IllegalArgumentException("résultat attendu : 0, 0.5 ou 1");
+
+        int nbTouches = extraire(plateau);
+
+        if (nombre + 1 == phases.length) {
+            int capacite = phases.length * 2;
+            debuts = Arrays.copyOf(debuts, capacite + 1);
+            phases = Arrays.copyOf(phases, capacite);
+            resultats = Arrays.copyOf(resultats, capacite);
+        }
+        for (int k = 0; k < nbTouches; k++) {
+            int i = touches[k];
+            int c = dense[i];
+            dense[i] = 0;
+            marques[i] = false;
+            // Coefficient hors de [-127, 127] (mobilité) : réparti sur plusieurs traits
+            while (c != 0) {
+                int part = Math.max(-127, Math.min(127, c));
+                ajouterTrait(i, part);
+                c -= part;
+            }
+        }
+        phases[nombre] = (byte) Math.min(ScoresIncrementaux.calculerPhase(plateau), ScoresIncrementaux.PHASE_MAX);
+        resultats[nombre] = (byte) Math.round(resultat * 2);
+        nombre++;
+        debuts[nombre] = nombreTraits;
+    }
+
+    private void ajouterTrait(int indice, int coef) {
+        if (nombreTraits == indices.length) {
+            indices = Arrays.copyOf(indices, indices.length * 2);
+            coefs = Arrays.copyOf(coefs, coefs.length * 2);
+        }
+        indices[nombreTraits] = (short) indice;
+        coefs[nombreTraits] = (byte) coef;
+        nombreTraits++;
+    }
+
+    /**
+     * <p>
+     * Traits de la position dans {@code dense} ; renvoie le nombre d'indices
+     * touchés (listés dans {@code touches}).
+     * </p>
+     */
+    private int extraire(Plateau p) {
+        int n = 0;
+        for (Piece piece : PIECES) {
+            int type = piece.ordinal() % 6;
+            boolean blanc = piece.ordinal() < 6;
+            int signe = blanc ? 1 : -1;
+            for (long bb = p.bitboard(piece); bb != 0L; bb &= bb - 1) {
+                int idx = Long.numberOfTrailingZeros(bb);
+                int sq = blanc ? idx : (idx ^ 56);
+                if (type < 5)
+                    n = toucher(ParametresEvaluation.MATERIEL + type, signe, n);
+                n = toucher(ParametresEvaluation.PST + type * 64 + sq, signe, n);
+            }
+        }
+
+        long pionsBlancs = p.bitboard(Piece.PION_BLANC);
+        long pionsNoirs = p.bitboard(Piece.PION_NOIR);
+        InfosAttaques infos = InfosAttaques.duThread();
+        infos.calculer(p, StructurePions.attaquesPionsBlancs(pionsBlancs),
+                StructurePions.attaquesPionsNoirs(pionsNoirs));
+        for (int type = 1; type <= 4; type++)
+            n = toucher(ParametresEvaluation.MOBILITE + type - 1, infos.mobilite(type), n);
+
+        TablePions.compterTraits(pionsBlancs, pionsNoirs, traitsPions);
+        for (int a = 0; a < 8; a++)
+            n = toucher(ParametresEvaluation.PASSE + a, traitsPions[a], n);
+        n = toucher(ParametresEvaluation.ISOLE, traitsPions[8], n);
+        n = toucher(ParametresEvaluation.DOUBLE, traitsPions[9], n);
+        n = toucher(ParametresEvaluation.ARRIERE, traitsPions[10], n);
+
+        SecuriteRoi.compterTraits(p, infos, traitsRoi);
+        for (int k = 0; k < SecuriteRoi.NB_TRAITS; k++)
+            n = toucher(ParametresEvaluation.ROI_ATTAQUE + k, traitsRoi[k], n);
+        Menaces.compterTraits(p, infos, traitsMenaces);
+        for (int k = 0; k < Menaces.NB_TRAITS; k++)
+            n = toucher(ParametresEvaluation.MENACE_PION + k, traitsMenaces[k], n);
+        TableMateriel.compterTraits(p, traitsMateriel);
+        for (int k = 0; k < TableMateriel.NB_TRAITS; k++)
+            n = toucher(ParametresEvaluation.PAIRE_FOUS + k, traitsMateriel[k], n);
+        return n;
+    }
+
+    private int toucher(int indice, int valeur, int n) {
+        if (valeur == 0)
+            return n;
+        if (!marques[indice]) {
+            marques[indice] = true;
+            touches[n++] = indice;
+        }
+        dense[indice] += valeur;
+        return n;
+    }
+
+    public int nombre() {
+        return nombre;
+    }
+
+    public int nombreTraits() {
+        return nombreTraits;
+    }
+
+    // Accès directs pour la boucle de perte (pas de copie)
+
+    int debut(int position) {
+        return debuts[position];
+    }
+
+    int phase(int position) {
+        return phases[position];
+    }
+
+    /** Résultat en demi-points : 0, 1 ou 2. */
+    int resultat(int position) {
+        return resultats[position];
+    }
+
+    short[] indices() {
+        return indices;
+    }
+
+    byte[] coefs() {
+        return coefs;
+    }
+}
@@ -0,0 +1,291 @@
+package org.example.AI.evaluation;
+
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+import org.example.chess.ScoresIncrementaux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Profil de l'évaluation, terme par terme : temps passé et contribution
+ * absolue au score (matériel, tables pièce-case, roi, pions, mobilité,
+ * sécurité du roi, menaces).
+ * </p>
+ *
+ * <p>
+ * Désactivé par défaut ; s'active au lancement par
+ * {@code -Dchess.eval.profil=true}. {@link #ACTIF} est une constante :
+ * désactivé, le JIT supprime les branches de profilage et l'évaluation ne
+ * paie rien.
+ * </p>
+ *
+ * <ul>
+ *   <li>Le temps est mesuré par {@code System.nanoTime()} sur une
+ *   évaluation hors cache sur {@value #PERIODE_ECHANTILLON}, puis extrapolé. Matériel, tables et roi
+ *   sont tenus à jour par le plateau : leur coût à l'évaluation est une
+ *   seule lecture, mesurée ensemble. Le calcul des attaques partagées
+ *   ({@link InfosAttaques}) est mesuré à part.</li>
+ *   <li>Les contributions sont relevées à chaque évaluation complète (hors
+ *   cache et sorties paresseuses) : le score packé incrémental est redécomposé
+ *   à partir de {@link ParametresEvaluation}, hors des mesures de temps.</li>
+ * </ul>
+ *
+ * <p>
+ * Compteurs par thread, sans synchronisation sur le chemin chaud ; le
+ * rapport additionne tous les threads.
+ * </p>
+ */
+public final class ProfilEvaluation {
+
+    public static final String PROPRIETE = "chess.eval.profil";
+
+    /** Profilage demandé au lancement (fixe pour toute l'exécution). */
+    public static final boolean ACTIF = Boolean.getBoolean(PROPRIETE);
+
+    /** Une évaluation chronométrée sur ce nombre (puissance de 2). */
+    public static final int PERIODE_ECHANTILLON = 16;
+
+    /** Termes suivis. */
+    public enum Terme {
+        MATERIEL("materiel"),
+        PST("pst"),
+        ROI("roi"),
+        PIONS("pions"),
+        ATTAQUES("attaques"),
+        MOBILITE("mobilite"),
+        SECURITE("securite"),
+        MENACES("menaces"),
+        RESEAU("nnue");
+
+        private final String libelle;
+
+        Terme(String libelle) {
+            this.libelle = libelle;
+        }
+
+        public String libelle() {
+            return libelle;
+        }
+    }
+
+    private static final Terme[] TERMES = Terme.values();
+    private static final Piece[] PIECES = Piece.values();
+
+    private static final List<ProfilEvaluation> TOUS = new ArrayList<>();
+
+    private static final ThreadLocal<ProfilEvaluation> PAR_THREAD = ThreadLocal.withInitial(() -> {
+        ProfilEvaluation p = new ProfilEvaluation();
+        synchronized (TOUS) {
+            TOUS.add(p);
+        }
+        return p;
+    });
+
+    // Compteurs depuis la dernière remise à zéro (écrits par le seul thread propriétaire)
+    private long appels;
+    private long evaluations;
+    private long echantillons;
+    private long succesCache;
+    private long sortiesParesseuses;
+    private long finalesReconnues;
+    private long completes;
+    private final long[] nanos = new long[TERMES.length];
+    private final long[] sommesAbs = new long[TERMES.length];
+    private final long[] maxAbs = new long[TERMES.length];
+
+    private ProfilEvaluation() {
+    }
+
+    /** Profil du thread courant (ne pas appeler si {@link #ACTIF} est faux). */
+    public static ProfilEvaluation duThread() {
+        return PAR_THREAD.get();
+    }
+
+    /** Un appel à l'évaluation, cache compris. */
+    public void appel() {
+        appels++;
+    }
+
+    /**
+     * <p>Début d'une évaluation réelle (après un défaut de cache).</p>
+     *
+     * @return instant de départ si elle est chronométrée, sinon 0
+     */
+    public long debutMesure() {
+        if ((evaluations++ & (PERIODE_ECHANTILLON - 1)) != 0)
+            return 0L;
+        echantillons++;
+        return System.nanoTime();
+    }
+
+    /**
+     * <p>
+     * Attribue au terme le temps écoulé depuis {@code depuis} (0 : appel non
+     * chronométré, rien n'est mesuré).
+     * </p>
+     *
+     * @return nouvel instant de départ pour le terme suivant, ou 0
+     */
+    public long mesurer(Terme terme, long depuis) {
+        if (depuis == 0L)
+            return 0L;
+        long maintenant = System.nanoTime();
+        nanos[terme.ordinal()] += maintenant - depuis;
+        return maintenant;
+    }
+
+    public void succesCache() {
+        succesCache++;
+    }
+
+    public void sortieParesseuse() {
+        sortiesParesseuses++;
+    }
+
+    public void finaleReconnue() {
+        finalesReconnues++;
+    }
+
+    /** Score complet donné par le réseau. */
+    public void reseau(int score) {
+        completes++;
+        relever(Terme.RESEAU, score);
+    }
+
+    /**
+     * <p>
+     * Évaluation classique complète : relève la contribution de chaque terme.
+     * </p>
+     *
+     * @param desequilibrePacke déséquilibre de matériel (compté avec le matériel)
+     * @param pionsPacke score packé de la structure de pions
+     * @param mobilitePacke score packé de la mobilité
+     * @param securitePacke score packé de la sécurité du roi
+     * @param menacesPacke score packé des menaces
+     */
+    public void classique(Plateau plateau, int phase, int desequilibrePacke, int pionsPacke, int mobilitePacke, int securitePacke,
+            int menacesPacke) {
+        ParametresEvaluation p = ParametresEvaluation.courants();
+        int materiel = desequilibrePacke;
+        int pst = 0;
+        int roi = 0;
+        for (Piece piece : PIECES) {
+            int type = piece.ordinal() % 6;
+            boolean blanc = piece.ordinal() < 6;
+            for (long bb = plateau.bitboard(piece); bb != 0L; bb &= bb - 1) {
+                int idx = Long.numberOfTrailingZeros(bb);
+                int sq = blanc ? idx : (idx ^ 56);
+                int casePacke = p.packe(ParametresEvaluation.PST + type * 64 + sq);
+                if (type == 5) {
+                    roi += blanc ? casePacke : -casePacke;
+                } else {
+                    int m = p.packe(ParametresEvaluation.MATERIEL + type);
+                    materiel += blanc ? m : -m;
+                    pst += blanc ? casePacke : -casePacke;
+                }
+            }
+        }
+        completes++;
+        relever(Terme.MATERIEL, interpoler(materiel, phase));
+        relever(Terme.PST, interpoler(pst, phase));
+        relever(Terme.ROI, interpoler(roi, phase));
+        relever(Terme.PIONS, interpoler(pionsPacke, phase));
+        relever(Terme.MOBILITE, interpoler(mobilitePacke, phase));
+        relever(Terme.SECURITE, interpoler(securitePacke, phase));
+        relever(Terme.MENACES, interpoler(menacesPacke, phase));
+    }
+
+    private void relever(Terme terme, int contribution) {
+        int a = Math.abs(contribution);
+        sommesAbs[terme.ordinal()] += a;
+        if (a > maxAbs[terme.ordinal()])
+            maxAbs[terme.ordinal()] = a;
+    }
+
+    private static int interpoler(int packe, int phase) {
+        return (ScoresIncrementaux.mg(packe) * phase
+                + ScoresIncrementaux.eg(packe) * (ScoresIncrementaux.PHASE_MAX - phase))
+                / ScoresIncrementaux.PHASE_MAX;
+    }
+
+    /**
+     * <p>Remet à zéro les profils de tous les threads (début de recherche).</p>
+     */
+    public static void remettreAZero() {
+        synchronized (TOUS) {
+            for (ProfilEvaluation p : TOUS) {
+                p.appels = 0;
+                p.evaluations = 0;
+                p.echantillons = 0;
+                p.succesCache = 0;
+                p.sortiesParesseuses = 0;
+                p.finalesReconnues = 0;
+                p.completes = 0;
+                java.util.Arrays.fill(p.nanos, 0);
+                java.util.Arrays.fill(p.sommesAbs, 0);
+                java.util.Arrays.fill(p.maxAbs, 0);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Agrégat de tous les threads depuis la dernière remise à zéro : appels,
+     * taux de cache et de sorties paresseuses, puis par terme le temps moyen
+     * par évaluation chronométrée (hors cache), le temps total extrapolé et
+     * la contribution absolue moyenne et maximale (en centipions).
+     * </p>
+     */
+    public static String rapport() {
+        long appels = 0, echantillons = 0, cache = 0, paresseuses = 0, reconnues = 0, completes = 0;
+        long[] nanos = new long[TERMES.length];
+        long[] sommes = new long[TERMES.length];
+        long[] max = new long[TERMES.length];
+        synchronized (TOUS) {
+            for (ProfilEvaluation p : TOUS) {
+                appels += p.appels;
+                echantillons += p.echantillons;
+                cache += p.succesCache;
+                paresseuses += p.sortiesParesseuses;
+                reconnues += p.finalesReconnues;
+                completes += p.completes;
+                for (int t = 0; t < TERMES.length; t++) {
+                    nanos[t] += p.nanos[t];
+                    sommes[t] += p.sommesAbs[t];
+                    max[t] = Math.max(max[t], p.maxAbs[t]);
+                }
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Profil eval : %d appels, cache %.1f%%, paresseuses %.1f%%, finales reconnues"
+                + " %.1f%%, completes %d (temps sur 1 eval / %d)%n", appels, pourcent(cache, appels),
+                pourcent(paresseuses, appels), pourcent(reconnues, appels), completes, PERIODE_ECHANTILLON));
+        sb.append(String.format("  %-9s %10s %12s %12s %10s%n", "terme", "ns/eval", "total ms", "|cp| moyen",
+                "|cp| max"));
+        for (Terme terme : TERMES) {
+            int t = terme.ordinal();
+            if (nanos[t] == 0 && sommes[t] == 0)
+                continue;
+            String temps;
+            String total;
+            if (terme == Terme.PST || terme == Terme.ROI) {
+                // Mesurés avec le matériel (une seule lecture incrémentale)
+                temps = "(materiel)";
+                total = "";
+            } else {
+                temps = String.format("%.1f", echantillons == 0 ? 0.0 : nanos[t] / (double) echantillons);
+                total = String.format("%.1f", nanos[t] * (double) PERIODE_ECHANTILLON / 1e6);
+            }
+            sb.append(String.format("  %-9s %10s %12s %12.1f %10d%n", terme.libelle(), temps, total,
+                    completes == 0 ? 0.0 : sommes[t] / (double) completes, max[t]));
+        }
+        return sb.toString();
+    }
+
+    private static double pourcent(long n, long total) {
+        return total == 0 ? 0.0 : 100.0 * n / total;
+    }
+}
@@ -0,0 +1,288 @@
+package org.example.AI.evaluation;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * Réglage "Texel" des paramètres d'évaluation : on minimise, sur des
+ * positions étiquetées par le résultat de leur partie, l'erreur
+ * quadratique entre ce résultat et {@code sigmoide(K * eval)}, avec
+ * {@code sigmoide(x) = 1 / (1 + 10^(-x / 400))}.
+ * </p>
+ *
+ * <ol>
+ *   <li>K est d'abord ajusté (recherche par section dorée) pour les
+ *   paramètres de départ, puis fixé.</li>
+ *   <li>Descente de gradient Adam sur tous les paramètres, en valeurs
+ *   réelles ; le gradient est exact car l'évaluation est linéaire en les
+ *   paramètres ({@link PositionsEtiquetees}).</li>
+ *   <li>Les valeurs finales sont arrondies et écrites au format de
+ *   {@link ParametresEvaluation}.</li>
+ * </ol>
+ *
+ * <p>
+ * Chaque passe (perte + gradient) est répartie en tranches de positions,
+ * une par coeur ; chaque tranche a son propre gradient, sommé ensuite.
+ * La boucle sur les positions n'alloue rien.
+ * </p>
+ *
+ * <p>
+ * Usage : {@code ReglageTexel positions.txt sortie.txt [époques] [taux]}.
+ * Les positions doivent être calmes (pas de prise en suspens) : la
+ * quiescence n'est pas rejouée.
+ * </p>
+ */
+public final class ReglageTexel {
+
+    private static final double LN10_SUR_400 = Math.log(10) / 400.0;
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+    private static final double EPSILON = 1e-8;
+
+    private final PositionsEtiquetees positions;
+    private final ExecutorService executeur;
+    private final List<Tranche> tranches = new ArrayList<>();
+
+    // Paramètres courants (lus par les tranches pendant une passe)
+    private final double[] mg = new double[ParametresEvaluation.NB];
+    private final double[] eg = new double[ParametresEvaluation.NB];
+
+    public ReglageTexel(PositionsEtiquetees positions, int threads) {
+        if (positions == null || positions.nombre() == 0)
+            throw new IllegalArgumentException("aucune position");
+        if (threads < 1)
+            throw new IllegalArgumentException("threads >= 1 attendu");
+        this.positions = positions;
+        this.executeur = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "reglage-texel");
+            t.setDaemon(true);
+            return t;
+        });
+        int n = positions.nombre();
+        for (int i = 0; i < threads; i++)
+            tranches.add(new Tranche((int) ((long) n * i / threads), (int) ((long) n * (i + 1) / threads)));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage : ReglageTexel <positions> <sortie> [epoques=300] [taux=1.0]");
+            return;
+        }
+        int epoques = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+        double taux = args.length > 3 ? Double.parseDouble(args[3]) : 1.0;
+
+        long debut = System.nanoTime();
+        PositionsEtiquetees positions = PositionsEtiquetees.charger(Path.of(args[0]));
+        System.out.printf("%d positions, %d traits (%.1f s)%n", positions.nombre(), positions.nombreTraits(),
+                (System.nanoTime() - debut) / 1e9);
+
+        ReglageTexel reglage = new ReglageTexel(positions, Runtime.getRuntime().availableProcessors());
+        try {
+            ParametresEvaluation resultat = reglage.optimiser(ParametresEvaluation.defauts(), epoques, taux,
+                    System.out);
+            resultat.ecrire(Path.of(args[1]));
+            System.out.println("Parametres ecrits dans " + args[1]);
+        } finally {
+            reglage.fermer();
+        }
+    }
+
+    /**
+     * <p>Optimise à partir de {@code depart} ; journal facultatif.</p>
+     */
+    public ParametresEvaluation optimiser(ParametresEvaluation depart, int epoques, double taux,
+            PrintStream journal) {
+        if (depart == null)
+            throw new IllegalArgumentException("depart null");
+        charger(depart);
+        double k = ajusterK();
+        double perte = passe(k, false);
+        if (journal != null)
+            journal.printf("K = %.4f, perte initiale = %.6f%n", k, perte);
+
+        int nb = ParametresEvaluation.NB;
+        double[] mMg = new double[nb];
+        double[] mEg = new double[nb];
+        double[] vMg = new double[nb];
+        double[] vEg = new double[nb];
+        double[] gMg = new double[nb];
+        double[] gEg = new double[nb];
+
+        for (int e = 1; e <= epoques; e++) {
+            long t0 = System.nanoTime();
+            perte = passe(k, true);
+            sommerGradients(gMg, gEg);
+
+            double c1 = 1 - Math.pow(BETA1, e);
+            double c2 = 1 - Math.pow(BETA2, e);
+            adam(mg, gMg, mMg, vMg, taux, c1, c2);
+            adam(eg, gEg, mEg, vEg, taux, c1, c2);
+
+            if (journal != null && (e % 10 == 0 || e == epoques))
+                journal.printf("epoque %d : perte = %.6f (%.2f s)%n", e, perte, (System.nanoTime() - t0) / 1e9);
+        }
+        return arrondir();
+    }
+
+    /** Arrête les threads de calcul. */
+    public void fermer() {
+        executeur.shutdownNow();
+    }
+
+    /**
+     * <p>Perte moyenne pour ces paramètres et ce K (sans gradient).</p>
+     */
+    public double perte(ParametresEvaluation parametres, double k) {
+        charger(parametres);
+        return passe(k, false);
+    }
+
+    private void charger(ParametresEvaluation p) {
+        for (int i = 0; i < ParametresEvaluation.NB; i++) {
+            mg[i] = p.mg(i);
+            eg[i] = p.eg(i);
+        }
+    }
+
+    private ParametresEvaluation arrondir() {
+        ParametresEvaluation p = ParametresEvaluation.defauts();
+        for (int i = 0; i < ParametresEvaluation.NB; i++)
+            p.definir(i, (int) Math.round(mg[i]), (int) Math.round(eg[i]));
+        return p;
+    }
+
+    private static void adam(double[] theta, double[] g, double[] m, double[] v, double taux, double c1,
+            double c2) {
+        for (int i = 0; i < theta.length; i++) {
+            m[i] = BETA1 * m[i] + (1 - BETA1) * g[i];
+            v[i] = BETA2 * v[i] + (1 - BETA2) * g[i] * g[i];
+            theta[i] -= taux * (m[i] / c1) / (Math.sqrt(v[i] / c2) + EPSILON);
+        }
+    }
+
+    /** K minimisant la perte des paramètres courants (section dorée sur [0, 3]). */
+    private double ajusterK() {
+        double phi = (Math.sqrt(5) - 1) / 2;
+        double a = 0.0;
+        double b = 3.0;
+        double c = b - phi * (b - a);
+        double d = a + phi * (b - a);
+        double fc = passe(c, false);
+        double fd = passe(d, false);
+        for (int i = 0; i < 30; i++) {
+            if (fc < fd) {
+                b = d;
+                d = c;
+                fd = fc;
+                c = b - phi * (b - a);
+                fc = passe(c, false);
+            } else {
+                a = c;
+                c = d;
+                fc = fd;
+                d = a + phi * (b - a);
+                fd = passe(d, false);
+            }
+        }
+        return (a + b) / 2;
+    }
+
+    /** Une passe parallèle sur toutes les positions ; renvoie la perte moyenne. */
+    private double passe(double k, boolean gradient) {
+        for (Tranche t : tranches) {
+            t.k = k;
+            t.gradient = gradient;
+        }
+        try {
+            double somme = 0;
+            for (Future<Double> f : executeur.invokeAll(tranches))
+                somme += f.get();
+            return somme / positions.nombre();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("réglage interrompu", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("erreur de calcul", e.getCause());
+        }
+    }
+
+    private void sommerGradients(double[] gMg, double[] gEg) {
+        double n = positions.nombre();
+        Arrays.fill(gMg, 0);
+        Arrays.fill(gEg, 0);
+        for (Tranche t : tranches) {
+            for (int i = 0; i < gMg.length; i++) {
+                gMg[i] += t.gMg[i] / n;
+                gEg[i] += t.gEg[i] / n;
+            }
+        }
+    }
+
+    /** Positions [debut, fin) : perte et gradient locaux. */
+    private final class Tranche implements Callable<Double> {
+        final int debut;
+        final int fin;
+        final double[] gMg = new double[ParametresEvaluation.NB];
+        final double[] gEg = new double[ParametresEvaluation.NB];
+        double k;
+        boolean gradient;
+
+        Tranche(int debut, int fin) {
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        public Double call() {
+            short[] indices = positions.indices();
+            byte[] coefs = positions.coefs();
+            double[] pMg = mg;
+            double[] pEg = eg;
+            if (gradient) {
+                Arrays.fill(gMg, 0);
+                Arrays.fill(gEg, 0);
+            }
+            double perte = 0;
+            int j0 = positions.debut(debut);
+            for (int i = debut; i < fin; i++) {
+                int j1 = positions.debut(i + 1);
+                double sMg = 0;
+                double sEg = 0;
+                for (int j = j0; j < j1; j++) {
+                    int c = coefs[j];
+                    sMg += c * pMg[indices[j]];
+                    sEg += c * pEg[indices[j]];
+                }
+                double ph = positions.phase(i) / 24.0;
+                double eval = sMg * ph + sEg * (1 - ph);
+                double s = 1 / (1 + Math.exp(-k * eval * LN10_SUR_400));
+                double ecart = positions.resultat(i) * 0.5 - s;
+                perte += ecart * ecart;
+
+                if (gradient) {
+                    // d(ecart^2)/d(eval)
+                    double d = -2 * ecart * s * (1 - s) * k * LN10_SUR_400;
+                    double dMg = d * ph;
+                    double dEg = d * (1 - ph);
+                    for (int j = j0; j < j1; j++) {
+                        int c = coefs[j];
+                        gMg[indices[j]] += c * dMg;
+                        gEg[indices[j]] += c * dEg;
+                    }
+                }
+                j0 = j1;
+            }
+            return perte;
+        }
+    }
+}
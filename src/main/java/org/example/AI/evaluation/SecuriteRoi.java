@@ -1,28 +1,135 @@
 package org.example.AI.evaluation;
 
 import org.example.chess.Case;
+import org.example.chess.Masques;
 import org.example.chess.Piece;
 import org.example.chess.Plateau;
 
+/**
+ * <p>
+ * Roi : activité en finale (bonus de case, intégré à la table
+ * incrémentale) et sécurité en milieu de partie, à partir des attaques
+ * partagées ({@link InfosAttaques}) :
+ * </p>
+ *
+ * <ul>
+ *   <li>cases de la zone du roi adverse attaquées, par type d'attaquant ;</li>
+ *   <li>cases de cette zone attaquées au moins deux fois ;</li>
+ *   <li>pions du bouclier (devant le roi, sur sa colonne et les voisines).</li>
+ * </ul>
+ */
 public final class SecuriteRoi {
     private static final int BONUS_ROI_CENTRE_FINALE = 15;
 
+    // Valeurs par défaut, du point de vue de l'attaquant : zone attaquée par pion ... dame, double, bouclier
+    private static final int[] TERMES_MG = { 2, 6, 5, 4, 6, 4, 8 };
+    private static final int[] TERMES_EG = { 0, 0, 0, 0, 0, 0, 0 };
+
+    /** Traits de {@link #compterTraits} : zone attaquée par type (0 à 4), double (5), bouclier (6). */
+    public static final int NB_TRAITS = 7;
+    private static final int TRAIT_DOUBLE = 5;
+    private static final int TRAIT_BOUCLIER = 6;
+
+    // Cases de la zone du roi (sa case et ses voisines)
+    private static final int CASES_ZONE = 9;
+    // Cases de la zone qu'une seule pièce peut attaquer, cavalier à dame (le roi arrête les rayons)
+    private static final int[] ZONE_MAX_PIECE = { 0, 2, 2, 4, 5 };
+    // Cases de la zone adverse attaquées par le roi (les rois ne se touchent pas)
+    private static final int ATTAQUES_ZONE_ROI = 3;
+
+    private static final Piece[] PIECES = Piece.values();
+
     private SecuriteRoi() {
     }
 
+    /**
+     * <p>Sécurité des rois, Blancs moins Noirs, score packé.</p>
+     */
+    public static int scoreSecurite(Plateau p, InfosAttaques infos) {
+        int[] traits = infos.traits;
+        compterTraits(p, infos, traits);
+        ParametresEvaluation parametres = ParametresEvaluation.courants();
+        int score = 0;
+        for (int k = 0; k < NB_TRAITS; k++)
+            score += traits[k] * parametres.packe(ParametresEvaluation.ROI_ATTAQUE + k);
+        return score;
+    }
+
+    /**
+     * <p>
+     * Traits de sécurité, Blancs moins Noirs, dans l'ordre des paramètres à
+     * partir de {@link ParametresEvaluation#ROI_ATTAQUE} : attaques de la
+     * zone du roi adverse par type (0 à 4), cases de cette zone attaquées
+     * deux fois (5), pions de son propre bouclier (6).
+     * </p>
+     */
+    public static void compterTraits(Plateau p, InfosAttaques infos, int[] traits) {
+        for (int type = 0; type < 5; type++)
+            traits[type] = infos.attaquesZoneRoi(true, type) - infos.attaquesZoneRoi(false, type);
+        traits[TRAIT_DOUBLE] = Long.bitCount(infos.doubles(true) & infos.zoneRoi(false))
+                - Long.bitCount(infos.doubles(false) & infos.zoneRoi(true));
+        // Bouclier : la zone du roi décalée d'une rangée vers l'adversaire
+        traits[TRAIT_BOUCLIER] = Long.bitCount(p.bitboard(Piece.PION_BLANC) & (infos.zoneRoi(true) >>> 8))
+                - Long.bitCount(p.bitboard(Piece.PION_NOIR) & (infos.zoneRoi(false) << 8));
+    }
+
+    /**
+     * <p>
+     * Plus forte variation (packée, positive) de la sécurité dans un sens,
+     * pour l'évaluation paresseuse. Les termes de pions sont bornés par leur
+     * valeur exacte (attaques de pions et rois connus sans les autres
+     * attaques), ceux des pièces par ce qu'une pièce peut atteindre.
+     * </p>
+     */
+    public static int amplitudeMax(Plateau p, long attaquesPionsBlancs, long attaquesPionsNoirs, boolean hausse) {
+        ParametresEvaluation parametres = ParametresEvaluation.courants();
+        long roiBlanc = p.bitboard(Piece.ROI_BLANC);
+        long roiNoir = p.bitboard(Piece.ROI_NOIR);
+        long zoneBlanche = roiBlanc == 0L ? 0L : roiBlanc | Masques.attaquesRoi(Long.numberOfTrailingZeros(roiBlanc));
+        long zoneNoire = roiNoir == 0L ? 0L : roiNoir | Masques.attaquesRoi(Long.numberOfTrailingZeros(roiNoir));
+
+        int blancs = Long.bitCount(attaquesPionsBlancs & zoneNoire);
+        int noirs = Long.bitCount(attaquesPionsNoirs & zoneBlanche);
+        int amplitude = parametres.amplitude(ParametresEvaluation.ROI_ATTAQUE, blancs, noirs, hausse);
+        // Attaques de la zone (pions, pièces, roi) : au plus la moitié sur des cases attaquées deux fois
+        int totalBlancs = blancs + ATTAQUES_ZONE_ROI;
+        int totalNoirs = noirs + ATTAQUES_ZONE_ROI;
+        for (int type = 1; type < 5; type++) {
+            blancs = Long.bitCount(p.bitboard(PIECES[type])) * ZONE_MAX_PIECE[type];
+            noirs = Long.bitCount(p.bitboard(PIECES[type + 6])) * ZONE_MAX_PIECE[type];
+            totalBlancs += blancs;
+            totalNoirs += noirs;
+            amplitude += parametres.amplitude(ParametresEvaluation.ROI_ATTAQUE + type, blancs, noirs, hausse);
+        }
+        amplitude += parametres.amplitude(ParametresEvaluation.ROI_DOUBLE, Math.min(CASES_ZONE, totalBlancs / 2),
+                Math.min(CASES_ZONE, totalNoirs / 2), hausse);
+        amplitude += parametres.amplitude(ParametresEvaluation.BOUCLIER,
+                Long.bitCount(p.bitboard(Piece.PION_BLANC) & (zoneBlanche >>> 8)),
+                Long.bitCount(p.bitboard(Piece.PION_NOIR) & (zoneNoire << 8)), hausse);
+        return amplitude;
+    }
+
+    /** Valeurs par défaut, dans la disposition de {@link ParametresEvaluation}. */
+    static void termesParDefaut(int[] mg, int[] eg) {
+        System.arraycopy(TERMES_MG, 0, mg, ParametresEvaluation.ROI_ATTAQUE, NB_TRAITS);
+        System.arraycopy(TERMES_EG, 0, eg, ParametresEvaluation.ROI_ATTAQUE, NB_TRAITS);
+    }
+
     public static int scoreRoiActifFinale(Plateau p) {
         Case roiBlanc = EvaluationUtils.trouverCaseUnique(p.bitboard(Piece.ROI_BLANC));
         Case roiNoir = EvaluationUtils.trouverCaseUnique(p.bitboard(Piece.ROI_NOIR));
         if (roiBlanc == null || roiNoir == null)
             return 0;
 
-        int distBlanc = distanceCentre(roiBlanc);
-        int distNoir = distanceCentre(roiNoir);
-
-        int bonusBlanc = (6 - distBlanc) * BONUS_ROI_CENTRE_FINALE;
-        int bonusNoir = (6 - distNoir) * BONUS_ROI_CENTRE_FINALE;
+        return bonusRoiActif(roiBlanc) - bonusRoiActif(roiNoir);
+    }
 
-        return bonusBlanc - bonusNoir;
+    /**
+     * Bonus de finale d'un roi sur cette case (ne dépend que de la case : il
+     * est aussi intégré à la table incrémentale).
+     */
+    public static int bonusRoiActif(Case c) {
+        return (6 - distanceCentre(c)) * BONUS_ROI_CENTRE_FINALE;
     }
 
     private static int distanceCentre(Case c) {
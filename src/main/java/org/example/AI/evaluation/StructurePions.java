@@ -1,11 +1,27 @@
 package org.example.AI.evaluation;
 
+import org.example.chess.Masques;
 import org.example.chess.Piece;
 import org.example.chess.Plateau;
 
+/**
+ * <p>
+ * Termes de structure de pions. Les motifs (pions passés, isolés, doublés,
+ * arriérés) sont calculés <b>en bloc</b> sur les bitboards, sans boucle par
+ * pion, et mis en cache par {@link TablePions}.
+ * </p>
+ *
+ * <p>
+ * Rappel d'orientation : la case 0 est a8, les Blancs avancent vers les
+ * indices décroissants ("nord" = {@code >>> 8}).
+ * </p>
+ */
 public final class StructurePions {
     private static final int BONUS_PION_AVANCE = 6;
 
+    private static final long FILE_A = Masques.FILE_A;
+    private static final long FILE_H = Masques.FILE_H;
+
     private StructurePions() {
     }
 
@@ -21,9 +37,7 @@ public final class StructurePions {
             int idx = Long.numberOfTrailingZeros(tmp);
             tmp &= (tmp - 1);
 
-            int ligne = idx / 8;
-            int avance = (7 - ligne);
-            bonusBlanc += avance * BONUS_PION_AVANCE;
+            bonusBlanc += bonusPionAvance(idx, true);
         }
 
         tmp = bp;
@@ -31,11 +45,97 @@ public final class StructurePions {
             int idx = Long.numberOfTrailingZeros(tmp);
             tmp &= (tmp - 1);
 
-            int ligne = idx / 8;
-            int avance = ligne;
-            bonusNoir += avance * BONUS_PION_AVANCE;
+            bonusNoir += bonusPionAvance(idx, false);
         }
 
         return bonusBlanc - bonusNoir;
     }
+
+    /**
+     * Bonus de finale d'un pion avancé (ne dépend que de la case : il est
+     * aussi intégré à la table incrémentale).
+     */
+    public static int bonusPionAvance(int indice, boolean blanc) {
+        int ligne = indice / 8;
+        int avance = blanc ? (7 - ligne) : ligne;
+        return avance * BONUS_PION_AVANCE;
+    }
+
+    /** Remplit vers le nord (vers la 8e rangée), cases de départ comprises. */
+    public static long remplirNord(long b) {
+        b |= b >>> 8;
+        b |= b >>> 16;
+        b |= b >>> 32;
+        return b;
+    }
+
+    /** Remplit vers le sud (vers la 1re rangée), cases de départ comprises. */
+    public static long remplirSud(long b) {
+        b |= b << 8;
+        b |= b << 16;
+        b |= b << 32;
+        return b;
+    }
+
+    /** Colonnes entières occupées par au moins une case de b. */
+    public static long colonnes(long b) {
+        return remplirNord(b) | remplirSud(b);
+    }
+
+    public static long attaquesPionsBlancs(long pions) {
+        return ((pions >>> 7) & ~FILE_A) | ((pions >>> 9) & ~FILE_H);
+    }
+
+    public static long attaquesPionsNoirs(long pions) {
+        return ((pions << 7) & ~FILE_H) | ((pions << 9) & ~FILE_A);
+    }
+
+    /** Cases que les pions blancs pourront attaquer en avançant. */
+    public static long zoneAttaqueBlancs(long pions) {
+        return remplirNord(attaquesPionsBlancs(pions));
+    }
+
+    /** Cases que les pions noirs pourront attaquer en avançant. */
+    public static long zoneAttaqueNoirs(long pions) {
+        return remplirSud(attaquesPionsNoirs(pions));
+    }
+
+    /** Pions blancs sans pion noir devant eux, ni sur les colonnes voisines. */
+    public static long passesBlancs(long blancs, long noirs) {
+        return blancs & ~(remplirSud(noirs << 8) | zoneAttaqueNoirs(noirs));
+    }
+
+    public static long passesNoirs(long blancs, long noirs) {
+        return noirs & ~(remplirNord(blancs >>> 8) | zoneAttaqueBlancs(blancs));
+    }
+
+    /** Pions sans pion du même camp sur les colonnes voisines. */
+    public static long isoles(long pions) {
+        long cols = colonnes(pions);
+        long voisines = ((cols << 1) & ~FILE_A) | ((cols >>> 1) & ~FILE_H);
+        return pions & ~voisines;
+    }
+
+    /** Pions blancs ayant un autre pion blanc devant eux sur la même colonne. */
+    public static long doublesBlancs(long blancs) {
+        return blancs & remplirSud(blancs << 8);
+    }
+
+    public static long doublesNoirs(long noirs) {
+        return noirs & remplirNord(noirs >>> 8);
+    }
+
+    /**
+     * Pions blancs arriérés : la case d'arrêt est attaquée par un pion noir
+     * et aucun pion blanc voisin ne peut venir la protéger.
+     */
+    public static long arrieresBlancs(long blancs, long noirs) {
+        long arrets = blancs >>> 8;
+        return (arrets & attaquesPionsNoirs(noirs) & ~zoneAttaqueBlancs(blancs)) << 8;
+    }
+
+    public static long arrieresNoirs(long blancs, long noirs) {
+        long arrets = noirs << 8;
+        return (arrets & attaquesPionsBlancs(blancs) & ~zoneAttaqueNoirs(noirs)) >>> 8;
+    }
 }
@@ -0,0 +1,277 @@
+package org.example.AI.evaluation;
+
+import org.example.AI.Evaluation;
+import org.example.chess.Masques;
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+
+/**
+ * <p>
+ * Table de matériel : tout ce qui ne dépend que du nombre de pièces de
+ * chaque sorte, précalculé pour toutes les signatures courantes.
+ * </p>
+ *
+ * <p>
+ * La clé ({@link #cle(Plateau)}) est l'indice de la signature : nombres de
+ * pions (0 à 8), cavaliers, fous, tours (0 à 2) et dames (0 ou 1) de chaque
+ * camp, en base mixte, soit 486 x 486 entrées. Une signature hors de ces
+ * bornes (promotion en troisième cavalier, deuxième dame...) donne
+ * {@link #HORS_TABLE} : on retombe alors sur un calcul direct sans facteur
+ * ni finale reconnue.
+ * </p>
+ *
+ * <p>
+ * Chaque entrée donne :
+ * </p>
+ * <ul>
+ *   <li>le déséquilibre de matériel (score packé) : paire de fous,
+ *   cavaliers et tours selon le nombre de pions du camp ;</li>
+ *   <li>le facteur d'échelle de la finale (sur {@value #FACTEUR_NORMAL}),
+ *   pour chaque camp en avance : sans pion, un avantage d'au plus une
+ *   pièce mineure ne gagne en général pas ;</li>
+ *   <li>la finale reconnue éventuelle ({@link FinalesConnues}).</li>
+ * </ul>
+ *
+ * <p>
+ * Les fous de couleurs opposées dépendent des cases, pas seulement du
+ * nombre : l'entrée marque seulement les signatures où la vérification est
+ * utile. La table est reconstruite quand les paramètres changent.
+ * </p>
+ */
+public final class TableMateriel {
+
+    public static final int HORS_TABLE = -1;
+
+    /** Facteur d'échelle neutre (la finale garde tout son score). */
+    public static final int FACTEUR_NORMAL = 64;
+
+    /** Facteur des fous de couleurs opposées (seuls avec les pions). */
+    private static final int FACTEUR_FOUS_OPPOSES = 32;
+
+    // Finales reconnues (code * 2 + 1 si le camp fort est noir)
+    public static final int AUCUNE = 0;
+    /** Peut-être nulle morte (à vérifier sur les cases des fous). */
+    public static final int INSUFFISANT = 1;
+    /** Roi, fou et cavalier contre roi seul. */
+    public static final int KBNK = 2;
+    /** Tour ou dame (et le reste) contre roi seul. */
+    public static final int KXK = 3;
+    /** Roi et pion contre roi seul (table {@link BitbaseKpk}). */
+    public static final int KPK = 4;
+
+    /** Nombre de traits de {@link #compterTraits}. */
+    public static final int NB_TRAITS = 3;
+
+    private static final int PAR_CAMP = 9 * 3 * 3 * 3 * 2;
+
+    // Valeurs par défaut : paire de fous, cavalier et tour par pion au-delà de cinq
+    private static final int PAIRE_FOUS_MG = 30;
+    private static final int PAIRE_FOUS_EG = 50;
+    private static final int CAVALIER_PIONS_MG = 4;
+    private static final int CAVALIER_PIONS_EG = 4;
+    private static final int TOUR_PIONS_MG = -8;
+    private static final int TOUR_PIONS_EG = -8;
+
+    private static volatile TableMateriel courante;
+
+    private final int version;
+    private final int[] desequilibres = new int[PAR_CAMP * PAR_CAMP];
+    private final byte[] facteursBlancs = new byte[PAR_CAMP * PAR_CAMP];
+    private final byte[] facteursNoirs = new byte[PAR_CAMP * PAR_CAMP];
+    private final byte[] finales = new byte[PAR_CAMP * PAR_CAMP];
+    private final boolean[] fousSeuls = new boolean[PAR_CAMP * PAR_CAMP];
+
+    private TableMateriel(ParametresEvaluation parametres, int version) {
+        this.version = version;
+        int[] b = new int[5];
+        int[] n = new int[5];
+        for (int cb = 0; cb < PAR_CAMP; cb++) {
+            decoder(cb, b);
+            for (int cn = 0; cn < PAR_CAMP; cn++) {
+                decoder(cn, n);
+                int i = cb * PAR_CAMP + cn;
+                desequilibres[i] = desequilibre(parametres, b[0], b[1], b[2], b[3], n[0], n[1], n[2], n[3]);
+                facteursBlancs[i] = (byte) facteur(b, n);
+                facteursNoirs[i] = (byte) facteur(n, b);
+                finales[i] = (byte) finale(b, n);
+                fousSeuls[i] = b[2] == 1 && n[2] == 1 && b[1] + b[3] + b[4] + n[1] + n[3] + n[4] == 0;
+            }
+        }
+    }
+
+    /** Table des paramètres en service (reconstruite s'ils ont changé). */
+    public static TableMateriel courante() {
+        TableMateriel t = courante;
+        int version = ParametresEvaluation.version();
+        if (t == null || t.version != version) {
+            synchronized (TableMateriel.class) {
+                ParametresEvaluation parametres = ParametresEvaluation.courants();
+                version = ParametresEvaluation.version();
+                t = courante;
+                if (t == null || t.version != version) {
+                    t = new TableMateriel(parametres, version);
+                    courante = t;
+                }
+            }
+        }
+        return t;
+    }
+
+    /**
+     * <p>Indice de la signature de matériel, ou {@link #HORS_TABLE}.</p>
+     */
+    public static int cle(Plateau p) {
+        int b = cleCamp(p.bitboard(Piece.PION_BLANC), p.bitboard(Piece.CAVALIER_BLANC),
+                p.bitboard(Piece.FOU_BLANC), p.bitboard(Piece.TOUR_BLANC), p.bitboard(Piece.DAME_BLANCHE));
+        int n = cleCamp(p.bitboard(Piece.PION_NOIR), p.bitboard(Piece.CAVALIER_NOIR),
+                p.bitboard(Piece.FOU_NOIR), p.bitboard(Piece.TOUR_NOIRE), p.bitboard(Piece.DAME_NOIRE));
+        return (b | n) < 0 ? HORS_TABLE : b * PAR_CAMP + n;
+    }
+
+    private static int cleCamp(long pions, long cavaliers, long fous, long tours, long dames) {
+        int nc = Long.bitCount(cavaliers);
+        int nf = Long.bitCount(fous);
+        int nt = Long.bitCount(tours);
+        int nd = Long.bitCount(dames);
+        if (nc > 2 || nf > 2 || nt > 2 || nd > 1)
+            return -1;
+        return (((Long.bitCount(pions) * 3 + nc) * 3 + nf) * 3 + nt) * 2 + nd;
+    }
+
+    /** Nombres pion, cavalier, fou, tour, dame d'une clé de camp. */
+    private static void decoder(int cle, int[] n) {
+        n[4] = cle % 2;
+        cle /= 2;
+        n[3] = cle % 3;
+        cle /= 3;
+        n[2] = cle % 3;
+        cle /= 3;
+        n[1] = cle % 3;
+        n[0] = cle / 3;
+    }
+
+    /** Déséquilibre de matériel, score packé positif pour les Blancs. */
+    public int desequilibre(Plateau p, int cle) {
+        if (cle != HORS_TABLE)
+            return desequilibres[cle];
+        return desequilibre(ParametresEvaluation.courants(),
+                Long.bitCount(p.bitboard(Piece.PION_BLANC)), Long.bitCount(p.bitboard(Piece.CAVALIER_BLANC)),
+                Long.bitCount(p.bitboard(Piece.FOU_BLANC)), Long.bitCount(p.bitboard(Piece.TOUR_BLANC)),
+                Long.bitCount(p.bitboard(Piece.PION_NOIR)), Long.bitCount(p.bitboard(Piece.CAVALIER_NOIR)),
+                Long.bitCount(p.bitboard(Piece.FOU_NOIR)), Long.bitCount(p.bitboard(Piece.TOUR_NOIRE)));
+    }
+
+    /**
+     * <p>
+     * Facteur d'échelle (sur {@value #FACTEUR_NORMAL}) à appliquer au score
+     * de finale quand ce camp est en avance.
+     * </p>
+     */
+    public int facteur(Plateau p, int cle, boolean blanc) {
+        if (cle == HORS_TABLE)
+            return FACTEUR_NORMAL;
+        int f = blanc ? facteursBlancs[cle] : facteursNoirs[cle];
+        if (fousSeuls[cle] && fousOpposes(p))
+            f = Math.min(f, FACTEUR_FOUS_OPPOSES);
+        return f;
+    }
+
+    /** Finale reconnue ({@code code * 2 + 1} si le camp fort est noir), ou {@link #AUCUNE}. */
+    public int finale(int cle) {
+        return cle == HORS_TABLE ? AUCUNE : finales[cle];
+    }
+
+    private static boolean fousOpposes(Plateau p) {
+        boolean blancSurBlanc = (p.bitboard(Piece.FOU_BLANC) & Masques.CASES_BLANCHES) != 0L;
+        boolean noirSurBlanc = (p.bitboard(Piece.FOU_NOIR) & Masques.CASES_BLANCHES) != 0L;
+        return blancSurBlanc != noirSurBlanc;
+    }
+
+    /**
+     * <p>
+     * Traits de déséquilibre, Blancs moins Noirs, dans l'ordre des
+     * paramètres à partir de {@link ParametresEvaluation#PAIRE_FOUS}.
+     * </p>
+     */
+    public static void compterTraits(Plateau p, int[] traits) {
+        int pb = Long.bitCount(p.bitboard(Piece.PION_BLANC));
+        int pn = Long.bitCount(p.bitboard(Piece.PION_NOIR));
+        traits[0] = (Long.bitCount(p.bitboard(Piece.FOU_BLANC)) >= 2 ? 1 : 0)
+                - (Long.bitCount(p.bitboard(Piece.FOU_NOIR)) >= 2 ? 1 : 0);
+        traits[1] = Long.bitCount(p.bitboard(Piece.CAVALIER_BLANC)) * (pb - 5)
+                - Long.bitCount(p.bitboard(Piece.CAVALIER_NOIR)) * (pn - 5);
+        traits[2] = Long.bitCount(p.bitboard(Piece.TOUR_BLANC)) * (pb - 5)
+                - Long.bitCount(p.bitboard(Piece.TOUR_NOIRE)) * (pn - 5);
+    }
+
+    private static int desequilibre(ParametresEvaluation parametres, int pb, int cb, int fb, int tb, int pn,
+            int cn, int fn, int tn) {
+        int paires = (fb >= 2 ? 1 : 0) - (fn >= 2 ? 1 : 0);
+        return paires * parametres.packe(ParametresEvaluation.PAIRE_FOUS)
+                + (cb * (pb - 5) - cn * (pn - 5)) * parametres.packe(ParametresEvaluation.CAVALIER_PIONS)
+                + (tb * (pb - 5) - tn * (pn - 5)) * parametres.packe(ParametresEvaluation.TOUR_PIONS);
+    }
+
+    /**
+     * <p>
+     * Facteur du camp fort {@code f} contre {@code a} : sans pion, un
+     * avantage d'au plus un fou ne gagne pas avec moins d'une tour (nul) et
+     * rarement au-delà ; deux cavaliers seuls ne forcent pas le mat.
+     * </p>
+     */
+    private static int facteur(int[] f, int[] a) {
+        int pieces = materielPieces(f);
+        int piecesAdverses = materielPieces(a);
+        if (f[0] == 0) {
+            if (f[2] + f[3] + f[4] == 0 && f[1] <= 2)
+                return 0;
+            if (pieces - piecesAdverses <= Evaluation.VALEUR_FOU) {
+                if (pieces < Evaluation.VALEUR_TOUR)
+                    return 0;
+                return piecesAdverses <= Evaluation.VALEUR_FOU ? 4 : 14;
+            }
+        }
+        return FACTEUR_NORMAL;
+    }
+
+    private static int finale(int[] b, int[] n) {
+        int code = finaleCampFort(b, n);
+        if (code != AUCUNE)
+            return code * 2;
+        code = finaleCampFort(n, b);
+        return code == AUCUNE ? AUCUNE : code * 2 + 1;
+    }
+
+    /** Finale où {@code f} est le camp fort, ou {@link #AUCUNE}. */
+    private static int finaleCampFort(int[] f, int[] a) {
+        boolean adverseSeul = a[0] + a[1] + a[2] + a[3] + a[4] == 0;
+        boolean sansPionNiLourde = f[0] + a[0] + f[3] + a[3] + f[4] + a[4] == 0;
+        // Mineures seules, au plus une en tout ou uniquement des fous : nulle si les fous sont de même couleur
+        if (sansPionNiLourde && (f[1] + a[1] == 0 || f[1] + a[1] + f[2] + a[2] == 1))
+            return INSUFFISANT;
+        if (!adverseSeul)
+            return AUCUNE;
+        if (f[0] + f[3] + f[4] == 0 && f[1] == 1 && f[2] == 1)
+            return KBNK;
+        if (f[3] + f[4] > 0)
+            return KXK;
+        if (f[0] == 1 && f[1] + f[2] == 0)
+            return KPK;
+        return AUCUNE;
+    }
+
+    private static int materielPieces(int[] n) {
+        return n[1] * Evaluation.VALEUR_CAVALIER + n[2] * Evaluation.VALEUR_FOU + n[3] * Evaluation.VALEUR_TOUR
+                + n[4] * Evaluation.VALEUR_DAME;
+    }
+
+    /** Valeurs par défaut, dans la disposition de {@link ParametresEvaluation}. */
+    static void termesParDefaut(int[] mg, int[] eg) {
+        mg[ParametresEvaluation.PAIRE_FOUS] = PAIRE_FOUS_MG;
+        eg[ParametresEvaluation.PAIRE_FOUS] = PAIRE_FOUS_EG;
+        mg[ParametresEvaluation.CAVALIER_PIONS] = CAVALIER_PIONS_MG;
+        eg[ParametresEvaluation.CAVALIER_PIONS] = CAVALIER_PIONS_EG;
+        mg[ParametresEvaluation.TOUR_PIONS] = TOUR_PIONS_MG;
+        eg[ParametresEvaluation.TOUR_PIONS] = TOUR_PIONS_EG;
+    }
+}
@@ -0,0 +1,198 @@
+package org.example.AI.evaluation;
+
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Table de hachage des structures de pions, indexée par la clé de Zobrist
+ * des seuls pions ({@link Plateau#clePions()}).
+ * </p>
+ *
+ * <p>
+ * La structure de pions change rarement d'un noeud à l'autre : une entrée
+ * garde les bitboards des motifs (passés, isolés, doublés, arriérés), les
+ * attaques et zones d'attaque des pions des deux camps, et le score packé
+ * milieu/finale qui en découle. La mobilité et la sécurité du roi relisent
+ * les attaques de pions ici au lieu de les recalculer.
+ * </p>
+ *
+ * <p>
+ * Une table par thread ({@link #duThread()}) : pas de synchronisation, et
+ * l'entrée sondée reste valide tant que le même thread ne sonde pas une
+ * autre position. Tableaux parallèles, pas d'objet par entrée. Les poids
+ * viennent de {@link ParametresEvaluation} ; la table se vide quand ils
+ * changent.
+ * </p>
+ */
+public final class TablePions {
+
+    private static final int TAILLE_PAR_DEFAUT = 1 << 14;
+
+    // Valeurs par défaut : pions passés selon l'avance (0 = rangée de départ), puis malus
+    private static final int[] PASSE_MG = { 0, 5, 8, 12, 20, 30, 45, 0 };
+    private static final int[] PASSE_EG = { 0, 10, 15, 25, 40, 60, 90, 0 };
+    private static final int ISOLE_MG = -10;
+    private static final int ISOLE_EG = -15;
+    private static final int DOUBLE_MG = -10;
+    private static final int DOUBLE_EG = -20;
+    private static final int ARRIERE_MG = -8;
+    private static final int ARRIERE_EG = -10;
+
+    /** Traits de {@link #compterTraits} : passés par avance (0 à 7), puis isolés, doublés, arriérés. */
+    public static final int NB_TRAITS = 11;
+    private static final int TRAIT_ISOLE = 8;
+    private static final int TRAIT_DOUBLE = 9;
+    private static final int TRAIT_ARRIERE = 10;
+
+    // Clé d'une entrée vide (aucune vraie clé de pions ne la produit en pratique)
+    private static final long VIDE = 0x8000000000000000L;
+
+    private static final ThreadLocal<TablePions> PAR_THREAD =
+            ThreadLocal.withInitial(() -> new TablePions(TAILLE_PAR_DEFAUT));
+
+    private final int masque;
+    private final long[] cles;
+    private final int[] scores;
+    private final long[] passesBlancs;
+    private final long[] passesNoirs;
+    private final long[] faibles;
+    private final long[] attaquesBlancs;
+    private final long[] attaquesNoirs;
+    private final long[] zonesBlancs;
+    private final long[] zonesNoirs;
+    private final int[] traits = new int[NB_TRAITS];
+    private int versionParametres = -1;
+
+    /**
+     * @param taille nombre d'entrées (arrondi à la puissance de 2 inférieure)
+     */
+    public TablePions(int taille) {
+        int n = Integer.highestOneBit(Math.max(256, taille));
+        this.masque = n - 1;
+        this.cles = new long[n];
+        this.scores = new int[n];
+        this.passesBlancs = new long[n];
+        this.passesNoirs = new long[n];
+        this.faibles = new long[n];
+        this.attaquesBlancs = new long[n];
+        this.attaquesNoirs = new long[n];
+        this.zonesBlancs = new long[n];
+        this.zonesNoirs = new long[n];
+        Arrays.fill(cles, VIDE);
+    }
+
+    /** Table du thread courant. */
+    public static TablePions duThread() {
+        return PAR_THREAD.get();
+    }
+
+    /**
+     * <p>
+     * Entrée de la structure de pions de ce plateau (calculée si absente).
+     * </p>
+     *
+     * @return indice à passer aux accesseurs
+     */
+    public int sonder(Plateau plateau) {
+        ParametresEvaluation parametres = ParametresEvaluation.courants();
+        if (versionParametres != ParametresEvaluation.version()) {
+            Arrays.fill(cles, VIDE);
+            versionParametres = ParametresEvaluation.version();
+        }
+        long cle = plateau.clePions();
+        int i = (int) (cle & masque);
+        if (cles[i] != cle)
+            remplir(i, cle, plateau.bitboard(Piece.PION_BLANC), plateau.bitboard(Piece.PION_NOIR), parametres);
+        return i;
+    }
+
+    private void remplir(int i, long cle, long blancs, long noirs, ParametresEvaluation parametres) {
+        long passesB = StructurePions.passesBlancs(blancs, noirs);
+        long passesN = StructurePions.passesNoirs(blancs, noirs);
+        long isolesB = StructurePions.isoles(blancs);
+        long isolesN = StructurePions.isoles(noirs);
+        long doublesB = StructurePions.doublesBlancs(blancs);
+        long doublesN = StructurePions.doublesNoirs(noirs);
+        long arrieresB = StructurePions.arrieresBlancs(blancs, noirs) & ~isolesB;
+        long arrieresN = StructurePions.arrieresNoirs(blancs, noirs) & ~isolesN;
+
+        compterTraits(blancs, noirs, traits);
+        int score = 0;
+        for (int a = 0; a < 8; a++)
+            score += traits[a] * parametres.packe(ParametresEvaluation.PASSE + a);
+        score += traits[TRAIT_ISOLE] * parametres.packe(ParametresEvaluation.ISOLE)
+                + traits[TRAIT_DOUBLE] * parametres.packe(ParametresEvaluation.DOUBLE)
+                + traits[TRAIT_ARRIERE] * parametres.packe(ParametresEvaluation.ARRIERE);
+
+        cles[i] = cle;
+        scores[i] = score;
+        passesBlancs[i] = passesB;
+        passesNoirs[i] = passesN;
+        faibles[i] = isolesB | isolesN | doublesB | doublesN | arrieresB | arrieresN;
+        attaquesBlancs[i] = StructurePions.attaquesPionsBlancs(blancs);
+        attaquesNoirs[i] = StructurePions.attaquesPionsNoirs(noirs);
+        zonesBlancs[i] = StructurePions.zoneAttaqueBlancs(blancs);
+        zonesNoirs[i] = StructurePions.zoneAttaqueNoirs(noirs);
+    }
+
+    /**
+     * <p>
+     * Nombres de motifs, Blancs moins Noirs : pions passés par avance
+     * (indices 0 à 7), isolés (8), doublés (9), arriérés non isolés (10).
+     * Le score de structure est leur produit par les poids correspondants.
+     * </p>
+     */
+    public static void compterTraits(long blancs, long noirs, int[] traits) {
+        Arrays.fill(traits, 0, NB_TRAITS, 0);
+        for (long b = StructurePions.passesBlancs(blancs, noirs); b != 0L; b &= b - 1)
+            traits[7 - Long.numberOfTrailingZeros(b) / 8]++;
+        for (long b = StructurePions.passesNoirs(blancs, noirs); b != 0L; b &= b - 1)
+            traits[Long.numberOfTrailingZeros(b) / 8]--;
+        long isolesB = StructurePions.isoles(blancs);
+        long isolesN = StructurePions.isoles(noirs);
+        traits[TRAIT_ISOLE] = Long.bitCount(isolesB) - Long.bitCount(isolesN);
+        traits[TRAIT_DOUBLE] = Long.bitCount(StructurePions.doublesBlancs(blancs))
+                - Long.bitCount(StructurePions.doublesNoirs(noirs));
+        traits[TRAIT_ARRIERE] = Long.bitCount(StructurePions.arrieresBlancs(blancs, noirs) & ~isolesB)
+                - Long.bitCount(StructurePions.arrieresNoirs(blancs, noirs) & ~isolesN);
+    }
+
+    /** Valeurs par défaut des termes de pions, dans la disposition de {@link ParametresEvaluation}. */
+    static void termesParDefaut(int[] mg, int[] eg) {
+        System.arraycopy(PASSE_MG, 0, mg, ParametresEvaluation.PASSE, 8);
+        System.arraycopy(PASSE_EG, 0, eg, ParametresEvaluation.PASSE, 8);
+        mg[ParametresEvaluation.ISOLE] = ISOLE_MG;
+        eg[ParametresEvaluation.ISOLE] = ISOLE_EG;
+        mg[ParametresEvaluation.DOUBLE] = DOUBLE_MG;
+        eg[ParametresEvaluation.DOUBLE] = DOUBLE_EG;
+        mg[ParametresEvaluation.ARRIERE] = ARRIERE_MG;
+        eg[ParametresEvaluation.ARRIERE] = ARRIERE_EG;
+    }
+
+    /** Score packé milieu/finale de la structure (positif pour les Blancs). */
+    public int score(int i) {
+        return scores[i];
+    }
+
+    public long passes(int i, boolean blanc) {
+        return blanc ? passesBlancs[i] : passesNoirs[i];
+    }
+
+    /** Pions isolés, doublés ou arriérés des deux camps. */
+    public long faibles(int i) {
+        return faibles[i];
+    }
+
+    /** Cases attaquées par les pions du camp. */
+    public long attaques(int i, boolean blanc) {
+        return blanc ? attaquesBlancs[i] : attaquesNoirs[i];
+    }
+
+    /** Cases que les pions du camp attaquent ou pourront attaquer en avançant. */
+    public long zoneAttaque(int i, boolean blanc) {
+        return blanc ? zonesBlancs[i] : zonesNoirs[i];
+    }
+}
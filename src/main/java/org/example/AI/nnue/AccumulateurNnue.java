@@ -0,0 +1,191 @@
+package org.example.AI.nnue;
+
+import org.example.chess.Couleur;
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+import org.example.chess.SuiviPieces;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Accumulateurs (une moitié par perspective) d'un plateau, tenus à jour à
+ * chaque coup via {@link SuiviPieces}.
+ * </p>
+ *
+ * <p>
+ * Une pile indexée par la profondeur de jeu/annulation : jouer copie le
+ * sommet puis applique les deltas des pièces (quelques additions de
+ * vecteurs), annuler dépile. Quand notre roi bouge, toutes nos entrées
+ * changent : la perspective est marquée périmée et recalculée au prochain
+ * {@link #evaluer(Plateau)}. Les rois ne sont pas des entrées, donc le
+ * coup de roi ne touche pas l'autre perspective. Un niveau périmé est
+ * recalculé avant d'y empiler un coup, pour que ses enfants héritent d'un
+ * accumulateur juste au lieu de se recalculer chacun.
+ * </p>
+ *
+ * <p>Propre à un plateau, donc à un thread.</p>
+ */
+public final class AccumulateurNnue implements SuiviPieces {
+
+    private final Plateau plateau;
+    private final ReseauNnue reseau;
+    private final NoyauNnue noyau;
+    private final int taille;
+
+    private short[][] pile;
+    private boolean[] valides;   // [niveau * 2 + perspective]
+    private int[] rois;          // [niveau * 2 + perspective]
+    private int sommet;
+
+    AccumulateurNnue(Plateau plateau, ReseauNnue reseau, NoyauNnue noyau) {
+        this.plateau = plateau;
+        this.reseau = reseau;
+        this.noyau = noyau;
+        this.taille = reseau.taille;
+        this.pile = new short[64][];
+        this.valides = new boolean[2 * 64];
+        this.rois = new int[2 * 64];
+        this.pile[0] = new short[2 * taille];
+    }
+
+    ReseauNnue reseau() {
+        return reseau;
+    }
+
+    @Override
+    public void avantCoup() {
+        // Appelé avant que le plateau ne change : il décrit encore ce niveau
+        for (int p = 0; p < 2; p++) {
+            if (!valides[2 * sommet + p])
+                rafraichir(p);
+        }
+        if (sommet + 1 == pile.length) {
+            pile = Arrays.copyOf(pile, pile.length * 2);
+            valides = Arrays.copyOf(valides, valides.length * 2);
+            rois = Arrays.copyOf(rois, rois.length * 2);
+        }
+        short[] suivant = pile[sommet + 1];
+        if (suivant == null)
+            suivant = pile[sommet + 1] = new short[2 * taille];
+        System.arraycopy(pile[sommet], 0, suivant, 0, 2 * taille);
+        valides[2 * sommet + 2] = valides[2 * sommet];
+        valides[2 * sommet + 3] = valides[2 * sommet + 1];
+        rois[2 * sommet + 2] = rois[2 * sommet];
+        rois[2 * sommet + 3] = rois[2 * sommet + 1];
+        sommet++;
+    }
+
+    @Override
+    public void annulation() {
+        if (sommet > 0) {
+            sommet--;
+        } else {
+            // Annulation d'un coup joué avant le branchement : on repartira de zéro
+            valides[0] = false;
+            valides[1] = false;
+        }
+    }
+
+    @Override
+    public void ajout(Piece piece, int indice) {
+        if (estRoi(piece)) {
+            valides[2 * sommet + (piece == Piece.ROI_NOIR ? 1 : 0)] = false;
+            return;
+        }
+        for (int p = 0; p < 2; p++) {
+            if (valides[2 * sommet + p]) {
+                int entree = ReseauNnue.entree(p == 1, rois[2 * sommet + p], piece, indice);
+                noyau.ajouter(pile[sommet], p * taille, reseau.poidsEntree, entree * taille, taille);
+            }
+        }
+    }
+
+    @Override
+    public void retrait(Piece piece, int indice) {
+        if (estRoi(piece)) {
+            valides[2 * sommet + (piece == Piece.ROI_NOIR ? 1 : 0)] = false;
+            return;
+        }
+        for (int p = 0; p < 2; p++) {
+            if (valides[2 * sommet + p]) {
+                int entree = ReseauNnue.entree(p == 1, rois[2 * sommet + p], piece, indice);
+                noyau.retirer(pile[sommet], p * taille, reseau.poidsEntree, entree * taille, taille);
+            }
+        }
+    }
+
+    @Override
+    public void deplacement(Piece piece, int depart, int arrivee) {
+        if (estRoi(piece)) {
+            valides[2 * sommet + (piece == Piece.ROI_NOIR ? 1 : 0)] = false;
+            return;
+        }
+        for (int p = 0; p < 2; p++) {
+            if (valides[2 * sommet + p]) {
+                int roi = rois[2 * sommet + p];
+                noyau.deplacer(pile[sommet], p * taille, reseau.poidsEntree,
+                        ReseauNnue.entree(p == 1, roi, piece, arrivee) * taille,
+                        ReseauNnue.entree(p == 1, roi, piece, depart) * taille, taille);
+            }
+        }
+    }
+
+    /**
+     * <p>Évaluation du plateau suivi, en centipions, du point de vue des Blancs.</p>
+     */
+    public int evaluer() {
+        for (int p = 0; p < 2; p++) {
+            if (!valides[2 * sommet + p])
+                rafraichir(p);
+        }
+        boolean noirAuTrait = plateau.trait() == Couleur.NOIR;
+        int nous = noirAuTrait ? taille : 0;
+        int eux = noirAuTrait ? 0 : taille;
+        int sortie = noyau.sortie(pile[sommet], nous, eux, reseau.poidsSortie, taille, ReseauNnue.QA)
+                + reseau.biaisSortie;
+        int score = (int) ((long) sortie * ReseauNnue.ECHELLE / (ReseauNnue.QA * ReseauNnue.QB));
+        return noirAuTrait ? -score : score;
+    }
+
+    /**
+     * <p>Vrai si le sommet de pile égale un recalcul complet (contrôle, {@code -ea}).</p>
+     */
+    boolean verifier() {
+        short[] reference = new short[2 * taille];
+        for (int p = 0; p < 2; p++) {
+            if (valides[2 * sommet + p]) {
+                remplir(p, reference);
+                if (!Arrays.equals(reference, p * taille, (p + 1) * taille,
+                        pile[sommet], p * taille, (p + 1) * taille))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /** Recalcule une perspective du sommet depuis les pièces du plateau. */
+    private void rafraichir(int p) {
+        rois[2 * sommet + p] = remplir(p, pile[sommet]);
+        valides[2 * sommet + p] = true;
+    }
+
+    private int remplir(int p, short[] acc) {
+        long bbRoi = plateau.bitboard(p == 1 ? Piece.ROI_NOIR : Piece.ROI_BLANC);
+        int roi = Long.numberOfTrailingZeros(bbRoi) & 63;
+        System.arraycopy(reseau.biaisEntree, 0, acc, p * taille, taille);
+        for (Piece piece : Piece.values()) {
+            if (estRoi(piece))
+                continue;
+            for (long bb = plateau.bitboard(piece); bb != 0L; bb &= bb - 1) {
+                int entree = ReseauNnue.entree(p == 1, roi, piece, Long.numberOfTrailingZeros(bb));
+                noyau.ajouter(acc, p * taille, reseau.poidsEntree, entree * taille, taille);
+            }
+        }
+        return roi;
+    }
+
+    private static boolean estRoi(Piece piece) {
+        return piece == Piece.ROI_BLANC || piece == Piece.ROI_NOIR;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.AI.nnue;
+
+import org.example.chess.Plateau;
+import org.example.chess.SuiviPieces;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * <p>
+ * Point d'entrée de l'évaluation par réseau de neurones ("NNUE").
+ * </p>
+ *
+ * <p>
+ * Un réseau est installé pour tout le programme ({@link #installer} ou
+ * {@link #charger}). À la première évaluation d'un plateau, un
+ * {@link AccumulateurNnue} y est branché ; ensuite chaque coup joué ou
+ * annulé sur ce plateau le tient à jour.
+ * </p>
+ */
+public final class EvaluationNnue {
+
+    private static final NoyauNnue NOYAU = NoyauNnue.choisir();
+
+    private static volatile ReseauNnue reseau;
+
+    private EvaluationNnue() {
+    }
+
+    public static void installer(ReseauNnue nouveau) {
+        if (nouveau == null)
+            throw new IllegalArgumentException("reseau null");
+        reseau = nouveau;
+    }
+
+    /**
+     * <p>Charge puis installe le réseau de ce fichier.</p>
+     */
+    public static void charger(Path fichier) throws IOException {
+        installer(ReseauNnue.charger(fichier));
+    }
+
+    public static boolean estCharge() {
+        return reseau != null;
+    }
+
+    /** Nom du noyau de calcul utilisé (scalaire ou vectoriel). */
+    public static String noyau() {
+        return NOYAU.nom();
+    }
+
+    /**
+     * <p>Score du réseau (centipions, point de vue des Blancs).</p>
+     *
+     * @throws IllegalStateException aucun réseau installé
+     */
+    public static int evaluer(Plateau plateau) {
+        ReseauNnue r = reseau;
+        if (r == null)
+            throw new IllegalStateException("aucun réseau NNUE chargé");
+        SuiviPieces suivi = plateau.suivi();
+        AccumulateurNnue acc;
+        if (suivi instanceof AccumulateurNnue a && a.reseau() == r) {
+            acc = a;
+        } else {
+            acc = new AccumulateurNnue(plateau, r, NOYAU);
+            plateau.definirSuivi(acc);
+        }
+        int score = acc.evaluer();
+        assert acc.verifier() : "accumulateur NNUE désynchronisé";
+        return score;
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.AI.nnue;
+
+/**
+ * <p>
+ * Calculs élémentaires du réseau sur les tableaux d'entiers 16 bits :
+ * mises à jour de l'accumulateur et couche de sortie.
+ * </p>
+ *
+ * <p>
+ * Deux implémentations donnant exactement les mêmes résultats :
+ * {@link NoyauScalaire} (partout) et {@code NoyauVectoriel} (SIMD via
+ * {@code jdk.incubator.vector}). {@link #choisir()} prend le noyau vectoriel
+ * si le module est présent ({@code --add-modules jdk.incubator.vector}) et
+ * utile sur ce processeur, sauf si {@code -Dchess.nnue.scalaire=true}.
+ * </p>
+ */
+interface NoyauNnue {
+
+    /** acc[dAcc + i] += poids[dPoids + i], pour i &lt; n. */
+    void ajouter(short[] acc, int dAcc, short[] poids, int dPoids, int n);
+
+    /** acc[dAcc + i] -= poids[dPoids + i], pour i &lt; n. */
+    void retirer(short[] acc, int dAcc, short[] poids, int dPoids, int n);
+
+    /** Ajout et retrait en une seule passe (pièce déplacée). */
+    void deplacer(short[] acc, int dAcc, short[] poids, int dAjout, int dRetrait, int n);
+
+    /**
+     * <p>
+     * Somme de clamp(nous[i], 0, qa) * poids[i] + clamp(eux[i], 0, qa) *
+     * poids[n + i].
+     * </p>
+     */
+    int sortie(short[] acc, int dNous, int dEux, short[] poids, int n, int qa);
+
+    String nom();
+
+    static NoyauNnue choisir() {
+        if (!Boolean.getBoolean("chess.nnue.scalaire")) {
+            try {
+                // Par réflexion : sans le module, seule cette tentative échoue
+                return (NoyauNnue) Class.forName("org.example.AI.nnue.NoyauVectoriel")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                // Repli scalaire
+            }
+        }
+        return new NoyauScalaire();
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.AI.nnue;
+
+/**
+ * <p>Noyau de référence, boucles simples (que le JIT vectorise en partie).</p>
+ */
+final class NoyauScalaire implements NoyauNnue {
+
+    @Override
+    public void ajouter(short[] acc, int dAcc, short[] poids, int dPoids, int n) {
+        for (int i = 0; i < n; i++)
+            acc[dAcc + i] += poids[dPoids + i];
+    }
+
+    @Override
+    public void retirer(short[] acc, int dAcc, short[] poids, int dPoids, int n) {
+        for (int i = 0; i < n; i++)
+            acc[dAcc + i] -= poids[dPoids + i];
+    }
+
+    @Override
+    public void deplacer(short[] acc, int dAcc, short[] poids, int dAjout, int dRetrait, int n) {
+        for (int i = 0; i < n; i++)
+            acc[dAcc + i] += (short) (poids[dAjout + i] - poids[dRetrait + i]);
+    }
+
+    @Override
+    public int sortie(short[] acc, int dNous, int dEux, short[] poids, int n, int qa) {
+        int somme = 0;
+        for (int i = 0; i < n; i++) {
+            somme += Math.min(Math.max(acc[dNous + i], 0), qa) * poids[i];
+            somme += Math.min(Math.max(acc[dEux + i], 0), qa) * poids[n + i];
+        }
+        return somme;
+    }
+
+    @Override
+    public String nom() {
+        return "scalaire";
+    }
+}
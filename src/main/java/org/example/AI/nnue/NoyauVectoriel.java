@@ -0,0 +1,98 @@
+package org.example.AI.nnue;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * <p>
+ * Noyau SIMD ({@code jdk.incubator.vector}), largeur préférée du processeur.
+ * Les produits de la couche de sortie sont faits sur 16 bits (voir
+ * {@link ReseauNnue#POIDS_SORTIE_MAX}) puis élargis sur 32 bits pour la
+ * somme. Les restes (n non multiple de la largeur) passent en scalaire.
+ * </p>
+ *
+ * <p>Chargé par réflexion uniquement ({@link NoyauNnue#choisir()}).</p>
+ */
+final class NoyauVectoriel implements NoyauNnue {
+
+    private static final VectorSpecies<Short> S = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> I = S.withLanes(int.class);
+
+    NoyauVectoriel() {
+        // Sans SIMD utile (moins de 128 bits), le scalaire est plus rapide
+        if (S.length() < 8)
+            throw new UnsupportedOperationException("largeur SIMD insuffisante : " + S);
+    }
+
+    @Override
+    public void ajouter(short[] acc, int dAcc, short[] poids, int dPoids, int n) {
+        int fin = S.loopBound(n);
+        int i = 0;
+        for (; i < fin; i += S.length()) {
+            ShortVector.fromArray(S, acc, dAcc + i)
+                    .add(ShortVector.fromArray(S, poids, dPoids + i))
+                    .intoArray(acc, dAcc + i);
+        }
+        for (; i < n; i++)
+            acc[dAcc + i] += poids[dPoids + i];
+    }
+
+    @Override
+    public void retirer(short[] acc, int dAcc, short[] poids, int dPoids, int n) {
+        int fin = S.loopBound(n);
+        int i = 0;
+        for (; i < fin; i += S.length()) {
+            ShortVector.fromArray(S, acc, dAcc + i)
+                    .sub(ShortVector.fromArray(S, poids, dPoids + i))
+                    .intoArray(acc, dAcc + i);
+        }
+        for (; i < n; i++)
+            acc[dAcc + i] -= poids[dPoids + i];
+    }
+
+    @Override
+    public void deplacer(short[] acc, int dAcc, short[] poids, int dAjout, int dRetrait, int n) {
+        int fin = S.loopBound(n);
+        int i = 0;
+        for (; i < fin; i += S.length()) {
+            ShortVector.fromArray(S, acc, dAcc + i)
+                    .add(ShortVector.fromArray(S, poids, dAjout + i))
+                    .sub(ShortVector.fromArray(S, poids, dRetrait + i))
+                    .intoArray(acc, dAcc + i);
+        }
+        for (; i < n; i++)
+            acc[dAcc + i] += (short) (poids[dAjout + i] - poids[dRetrait + i]);
+    }
+
+    @Override
+    public int sortie(short[] acc, int dNous, int dEux, short[] poids, int n, int qa) {
+        short max = (short) qa;
+        IntVector somme = IntVector.zero(I);
+        int fin = S.loopBound(n);
+        int i = 0;
+        for (; i < fin; i += S.length()) {
+            ShortVector nous = ShortVector.fromArray(S, acc, dNous + i).max((short) 0).min(max)
+                    .mul(ShortVector.fromArray(S, poids, i));
+            ShortVector eux = ShortVector.fromArray(S, acc, dEux + i).max((short) 0).min(max)
+                    .mul(ShortVector.fromArray(S, poids, n + i));
+            somme = somme
+                    .add(nous.convertShape(VectorOperators.S2I, I, 0))
+                    .add(nous.convertShape(VectorOperators.S2I, I, 1))
+                    .add(eux.convertShape(VectorOperators.S2I, I, 0))
+                    .add(eux.convertShape(VectorOperators.S2I, I, 1));
+        }
+        int total = somme.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            total += Math.min(Math.max(acc[dNous + i], 0), qa) * poids[i];
+            total += Math.min(Math.max(acc[dEux + i], 0), qa) * poids[n + i];
+        }
+        return total;
+    }
+
+    @Override
+    public String nom() {
+        return "vectoriel " + S.vectorBitSize() + " bits";
+    }
+}
@@ -0,0 +1,175 @@
+package org.example.AI.nnue;
+
+import org.example.chess.Piece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * Poids d'un réseau "HalfKP" quantifié en entiers 16 bits.
+ * </p>
+ *
+ * <ul>
+ *   <li><b>Entrées</b> : pour chaque perspective (Blancs, Noirs), une entrée
+ *   par triplet (case de notre roi, pièce non-roi avec sa couleur relative,
+ *   case), soit 64 x 10 x 64 = 40 960 entrées. La perspective noire voit
+ *   l'échiquier retourné.</li>
+ *   <li><b>Transformateur</b> : entrées → {@code taille} neurones par
+ *   perspective (accumulateur, mis à jour incrémentalement).</li>
+ *   <li><b>Sortie</b> : ReLU bornée [0, {@link #QA}] des deux accumulateurs
+ *   (camp au trait d'abord), produit scalaire avec 2 x {@code taille} poids,
+ *   plus un biais.</li>
+ * </ul>
+ *
+ * <p>
+ * Format du fichier (petit-boutiste) : {@code int} magique, version,
+ * nombre d'entrées, taille ; puis les poids d'entrée
+ * ({@code short[entrées][taille]}), les biais d'entrée, les poids de sortie
+ * ({@code short[2 * taille]}, |poids| &lt;= {@link #POIDS_SORTIE_MAX}) et le
+ * biais de sortie ({@code int}, à l'échelle {@code QA * QB}). Le fichier est
+ * projeté en mémoire puis lu en bloc.
+ * </p>
+ */
+public final class ReseauNnue {
+
+    public static final int MAGIC = 0x4E4E5545;
+    public static final int VERSION = 1;
+
+    public static final int NB_ENTREES = 64 * 10 * 64;
+
+    /** Échelle des activations du transformateur (ReLU bornée à QA). */
+    public static final int QA = 255;
+    /** Échelle des poids de sortie. */
+    public static final int QB = 64;
+    /** Sortie du réseau → centipions. */
+    public static final int ECHELLE = 400;
+
+    /**
+     * Les produits activation x poids de sortie tiennent sur 16 bits
+     * (255 x 128 &lt; 32 768), ce que le noyau vectoriel exploite.
+     */
+    public static final int POIDS_SORTIE_MAX = 128;
+
+    private static final int TAILLE_ENTETE = 16;
+
+    final int taille;
+    final short[] poidsEntree;
+    final short[] biaisEntree;
+    final short[] poidsSortie;
+    final int biaisSortie;
+
+    public ReseauNnue(int taille, short[] poidsEntree, short[] biaisEntree, short[] poidsSortie, int biaisSortie) {
+        if (taille <= 0 || taille % 16 != 0)
+            throw new IllegalArgumentException("taille invalide (multiple de 16 attendu) : " + taille);
+        if (poidsEntree == null || poidsEntree.length != NB_ENTREES * taille)
+            throw new IllegalArgumentException("poids d'entrée : " + NB_ENTREES + " x " + taille + " attendus");
+        if (biaisEntree == null || biaisEntree.length != taille)
+            throw new IllegalArgumentException("biais d'entrée : " + taille + " attendus");
+        if (poidsSortie == null || poidsSortie.length != 2 * taille)
+            throw new IllegalArgumentException("poids de sortie : " + 2 * taille + " attendus");
+        for (short w : poidsSortie) {
+            if (Math.abs(w) > POIDS_SORTIE_MAX)
+                throw new IllegalArgumentException("poids de sortie hors de [-128, 128] : " + w);
+        }
+        this.taille = taille;
+        this.poidsEntree = poidsEntree;
+        this.biaisEntree = biaisEntree;
+        this.poidsSortie = poidsSortie;
+        this.biaisSortie = biaisSortie;
+    }
+
+    /**
+     * <p>Charge un réseau depuis un fichier (projection mémoire).</p>
+     *
+     * @throws IOException              lecture impossible
+     * @throws IllegalArgumentException fichier mal formé
+     */
+    public static ReseauNnue charger(Path fichier) throws IOException {
+        if (fichier == null)
+            throw new IllegalArgumentException("fichier null");
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long tailleFichier = canal.size();
+            if (tailleFichier < TAILLE_ENTETE)
+                throw new IllegalArgumentException("fichier réseau trop court : " + fichier);
+            MappedByteBuffer map = canal.map(FileChannel.MapMode.READ_ONLY, 0, tailleFichier);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (map.getInt() != MAGIC)
+                throw new IllegalArgumentException("pas un réseau NNUE : " + fichier);
+            int version = map.getInt();
+            if (version != VERSION)
+                throw new IllegalArgumentException("version de réseau non gérée : " + version);
+            int entrees = map.getInt();
+            int taille = map.getInt();
+            if (entrees != NB_ENTREES || taille <= 0 || taille > 4096)
+                throw new IllegalArgumentException("dimensions invalides : " + entrees + " x " + taille);
+
+            long attendu = TAILLE_ENTETE + 2L * ((long) entrees * taille + taille + 2L * taille) + 4;
+            if (tailleFichier != attendu)
+                throw new IllegalArgumentException("taille de fichier " + tailleFichier + ", attendu " + attendu);
+
+            short[] poidsEntree = lire(map, entrees * taille);
+            short[] biaisEntree = lire(map, taille);
+            short[] poidsSortie = lire(map, 2 * taille);
+            int biaisSortie = map.getInt();
+            return new ReseauNnue(taille, poidsEntree, biaisEntree, poidsSortie, biaisSortie);
+        }
+    }
+
+    private static short[] lire(ByteBuffer tampon, int n) {
+        short[] t = new short[n];
+        tampon.asShortBuffer().get(t);
+        tampon.position(tampon.position() + 2 * n);
+        return t;
+    }
+
+    /**
+     * <p>Écrit le réseau au format lu par {@link #charger(Path)}.</p>
+     */
+    public void ecrire(Path fichier) throws IOException {
+        if (fichier == null)
+            throw new IllegalArgumentException("fichier null");
+        long total = TAILLE_ENTETE + 2L * (poidsEntree.length + biaisEntree.length + poidsSortie.length) + 4;
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer map = canal.map(FileChannel.MapMode.READ_WRITE, 0, total);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            map.putInt(MAGIC).putInt(VERSION).putInt(NB_ENTREES).putInt(taille);
+            for (short[] t : new short[][] { poidsEntree, biaisEntree, poidsSortie }) {
+                map.asShortBuffer().put(t);
+                map.position(map.position() + 2 * t.length);
+            }
+            map.putInt(biaisSortie);
+            map.force();
+        }
+    }
+
+    public int taille() {
+        return taille;
+    }
+
+    /**
+     * <p>
+     * Indice d'entrée d'une pièce (hors rois) vue depuis une perspective.
+     * </p>
+     *
+     * @param noir    perspective des Noirs (échiquier retourné)
+     * @param roi     case de notre roi (non retournée)
+     * @param piece   pièce, ni roi blanc ni roi noir
+     * @param indice  case de la pièce (non retournée)
+     */
+    static int entree(boolean noir, int roi, Piece piece, int indice) {
+        int ordinal = piece.ordinal();
+        int type = ordinal % 6;
+        boolean pieceNoire = ordinal >= 6;
+        int genre = 2 * type + (pieceNoire == noir ? 0 : 1);
+        int retournement = noir ? 56 : 0;
+        return ((roi ^ retournement) * 10 + genre) * 64 + (indice ^ retournement);
+    }
+}
@@ -1,66 +1,427 @@
 package org.example.AI.search;
 
 import org.example.AI.Evaluation;
+import org.example.AI.evaluation.BitbaseKpk;
+import org.example.AI.tablebases.Syzygy;
+import org.example.AI.tablebases.TablesDtm;
 import org.example.chess.Coup;
 import org.example.chess.Couleur;
 import org.example.chess.EtatPlateau;
 import org.example.chess.GenerateurCoups;
+import org.example.chess.InfosEchec;
 import org.example.chess.Plateau;
 
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public final class AlphaBeta {
+
+    /** Profondeur à partir de laquelle un noeud sans coup de table est traité (IID / IIR). */
+    private static final int PROFONDEUR_MIN_IID = 4;
+
+    /** Au-delà de ce ply, plus d'extension singulière (évite les arbres sans fin). */
+    private static final int PLY_MAX_EXTENSION = 40;
+
+    private static final int SEUIL_MAT = Evaluation.SCORE_MAT - 1000;
+
+    /** Gain d'après les tables Syzygy : au-dessus des gains connus de l'évaluation, sous les mats. */
+    private static final int SCORE_GAIN_TABLE = 50_000;
+
+    /** LMR : profondeur minimale et nombre de coups cherchés sans réduction. */
+    private static final int PROFONDEUR_MIN_LMR = 3;
+    private static final int COUPS_AVANT_LMR = 3;
+
+    /** Réduction de base [profondeur][numéro du coup], en demi-coups. */
+    private static final int[][] REDUCTIONS = new int[64][64];
+
+    static {
+        for (int d = 1; d < 64; d++) {
+            for (int n = 1; n < 64; n++) {
+                REDUCTIONS[d][n] = (int) (0.75 + Math.log(d) * Math.log(n) / 2.25);
+            }
+        }
+    }
+
+    /** Retour de probCut quand le noeud doit être cherché normalement. */
+    private static final int PAS_DE_COUPURE = Integer.MIN_VALUE;
+
+    /** Table partagée par tous les threads, conservée entre les coups. */
+    private static volatile TableTransposition table = new TableTransposition(1 << 20);
+
     private AlphaBeta() {
     }
 
+    public static TableTransposition table() {
+        return table;
+    }
+
     public static int minimax(Plateau plateau, int profondeur, int alpha, int beta, AtomicBoolean timeIsUp) {
+        return minimax(plateau, profondeur, alpha, beta, timeIsUp, 1, ContexteRecherche.duThread());
+    }
+
+    /**
+     * @param ply distance à la racine de la recherche (mats les plus courts
+     *            préférés)
+     * @param ctx données du thread courant (historique, compteurs)
+     */
+    public static int minimax(Plateau plateau, int profondeur, int alpha, int beta, AtomicBoolean timeIsUp,
+            int ply, ContexteRecherche ctx) {
+        return minimax(plateau, profondeur, alpha, beta, timeIsUp, ply, ctx, 0);
+    }
+
+    /**
+     * @param coupExclu coup encodé à ignorer (recherche singulière), 0 sinon
+     */
+    private static int minimax(Plateau plateau, int profondeur, int alpha, int beta, AtomicBoolean timeIsUp,
+            int ply, ContexteRecherche ctx, int coupExclu) {
         if (timeIsUp.get())
             throw new TimeOutException();
 
-        if (profondeur == 0) {
-            return Quiescence.quiescenceSearch(plateau, alpha, beta, timeIsUp);
+        // Répétition depuis le dernier coup irréversible : nulle (une position
+        // répétée a des coups, ce n'est jamais un mat)
+        if (plateau.estRepetition())
+            return 0;
+        // 50 coups ou matériel insuffisant : nulle, sauf si le coup qui y
+        // arrive a maté (le mat l'emporte toujours sur une nulle reconnue)
+        if (plateau.estNulCinquanteCoups() || plateau.estMaterielInsuffisant())
+            return estMat(plateau) ? scoreMat(plateau, ply) : 0;
+        // Roi et pion contre roi nul d'après la table : valeur exacte, inutile de chercher
+        if (BitbaseKpk.sonder(plateau) == BitbaseKpk.NUL)
+            return 0;
+
+        if (profondeur <= 0) {
+            return Quiescence.quiescenceSearch(plateau, alpha, beta, timeIsUp, ply);
         }
 
-        List<Coup> coups = GenerateurCoups.genererLegaux(plateau);
+        ctx.noeuds++;
 
-        if (coups.isEmpty()) {
-            if (plateau.estEnEchec(plateau.trait())) {
-                return (plateau.trait() == Couleur.BLANC) ? -Evaluation.SCORE_MAT + (20 - profondeur)
-                        : Evaluation.SCORE_MAT - (20 - profondeur);
+        int alphaOrigine = alpha;
+        int betaOrigine = beta;
+        long cle = plateau.cle();
+        TableTransposition tt = table;
+
+        int coupHash = 0;
+        long entree = tt.sonder(cle);
+        if (entree != 0L) {
+            coupHash = TableTransposition.coup(entree);
+            if (coupExclu == 0 && TableTransposition.profondeur(entree) >= profondeur) {
+                int scoreTT = TableTransposition.score(entree, ply);
+                int borne = TableTransposition.borne(entree);
+                if (borne == TableTransposition.EXACTE)
+                    return scoreTT;
+                if (borne == TableTransposition.INFERIEURE && scoreTT >= beta)
+                    return scoreTT;
+                if (borne == TableTransposition.SUPERIEURE && scoreTT <= alpha)
+                    return scoreTT;
             }
-            return 0;
         }
 
-        MoveSorter.trierCoups(coups, plateau);
+        // Tables de mat (4 pièces au plus) : distance exacte, lue en un octet à chaque noeud
+        if (coupExclu == 0 && TablesDtm.sondable(plateau)) {
+            int dtm = TablesDtm.sonder(plateau);
+            if (dtm != TablesDtm.ABSENTE && dtm != TablesDtm.INVALIDE) {
+                ctx.sondesTables++;
+                int score = 0;
+                if (dtm != TablesDtm.NULLE) {
+                    score = Evaluation.SCORE_MAT - ply - TablesDtm.demiCoups(dtm);
+                    if (TablesDtm.estPerte(dtm))
+                        score = -score;
+                }
+                if (plateau.trait() != Couleur.BLANC)
+                    score = -score;
+                tt.stocker(cle, profondeur, score, TableTransposition.EXACTE, 0, ply);
+                return score;
+            }
+        }
+
+        // Tables de finales : valeur exacte, sondée à l'entrée (juste après une prise ou un coup de pion)
+        if (coupExclu == 0 && plateau.demiCoupsSansPrise() == 0 && Syzygy.sondable(plateau)) {
+            int wdl = Syzygy.sonderWdl(plateau);
+            if (wdl != Syzygy.ECHEC) {
+                ctx.sondesTables++;
+                int score = wdl == Syzygy.GAIN ? SCORE_GAIN_TABLE : wdl == Syzygy.PERTE ? -SCORE_GAIN_TABLE : wdl;
+                if (plateau.trait() != Couleur.BLANC)
+                    score = -score;
+                tt.stocker(cle, profondeur, score, TableTransposition.EXACTE, 0, ply);
+                return score;
+            }
+        }
+
+        // En échec : seules les parades sont générées
+        boolean enEchec = plateau.estEnEchec(plateau.trait());
+        List<Coup> coups = enEchec ? GenerateurCoups.genererEvasions(plateau) : GenerateurCoups.genererLegaux(plateau);
+
+        if (coups.isEmpty()) {
+            return enEchec ? scoreMat(plateau, ply) : 0;
+        }
+
         boolean max = (plateau.trait() == Couleur.BLANC);
 
-        if (max) {
-            int meilleur = Integer.MIN_VALUE;
-            for (Coup coup : coups) {
-                EtatPlateau s = plateau.jouerAvecSauvegarde(coup);
-                int score = minimax(plateau, profondeur - 1, alpha, beta, timeIsUp);
-                plateau.annuler(s);
+        // ProbCut : en fenêtre nulle, si une bonne capture tient une borne
+        // relevée (bêta + marge) à profondeur réduite, la recherche complète
+        // couperait presque sûrement aussi.
+        if (coupExclu == 0 && beta - alpha == 1 && !enEchec
+                && profondeur >= ParametresRecherche.profondeurMinProbCut()
+                && Math.abs(beta) < SEUIL_MAT) {
+            int score = probCut(plateau, coups, profondeur, alpha, beta, max, entree, timeIsUp, ply, ctx);
+            if (score != PAS_DE_COUPURE)
+                return score;
+        }
 
-                meilleur = Math.max(meilleur, score);
-                alpha = Math.max(alpha, meilleur);
-                if (alpha >= beta)
-                    break;
+        // Pas de coup de table : sans bon premier coup, le tri retombe sur MVV-LVA.
+        // - noeud PV (fenêtre ouverte) : recherche réduite pour trouver ce coup (IID)
+        // - autre noeud : on réduit simplement la profondeur (IIR)
+        if (coupHash == 0 && coupExclu == 0 && profondeur >= PROFONDEUR_MIN_IID) {
+            if (beta - alpha > 1) {
+                ctx.iid++;
+                minimax(plateau, profondeur - 2, alpha, beta, timeIsUp, ply, ctx);
+                long iid = tt.sonder(cle);
+                if (iid != 0L)
+                    coupHash = TableTransposition.coup(iid);
+            } else {
+                ctx.iir++;
+                profondeur--;
             }
-            return meilleur;
-        } else {
-            int meilleur = Integer.MAX_VALUE;
-            for (Coup coup : coups) {
-                EtatPlateau s = plateau.jouerAvecSauvegarde(coup);
-                int score = minimax(plateau, profondeur - 1, alpha, beta, timeIsUp);
-                plateau.annuler(s);
-
-                meilleur = Math.min(meilleur, score);
+        }
+
+        MoveSorter.trierCoups(coups, plateau, coupHash, ctx, ply);
+        InfosEchec infosEchec = ctx.infosEchec(ply);
+        infosEchec.calculer(plateau);
+
+        // Extension singulière / multi-cut : le coup de table est-il bien meilleur
+        // que tous les autres ? On cherche les autres à profondeur réduite contre
+        // une borne un peu en dessous du score de table.
+        int extensionHash = 0;
+        if (coupExclu == 0 && coupHash != 0 && entree != 0L
+                && profondeur >= ParametresRecherche.profondeurMinSinguliere()
+                && TableTransposition.profondeur(entree) >= profondeur - 3
+                && ply < PLY_MAX_EXTENSION) {
+            int scoreTT = TableTransposition.score(entree, ply);
+            int borne = TableTransposition.borne(entree);
+            int marge = ParametresRecherche.margeSinguliereParProfondeur() * profondeur;
+            int profondeurReduite = (profondeur - 1) / 2;
+
+            if (Math.abs(scoreTT) < SEUIL_MAT) {
+                if (max && borne != TableTransposition.SUPERIEURE) {
+                    int betaSingulier = scoreTT - marge;
+                    ctx.testsSinguliers++;
+                    int v = minimax(plateau, profondeurReduite, betaSingulier - 1, betaSingulier, timeIsUp, ply,
+                            ctx, coupHash);
+                    if (v < betaSingulier) {
+                        extensionHash = 1;
+                        ctx.extensionsSingulieres++;
+                    } else if (betaSingulier >= beta) {
+                        // Le coup de table et au moins un autre dépassent bêta
+                        ctx.multiCuts++;
+                        return betaSingulier;
+                    }
+                } else if (!max && borne != TableTransposition.INFERIEURE) {
+                    int alphaSingulier = scoreTT + marge;
+                    ctx.testsSinguliers++;
+                    int v = minimax(plateau, profondeurReduite, alphaSingulier, alphaSingulier + 1, timeIsUp, ply,
+                            ctx, coupHash);
+                    if (v > alphaSingulier) {
+                        extensionHash = 1;
+                        ctx.extensionsSingulieres++;
+                    } else if (alphaSingulier <= alpha) {
+                        ctx.multiCuts++;
+                        return alphaSingulier;
+                    }
+                }
+            }
+        }
+
+        int meilleur = max ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        Coup meilleurCoup = null;
+        boolean premier = true;
+        int coupsCherches = 0;
+
+        for (int i = 0; i < coups.size(); i++) {
+            Coup coup = coups.get(i);
+            int code = coup.encoder();
+            if (code == coupExclu)
+                continue;
+
+            boolean calme = !coup.estCapture() && !coup.estPromotion();
+            boolean donneEchec = infosEchec.donneEchec(plateau, coup);
+
+            // Extension : coup singulier, ou échec qui ne perd pas de matériel
+            int extension = (code == coupHash) ? extensionHash : 0;
+            if (extension == 0 && donneEchec && ply < PLY_MAX_EXTENSION
+                    && EchangeStatique.auMoins(plateau, coup, 0)) {
+                extension = 1;
+                ctx.extensionsEchec++;
+            }
+            int nouvelleProfondeur = profondeur - 1 + extension;
+
+            // LMR : réduction des coups calmes tardifs, moindre pour les coups
+            // à bon historique (simple + continuation), nulle pour killers,
+            // contre-coup et coups qui donnent échec
+            int reduction = 0;
+            if (calme && !enEchec && !donneEchec && coupsCherches >= COUPS_AVANT_LMR && profondeur >= PROFONDEUR_MIN_LMR
+                    && !ctx.estKiller(ply, code) && code != ctx.contreCoup(ply)) {
+                reduction = REDUCTIONS[Math.min(profondeur, 63)][Math.min(coupsCherches, 63)];
+                reduction -= ctx.noteCalme(coup, ply) / 8192;
+                reduction = Math.max(0, Math.min(reduction, nouvelleProfondeur - 1));
+            }
+
+            ctx.noterCoup(ply, coup);
+            EtatPlateau s = plateau.jouerAvecSauvegarde(coup);
+            int score;
+            if (premier) {
+                score = minimax(plateau, nouvelleProfondeur, alpha, beta, timeIsUp, ply + 1, ctx);
+            } else {
+                // PVS : les coups suivants sont d'abord testés en fenêtre nulle
+                // (noeuds "coupure"), éventuellement réduits (LMR) ; un coup
+                // réduit qui améliore est revérifié à pleine profondeur, puis
+                // re-cherché en fenêtre complète s'il reste dans la fenêtre
+                int profondeurEssai = nouvelleProfondeur - reduction;
+                if (reduction > 0)
+                    ctx.reductionsLmr++;
+                score = max
+                        ? minimax(plateau, profondeurEssai, alpha, alpha + 1, timeIsUp, ply + 1, ctx)
+                        : minimax(plateau, profondeurEssai, beta - 1, beta, timeIsUp, ply + 1, ctx);
+                if (reduction > 0 && (max ? score > alpha : score < beta)) {
+                    score = max
+                            ? minimax(plateau, nouvelleProfondeur, alpha, alpha + 1, timeIsUp, ply + 1, ctx)
+                            : minimax(plateau, nouvelleProfondeur, beta - 1, beta, timeIsUp, ply + 1, ctx);
+                }
+                boolean ameliore = max ? (score > alpha && score < beta) : (score < beta && score > alpha);
+                if (ameliore) {
+                    score = minimax(plateau, nouvelleProfondeur, alpha, beta, timeIsUp, ply + 1, ctx);
+                }
+            }
+            plateau.annuler(s);
+            premier = false;
+            coupsCherches++;
+
+            if (max) {
+                if (score > meilleur) {
+                    meilleur = score;
+                    meilleurCoup = coup;
+                }
+                alpha = Math.max(alpha, meilleur);
+            } else {
+                if (score < meilleur) {
+                    meilleur = score;
+                    meilleurCoup = coup;
+                }
                 beta = Math.min(beta, meilleur);
-                if (alpha >= beta)
-                    break;
             }
+
+            if (alpha >= beta) {
+                if (calme) {
+                    recompenserCoupCalme(ctx, coups, i, profondeur, ply);
+                }
+                break;
+            }
+        }
+
+        if (coupExclu != 0) {
+            // Recherche singulière : pas de stockage (le coup de table manque)
+            if (meilleurCoup == null)
+                return max ? alphaOrigine : betaOrigine;
             return meilleur;
         }
+
+        int borne;
+        if (meilleur <= alphaOrigine)
+            borne = TableTransposition.SUPERIEURE;
+        else if (meilleur >= betaOrigine)
+            borne = TableTransposition.INFERIEURE;
+        else
+            borne = TableTransposition.EXACTE;
+        tt.stocker(cle, profondeur, meilleur, borne, meilleurCoup.encoder(), ply);
+
+        return meilleur;
+    }
+
+    /**
+     * Captures gagnantes (SEE) testées contre bêta + marge (alpha - marge côté
+     * noir) : quiescence d'abord, puis recherche réduite de 4 demi-coups.
+     *
+     * @return score de coupure, ou PAS_DE_COUPURE
+     */
+    private static int probCut(Plateau plateau, List<Coup> coups, int profondeur, int alpha, int beta,
+            boolean max, long entree, AtomicBoolean timeIsUp, int ply, ContexteRecherche ctx) {
+        int marge = ParametresRecherche.margeProbCut();
+        int seuil = max ? beta + marge : alpha - marge;
+        int profondeurReduite = profondeur - 4;
+
+        // La table dit déjà que la borne relevée ne sera pas atteinte
+        if (entree != 0L && TableTransposition.profondeur(entree) >= profondeurReduite) {
+            int scoreTT = TableTransposition.score(entree, ply);
+            if (max ? scoreTT < seuil : scoreTT > seuil)
+                return PAS_DE_COUPURE;
+        }
+        for (Coup coup : coups) {
+            if (!coup.estCapture() && !coup.estPromotion())
+                continue;
+            if (!EchangeStatique.auMoins(plateau, coup, 0))
+                continue;
+
+            // Pile des coups à jour pour l'historique de continuation des enfants
+            ctx.noterCoup(ply, coup);
+            EtatPlateau s = plateau.jouerAvecSauvegarde(coup);
+            int score;
+            if (max) {
+                score = Quiescence.quiescenceSearch(plateau, seuil - 1, seuil, timeIsUp);
+                if (score >= seuil && profondeurReduite > 0)
+                    score = minimax(plateau, profondeurReduite, seuil - 1, seuil, timeIsUp, ply + 1, ctx);
+            } else {
+                score = Quiescence.quiescenceSearch(plateau, seuil, seuil + 1, timeIsUp);
+                if (score <= seuil && profondeurReduite > 0)
+                    score = minimax(plateau, profondeurReduite, seuil, seuil + 1, timeIsUp, ply + 1, ctx);
+            }
+            plateau.annuler(s);
+
+            if (max ? score >= seuil : score <= seuil) {
+                ctx.probCuts++;
+                table.stocker(plateau.cle(), profondeurReduite + 1, score,
+                        max ? TableTransposition.INFERIEURE : TableTransposition.SUPERIEURE, coup.encoder(), ply);
+                return score;
+            }
+        }
+        return PAS_DE_COUPURE;
+    }
+
+    /**
+     * Bonus d'historique (simple et continuation) pour le coup calme qui a
+     * coupé, malus pour les coups calmes essayés avant lui ; le coup devient
+     * killer du ply et contre-coup du coup adverse.
+     */
+    private static void recompenserCoupCalme(ContexteRecherche ctx, List<Coup> coups, int indexCoupure,
+            int profondeur, int ply) {
+        int bonus = profondeur * profondeur;
+        Coup coupure = coups.get(indexCoupure);
+        ctx.majCoupCalme(coupure, ply, bonus);
+        ctx.enregistrerCoupure(coupure, ply);
+        for (int j = 0; j < indexCoupure; j++) {
+            Coup c = coups.get(j);
+            if (!c.estCapture() && !c.estPromotion()) {
+                ctx.majCoupCalme(c, ply, -bonus);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Remplace la table (nouvelle taille) ; à appeler hors recherche.
+     * </p>
+     *
+     * @param entrees nombre d'entrées
+     */
+    public static void redimensionnerTable(int entrees) {
+        table = new TableTransposition(entrees);
+    }
+
+    /** Le camp au trait est maté. */
+    private static boolean estMat(Plateau plateau) {
+        return plateau.estEnEchec(plateau.trait()) && GenerateurCoups.genererEvasions(plateau).isEmpty();
+    }
+
+    /** Score (point de vue des Blancs) du camp au trait maté à {@code ply}. */
+    private static int scoreMat(Plateau plateau, int ply) {
+        return (plateau.trait() == Couleur.BLANC) ? -Evaluation.SCORE_MAT + ply : Evaluation.SCORE_MAT - ply;
     }
 }
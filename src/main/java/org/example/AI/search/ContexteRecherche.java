@@ -0,0 +1,266 @@
+package org.example.AI.search;
+
+import org.example.chess.Coup;
+import org.example.chess.InfosEchec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Données propres à un thread de recherche : tables d'historique (simple,
+ * coups "killer", contre-coups, historique de continuation), pile des coups
+ * joués depuis la racine et compteurs.
+ * </p>
+ *
+ * <p>
+ * Un contexte par thread du pool (pas de synchronisation pendant la
+ * recherche). Les contextes survivent d'un coup à l'autre : l'historique
+ * appris au coup précédent reste utile pour trier les coups calmes.
+ * </p>
+ */
+public final class ContexteRecherche {
+
+    /** Borne de l'historique (formule à "gravité" : reste dans [-MAX, MAX]). */
+    private static final int HISTORIQUE_MAX = 16_384;
+
+    /** Profondeur maximale (en demi-coups depuis la racine) suivie par la pile. */
+    static final int PLY_MAX = 128;
+
+    private static final int NB_CASES_PIECES = 12 * 64;
+
+    private static final List<ContexteRecherche> TOUS = new ArrayList<>();
+
+    private static final ThreadLocal<ContexteRecherche> PAR_THREAD = ThreadLocal.withInitial(() -> {
+        ContexteRecherche ctx = new ContexteRecherche();
+        synchronized (TOUS) {
+            TOUS.add(ctx);
+        }
+        return ctx;
+    });
+
+    /** Historique des coups calmes, indexé par [pièce][arrivée]. */
+    final int[] historique = new int[NB_CASES_PIECES];
+
+    /** Deux coups "killer" (encodés) par ply. */
+    final int[] killers = new int[PLY_MAX * 2];
+
+    /** Réponse ayant coupé après le coup [pièce][arrivée] de l'adversaire (encodée). */
+    final int[] contreCoups = new int[NB_CASES_PIECES];
+
+    /**
+     * Historique de continuation [pièce, arrivée précédentes][pièce, arrivée] ;
+     * en short pour tenir 1,2 Mo par thread.
+     */
+    final short[] continuation = new short[NB_CASES_PIECES * NB_CASES_PIECES];
+
+    /** Coup joué à chaque ply (pièce * 64 + arrivée), -1 si inconnu. */
+    private final int[] pile = new int[PLY_MAX];
+
+    /** Informations d'échec réutilisées à chaque ply (pas d'allocation par noeud). */
+    private final InfosEchec[] infosEchec = new InfosEchec[PLY_MAX];
+
+    // Compteurs depuis le dernier remettreCompteursAZero()
+    long noeuds;
+    long iid;
+    long iir;
+    long testsSinguliers;
+    long extensionsSingulieres;
+    long multiCuts;
+    long probCuts;
+    long reductionsLmr;
+    long extensionsEchec;
+    long sondesTables;
+
+    private ContexteRecherche() {
+        java.util.Arrays.fill(pile, -1);
+    }
+
+    /**
+     * <p>Contexte du thread courant (créé au premier appel).</p>
+     */
+    public static ContexteRecherche duThread() {
+        return PAR_THREAD.get();
+    }
+
+    /**
+     * <p>Oublie l'historique de tous les threads (nouvelle partie).</p>
+     */
+    public static void effacerTous() {
+        synchronized (TOUS) {
+            for (ContexteRecherche ctx : TOUS) {
+                java.util.Arrays.fill(ctx.historique, 0);
+                java.util.Arrays.fill(ctx.killers, 0);
+                java.util.Arrays.fill(ctx.contreCoups, 0);
+                java.util.Arrays.fill(ctx.continuation, (short) 0);
+            }
+        }
+    }
+
+    /**
+     * <p>Remet à zéro les compteurs de tous les threads (début de recherche).</p>
+     */
+    public static void remettreCompteursAZero() {
+        synchronized (TOUS) {
+            for (ContexteRecherche ctx : TOUS) {
+                ctx.noeuds = 0;
+                ctx.iid = 0;
+                ctx.iir = 0;
+                ctx.testsSinguliers = 0;
+                ctx.extensionsSingulieres = 0;
+                ctx.multiCuts = 0;
+                ctx.probCuts = 0;
+                ctx.reductionsLmr = 0;
+                ctx.extensionsEchec = 0;
+                ctx.sondesTables = 0;
+            }
+        }
+    }
+
+    /**
+     * <p>Total des noeuds visités par tous les threads.</p>
+     */
+    public static long totalNoeuds() {
+        long total = 0;
+        synchronized (TOUS) {
+            for (ContexteRecherche ctx : TOUS) {
+                total += ctx.noeuds;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * <p>Résumé des compteurs de tous les threads (pour les logs).</p>
+     */
+    public static String resumeCompteurs() {
+        long n = 0, d = 0, r = 0, t = 0, e = 0, m = 0, pc = 0, l = 0, x = 0, tb = 0;
+        synchronized (TOUS) {
+            for (ContexteRecherche ctx : TOUS) {
+                n += ctx.noeuds;
+                d += ctx.iid;
+                r += ctx.iir;
+                t += ctx.testsSinguliers;
+                e += ctx.extensionsSingulieres;
+                m += ctx.multiCuts;
+                pc += ctx.probCuts;
+                l += ctx.reductionsLmr;
+                x += ctx.extensionsEchec;
+                tb += ctx.sondesTables;
+            }
+        }
+        return "Noeuds: " + n + ", IID: " + d + ", IIR: " + r
+                + ", Singuliers: " + e + "/" + t + ", Multi-cut: " + m
+                + ", ProbCut: " + pc + ", LMR: " + l + ", Ext. echec: " + x
+                + (tb > 0 ? ", Tables: " + tb : "");
+    }
+
+    /**
+     * <p>
+     * Coup joué à la racine par ce thread : sert de "coup précédent" au
+     * premier niveau de la recherche.
+     * </p>
+     */
+    public void definirCoupRacine(Coup coup) {
+        noterCoup(0, coup);
+    }
+
+    /** Enregistre le coup joué au ply donné (avant de descendre au ply + 1). */
+    void noterCoup(int ply, Coup coup) {
+        if (ply < PLY_MAX)
+            pile[ply] = indice(coup);
+    }
+
+    /** Informations d'échec du ply (à recalculer pour le noeud courant). */
+    InfosEchec infosEchec(int ply) {
+        if (ply >= PLY_MAX)
+            return new InfosEchec();
+        InfosEchec infos = infosEchec[ply];
+        if (infos == null) {
+            infos = new InfosEchec();
+            infosEchec[ply] = infos;
+        }
+        return infos;
+    }
+
+    int noteHistorique(Coup coup) {
+        return historique[indice(coup)];
+    }
+
+    /**
+     * <p>
+     * Note d'un coup calme au ply donné : historique simple + continuation
+     * par rapport aux coups joués 1 et 2 demi-coups plus tôt.
+     * </p>
+     */
+    int noteCalme(Coup coup, int ply) {
+        int i = indice(coup);
+        int note = historique[i];
+        int p1 = precedent(ply, 1);
+        if (p1 >= 0)
+            note += continuation[p1 * NB_CASES_PIECES + i];
+        int p2 = precedent(ply, 2);
+        if (p2 >= 0)
+            note += continuation[p2 * NB_CASES_PIECES + i];
+        return note;
+    }
+
+    boolean estKiller(int ply, int code) {
+        return ply < PLY_MAX && (killers[2 * ply] == code || killers[2 * ply + 1] == code);
+    }
+
+    /** Réponse mémorisée au dernier coup adverse, 0 si aucune. */
+    int contreCoup(int ply) {
+        int p1 = precedent(ply, 1);
+        return p1 >= 0 ? contreCoups[p1] : 0;
+    }
+
+    /**
+     * <p>Bonus (coupure) ou malus (coup essayé sans coupure) d'un coup calme.</p>
+     */
+    void majHistorique(Coup coup, int bonus) {
+        int i = indice(coup);
+        int b = Math.max(-HISTORIQUE_MAX, Math.min(HISTORIQUE_MAX, bonus));
+        historique[i] += b - historique[i] * Math.abs(b) / HISTORIQUE_MAX;
+    }
+
+    /**
+     * <p>Même mise à jour, étendue aux tables de continuation du ply.</p>
+     */
+    void majCoupCalme(Coup coup, int ply, int bonus) {
+        majHistorique(coup, bonus);
+        int i = indice(coup);
+        int b = Math.max(-HISTORIQUE_MAX, Math.min(HISTORIQUE_MAX, bonus));
+        for (int recul = 1; recul <= 2; recul++) {
+            int p = precedent(ply, recul);
+            if (p >= 0) {
+                int j = p * NB_CASES_PIECES + i;
+                continuation[j] += (short) (b - continuation[j] * Math.abs(b) / HISTORIQUE_MAX);
+            }
+        }
+    }
+
+    /**
+     * <p>Le coup calme a coupé : killer du ply et contre-coup du coup adverse.</p>
+     */
+    void enregistrerCoupure(Coup coup, int ply) {
+        int code = coup.encoder();
+        if (ply < PLY_MAX && killers[2 * ply] != code) {
+            killers[2 * ply + 1] = killers[2 * ply];
+            killers[2 * ply] = code;
+        }
+        int p1 = precedent(ply, 1);
+        if (p1 >= 0)
+            contreCoups[p1] = code;
+    }
+
+    /** Coup joué {@code recul} demi-coups avant le noeud du ply, -1 si inconnu. */
+    private int precedent(int ply, int recul) {
+        int k = ply - recul;
+        return (k >= 0 && k < PLY_MAX) ? pile[k] : -1;
+    }
+
+    private static int indice(Coup coup) {
+        return coup.pieceDeplacee().ordinal() * 64 + coup.arrivee().indice();
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.AI.search;
+
+import org.example.AI.Evaluation;
+import org.example.chess.Coup;
+import org.example.chess.Couleur;
+import org.example.chess.Masques;
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+import org.example.chess.Rayons;
+
+/**
+ * <p>
+ * Évaluation statique des échanges (SEE) : bilan matériel d'une capture si
+ * chaque camp reprend sur la case d'arrivée avec sa pièce la moins chère.
+ * </p>
+ *
+ * <p>
+ * Les rayons X (tour derrière tour, dame derrière fou...) sont pris en
+ * compte en recalculant les attaquants avec l'occupation courante. Les
+ * clouages sont ignorés.
+ * </p>
+ */
+public final class EchangeStatique {
+
+    private static final Piece[] PIECES = Piece.values();
+
+    private EchangeStatique() {
+    }
+
+    /**
+     * <p>Gain matériel (centipions, pour le camp qui joue) de l'échange.</p>
+     */
+    public static int valeur(Plateau plateau, Coup coup) {
+        int cible = coup.arrivee().indice();
+        long occ = plateau.occupes() & ~coup.depart().bit();
+
+        int[] gains = new int[32];
+        int d = 0;
+
+        // Le générateur ne renseigne pas toujours la pièce prise
+        Piece victime = coup.pieceCapturee();
+        if (victime == null && coup.estCapture())
+            victime = plateau.pieceEn(coup.arrivee());
+        if (coup.estEnPassant()) {
+            victime = (plateau.trait() == Couleur.BLANC) ? Piece.PION_NOIR : Piece.PION_BLANC;
+            occ &= ~(plateau.trait() == Couleur.BLANC ? (1L << (cible + 8)) : (1L << (cible - 8)));
+        }
+        Piece surCase = coup.pieceDeplacee();
+        gains[0] = valeurPiece(victime);
+        if (coup.estPromotion()) {
+            surCase = coup.piecePromotion();
+            gains[0] += valeurPiece(surCase) - Evaluation.VALEUR_PION;
+        }
+
+        Couleur camp = plateau.trait().inverse();
+        while (true) {
+            d++;
+            gains[d] = valeurPiece(surCase) - gains[d - 1];
+            if (Math.max(-gains[d - 1], gains[d]) < 0)
+                break;
+
+            long attaquants = attaquants(plateau, cible, occ) & occ;
+            int idx = moinsCher(plateau, attaquants, camp);
+            if (idx < 0)
+                break;
+            Piece p = PIECES[idx];
+            long bit = plateau.bitboard(p) & attaquants;
+            bit &= -bit;
+
+            // Le roi ne reprend pas une case encore défendue
+            if (p == Piece.ROI_BLANC || p == Piece.ROI_NOIR) {
+                if (moinsCher(plateau, attaquants & ~bit, camp.inverse()) >= 0)
+                    break;
+            }
+
+            occ &= ~bit;
+            surCase = p;
+            camp = camp.inverse();
+            if (d == gains.length - 1)
+                break;
+        }
+
+        while (--d > 0) {
+            gains[d - 1] = -Math.max(-gains[d - 1], gains[d]);
+        }
+        return gains[0];
+    }
+
+    /**
+     * <p>Vrai si l'échange rapporte au moins {@code seuil} centipions.</p>
+     */
+    public static boolean auMoins(Plateau plateau, Coup coup, int seuil) {
+        return valeur(plateau, coup) >= seuil;
+    }
+
+    /**
+     * <p>Toutes les pièces (deux couleurs) attaquant la case avec cette occupation.</p>
+     */
+    private static long attaquants(Plateau plateau, int cible, long occ) {
+        long b = 1L << cible;
+        long pionsBlancs = ((b << 7) & ~Masques.FILE_H) | ((b << 9) & ~Masques.FILE_A);
+        long pionsNoirs = ((b >>> 7) & ~Masques.FILE_A) | ((b >>> 9) & ~Masques.FILE_H);
+        long diag = Rayons.attaquesDiagonales(cible, occ);
+        long lignes = Rayons.attaquesHorizontalesEtVerticales(cible, occ);
+
+        return (pionsBlancs & plateau.bitboard(Piece.PION_BLANC))
+                | (pionsNoirs & plateau.bitboard(Piece.PION_NOIR))
+                | (Masques.attaquesCavalier(cible)
+                        & (plateau.bitboard(Piece.CAVALIER_BLANC) | plateau.bitboard(Piece.CAVALIER_NOIR)))
+                | (Masques.attaquesRoi(cible)
+                        & (plateau.bitboard(Piece.ROI_BLANC) | plateau.bitboard(Piece.ROI_NOIR)))
+                | (diag & (plateau.bitboard(Piece.FOU_BLANC) | plateau.bitboard(Piece.FOU_NOIR)
+                        | plateau.bitboard(Piece.DAME_BLANCHE) | plateau.bitboard(Piece.DAME_NOIRE)))
+                | (lignes & (plateau.bitboard(Piece.TOUR_BLANC) | plateau.bitboard(Piece.TOUR_NOIRE)
+                        | plateau.bitboard(Piece.DAME_BLANCHE) | plateau.bitboard(Piece.DAME_NOIRE)));
+    }
+
+    /** Indice (ordinal) de la pièce la moins chère du camp parmi les attaquants, -1 si aucune. */
+    private static int moinsCher(Plateau plateau, long attaquants, Couleur camp) {
+        int debut = (camp == Couleur.BLANC) ? 0 : 6;
+        for (int i = debut; i < debut + 6; i++) {
+            if ((plateau.bitboard(PIECES[i]) & attaquants) != 0L)
+                return i;
+        }
+        return -1;
+    }
+
+    private static int valeurPiece(Piece piece) {
+        if (piece == null)
+            return 0;
+        return switch (piece) {
+            case PION_BLANC, PION_NOIR -> Evaluation.VALEUR_PION;
+            case CAVALIER_BLANC, CAVALIER_NOIR -> Evaluation.VALEUR_CAVALIER;
+            case FOU_BLANC, FOU_NOIR -> Evaluation.VALEUR_FOU;
+            case TOUR_BLANC, TOUR_NOIRE -> Evaluation.VALEUR_TOUR;
+            case DAME_BLANCHE, DAME_NOIRE -> Evaluation.VALEUR_DAME;
+            // Le roi ne peut pas être "gagné" : valeur haute pour couper l'échange
+            case ROI_BLANC, ROI_NOIR -> 20 * Evaluation.VALEUR_DAME;
+        };
+    }
+}
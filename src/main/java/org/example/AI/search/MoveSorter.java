@@ -10,6 +10,11 @@ import java.util.List;
 
 public final class MoveSorter {
 
+    private static final int NOTE_HASH = 1 << 30;
+    private static final int NOTE_CAPTURE = 1 << 20;
+    private static final int NOTE_KILLER = 1 << 18;
+    private static final int NOTE_CONTRE_COUP = 1 << 17;
+
     private MoveSorter() {
     }
 
@@ -21,7 +26,57 @@ public final class MoveSorter {
         });
     }
 
-    private static int evaluerCoupPourTri(Coup coup, Plateau p) {
+    /**
+     * Tri complet d'un noeud : coup de la table de transposition d'abord, puis
+     * captures/promotions (MVV-LVA), killers, contre-coup, puis coups calmes
+     * selon l'historique et l'historique de continuation.
+     *
+     * @param coupHash coup encodé de la table (0 si aucun)
+     * @param ply      ply du noeud (killers, coups précédents)
+     */
+    public static void trierCoups(List<Coup> coups, Plateau p, int coupHash, ContexteRecherche ctx, int ply) {
+        int n = coups.size();
+        Coup[] tab = coups.toArray(new Coup[0]);
+        int[] notes = new int[n];
+        int contreCoup = ctx.contreCoup(ply);
+        for (int i = 0; i < n; i++) {
+            Coup c = tab[i];
+            int code = c.encoder();
+            if (coupHash != 0 && code == coupHash) {
+                notes[i] = NOTE_HASH;
+            } else if (c.estCapture() || c.estPromotion()) {
+                notes[i] = NOTE_CAPTURE + evaluerCoupPourTri(c, p);
+            } else if (ctx.estKiller(ply, code)) {
+                notes[i] = NOTE_KILLER;
+            } else if (code == contreCoup) {
+                notes[i] = NOTE_CONTRE_COUP;
+            } else {
+                notes[i] = ctx.noteCalme(c, ply);
+            }
+        }
+
+        // Tri par insertion (listes courtes, souvent presque triées)
+        for (int i = 1; i < n; i++) {
+            Coup c = tab[i];
+            int note = notes[i];
+            int j = i - 1;
+            while (j >= 0 && notes[j] < note) {
+                tab[j + 1] = tab[j];
+                notes[j + 1] = notes[j];
+                j--;
+            }
+            tab[j + 1] = c;
+            notes[j + 1] = note;
+        }
+        for (int i = 0; i < n; i++) {
+            coups.set(i, tab[i]);
+        }
+    }
+
+    /**
+     * Note MVV-LVA d'un coup (captures et promotions), 0 pour un coup calme.
+     */
+    public static int evaluerCoupPourTri(Coup coup, Plateau p) {
         int note = 0;
 
         if (coup.estCapture()) {
@@ -30,6 +85,8 @@ public final class MoveSorter {
 
             if (victime == null && coup.estEnPassant()) {
                 victime = (p.trait() == Couleur.BLANC) ? Piece.PION_NOIR : Piece.PION_BLANC;
+            } else if (victime == null) {
+                victime = p.pieceEn(coup.arrivee());
             }
 
             int valVictime = valeurPiece(victime);
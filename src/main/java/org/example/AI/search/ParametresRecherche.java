@@ -0,0 +1,83 @@
+package org.example.AI.search;
+
+/**
+ * <p>
+ * Réglages de la recherche modifiables à l'exécution (tests, matchs A/B).
+ * </p>
+ *
+ * <p>
+ * Les valeurs sont lues à chaque noeud : on les change entre deux recherches,
+ * pas pendant.
+ * </p>
+ */
+public final class ParametresRecherche {
+
+    // Extensions singulières / multi-cut
+    private static volatile int profondeurMinSinguliere = 6;
+    private static volatile int margeSinguliereParProfondeur = 3;
+
+    // ProbCut
+    private static volatile int profondeurMinProbCut = 5;
+    private static volatile int margeProbCut = 200;
+
+    private ParametresRecherche() {
+    }
+
+    /**
+     * <p>Profondeur minimale pour tester si le coup de table est singulier.</p>
+     */
+    public static int profondeurMinSinguliere() {
+        return profondeurMinSinguliere;
+    }
+
+    public static void setProfondeurMinSinguliere(int profondeur) {
+        if (profondeur < 1)
+            throw new IllegalArgumentException("profondeur doit être >= 1");
+        profondeurMinSinguliere = profondeur;
+    }
+
+    /**
+     * <p>
+     * Marge (centipions par demi-coup de profondeur) sous le score de table :
+     * si aucun autre coup ne l'atteint, le coup de table est singulier.
+     * </p>
+     */
+    public static int margeSinguliereParProfondeur() {
+        return margeSinguliereParProfondeur;
+    }
+
+    public static void setMargeSinguliereParProfondeur(int marge) {
+        if (marge < 0)
+            throw new IllegalArgumentException("marge doit être >= 0");
+        margeSinguliereParProfondeur = marge;
+    }
+
+    /**
+     * <p>Profondeur minimale pour tenter ProbCut.</p>
+     */
+    public static int profondeurMinProbCut() {
+        return profondeurMinProbCut;
+    }
+
+    public static void setProfondeurMinProbCut(int profondeur) {
+        if (profondeur < 2)
+            throw new IllegalArgumentException("profondeur doit être >= 2");
+        profondeurMinProbCut = profondeur;
+    }
+
+    /**
+     * <p>
+     * Marge (centipions) ajoutée à bêta (retirée d'alpha) pour la recherche
+     * réduite de ProbCut.
+     * </p>
+     */
+    public static int margeProbCut() {
+        return margeProbCut;
+    }
+
+    public static void setMargeProbCut(int marge) {
+        if (marge < 0)
+            throw new IllegalArgumentException("marge doit être >= 0");
+        margeProbCut = marge;
+    }
+}
@@ -5,6 +5,7 @@ import org.example.chess.Coup;
 import org.example.chess.Couleur;
 import org.example.chess.EtatPlateau;
 import org.example.chess.GenerateurCoups;
+import org.example.chess.InfosEchec;
 import org.example.chess.Plateau;
 
 import java.util.ArrayList;
@@ -16,12 +17,42 @@ public final class Quiescence {
     }
 
     public static int quiescenceSearch(Plateau plateau, int alpha, int beta, AtomicBoolean timeIsUp) {
+        return recherche(plateau, alpha, beta, timeIsUp, 0, false);
+    }
+
+    /**
+     * <p>
+     * Entrée depuis la recherche principale : au premier niveau, les échecs
+     * calmes sont aussi essayés (en plus des prises et promotions).
+     * </p>
+     *
+     * @param ply distance à la racine (scores de mat)
+     */
+    public static int quiescenceSearch(Plateau plateau, int alpha, int beta, AtomicBoolean timeIsUp, int ply) {
+        return recherche(plateau, alpha, beta, timeIsUp, ply, true);
+    }
+
+    private static int recherche(Plateau plateau, int alpha, int beta, AtomicBoolean timeIsUp, int ply,
+            boolean echecsCalmes) {
         if (timeIsUp.get())
             throw new TimeOutException();
 
-        int standPat = Evaluation.evaluer(plateau);
         boolean max = (plateau.trait() == Couleur.BLANC);
 
+        // En échec : pas de "stand pat", on cherche toutes les parades
+        if (plateau.estEnEchec(plateau.trait())) {
+            List<Coup> parades = GenerateurCoups.genererEvasions(plateau);
+            if (parades.isEmpty()) {
+                return max ? -Evaluation.SCORE_MAT + ply : Evaluation.SCORE_MAT - ply;
+            }
+            MoveSorter.trierCoups(parades, plateau);
+            return chercherCoups(plateau, parades, max ? Integer.MIN_VALUE : Integer.MAX_VALUE, alpha, beta,
+                    timeIsUp, ply, max);
+        }
+
+        // Hors fenêtre, une borne suffit : le "stand pat" coupe ou ne change rien
+        int standPat = Evaluation.evaluer(plateau, alpha, beta);
+
         if (max) {
             if (standPat >= beta)
                 return beta;
@@ -36,23 +67,39 @@ public final class Quiescence {
 
         List<Coup> coups = GenerateurCoups.genererLegaux(plateau);
         List<Coup> captures = new ArrayList<>();
+        List<Coup> echecs = null;
+        InfosEchec infosEchec = null;
+        if (echecsCalmes) {
+            infosEchec = ContexteRecherche.duThread().infosEchec(ply);
+            infosEchec.calculer(plateau);
+        }
         for (Coup c : coups) {
             if (c.estCapture() || c.estPromotion()) {
                 captures.add(c);
+            } else if (echecsCalmes && infosEchec.donneEchec(plateau, c)) {
+                if (echecs == null)
+                    echecs = new ArrayList<>();
+                echecs.add(c);
             }
         }
 
-        if (captures.isEmpty()) {
+        if (captures.isEmpty() && echecs == null) {
             return standPat;
         }
 
         MoveSorter.trierCoups(captures, plateau);
+        if (echecs != null)
+            captures.addAll(echecs);
+
+        return chercherCoups(plateau, captures, standPat, alpha, beta, timeIsUp, ply, max);
+    }
 
+    private static int chercherCoups(Plateau plateau, List<Coup> coups, int meilleur, int alpha, int beta,
+            AtomicBoolean timeIsUp, int ply, boolean max) {
         if (max) {
-            int meilleur = standPat;
-            for (Coup capture : captures) {
-                EtatPlateau s = plateau.jouerAvecSauvegarde(capture);
-                int score = quiescenceSearch(plateau, alpha, beta, timeIsUp);
+            for (Coup coup : coups) {
+                EtatPlateau s = plateau.jouerAvecSauvegarde(coup);
+                int score = recherche(plateau, alpha, beta, timeIsUp, ply + 1, false);
                 plateau.annuler(s);
 
                 meilleur = Math.max(meilleur, score);
@@ -60,12 +107,10 @@ public final class Quiescence {
                 if (alpha >= beta)
                     break;
             }
-            return meilleur;
         } else {
-            int meilleur = standPat;
-            for (Coup capture : captures) {
-                EtatPlateau s = plateau.jouerAvecSauvegarde(capture);
-                int score = quiescenceSearch(plateau, alpha, beta, timeIsUp);
+            for (Coup coup : coups) {
+                EtatPlateau s = plateau.jouerAvecSauvegarde(coup);
+                int score = recherche(plateau, alpha, beta, timeIsUp, ply + 1, false);
                 plateau.annuler(s);
 
                 meilleur = Math.min(meilleur, score);
@@ -73,7 +118,7 @@ public final class Quiescence {
                 if (alpha >= beta)
                     break;
             }
-            return meilleur;
         }
+        return meilleur;
     }
 }
@@ -0,0 +1,141 @@
+package org.example.AI.search;
+
+import org.example.AI.Evaluation;
+
+/**
+ * <p>
+ * Table de transposition partagée entre les threads de recherche.
+ * </p>
+ *
+ * <p>
+ * Sans verrou : chaque entrée tient dans deux {@code long} (clé XOR données,
+ * données). Une écriture concurrente déchirée donne une clé incohérente et
+ * l'entrée est simplement ignorée à la lecture.
+ * </p>
+ *
+ * <p>
+ * Format des données (64 bits) :
+ * </p>
+ * <ul>
+ * <li>bits 0-27 : coup encodé ({@link org.example.chess.Coup#encoder()}), 0 =
+ * aucun</li>
+ * <li>bits 28-49 : score (22 bits signés)</li>
+ * <li>bits 50-56 : profondeur</li>
+ * <li>bits 57-58 : type de borne</li>
+ * <li>bits 59-62 : âge (numéro de recherche)</li>
+ * <li>bit 63 : entrée présente</li>
+ * </ul>
+ */
+public final class TableTransposition {
+
+    public static final int EXACTE = 0;
+    /** Le score est un minimum (coupure bêta, "fail high"). */
+    public static final int INFERIEURE = 1;
+    /** Le score est un maximum (aucun coup n'a dépassé alpha, "fail low"). */
+    public static final int SUPERIEURE = 2;
+
+    /** Les scores au-delà sont des mats (corrigés par le ply). */
+    private static final int SEUIL_MAT = Evaluation.SCORE_MAT - 1000;
+
+    private static final long PRESENTE = 1L << 63;
+
+    private final long[] table;
+    private final int masque;
+    private volatile int age;
+
+    /**
+     * @param entrees nombre d'entrées (arrondi à la puissance de 2 inférieure)
+     */
+    public TableTransposition(int entrees) {
+        int taille = Integer.highestOneBit(Math.max(1024, entrees));
+        this.table = new long[2 * taille];
+        this.masque = taille - 1;
+    }
+
+    /**
+     * <p>Retourne les données associées à la clé, ou 0 si absente.</p>
+     */
+    public long sonder(long cle) {
+        int i = 2 * (int) (cle & masque);
+        long donnees = table[i + 1];
+        long verif = table[i];
+        if ((verif ^ donnees) != cle || (donnees & PRESENTE) == 0L)
+            return 0L;
+        return donnees;
+    }
+
+    /**
+     * <p>
+     * Enregistre un résultat. On remplace une entrée d'une ancienne recherche,
+     * d'une autre position, ou moins profonde.
+     * </p>
+     *
+     * @param ply distance à la racine (pour ramener les mats à ce noeud)
+     */
+    public void stocker(long cle, int profondeur, int score, int borne, int coup, int ply) {
+        int i = 2 * (int) (cle & masque);
+        long ancienne = table[i + 1];
+        boolean memeCle = (table[i] ^ ancienne) == cle;
+
+        if (memeCle && (ancienne & PRESENTE) != 0L && age(ancienne) == age
+                && profondeur(ancienne) > profondeur + 2 && borne != EXACTE) {
+            return;
+        }
+        if (coup == 0 && memeCle) {
+            coup = coup(ancienne);
+        }
+
+        int s = score;
+        if (s > SEUIL_MAT)
+            s += ply;
+        else if (s < -SEUIL_MAT)
+            s -= ply;
+
+        long donnees = (coup & 0x0FFFFFFFL)
+                | (((long) s & 0x3FFFFFL) << 28)
+                | ((long) Math.min(profondeur, 127) << 50)
+                | ((long) borne << 57)
+                | ((long) (age & 0xF) << 59)
+                | PRESENTE;
+        table[i] = cle ^ donnees;
+        table[i + 1] = donnees;
+    }
+
+    /** Nouvelle recherche : les anciennes entrées deviennent remplaçables. */
+    public void nouvelleRecherche() {
+        age = (age + 1) & 0xF;
+    }
+
+    /** Vide complètement la table (nouvelle partie). */
+    public void effacer() {
+        java.util.Arrays.fill(table, 0L);
+    }
+
+    public static int coup(long donnees) {
+        return (int) (donnees & 0x0FFFFFFFL);
+    }
+
+    /**
+     * <p>Score ramené au noeud courant (les mats dépendent du ply).</p>
+     */
+    public static int score(long donnees, int ply) {
+        int s = (int) ((donnees << 14) >> 42); // extension de signe des bits 28-49
+        if (s > SEUIL_MAT)
+            s -= ply;
+        else if (s < -SEUIL_MAT)
+            s += ply;
+        return s;
+    }
+
+    public static int profondeur(long donnees) {
+        return (int) ((donnees >>> 50) & 0x7F);
+    }
+
+    public static int borne(long donnees) {
+        return (int) ((donnees >>> 57) & 0x3);
+    }
+
+    private static int age(long donnees) {
+        return (int) ((donnees >>> 59) & 0xF);
+    }
+}
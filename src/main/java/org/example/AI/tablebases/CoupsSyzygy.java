@@ -0,0 +1,211 @@
+package org.example.AI.tablebases;
+
+import org.example.chess.Coup;
+import org.example.chess.Couleur;
+import org.example.chess.Masques;
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+import org.example.chess.Rayons;
+
+/**
+ * <p>
+ * Génération de coups pour les sondes Syzygy, sans allocation : les coups
+ * pseudo-légaux sont écrits encodés ({@link Coup#encoder()}) dans des
+ * tampons préalloués, et les objets {@link Coup} nécessaires pour jouer
+ * viennent d'un cache par thread.
+ * </p>
+ *
+ * <p>
+ * Deux familles, comme dans {@link Syzygy} : les coups irréversibles
+ * (prises, en passant compris, et coups de pion si {@code zeroing}), joués
+ * par la sonde, et les autres, dont on ne vérifie que l'existence. Les roques ne sont jamais générés : une position avec droits de
+ * roque n'est pas sondée. Les codes suivent {@code GenerateurCoups} (pièce
+ * capturée seulement en passant, promotions dans la couleur du pion), donc
+ * un coup a le même code que celui du générateur du moteur.
+ * </p>
+ */
+final class CoupsSyzygy {
+
+    /** Coups au plus par position (largement au-dessus de 7 pièces). */
+    static final int COUPS_MAX = 256;
+
+    private static final Piece[] PIECES = Piece.values();
+
+    private static final int TAILLE_CACHE = 1 << 16;
+
+    private static final int CAPTURE = 1 << 24;
+    private static final int PROMOTION = 1 << 25;
+    private static final int EN_PASSANT = 1 << 27;
+
+    /**
+     * Coups irréversibles décodés, indexés par départ, arrivée et pièce (16
+     * bits du code) ; la sorte de promotion est repliée sur la rangée
+     * d'arrivée, qu'aucun autre coup du même pion ne peut viser. Pas de
+     * collision : chaque coup n'est décodé qu'une fois par thread.
+     */
+    private final int[] codes = new int[TAILLE_CACHE];
+    private final Coup[] coups = new Coup[TAILLE_CACHE];
+
+    /**
+     * <p>
+     * Coup correspondant au code ; décodé une seule fois tant qu'il reste
+     * dans le cache.
+     * </p>
+     */
+    Coup coup(int code) {
+        int i = (code & 0xFFFF) ^ ((((code >>> 20) & 0xF) & 3) << 9);
+        if (codes[i] != code) {
+            coups[i] = Coup.decoder(code);
+            codes[i] = code;
+        }
+        return coups[i];
+    }
+
+    /**
+     * <p>
+     * Un coup légal hors des irréversibles ? Ces coups ne prennent rien :
+     * la légalité se lit sur les bitboards, sans jouer le coup.
+     * </p>
+     */
+    static boolean autreCoupLegal(Plateau p, boolean zeroing, int[] tampon, int debut) {
+        boolean blanc = p.trait() == Couleur.BLANC;
+        long roi = p.bitboard(blanc ? Piece.ROI_BLANC : Piece.ROI_NOIR);
+        int n = generer(p, zeroing, false, tampon, debut);
+        for (int i = debut; i < debut + n; i++) {
+            long de = 1L << (tampon[i] & 63);
+            int a = (tampon[i] >>> 6) & 63;
+            int caseRoi = de == roi ? a : Long.numberOfTrailingZeros(roi);
+            if (!attaquee(p, caseRoi, p.occupes() ^ de ^ (1L << a), !blanc))
+                return true;
+        }
+        return false;
+    }
+
+    /** Case attaquée par un camp, avec l'occupation donnée (comme {@code Arbitre.attaquants}). */
+    private static boolean attaquee(Plateau p, int indice, long occupes, boolean parBlancs) {
+        long b = 1L << indice;
+        long pions = parBlancs
+                ? ((b << 7) & ~Masques.FILE_H) | ((b << 9) & ~Masques.FILE_A)
+                : ((b >>> 7) & ~Masques.FILE_A) | ((b >>> 9) & ~Masques.FILE_H);
+        int o = parBlancs ? 0 : 6;
+        long dames = p.bitboard(PIECES[o + 4]);
+        return (pions & p.bitboard(PIECES[o])) != 0L
+                || (Masques.attaquesCavalier(indice) & p.bitboard(PIECES[o + 1])) != 0L
+                || (Masques.attaquesRoi(indice) & p.bitboard(PIECES[o + 5])) != 0L
+                || (Rayons.attaquesDiagonales(indice, occupes) & (p.bitboard(PIECES[o + 2]) | dames)) != 0L
+                || (Rayons.attaquesHorizontalesEtVerticales(indice, occupes)
+                        & (p.bitboard(PIECES[o + 3]) | dames)) != 0L;
+    }
+
+    /**
+     * <p>
+     * Écrit les coups pseudo-légaux d'une famille dans {@code tampon} à
+     * partir de {@code debut}.
+     * </p>
+     *
+     * @param irreversibles prises (et coups de pion si {@code zeroing}), sinon tous les autres
+     * @return nombre de coups écrits
+     */
+    static int generer(Plateau p, boolean zeroing, boolean irreversibles, int[] tampon, int debut) {
+        boolean blanc = p.trait() == Couleur.BLANC;
+        long adversaires = blanc ? p.noirs() : p.blancs();
+        long occupes = p.occupes();
+        // Cases visées par les pièces (hors pions) : prises ou cases vides
+        long cibles = irreversibles ? adversaires : ~occupes;
+        int n = debut;
+
+        if (irreversibles || !zeroing)
+            n = genererPions(p, blanc, irreversibles, irreversibles && zeroing, tampon, n);
+
+        int premier = blanc ? Piece.CAVALIER_BLANC.ordinal() : Piece.CAVALIER_NOIR.ordinal();
+        for (int k = 0; k < 5; k++) {
+            Piece piece = PIECES[premier + k];
+            long pieces = p.bitboard(piece);
+            while (pieces != 0L) {
+                int de = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                long vers = switch (k) {
+                    case 0 -> Masques.attaquesCavalier(de);
+                    case 1 -> Rayons.attaquesDiagonales(de, occupes);
+                    case 2 -> Rayons.attaquesHorizontalesEtVerticales(de, occupes);
+                    case 3 -> Rayons.attaquesDiagonales(de, occupes)
+                            | Rayons.attaquesHorizontalesEtVerticales(de, occupes);
+                    default -> Masques.attaquesRoi(de);
+                } & cibles;
+                int base = de | (piece.ordinal() << 12) | (irreversibles ? CAPTURE : 0);
+                while (vers != 0L) {
+                    int a = Long.numberOfTrailingZeros(vers);
+                    vers &= vers - 1;
+                    tampon[n++] = base | (a << 6);
+                }
+            }
+        }
+        return n - debut;
+    }
+
+    /**
+     * <p>
+     * Coups de pion d'une famille : prises et en passant pour les
+     * irréversibles, plus les poussées si {@code poussees} ; les poussées
+     * seules sinon.
+     * </p>
+     */
+    private static int genererPions(Plateau p, boolean blanc, boolean prises, boolean poussees,
+            int[] tampon, int n) {
+        Piece pion = blanc ? Piece.PION_BLANC : Piece.PION_NOIR;
+        long adversaires = blanc ? p.noirs() : p.blancs();
+        long occupes = p.occupes();
+        long ep = p.getEnPassant();
+        // Index 0 = a8 : les Blancs montent vers les petits indices
+        int avance = blanc ? -8 : 8;
+        boolean pousser = poussees || !prises;
+        long pions = p.bitboard(pion);
+        while (pions != 0L) {
+            int de = Long.numberOfTrailingZeros(pions);
+            pions &= pions - 1;
+            int base = de | (pion.ordinal() << 12);
+
+            if (prises) {
+                long diagonales = blanc
+                        ? (((1L << de) >>> 9) & ~Masques.FILE_H) | (((1L << de) >>> 7) & ~Masques.FILE_A)
+                        : (((1L << de) << 7) & ~Masques.FILE_H) | (((1L << de) << 9) & ~Masques.FILE_A);
+                long vers = diagonales & adversaires;
+                while (vers != 0L) {
+                    int a = Long.numberOfTrailingZeros(vers);
+                    vers &= vers - 1;
+                    n = ajouter(tampon, n, base | (a << 6) | CAPTURE, a, blanc);
+                }
+                if ((diagonales & ep) != 0L) {
+                    int a = Long.numberOfTrailingZeros(ep);
+                    Piece pris = blanc ? Piece.PION_NOIR : Piece.PION_BLANC;
+                    tampon[n++] = base | (a << 6) | ((pris.ordinal() + 1) << 16) | CAPTURE | EN_PASSANT;
+                }
+            }
+
+            if (pousser) {
+                int a = de + avance;
+                if ((occupes & (1L << a)) == 0L) {
+                    n = ajouter(tampon, n, base | (a << 6), a, blanc);
+                    boolean depart = blanc ? de >= 48 : de <= 15;
+                    int a2 = a + avance;
+                    if (depart && (occupes & (1L << a2)) == 0L)
+                        tampon[n++] = base | (a2 << 6);
+                }
+            }
+        }
+        return n;
+    }
+
+    /** Ajoute un coup de pion, décliné en quatre promotions sur la dernière rangée. */
+    private static int ajouter(int[] tampon, int n, int code, int arrivee, boolean blanc) {
+        if (arrivee > 7 && arrivee < 56) {
+            tampon[n++] = code;
+            return n;
+        }
+        int dame = blanc ? Piece.DAME_BLANCHE.ordinal() : Piece.DAME_NOIRE.ordinal();
+        // Dame, tour, fou, cavalier (ordre du générateur du moteur)
+        for (int k = 0; k < 4; k++)
+            tampon[n++] = code | PROMOTION | ((dame - k + 1) << 20);
+        return n;
+    }
+}
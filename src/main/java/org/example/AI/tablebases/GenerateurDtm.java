@@ -0,0 +1,561 @@
+package org.example.AI.tablebases;
+
+import org.example.chess.Coup;
+import org.example.chess.Couleur;
+import org.example.chess.EtatPlateau;
+import org.example.chess.GenerateurCoups;
+import org.example.chess.Plateau;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * Générateur rétrograde des tables de distance au mat ({@link TablesDtm})
+ * jusqu'à 4 pièces, un fichier {@code <config>.dtm} par configuration.
+ * </p>
+ *
+ * <ol>
+ *   <li>Arêtes : chaque indice est décodé, posé sur un {@link Plateau} et
+ *   ses coups légaux sont joués une fois. Un coup qui garde le matériel
+ *   donne l'indice du successeur ; une prise ou une promotion est résolue
+ *   tout de suite dans la sous-table, générée avant (les dépendances le
+ *   sont automatiquement). Après un double pas que l'adversaire peut
+ *   prendre en passant, la position n'est pas dans l'indice : l'arête
+ *   garde l'indice de la même position sans prise en passant et le
+ *   meilleur résultat des prises en passant, combinés à chaque passe.</li>
+ *   <li>Passes : la passe {@code d} fixe les positions matées en
+ *   exactement {@code d} demi-coups. Impaire : un coup vers une perte en
+ *   {@code d - 1} suffit (gain le plus court). Paire : tous les coups vont
+ *   vers des gains déjà connus (perte la plus longue). Une passe ne lit que
+ *   des valeurs de l'autre sorte que celles qu'elle écrit : les tranches
+ *   tournent en parallèle sur le même tableau.</li>
+ *   <li>Ce qui n'est pas résolu est nul ; la table est écrite puis relue
+ *   par projection mémoire pour servir aux tables suivantes.</li>
+ * </ol>
+ *
+ * <p>
+ * Les deux phases sont réparties en tranches d'indices sur un pool de
+ * threads. Les arêtes (un {@code int} par coup) restent en mémoire le
+ * temps des passes : quelques centaines de Mo pour les plus grosses tables
+ * à 4 pièces.
+ * </p>
+ *
+ * <p>
+ * Usage : {@code GenerateurDtm <repertoire> [3 | 4 | KQvKR ...]} ; un
+ * chiffre demande toutes les configurations jusqu'à ce nombre de pièces.
+ * Les tables déjà présentes dans le répertoire sont reprises telles
+ * quelles.
+ * </p>
+ */
+public final class GenerateurDtm {
+
+    /** Arête vers une position résolue hors de la table : {@code -1 - code}. */
+    private static final int TERMINAL = -1;
+
+    /**
+     * Arête vers une position après un double pas que l'adversaire peut
+     * prendre en passant : {@code -512 - n}, {@code n} dans les tableaux
+     * {@code enPassant*} de la tranche.
+     */
+    private static final int EN_PASSANT = -512;
+
+    private final Path repertoire;
+    private final int threads;
+    private final ExecutorService executeur;
+
+    public GenerateurDtm(Path repertoire, int threads) {
+        if (repertoire == null)
+            throw new IllegalArgumentException("repertoire null");
+        if (threads < 1)
+            throw new IllegalArgumentException("threads >= 1 attendu");
+        this.repertoire = repertoire;
+        this.threads = threads;
+        this.executeur = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "generateur-dtm");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Bilan de la génération d'une table. */
+    public record Rapport(String nom, long positions, long valides, long gains, long nulles, long pertes,
+            int dtmMax, long aretes, double secondes, long octets) {
+
+        public double positionsParSeconde() {
+            return secondes > 0 ? positions / secondes : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-7s %,11d pos. (%,d valides, %,d aretes) | gains %,d nulles %,d pertes %,d"
+                    + " | DTM max %d | %.1f s, %,.0f pos/s | %,d octets", nom, positions, valides, aretes, gains,
+                    nulles, pertes, dtmMax, secondes, positionsParSeconde(), octets);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage : GenerateurDtm <repertoire> [3 | 4 | KQvKR ...]");
+            return;
+        }
+        Path repertoire = Path.of(args[0]);
+        Files.createDirectories(repertoire);
+        List<String> noms = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].matches("\\d"))
+                noms.addAll(configurations(Integer.parseInt(args[i])));
+            else
+                noms.add(args[i]);
+        }
+        if (noms.isEmpty())
+            noms.addAll(configurations(3));
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.println("Generation de " + noms.size() + " configuration(s) dans " + repertoire + ", "
+                + threads + " thread(s)");
+        GenerateurDtm generateur = new GenerateurDtm(repertoire, threads);
+        long debut = System.nanoTime();
+        try {
+            List<Rapport> rapports = new ArrayList<>();
+            for (String nom : noms) {
+                for (Rapport r : generateur.generer(nom)) {
+                    System.out.println(r);
+                    rapports.add(r);
+                }
+            }
+            long positions = 0;
+            long octets = 0;
+            for (Rapport r : rapports) {
+                positions += r.positions();
+                octets += r.octets();
+            }
+            double secondes = (System.nanoTime() - debut) / 1e9;
+            System.out.printf("Total : %d table(s) generee(s), %,d positions, %,d octets, %.1f s (%,.0f pos/s)%n",
+                    rapports.size(), positions, octets, secondes, secondes > 0 ? positions / secondes : 0);
+        } finally {
+            generateur.fermer();
+        }
+    }
+
+    /** Noms canoniques de toutes les configurations de 3 à {@code nbPieces} pièces. */
+    public static List<String> configurations(int nbPieces) {
+        if (nbPieces < 3 || nbPieces > 4)
+            throw new IllegalArgumentException("3 ou 4 pieces : " + nbPieces);
+        String lettres = "QRBNP";
+        Set<String> noms = new LinkedHashSet<>();
+        for (int n = 3; n <= nbPieces; n++) {
+            for (int i = 0; i < lettres.length(); i++) {
+                String a = "K" + lettres.charAt(i);
+                if (n == 3) {
+                    noms.add(IndexDtm.depuisCamps(a, "K").nom);
+                    continue;
+                }
+                for (int j = i; j < lettres.length(); j++)
+                    noms.add(IndexDtm.depuisCamps(a + lettres.charAt(j), "K").nom);
+                for (int j = 0; j < lettres.length(); j++)
+                    noms.add(IndexDtm.depuisCamps(a, "K" + lettres.charAt(j)).nom);
+            }
+        }
+        return new ArrayList<>(noms);
+    }
+
+    /**
+     * <p>
+     * Génère la table {@code nom} et, avant elle, celles dont elle dépend
+     * (prises et promotions) qui manquent ; les tables déjà dans le
+     * répertoire sont chargées sans être refaites.
+     * </p>
+     *
+     * @return les bilans des tables effectivement générées, dans l'ordre
+     */
+    public List<Rapport> generer(String nom) throws IOException {
+        List<Rapport> rapports = new ArrayList<>();
+        generer(IndexDtm.depuisNom(nom), rapports);
+        return rapports;
+    }
+
+    private void generer(IndexDtm index, List<Rapport> rapports) throws IOException {
+        if (TablesDtm.presente(index))
+            return;
+        Path fichier = repertoire.resolve(index.nom + TableDtm.EXTENSION);
+        if (Files.exists(fichier)) {
+            TablesDtm.ajouter(TableDtm.ouvrir(fichier));
+            return;
+        }
+        for (IndexDtm dependance : dependances(index))
+            generer(dependance, rapports);
+        rapports.add(construire(index, fichier));
+    }
+
+    /** Configurations atteintes par une prise ou une promotion (au moins 3 pièces). */
+    private static List<IndexDtm> dependances(IndexDtm index) {
+        List<IndexDtm> liste = new ArrayList<>();
+        String[] camps = { index.blancs, index.noirs };
+        for (int camp = 0; camp < 2; camp++) {
+            String s = camps[camp];
+            for (int i = 1; i < s.length(); i++) {
+                String sans = s.substring(0, i) + s.substring(i + 1);
+                if (sans.length() + camps[1 - camp].length() > 2)
+                    liste.add(camp == 0 ? IndexDtm.depuisCamps(sans, index.noirs)
+                            : IndexDtm.depuisCamps(index.blancs, sans));
+                if (s.charAt(i) != 'P')
+                    continue;
+                for (char promue : "QRBN".toCharArray()) {
+                    String avec = sans + promue;
+                    liste.add(camp == 0 ? IndexDtm.depuisCamps(avec, index.noirs)
+                            : IndexDtm.depuisCamps(index.blancs, avec));
+                }
+            }
+        }
+        return liste;
+    }
+
+    // ------------------------------------------------------------------
+    // Construction d'une table
+    // ------------------------------------------------------------------
+
+    private Rapport construire(IndexDtm index, Path fichier) throws IOException {
+        long debut = System.nanoTime();
+        int taille = Math.toIntExact(index.taille);
+        byte[] codes = new byte[taille];
+        boolean[] resolu = new boolean[taille];
+
+        // Plus de tranches que de threads : les tranches n'ont pas toutes le même coût
+        int nbTranches = Math.min(taille, threads * 16);
+        List<Tranche> tranches = new ArrayList<>();
+        for (int i = 0; i < nbTranches; i++)
+            tranches.add(new Tranche(index, codes, resolu, (int) ((long) taille * i / nbTranches),
+                    (int) ((long) taille * (i + 1) / nbTranches)));
+
+        executer(tranches);
+        int demiCoupsMax = 0;
+        long aretes = 0;
+        for (Tranche t : tranches) {
+            demiCoupsMax = Math.max(demiCoupsMax, t.demiCoupsTerminaux);
+            aretes += t.nbAretes;
+        }
+
+        for (int d = 1;; d++) {
+            for (Tranche t : tranches)
+                t.passe = d;
+            boolean change = false;
+            for (boolean c : executer(tranches))
+                change |= c;
+            if (!change && d > demiCoupsMax)
+                break;
+        }
+
+        long valides = 0;
+        long gains = 0;
+        long pertes = 0;
+        int dtmMax = 0;
+        for (int i = 0; i < taille; i++) {
+            int code = codes[i] & 0xFF;
+            if (code == TablesDtm.INVALIDE)
+                continue;
+            valides++;
+            if (TablesDtm.estGain(code)) {
+                gains++;
+                dtmMax = Math.max(dtmMax, code);
+            } else if (TablesDtm.estPerte(code)) {
+                pertes++;
+                dtmMax = Math.max(dtmMax, code - TablesDtm.PERTE);
+            }
+        }
+
+        ecrire(fichier, codes);
+        TablesDtm.ajouter(TableDtm.ouvrir(fichier));
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        return new Rapport(index.nom, taille, valides, gains, valides - gains - pertes, pertes, dtmMax, aretes,
+                secondes, Files.size(fichier));
+    }
+
+    private static void ecrire(Path fichier, byte[] codes) throws IOException {
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try (OutputStream flux = Files.newOutputStream(temporaire);
+                DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(flux, 1 << 16))) {
+            sortie.write(TableDtm.MAGIE);
+            sortie.writeLong(codes.length);
+            sortie.write(new byte[TableDtm.ENTETE - TableDtm.MAGIE.length - Long.BYTES]);
+            sortie.write(codes);
+        }
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Lance toutes les tranches et attend leurs résultats. */
+    private List<Boolean> executer(List<Tranche> tranches) {
+        try {
+            List<Boolean> resultats = new ArrayList<>(tranches.size());
+            for (Future<Boolean> f : executeur.invokeAll(tranches))
+                resultats.add(f.get());
+            return resultats;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("generation interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("erreur de generation", e.getCause());
+        }
+    }
+
+    public void fermer() {
+        executeur.shutdownNow();
+    }
+
+    /**
+     * <p>
+     * Indices {@code [debut, fin)} : leurs arêtes au premier appel (passe
+     * 0), puis une passe rétrograde par appel. Renvoie vrai si la passe a
+     * résolu au moins une position.
+     * </p>
+     */
+    private static final class Tranche implements Callable<Boolean> {
+
+        private final IndexDtm index;
+        private final byte[] codes;
+        private final boolean[] resolu;
+        private final int debut;
+        private final int fin;
+
+        /** departs[i - debut] .. departs[i - debut + 1] : arêtes de l'indice i. */
+        private int[] departs;
+        private int[] aretes;
+        int nbAretes;
+        /** Arêtes {@link #EN_PASSANT} : indice sans prise en passant, code des prises en passant. */
+        private int[] enPassantIndices = new int[16];
+        private int[] enPassantCodes = new int[16];
+        private int nbEnPassant;
+        int demiCoupsTerminaux;
+        int passe;
+
+        Tranche(IndexDtm index, byte[] codes, boolean[] resolu, int debut, int fin) {
+            this.index = index;
+            this.codes = codes;
+            this.resolu = resolu;
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        public Boolean call() {
+            if (passe == 0) {
+                relier();
+                return true;
+            }
+            return (passe & 1) != 0 ? passeGains() : passePertes();
+        }
+
+        private void relier() {
+            departs = new int[fin - debut + 1];
+            aretes = new int[Math.max(16, (fin - debut) * 8)];
+            int[] cases = new int[4];
+            int[] brouillon = new int[4];
+            for (int i = debut; i < fin; i++) {
+                departs[i - debut] = nbAretes;
+                int trait = index.decoder(i, cases);
+                if (!index.casesDistinctes(cases)) {
+                    fixer(i, TablesDtm.INVALIDE);
+                    continue;
+                }
+                Plateau p = Plateau.depuisFEN(index.fen(trait, cases));
+                Couleur camp = p.trait();
+                if (p.estEnEchec(camp == Couleur.BLANC ? Couleur.NOIR : Couleur.BLANC)) {
+                    fixer(i, TablesDtm.INVALIDE);
+                    continue;
+                }
+                List<Coup> coups = GenerateurCoups.genererLegaux(p);
+                if (coups.isEmpty()) {
+                    fixer(i, p.estEnEchec(camp) ? TablesDtm.PERTE : TablesDtm.NULLE);
+                    continue;
+                }
+                for (Coup coup : coups)
+                    ajouter(successeur(p, coup, brouillon));
+            }
+            departs[fin - debut] = nbAretes;
+            aretes = Arrays.copyOf(aretes, nbAretes);
+        }
+
+        private int successeur(Plateau p, Coup coup, int[] brouillon) {
+            EtatPlateau sauvegarde = p.jouerAvecSauvegarde(coup);
+            try {
+                if (!coup.estCapture() && !coup.estPromotion()) {
+                    long j = index.indice(p, false, brouillon);
+                    if (j < 0)
+                        throw new IllegalStateException("successeur hors indice : " + coup);
+                    int prises = prisesEnPassant(p);
+                    if (prises == TablesDtm.INVALIDE)
+                        return (int) j;
+                    if (prises != TablesDtm.NULLE)
+                        demiCoupsTerminaux = Math.max(demiCoupsTerminaux, TablesDtm.demiCoups(prises) + 1);
+                    if (nbEnPassant == enPassantIndices.length) {
+                        enPassantIndices = Arrays.copyOf(enPassantIndices, nbEnPassant * 2);
+                        enPassantCodes = Arrays.copyOf(enPassantCodes, nbEnPassant * 2);
+                    }
+                    enPassantIndices[nbEnPassant] = (int) j;
+                    enPassantCodes[nbEnPassant] = prises;
+                    return EN_PASSANT - nbEnPassant++;
+                }
+                int code = Long.bitCount(p.occupes()) == 2 ? TablesDtm.NULLE : TablesDtm.sonder(p);
+                if (code == TablesDtm.ABSENTE || code == TablesDtm.INVALIDE)
+                    throw new IllegalStateException("sous-table manquante apres " + coup);
+                if (code != TablesDtm.NULLE)
+                    demiCoupsTerminaux = Math.max(demiCoupsTerminaux, TablesDtm.demiCoups(code));
+                return TERMINAL - code;
+            } finally {
+                p.annuler(sauvegarde);
+            }
+        }
+
+        /**
+         * Code, pour le camp au trait, de sa meilleure prise en passant ;
+         * {@link TablesDtm#INVALIDE} s'il n'en a pas de légale.
+         */
+        private static int prisesEnPassant(Plateau p) {
+            if (p.getEnPassant() == 0L)
+                return TablesDtm.INVALIDE;
+            int meilleur = TablesDtm.INVALIDE;
+            for (Coup coup : GenerateurCoups.genererLegaux(p)) {
+                if (!coup.estEnPassant())
+                    continue;
+                EtatPlateau sauvegarde = p.jouerAvecSauvegarde(coup);
+                int code;
+                try {
+                    code = Long.bitCount(p.occupes()) == 2 ? TablesDtm.NULLE : TablesDtm.sonder(p);
+                } finally {
+                    p.annuler(sauvegarde);
+                }
+                if (code == TablesDtm.ABSENTE || code == TablesDtm.INVALIDE)
+                    throw new IllegalStateException("sous-table manquante apres " + coup);
+                meilleur = meilleur(meilleur, precedent(code));
+            }
+            return meilleur;
+        }
+
+        private void ajouter(int arete) {
+            if (nbAretes == aretes.length)
+                aretes = Arrays.copyOf(aretes, aretes.length * 2);
+            aretes[nbAretes++] = arete;
+        }
+
+        private void fixer(int i, int code) {
+            codes[i] = (byte) code;
+            resolu[i] = true;
+        }
+
+        /** Gains en {@code passe} demi-coups : un coup vers une perte en {@code passe - 1}. */
+        private boolean passeGains() {
+            int cible = passe - 1;
+            int code = (passe + 1) / 2;
+            if (code >= TablesDtm.PERTE)
+                throw new IllegalStateException("distance au mat hors format : " + passe);
+            boolean change = false;
+            for (int i = debut; i < fin; i++) {
+                if (resolu[i])
+                    continue;
+                for (int k = departs[i - debut], f = departs[i - debut + 1]; k < f; k++) {
+                    int c = valeur(aretes[k]);
+                    if (TablesDtm.estPerte(c) && TablesDtm.demiCoups(c) == cible) {
+                        fixer(i, code);
+                        change = true;
+                        break;
+                    }
+                }
+            }
+            return change;
+        }
+
+        /**
+         * Pertes en {@code passe} demi-coups : tous les coups mènent à un gain
+         * plus court (un gain de sous-table plus long n'est compté qu'à sa passe).
+         */
+        private boolean passePertes() {
+            int code = TablesDtm.PERTE + passe / 2;
+            if (code >= TablesDtm.INVALIDE)
+                throw new IllegalStateException("distance au mat hors format : " + passe);
+            boolean change = false;
+            for (int i = debut; i < fin; i++) {
+                if (resolu[i])
+                    continue;
+                boolean perdu = true;
+                for (int k = departs[i - debut], f = departs[i - debut + 1]; k < f && perdu; k++)
+                    perdu = gainAvant(valeur(aretes[k]));
+                if (perdu) {
+                    fixer(i, code);
+                    change = true;
+                }
+            }
+            return change;
+        }
+
+        private boolean gainAvant(int code) {
+            return TablesDtm.estGain(code) && TablesDtm.demiCoups(code) < passe;
+        }
+
+        /** Code d'un successeur, {@link TablesDtm#INVALIDE} s'il n'est pas encore résolu. */
+        private int valeur(int arete) {
+            if (arete <= EN_PASSANT) {
+                int n = EN_PASSANT - arete;
+                return combiner(valeur(enPassantIndices[n]), enPassantCodes[n]);
+            }
+            if (arete < 0)
+                return TERMINAL - arete;
+            return resolu[arete] ? codes[arete] & 0xFF : TablesDtm.INVALIDE;
+        }
+
+        /**
+         * Position avec prise en passant : les coups de la même position sans
+         * prise en passant (code {@code sans}, peut-être pas encore résolu)
+         * plus les prises en passant (code {@code prises}).
+         */
+        private static int combiner(int sans, int prises) {
+            // Mat ou pat sans la prise en passant : elle est le seul coup
+            if (sans == TablesDtm.PERTE || sans == TablesDtm.NULLE)
+                return prises;
+            // Pas encore résolu : un gain par la prise reste un gain, le reste attend
+            if (sans == TablesDtm.INVALIDE)
+                return TablesDtm.estGain(prises) ? prises : TablesDtm.INVALIDE;
+            return meilleur(sans, prises);
+        }
+    }
+
+    /** Code, pour le camp qui joue, d'un coup menant à une position de code {@code code}. */
+    private static int precedent(int code) {
+        if (TablesDtm.estPerte(code))
+            return (TablesDtm.demiCoups(code) + 2) / 2;
+        if (TablesDtm.estGain(code))
+            return TablesDtm.PERTE + (TablesDtm.demiCoups(code) + 1) / 2;
+        return TablesDtm.NULLE;
+    }
+
+    /**
+     * Meilleur de deux codes pour le même camp ({@link TablesDtm#INVALIDE} :
+     * aucun) : le gain le plus court, la nulle, la perte la plus longue.
+     */
+    private static int meilleur(int a, int b) {
+        if (a == TablesDtm.INVALIDE)
+            return b;
+        if (TablesDtm.estGain(a) || TablesDtm.estGain(b)) {
+            if (TablesDtm.estGain(a) && TablesDtm.estGain(b))
+                return Math.min(a, b);
+            return TablesDtm.estGain(a) ? a : b;
+        }
+        if (a == TablesDtm.NULLE || b == TablesDtm.NULLE)
+            return TablesDtm.NULLE;
+        return Math.max(a, b);
+    }
+}
@@ -0,0 +1,311 @@
+package org.example.AI.tablebases;
+
+import org.example.chess.Couleur;
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Indice parfait des positions d'une configuration de matériel (au plus
+ * deux pièces en plus des rois) pour les tables de mat maison.
+ * </p>
+ *
+ * <p>
+ * Les rois sont placés ensemble, après réduction par symétrie :
+ * </p>
+ * <ul>
+ *   <li>sans pion, les 8 symétries du carré : roi blanc dans le triangle
+ *   a8-a5-d5 (a8, a7-b7, a6-c6, a5-d5), roi noir sous la diagonale a8-h1
+ *   si le roi blanc y est, soit 462 paires ;</li>
+ *   <li>avec pions, la seule symétrie gauche-droite : roi blanc sur les
+ *   colonnes a à d, soit 1806 paires.</li>
+ * </ul>
+ *
+ * <p>
+ * Puis chaque pièce sur 64 cases (48 pour un pion, rangées 2 à 7), et le
+ * trait : {@code ((trait * paires + paire) * n1 + c1) * n2 + c2}. Deux
+ * positions différentes ont deux indices différents ; certaines positions
+ * symétriques (rois sur la diagonale, pièces identiques échangées) en ont
+ * deux, de même valeur. Cases au format du plateau (a8 = 0).
+ * </p>
+ */
+final class IndexDtm {
+
+    private static final String ORDRE = "QRBNP";
+    private static final int[] VALEURS = { 9, 5, 3, 3, 1 };
+    private static final Piece[] PIECES = Piece.values();
+
+    // Paires de rois : [roiBlanc * 64 + roiNoir] -> paire, et l'inverse
+    private static final int[] PAIRES_SANS_PION = new int[64 * 64];
+    private static final int[] PAIRES_AVEC_PIONS = new int[64 * 64];
+    private static final int[] ROIS_SANS_PION;
+    private static final int[] ROIS_AVEC_PIONS;
+
+    static {
+        ROIS_SANS_PION = enumererPaires(PAIRES_SANS_PION, true);
+        ROIS_AVEC_PIONS = enumererPaires(PAIRES_AVEC_PIONS, false);
+    }
+
+    /** Nom canonique ({@code "KQvKR"}) : camp le plus fort en premier. */
+    final String nom;
+    final String blancs;
+    final String noirs;
+    /** Pièces hors rois, dans l'ordre de l'indice. */
+    final Piece[] pieces;
+    final boolean avecPions;
+    final int nbPaires;
+    final long taille;
+    private final int[] tailles;
+
+    private IndexDtm(String blancs, String noirs) {
+        this.blancs = blancs;
+        this.noirs = noirs;
+        this.nom = blancs + "v" + noirs;
+        int n = blancs.length() + noirs.length() - 2;
+        if (n > 2)
+            throw new IllegalArgumentException("au plus 4 pieces : " + nom);
+        pieces = new Piece[n];
+        tailles = new int[n];
+        int k = 0;
+        boolean pions = false;
+        for (int camp = 0; camp < 2; camp++) {
+            String s = camp == 0 ? blancs : noirs;
+            for (int i = 1; i < s.length(); i++) {
+                int type = "PNBRQ".indexOf(s.charAt(i));
+                pieces[k] = PIECES[camp * 6 + type];
+                tailles[k++] = type == 0 ? 48 : 64;
+                pions |= type == 0;
+            }
+        }
+        avecPions = pions;
+        nbPaires = avecPions ? ROIS_AVEC_PIONS.length : ROIS_SANS_PION.length;
+        long t = 2L * nbPaires;
+        for (int x : tailles)
+            t *= x;
+        taille = t;
+    }
+
+    /**
+     * <p>
+     * Configuration d'après un nom comme {@code "KRvKN"} (ordre des camps
+     * libre : le nom est rendu canonique).
+     * </p>
+     *
+     * @throws IllegalArgumentException nom invalide ou plus de 4 pièces
+     */
+    static IndexDtm depuisNom(String nom) {
+        int v = nom.indexOf('v');
+        if (v < 1)
+            throw new IllegalArgumentException("configuration invalide : " + nom);
+        return depuisCamps(nom.substring(0, v), nom.substring(v + 1));
+    }
+
+    static IndexDtm depuisCamps(String blancs, String noirs) {
+        String b = trier(blancs);
+        String n = trier(noirs);
+        if (valeur(n) > valeur(b) || (valeur(n) == valeur(b) && n.compareTo(b) > 0))
+            return new IndexDtm(n, b);
+        return new IndexDtm(b, n);
+    }
+
+    private static String trier(String camp) {
+        if (camp.isEmpty() || camp.charAt(0) != 'K')
+            throw new IllegalArgumentException("camp invalide : " + camp);
+        StringBuilder sb = new StringBuilder("K");
+        for (int i = 0; i < ORDRE.length(); i++) {
+            for (int j = 1; j < camp.length(); j++) {
+                if (camp.charAt(j) == ORDRE.charAt(i))
+                    sb.append(camp.charAt(j));
+            }
+        }
+        if (sb.length() != camp.length())
+            throw new IllegalArgumentException("piece inconnue : " + camp);
+        return sb.toString();
+    }
+
+    private static int valeur(String camp) {
+        int v = 0;
+        for (int i = 1; i < camp.length(); i++)
+            v += VALEURS[ORDRE.indexOf(camp.charAt(i))];
+        return v;
+    }
+
+    /** Signature de matériel (voir {@link Syzygy#cleMateriel(String, String)}). */
+    long cle() {
+        return Syzygy.cleMateriel(blancs, noirs);
+    }
+
+    long cleInverse() {
+        return Syzygy.cleMateriel(noirs, blancs);
+    }
+
+    // ------------------------------------------------------------------
+    // Indice
+    // ------------------------------------------------------------------
+
+    /**
+     * <p>
+     * Indice de la position, couleurs échangées si {@code inverse} (la
+     * position a le matériel de la configuration retournée) ; -1 si elle est
+     * hors de l'indice (pion sur une rangée extrême).
+     * </p>
+     *
+     * @param cases brouillon d'au moins 4 cases
+     */
+    long indice(Plateau p, boolean inverse, int[] cases) {
+        int echange = inverse ? 6 : 0;
+        int retourner = inverse ? 56 : 0;
+        int roiBlanc = Long.numberOfTrailingZeros(p.bitboard(PIECES[5 + echange])) ^ retourner;
+        int roiNoir = Long.numberOfTrailingZeros(p.bitboard(PIECES[11 - echange])) ^ retourner;
+        for (int k = 0; k < pieces.length; k++) {
+            Piece piece = PIECES[(pieces[k].ordinal() + echange) % 12];
+            long bb = p.bitboard(piece);
+            // Deux pièces identiques : la seconde prend la case suivante
+            if (k > 0 && pieces[k] == pieces[k - 1])
+                bb &= bb - 1;
+            cases[k] = Long.numberOfTrailingZeros(bb) ^ retourner;
+        }
+        int trait = (p.trait() == Couleur.BLANC) != inverse ? 0 : 1;
+        return indice(trait, roiBlanc, roiNoir, cases);
+    }
+
+    private long indice(int trait, int roiBlanc, int roiNoir, int[] cases) {
+        int sym = symetrie(roiBlanc, roiNoir);
+        int paire = (avecPions ? PAIRES_AVEC_PIONS : PAIRES_SANS_PION)[transformer(roiBlanc, sym) * 64
+                + transformer(roiNoir, sym)];
+        if (paire < 0)
+            return -1;
+        long idx = (long) trait * nbPaires + paire;
+        for (int k = 0; k < pieces.length; k++) {
+            int c = transformer(cases[k], sym);
+            if (tailles[k] == 48) {
+                if (c < 8 || c >= 56)
+                    return -1;
+                c -= 8;
+            }
+            idx = idx * tailles[k] + c;
+        }
+        return idx;
+    }
+
+    /**
+     * <p>
+     * Décode un indice : remplit {@code cases} (roi blanc, roi noir, puis les
+     * pièces) et renvoie le trait (0 = Blancs).
+     * </p>
+     */
+    int decoder(long idx, int[] cases) {
+        for (int k = pieces.length - 1; k >= 0; k--) {
+            int c = (int) (idx % tailles[k]);
+            idx /= tailles[k];
+            cases[2 + k] = tailles[k] == 48 ? c + 8 : c;
+        }
+        int paire = (int) (idx % nbPaires);
+        int rois = (avecPions ? ROIS_AVEC_PIONS : ROIS_SANS_PION)[paire];
+        cases[0] = rois / 64;
+        cases[1] = rois % 64;
+        return (int) (idx / nbPaires);
+    }
+
+    /** Symétrie ramenant le roi blanc (et au besoin le roi noir) dans la zone canonique. */
+    private int symetrie(int roiBlanc, int roiNoir) {
+        int sym = 0;
+        if ((roiBlanc & 7) > 3)
+            sym |= 1;
+        if (avecPions)
+            return sym;
+        int s = transformer(roiBlanc, sym);
+        if ((s >> 3) > 3)
+            sym |= 2;
+        s = transformer(roiBlanc, sym);
+        if ((s & 7) > (s >> 3))
+            return sym | 4;
+        if ((s & 7) == (s >> 3)) {
+            int n = transformer(roiNoir, sym);
+            if ((n & 7) > (n >> 3))
+                sym |= 4;
+        }
+        return sym;
+    }
+
+    /** Bit 0 : miroir gauche-droite ; bit 1 : haut-bas ; bit 2 : diagonale a8-h1. */
+    private static int transformer(int s, int sym) {
+        if ((sym & 1) != 0)
+            s ^= 7;
+        if ((sym & 2) != 0)
+            s ^= 56;
+        if ((sym & 4) != 0)
+            s = ((s & 7) << 3) | (s >> 3);
+        return s;
+    }
+
+    private static int[] enumererPaires(int[] paires, boolean sansPion) {
+        Arrays.fill(paires, -1);
+        int[] rois = new int[64 * 64];
+        int n = 0;
+        for (int b = 0; b < 64; b++) {
+            int ligne = b >> 3;
+            int colonne = b & 7;
+            boolean zone = sansPion ? ligne <= 3 && colonne <= ligne : colonne <= 3;
+            if (!zone)
+                continue;
+            for (int k = 0; k < 64; k++) {
+                if (Math.max(Math.abs(ligne - (k >> 3)), Math.abs(colonne - (k & 7))) <= 1)
+                    continue;
+                if (sansPion && colonne == ligne && (k & 7) > (k >> 3))
+                    continue;
+                paires[b * 64 + k] = n;
+                rois[n++] = b * 64 + k;
+            }
+        }
+        return Arrays.copyOf(rois, n);
+    }
+
+    /** FEN d'une position décodée (sans roque ni prise en passant). */
+    String fen(int trait, int[] cases) {
+        char[] plateau = new char[64];
+        plateau[cases[0]] = 'K';
+        plateau[cases[1]] = 'k';
+        for (int k = 0; k < pieces.length; k++)
+            plateau[cases[2 + k]] = lettre(pieces[k]);
+        StringBuilder sb = new StringBuilder(40);
+        for (int ligne = 0; ligne < 8; ligne++) {
+            int vides = 0;
+            for (int colonne = 0; colonne < 8; colonne++) {
+                char c = plateau[ligne * 8 + colonne];
+                if (c == 0) {
+                    vides++;
+                    continue;
+                }
+                if (vides > 0)
+                    sb.append(vides);
+                vides = 0;
+                sb.append(c);
+            }
+            if (vides > 0)
+                sb.append(vides);
+            if (ligne < 7)
+                sb.append('/');
+        }
+        return sb.append(trait == 0 ? " w - - 0 1" : " b - - 0 1").toString();
+    }
+
+    private static char lettre(Piece piece) {
+        char c = "PNBRQK".charAt(piece.ordinal() % 6);
+        return piece.ordinal() < 6 ? c : Character.toLowerCase(c);
+    }
+
+    /** Vrai si les cases décodées sont toutes distinctes. */
+    boolean casesDistinctes(int[] cases) {
+        long vu = 0L;
+        for (int k = 0; k < 2 + pieces.length; k++) {
+            long bit = 1L << cases[k];
+            if ((vu & bit) != 0L)
+                return false;
+            vu |= bit;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.AI.tablebases;
+
+/**
+ * <p>
+ * Description d'une sous-table d'un fichier Syzygy (un camp au trait et,
+ * avec des pions, une colonne du pion de tête) : ordre et groupes des
+ * pièces, code de Huffman canonique, index des blocs compressés.
+ * </p>
+ *
+ * <p>
+ * Les tableaux du fichier ne sont pas copiés : on garde leur position dans
+ * la projection mémoire. Rempli une fois à l'ouverture du fichier, puis en
+ * lecture seule.
+ * </p>
+ */
+final class PairesSyzygy {
+
+    int drapeaux;
+    int longueurMax;
+    /** Longueur minimale des symboles, ou la valeur unique de la table. */
+    int longueurMin;
+    long tailleBloc;
+    long intervalle;
+    int nbBlocs;
+    int tailleLongueursBlocs;
+    int tailleIndexEpars;
+
+    // Positions dans le fichier projeté
+    int plusPetitsSymboles;
+    int arbre;
+    int longueursBlocs;
+    int indexEpars;
+    int donnees;
+
+    /** base64[l] : plus petit code de longueur l + longueurMin, complété à 64 bits. */
+    long[] base64;
+    /** Nombre de valeurs (moins une) représentées par chaque symbole. */
+    int[] longueursSymboles;
+
+    /** Pièces dans l'ordre d'encodage (codes Syzygy : 1..6 Blancs, 9..14 Noirs). */
+    final int[] pieces = new int[Syzygy.PIECES_MAX];
+    final long[] indicesGroupes = new long[Syzygy.PIECES_MAX + 1];
+    /** Taille de chaque groupe, terminée par 0. */
+    final int[] longueursGroupes = new int[Syzygy.PIECES_MAX + 1];
+    /** Début des tables de correspondance DTZ : gain, perte, gain maudit, perte sauvée. */
+    final int[] indicesCarte = new int[4];
+}
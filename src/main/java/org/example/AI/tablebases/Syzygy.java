@@ -0,0 +1,488 @@
+package org.example.AI.tablebases;
+
+import org.example.chess.Coup;
+import org.example.chess.Couleur;
+import org.example.chess.EtatPlateau;
+import org.example.chess.GenerateurCoups;
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Sonde des tables de finales Syzygy (fichiers {@code .rtbw} pour le
+ * résultat, {@code .rtbz} pour la distance au prochain coup irréversible),
+ * en Java pur.
+ * </p>
+ *
+ * <p>
+ * Les répertoires sont donnés par la propriété {@code -Dchess.syzygy=...}
+ * (plusieurs séparés par {@link File#pathSeparator}) ou par
+ * {@link #initialiser(String)}. On n'y relève que les noms de fichiers ;
+ * chacun est projeté en mémoire à sa première sonde ({@link TableSyzygy}).
+ * </p>
+ *
+ * <ul>
+ *   <li>{@link #sonderWdl} : résultat (gain, nulle, perte, et gains ou
+ *   pertes annulés par la règle des 50 coups), utilisé dans la recherche ;</li>
+ *   <li>{@link #sonderDtz} : distance en demi-coups, utilisée à la racine
+ *   ({@link #coupRacine}) pour jouer les coups qui convertissent.</li>
+ * </ul>
+ *
+ * <p>
+ * Les tables ne stockent pas de valeur fiable quand le camp au trait a une
+ * prise gagnante (ni les positions avec prise en passant) : comme le
+ * générateur, la sonde résout d'abord les prises (et, pour la DTZ, les
+ * coups de pion) par une petite recherche. Les positions avec droits de
+ * roque ne sont jamais sondées.
+ * </p>
+ *
+ * <p>
+ * Sûr entre threads : le registre est immuable une fois publié, chaque
+ * fichier s'ouvre une seule fois sous verrou, et les cases de la position
+ * vont dans un brouillon par thread. La sonde WDL n'alloue rien : prises
+ * générées dans les tampons du brouillon ({@link CoupsSyzygy}), plateau
+ * sauvegardé dans des {@code long}, indice et décompression sans objet. La
+ * DTZ, sondée à la racine seulement, passe par le générateur du moteur.
+ * </p>
+ */
+public final class Syzygy {
+
+    public static final String PROPRIETE_CHEMIN = "chess.syzygy";
+
+    /** Pièces au plus dans une table (rois compris). */
+    static final int PIECES_MAX = 7;
+
+    // Résultats, du point de vue du camp au trait
+    public static final int PERTE = -2;
+    /** Perdu, mais sauvé par la règle des 50 coups. */
+    public static final int PERTE_SAUVEE = -1;
+    public static final int NULLE = 0;
+    /** Gagné, mais annulé par la règle des 50 coups. */
+    public static final int GAIN_MAUDIT = 1;
+    public static final int GAIN = 2;
+
+    /** Pas de table pour cette position. */
+    public static final int ECHEC = Integer.MIN_VALUE;
+
+    // États d'une sonde (Brouillon.etat)
+    static final int ETAT_ECHEC = 0;
+    static final int ETAT_OK = 1;
+    static final int CHANGER_TRAIT = -1;
+    static final int ZERO_MEILLEUR = 2;
+
+    private static final String LETTRES = "PNBRQ";
+
+    private static final ThreadLocal<Brouillon> BROUILLONS = ThreadLocal.withInitial(Brouillon::new);
+
+    private static volatile Registre registre = Registre.VIDE;
+
+    static {
+        String chemin = System.getProperty(PROPRIETE_CHEMIN);
+        if (chemin != null && !chemin.isBlank())
+            initialiser(chemin);
+    }
+
+    private Syzygy() {
+    }
+
+    /**
+     * Cases, pièces et état d'une sonde en cours, coups et sauvegardes par
+     * ply de {@link #rechercher} (un par thread). Chaque ply y joue une
+     * prise, ou un coup de pion au premier : {@link #PIECES_MAX} plies
+     * suffisent.
+     */
+    static final class Brouillon {
+        final int[] cases = new int[PIECES_MAX];
+        final int[] pieces = new int[PIECES_MAX];
+        int etat;
+        final int[] coups = new int[PIECES_MAX * CoupsSyzygy.COUPS_MAX];
+        final long[] sauvegardes = new long[PIECES_MAX * Plateau.TAILLE_SAUVEGARDE];
+        final CoupsSyzygy decodeur = new CoupsSyzygy();
+    }
+
+    /**
+     * <p>
+     * Relève les tables des répertoires donnés (séparés par
+     * {@link File#pathSeparator}) ; vide ou null : aucune table. Les
+     * fichiers déjà ouverts sont abandonnés au ramasse-miettes. À appeler
+     * hors recherche.
+     * </p>
+     *
+     * @return nombre de tables trouvées
+     */
+    public static synchronized int initialiser(String chemins) {
+        List<TableSyzygy> wdl = new ArrayList<>();
+        List<TableSyzygy> dtz = new ArrayList<>();
+        if (chemins != null) {
+            for (String chemin : chemins.split(File.pathSeparator)) {
+                if (!chemin.isBlank())
+                    relever(Path.of(chemin.trim()), wdl, dtz);
+            }
+        }
+        registre = new Registre(wdl, dtz);
+        if (!wdl.isEmpty())
+            System.out.println("Syzygy : " + wdl.size() + " tables WDL, " + dtz.size() + " DTZ, jusqu'a "
+                    + registre.cardinalite + " pieces");
+        return wdl.size();
+    }
+
+    private static void relever(Path repertoire, List<TableSyzygy> wdl, List<TableSyzygy> dtz) {
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(repertoire, "*.{rtbw,rtbz}")) {
+            for (Path f : fichiers) {
+                String nom = f.getFileName().toString();
+                String base = nom.substring(0, nom.length() - 5);
+                int v = base.indexOf('v');
+                if (v < 1 || !nomValide(base.substring(0, v)) || !nomValide(base.substring(v + 1)))
+                    continue;
+                String blancs = base.substring(0, v);
+                String noirs = base.substring(v + 1);
+                if (blancs.length() + noirs.length() > PIECES_MAX)
+                    continue;
+                boolean estWdl = nom.endsWith(".rtbw");
+                (estWdl ? wdl : dtz).add(new TableSyzygy(f, estWdl ? TableSyzygy.WDL : TableSyzygy.DTZ, blancs,
+                        noirs));
+            }
+        } catch (IOException e) {
+            System.err.println("Repertoire Syzygy illisible (" + repertoire + ") : " + e.getMessage());
+        }
+    }
+
+    /** Un camp : {@code K} puis des pièces parmi {@code QRBNP}. */
+    private static boolean nomValide(String camp) {
+        if (camp.isEmpty() || camp.charAt(0) != 'K')
+            return false;
+        for (int i = 1; i < camp.length(); i++) {
+            if (LETTRES.indexOf(camp.charAt(i)) < 0)
+                return false;
+        }
+        return true;
+    }
+
+    /** Nombre de pièces de la plus grande table disponible (0 sans table). */
+    public static int cardinalite() {
+        return registre.cardinalite;
+    }
+
+    /**
+     * <p>
+     * Vrai si la position peut être sondée : assez peu de pièces pour une
+     * table présente, et plus de droits de roque.
+     * </p>
+     */
+    public static boolean sondable(Plateau p) {
+        return Long.bitCount(p.occupes()) <= registre.cardinalite
+                && !(p.getRoqueBlancRoi() || p.getRoqueBlancReine() || p.getRoqueNoirRoi() || p.getRoqueNoirReine());
+    }
+
+    /**
+     * <p>
+     * Résultat de la position pour le camp au trait ({@link #PERTE} à
+     * {@link #GAIN}), ou {@link #ECHEC} sans table.
+     * </p>
+     */
+    public static int sonderWdl(Plateau p) {
+        if (!sondable(p))
+            return ECHEC;
+        Brouillon b = BROUILLONS.get();
+        b.etat = ETAT_OK;
+        int wdl = rechercher(p, false, b, 0);
+        return b.etat == ETAT_ECHEC ? ECHEC : wdl;
+    }
+
+    /**
+     * <p>
+     * Distance en demi-coups au prochain coup irréversible (prise ou coup de
+     * pion) en jouant au mieux : positive si le camp au trait gagne, négative
+     * s'il perd, 0 si nulle ; au-delà de 100 en valeur absolue, le résultat
+     * est annulé par la règle des 50 coups. {@link #ECHEC} sans table.
+     * </p>
+     */
+    public static int sonderDtz(Plateau p) {
+        if (!sondable(p))
+            return ECHEC;
+        Brouillon b = BROUILLONS.get();
+        int dtz = dtz(p, b);
+        return b.etat == ETAT_ECHEC ? ECHEC : dtz;
+    }
+
+    /**
+     * <p>
+     * Coup de la racine d'après les tables : un coup gagnant qui réduit le
+     * plus la distance (et reste dans la règle des 50 coups si possible),
+     * sinon un coup qui tient la nulle, sinon le coup perdant qui résiste le
+     * plus longtemps. Null si la position n'est pas dans les tables.
+     * </p>
+     *
+     * @param coups coups légaux de la position
+     */
+    public static Coup coupRacine(Plateau p, List<Coup> coups) {
+        if (coups.isEmpty() || !sondable(p))
+            return null;
+        Brouillon b = BROUILLONS.get();
+        int cinquante = p.demiCoupsSansPrise();
+        Coup meilleur = null;
+        int meilleurRang = Integer.MIN_VALUE;
+        int meilleureDistance = 0;
+        for (Coup coup : coups) {
+            EtatPlateau sauvegarde = p.jouerAvecSauvegarde(coup);
+            int dtz;
+            try {
+                b.etat = ETAT_OK;
+                if (p.demiCoupsSansPrise() == 0) {
+                    // Coup irréversible : le résultat après le coup suffit
+                    dtz = avantZero(-rechercher(p, false, b, 0));
+                } else if (p.estRepetition()) {
+                    dtz = 0;
+                } else {
+                    dtz = -dtz(p, b);
+                    dtz = dtz > 0 ? dtz + 1 : dtz < 0 ? dtz - 1 : 0;
+                }
+                if (dtz == 2 && estMat(p))
+                    dtz = 1;
+            } finally {
+                p.annuler(sauvegarde);
+            }
+            if (b.etat == ETAT_ECHEC)
+                return null;
+
+            // Gains sûrs à égalité, puis nulles, puis pertes (sauf si les 50 coups approchent)
+            int rang = dtz > 0 ? (dtz + cinquante <= 99 ? 1000 : 1000 - (dtz + cinquante))
+                    : dtz < 0 ? (-dtz * 2 + cinquante < 100 ? -1000 : -1000 + (-dtz + cinquante))
+                    : 0;
+            // À rang égal : le gain le plus court, la perte la plus longue
+            if (meilleur == null || rang > meilleurRang
+                    || (rang == meilleurRang && dtz != 0 && dtz < meilleureDistance)) {
+                meilleur = coup;
+                meilleurRang = rang;
+                meilleureDistance = dtz;
+            }
+        }
+        return meilleur;
+    }
+
+    // ------------------------------------------------------------------
+    // Sondes
+    // ------------------------------------------------------------------
+
+    /**
+     * <p>
+     * Résout les prises (et les coups de pion si {@code zeroing}) avant de
+     * lire la table : la valeur stockée peut être quelconque quand le
+     * meilleur coup en est un. Met {@link #ZERO_MEILLEUR} dans l'état si le
+     * meilleur coup est irréversible.
+     * </p>
+     */
+    private static int rechercher(Plateau p, boolean zeroing, Brouillon b, int ply) {
+        int meilleur = PERTE;
+        int[] coups = b.coups;
+        int debut = ply * CoupsSyzygy.COUPS_MAX;
+        int n = CoupsSyzygy.generer(p, zeroing, true, coups, debut);
+        int sauvegarde = ply * Plateau.TAILLE_SAUVEGARDE;
+        Couleur trait = p.trait();
+        int nbIrreversibles = 0;
+        for (int i = debut; i < debut + n; i++) {
+            p.jouerAvecSauvegarde(b.decodeur.coup(coups[i]), b.sauvegardes, sauvegarde);
+            int valeur;
+            try {
+                if (p.estEnEchec(trait))
+                    continue;
+                nbIrreversibles++;
+                valeur = -rechercher(p, false, b, ply + 1);
+            } finally {
+                p.annuler(b.sauvegardes, sauvegarde);
+            }
+            if (b.etat == ETAT_ECHEC)
+                return NULLE;
+            if (valeur > meilleur) {
+                meilleur = valeur;
+                if (valeur >= GAIN) {
+                    b.etat = ZERO_MEILLEUR;
+                    return valeur;
+                }
+            }
+        }
+
+        // Tous les coups vus : la table n'est pas nécessaire (et peut être fausse, en passant par exemple)
+        boolean tousVus = nbIrreversibles > 0 && !CoupsSyzygy.autreCoupLegal(p, zeroing, coups, debut);
+        int valeur;
+        if (tousVus) {
+            valeur = meilleur;
+        } else {
+            valeur = sonderTable(p, TableSyzygy.WDL, NULLE, b);
+            if (b.etat == ETAT_ECHEC)
+                return NULLE;
+        }
+        if (meilleur >= valeur) {
+            b.etat = meilleur > NULLE || tousVus ? ZERO_MEILLEUR : ETAT_OK;
+            return meilleur;
+        }
+        b.etat = ETAT_OK;
+        return valeur;
+    }
+
+    private static int dtz(Plateau p, Brouillon b) {
+        b.etat = ETAT_OK;
+        int wdl = rechercher(p, true, b, 0);
+        if (b.etat == ETAT_ECHEC || wdl == NULLE)
+            return 0;
+        if (b.etat == ZERO_MEILLEUR)
+            return avantZero(wdl);
+
+        int dtz = sonderTable(p, TableSyzygy.DTZ, wdl, b);
+        if (b.etat == ETAT_ECHEC)
+            return 0;
+        if (b.etat != CHANGER_TRAIT)
+            return (dtz + (wdl == PERTE_SAUVEE || wdl == GAIN_MAUDIT ? 100 : 0)) * Integer.signum(wdl);
+
+        // Table de l'autre camp au trait : recherche à un coup, meilleure distance gagnante
+        int min = 0xFFFF;
+        for (Coup coup : GenerateurCoups.genererLegaux(p)) {
+            boolean irreversible = coup.estCapture() || coup.estEnPassant() || estPion(coup.pieceDeplacee());
+            EtatPlateau sauvegarde = p.jouerAvecSauvegarde(coup);
+            try {
+                if (irreversible) {
+                    b.etat = ETAT_OK;
+                    dtz = -avantZero(rechercher(p, false, b, 0));
+                } else {
+                    dtz = -dtz(p, b);
+                }
+                if (dtz == 1 && estMat(p))
+                    min = 1;
+                if (!irreversible)
+                    dtz += Integer.signum(dtz);
+                if (dtz < min && Integer.signum(dtz) == Integer.signum(wdl))
+                    min = dtz;
+            } finally {
+                p.annuler(sauvegarde);
+            }
+            if (b.etat == ETAT_ECHEC)
+                return 0;
+        }
+        // Aucun coup légal : mat
+        return min == 0xFFFF ? -1 : min;
+    }
+
+    private static int sonderTable(Plateau p, int type, int wdl, Brouillon b) {
+        if (Long.bitCount(p.occupes()) == 2)
+            return NULLE;
+        long cle = cleMateriel(p);
+        TableSyzygy t = registre.chercher(cle, type);
+        if (t == null || !t.ouvrir()) {
+            b.etat = ETAT_ECHEC;
+            return 0;
+        }
+        return t.sonder(p, cle, wdl, b);
+    }
+
+    /** Distance juste avant un coup irréversible, d'après le résultat. */
+    private static int avantZero(int wdl) {
+        return switch (wdl) {
+            case GAIN -> 1;
+            case GAIN_MAUDIT -> 101;
+            case PERTE_SAUVEE -> -101;
+            case PERTE -> -1;
+            default -> 0;
+        };
+    }
+
+    private static boolean estPion(Piece piece) {
+        return piece == Piece.PION_BLANC || piece == Piece.PION_NOIR;
+    }
+
+    private static boolean estMat(Plateau p) {
+        return p.estEnEchec(p.trait()) && GenerateurCoups.genererLegaux(p).isEmpty();
+    }
+
+    /**
+     * <p>
+     * Signature de matériel : 4 bits par sorte de pièce hors roi (pion à
+     * dame), Blancs puis Noirs.
+     * </p>
+     */
+    static long cleMateriel(Plateau p) {
+        // Pièces nommées une à une : l'accès aux bitboards se résout à la compilation
+        return compte(p, Piece.PION_BLANC, 0) | compte(p, Piece.CAVALIER_BLANC, 1)
+                | compte(p, Piece.FOU_BLANC, 2) | compte(p, Piece.TOUR_BLANC, 3)
+                | compte(p, Piece.DAME_BLANCHE, 4) | compte(p, Piece.PION_NOIR, 5)
+                | compte(p, Piece.CAVALIER_NOIR, 6) | compte(p, Piece.FOU_NOIR, 7)
+                | compte(p, Piece.TOUR_NOIRE, 8) | compte(p, Piece.DAME_NOIRE, 9);
+    }
+
+    private static long compte(Plateau p, Piece piece, int rang) {
+        return (long) Long.bitCount(p.bitboard(piece)) << (4 * rang);
+    }
+
+    /** Même signature depuis un nom de fichier ({@code "KRP"}, {@code "KR"}). */
+    static long cleMateriel(String blancs, String noirs) {
+        long cle = 0;
+        for (int i = 1; i < blancs.length(); i++)
+            cle += 1L << (4 * LETTRES.indexOf(blancs.charAt(i)));
+        for (int i = 1; i < noirs.length(); i++)
+            cle += 1L << (4 * (5 + LETTRES.indexOf(noirs.charAt(i))));
+        return cle;
+    }
+
+    /** Tables relevées, indexées par signature (adressage ouvert, sans allocation à la recherche). */
+    private static final class Registre {
+
+        static final Registre VIDE = new Registre(List.of(), List.of());
+
+        final int cardinalite;
+        private final long[] cles;
+        private final TableSyzygy[] wdl;
+        private final TableSyzygy[] dtz;
+
+        Registre(List<TableSyzygy> tablesWdl, List<TableSyzygy> tablesDtz) {
+            int taille = Integer.highestOneBit(Math.max(1, tablesWdl.size() * 4)) * 2;
+            cles = new long[taille];
+            wdl = new TableSyzygy[taille];
+            dtz = new TableSyzygy[taille];
+            int max = 0;
+            for (TableSyzygy t : tablesWdl) {
+                placer(t.cle, t, wdl);
+                placer(t.cle2, t, wdl);
+                max = Math.max(max, t.nbPieces);
+            }
+            // Une table DTZ ne sert que si le fichier WDL correspondant est là
+            for (TableSyzygy t : tablesDtz) {
+                if (chercher(t.cle, TableSyzygy.WDL) != null) {
+                    placer(t.cle, t, dtz);
+                    placer(t.cle2, t, dtz);
+                }
+            }
+            cardinalite = max;
+        }
+
+        private void placer(long cle, TableSyzygy t, TableSyzygy[] tables) {
+            int masque = cles.length - 1;
+            int i = (int) melanger(cle) & masque;
+            while ((wdl[i] != null || dtz[i] != null) && cles[i] != cle)
+                i = (i + 1) & masque;
+            cles[i] = cle;
+            tables[i] = t;
+        }
+
+        TableSyzygy chercher(long cle, int type) {
+            int masque = cles.length - 1;
+            for (int i = (int) melanger(cle) & masque;; i = (i + 1) & masque) {
+                if (wdl[i] == null && dtz[i] == null)
+                    return null;
+                if (cles[i] == cle)
+                    return type == TableSyzygy.WDL ? wdl[i] : dtz[i];
+            }
+        }
+
+        private static long melanger(long cle) {
+            cle *= 0x9E3779B97F4A7C15L;
+            return cle ^ (cle >>> 32);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.AI.tablebases;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.example.chess.Plateau;
+
+/**
+ * <p>
+ * Table de distance au mat d'une configuration, projetée en mémoire en
+ * lecture seule. Fichier {@code <nom>.dtm} : en-tête de 16 octets (magie
+ * {@code "DTM1"}, nombre de positions sur 8 octets, 4 octets nuls), puis un
+ * octet par indice de {@link IndexDtm} (codes de {@link TablesDtm}).
+ * </p>
+ *
+ * <p>
+ * Une sonde ne fait que calculer l'indice et lire un octet : ni allocation
+ * ni verrou.
+ * </p>
+ */
+final class TableDtm {
+
+    static final String EXTENSION = ".dtm";
+    static final int ENTETE = 16;
+    static final byte[] MAGIE = "DTM1".getBytes(StandardCharsets.US_ASCII);
+
+    final IndexDtm index;
+    final Path fichier;
+    private final MappedByteBuffer donnees;
+
+    private TableDtm(IndexDtm index, Path fichier, MappedByteBuffer donnees) {
+        this.index = index;
+        this.fichier = fichier;
+        this.donnees = donnees;
+    }
+
+    /**
+     * <p>Projette un fichier ; la configuration est lue dans son nom.</p>
+     *
+     * @throws IOException fichier illisible, tronqué ou d'un autre format
+     */
+    static TableDtm ouvrir(Path fichier) throws IOException {
+        String nom = fichier.getFileName().toString();
+        if (!nom.endsWith(EXTENSION))
+            throw new IOException("extension " + EXTENSION + " attendue : " + fichier);
+        IndexDtm index;
+        try {
+            index = IndexDtm.depuisNom(nom.substring(0, nom.length() - EXTENSION.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("configuration invalide : " + fichier, e);
+        }
+        if (!index.nom.equals(nom.substring(0, nom.length() - EXTENSION.length())))
+            throw new IOException("nom non canonique (attendu " + index.nom + ") : " + fichier);
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            if (canal.size() != ENTETE + index.taille)
+                throw new IOException("taille inattendue : " + fichier);
+            MappedByteBuffer b = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            for (int i = 0; i < MAGIE.length; i++) {
+                if (b.get(i) != MAGIE[i])
+                    throw new IOException("pas une table DTM : " + fichier);
+            }
+            if (b.getLong(MAGIE.length) != index.taille)
+                throw new IOException("en-tete incoherent : " + fichier);
+            return new TableDtm(index, fichier, b);
+        }
+    }
+
+    /**
+     * <p>
+     * Code de la position (couleurs échangées si {@code inverse}), ou
+     * {@link TablesDtm#INVALIDE} hors de l'indice.
+     * </p>
+     */
+    int sonder(Plateau p, boolean inverse, int[] cases) {
+        long idx = index.indice(p, inverse, cases);
+        if (idx < 0)
+            return TablesDtm.INVALIDE;
+        return donnees.get(ENTETE + (int) idx) & 0xFF;
+    }
+}
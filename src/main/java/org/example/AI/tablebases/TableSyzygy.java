@@ -0,0 +1,687 @@
+package org.example.AI.tablebases;
+
+import org.example.chess.Couleur;
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * Un fichier Syzygy ({@code .rtbw} ou {@code .rtbz}) : calcul de l'indice
+ * d'une position et décompression du bloc qui la contient.
+ * </p>
+ *
+ * <p>
+ * Le fichier est projeté en mémoire ({@link FileChannel#map}) à la première
+ * sonde ; seuls ses en-têtes sont alors lus. Les blocs compressés sont lus
+ * directement dans la projection, à la demande. Après l'ouverture, tout est
+ * en lecture seule : les sondes de plusieurs threads ne se synchronisent pas
+ * et n'allouent rien (les cases et pièces de la position vont dans le
+ * {@link Syzygy.Brouillon} du thread).
+ * </p>
+ *
+ * <p>
+ * Cases au format Syzygy (a1 = 0, h8 = 63), pièces codées 1 à 6 (pion à
+ * roi) pour les Blancs et 9 à 14 pour les Noirs. Un fichier tient dans une
+ * seule projection (moins de 2 Go : toutes les tables jusqu'à 6 pièces).
+ * </p>
+ */
+final class TableSyzygy {
+
+    static final int WDL = 0;
+    static final int DTZ = 1;
+
+    // Drapeaux d'une sous-table
+    private static final int TRAIT = 1;
+    private static final int CARTE = 2;
+    private static final int GAIN_EN_DEMI_COUPS = 4;
+    private static final int PERTE_EN_DEMI_COUPS = 8;
+    private static final int LARGE = 16;
+    private static final int VALEUR_UNIQUE = 128;
+
+    private static final int[][] MAGIQUES = { { 0x71, 0xE8, 0x23, 0x5D }, { 0xD7, 0x66, 0x0C, 0xA5 } };
+
+    // Tables d'encodage communes à tous les fichiers
+    private static final int[] CARTE_PIONS = new int[64];
+    private static final int[] CARTE_B1H1H7 = new int[64];
+    private static final int[] CARTE_A1D1D4 = new int[64];
+    private static final int[][] CARTE_ROIS = new int[10][64];
+    private static final long[][] BINOMIAL = new long[Syzygy.PIECES_MAX][64];
+    private static final long[][] INDICE_PIONS_TETE = new long[Syzygy.PIECES_MAX][64];
+    private static final long[][] TAILLE_PIONS_TETE = new long[Syzygy.PIECES_MAX][4];
+
+    private static final Piece[] PIECES = Piece.values();
+
+    static {
+        int code = 0;
+        for (int s = 0; s < 64; s++) {
+            if (horsDiagonale(s) < 0)
+                CARTE_B1H1H7[s] = code++;
+        }
+
+        // Triangle a1-d1-d4 : cases sous la diagonale d'abord, diagonale ensuite
+        int[] triangle = { 0, 1, 2, 3, 9, 10, 11, 18, 19, 27 };
+        code = 0;
+        for (int s : triangle) {
+            if (horsDiagonale(s) < 0)
+                CARTE_A1D1D4[s] = code++;
+        }
+        for (int s : triangle) {
+            if (horsDiagonale(s) == 0)
+                CARTE_A1D1D4[s] = code++;
+        }
+
+        // 462 paires de rois, le premier dans le triangle ; les deux sur la diagonale en dernier
+        int[] deuxSurDiagonale = new int[64 * 10];
+        int nbDiagonale = 0;
+        code = 0;
+        for (int idx = 0; idx < 10; idx++) {
+            for (int s1 = 0; s1 <= 27; s1++) {
+                if (CARTE_A1D1D4[s1] != idx || (idx == 0 && s1 != 1))
+                    continue;
+                for (int s2 = 0; s2 < 64; s2++) {
+                    if (Math.max(Math.abs((s1 >> 3) - (s2 >> 3)), Math.abs((s1 & 7) - (s2 & 7))) <= 1)
+                        continue;
+                    if (horsDiagonale(s1) == 0 && horsDiagonale(s2) > 0)
+                        continue;
+                    if (horsDiagonale(s1) == 0 && horsDiagonale(s2) == 0)
+                        deuxSurDiagonale[nbDiagonale++] = idx * 64 + s2;
+                    else
+                        CARTE_ROIS[idx][s2] = code++;
+                }
+            }
+        }
+        for (int i = 0; i < nbDiagonale; i++)
+            CARTE_ROIS[deuxSurDiagonale[i] / 64][deuxSurDiagonale[i] % 64] = code++;
+
+        BINOMIAL[0][0] = 1;
+        for (int n = 1; n < 64; n++) {
+            for (int k = 0; k < Syzygy.PIECES_MAX && k <= n; k++) {
+                BINOMIAL[k][n] = (k > 0 ? BINOMIAL[k - 1][n - 1] : 0) + (k < n ? BINOMIAL[k][n - 1] : 0);
+            }
+        }
+
+        // Pion de tête : le plus près du bord, puis le moins avancé (valeur la plus haute)
+        int disponibles = 47;
+        for (int nbTete = 1; nbTete < Syzygy.PIECES_MAX; nbTete++) {
+            for (int colonne = 0; colonne < 4; colonne++) {
+                long idx = 0;
+                for (int rangee = 1; rangee <= 6; rangee++) {
+                    int s = rangee * 8 + colonne;
+                    if (nbTete == 1) {
+                        CARTE_PIONS[s] = disponibles--;
+                        CARTE_PIONS[s ^ 7] = disponibles--;
+                    }
+                    INDICE_PIONS_TETE[nbTete][s] = idx;
+                    idx += BINOMIAL[nbTete - 1][CARTE_PIONS[s]];
+                }
+                TAILLE_PIONS_TETE[nbTete][colonne] = idx;
+            }
+        }
+    }
+
+    final Path fichier;
+    final int type;
+    /** Signature de matériel avec le camp fort en Blancs, et couleurs échangées. */
+    final long cle;
+    final long cle2;
+    final int nbPieces;
+    final boolean avecPions;
+    final boolean piecesUniques;
+    /** Pions du camp de tête, puis de l'autre camp. */
+    final int[] nbPions = new int[2];
+
+    private volatile boolean pret;
+    private ByteBuffer octets;
+    private int carte;
+    private final PairesSyzygy[][] paires;
+
+    /**
+     * @param blancs pièces du premier camp du nom de fichier ({@code "KRP"})
+     * @param noirs pièces du second camp ({@code "KR"})
+     */
+    TableSyzygy(Path fichier, int type, String blancs, String noirs) {
+        this.fichier = fichier;
+        this.type = type;
+        this.cle = Syzygy.cleMateriel(blancs, noirs);
+        this.cle2 = Syzygy.cleMateriel(noirs, blancs);
+        this.nbPieces = blancs.length() + noirs.length();
+        int pionsBlancs = compter(blancs, 'P');
+        int pionsNoirs = compter(noirs, 'P');
+        this.avecPions = pionsBlancs + pionsNoirs > 0;
+        boolean uniques = false;
+        for (char c : "PNBRQ".toCharArray()) {
+            if (compter(blancs, c) == 1 || compter(noirs, c) == 1)
+                uniques = true;
+        }
+        this.piecesUniques = uniques;
+        // Camp de tête : celui qui a le moins de pions (mais au moins un)
+        boolean blancEnTete = pionsNoirs == 0 || (pionsBlancs > 0 && pionsNoirs >= pionsBlancs);
+        nbPions[0] = blancEnTete ? pionsBlancs : pionsNoirs;
+        nbPions[1] = blancEnTete ? pionsNoirs : pionsBlancs;
+        this.paires = new PairesSyzygy[type == WDL ? 2 : 1][avecPions ? 4 : 1];
+    }
+
+    private static int compter(String s, char c) {
+        int n = 0;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == c)
+                n++;
+        }
+        return n;
+    }
+
+    private static int horsDiagonale(int s) {
+        return (s >> 3) - (s & 7);
+    }
+
+    private PairesSyzygy paires(int trait, int colonne) {
+        return paires[trait % paires.length][avecPions ? colonne : 0];
+    }
+
+    // ------------------------------------------------------------------
+    // Ouverture
+    // ------------------------------------------------------------------
+
+    /**
+     * <p>Projette le fichier à la première demande ; faux s'il est illisible.</p>
+     */
+    boolean ouvrir() {
+        if (pret)
+            return octets != null;
+        synchronized (this) {
+            if (!pret) {
+                try {
+                    lire();
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Table Syzygy illisible (" + fichier + ") : " + e.getMessage());
+                    octets = null;
+                }
+                pret = true;
+            }
+        }
+        return octets != null;
+    }
+
+    private void lire() throws IOException {
+        ByteBuffer b;
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE)
+                throw new IOException("fichier de plus de 2 Go");
+            b = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        for (int i = 0; i < 4; i++) {
+            if ((b.get(i) & 0xFF) != MAGIQUES[type][i])
+                throw new IOException("signature invalide");
+        }
+        octets = b;
+
+        int pos = 4;
+        int entete = u8(pos++);
+        if (((entete & 2) != 0) != avecPions || ((entete & 1) != 0) != (cle != cle2))
+            throw new IOException("en-tete incoherent avec le nom du fichier");
+
+        int camps = type == WDL && cle != cle2 ? 2 : 1;
+        int colonnes = avecPions ? 4 : 1;
+        boolean pionsDesDeuxCotes = avecPions && nbPions[1] > 0;
+
+        for (int f = 0; f < colonnes; f++) {
+            for (int i = 0; i < camps; i++)
+                paires[i][f] = new PairesSyzygy();
+            int[][] ordre = {
+                    { u8(pos) & 0xF, pionsDesDeuxCotes ? u8(pos + 1) & 0xF : 0xF },
+                    { u8(pos) >>> 4, pionsDesDeuxCotes ? u8(pos + 1) >>> 4 : 0xF } };
+            pos += 1 + (pionsDesDeuxCotes ? 1 : 0);
+            for (int k = 0; k < nbPieces; k++, pos++) {
+                for (int i = 0; i < camps; i++)
+                    paires[i][f].pieces[k] = i == 1 ? u8(pos) >>> 4 : u8(pos) & 0xF;
+            }
+            for (int i = 0; i < camps; i++)
+                grouper(paires[i][f], ordre[i], f);
+        }
+        pos += pos & 1;
+
+        for (int f = 0; f < colonnes; f++) {
+            for (int i = 0; i < camps; i++)
+                pos = lireTailles(paires[i][f], pos);
+        }
+        if (type == DTZ)
+            pos = lireCartesDtz(pos, colonnes);
+
+        for (int f = 0; f < colonnes; f++) {
+            for (int i = 0; i < camps; i++) {
+                paires[i][f].indexEpars = pos;
+                pos += paires[i][f].tailleIndexEpars * 6;
+            }
+        }
+        for (int f = 0; f < colonnes; f++) {
+            for (int i = 0; i < camps; i++) {
+                paires[i][f].longueursBlocs = pos;
+                pos += paires[i][f].tailleLongueursBlocs * 2;
+            }
+        }
+        for (int f = 0; f < colonnes; f++) {
+            for (int i = 0; i < camps; i++) {
+                pos = (pos + 0x3F) & ~0x3F;
+                paires[i][f].donnees = pos;
+                pos += (int) (paires[i][f].nbBlocs * paires[i][f].tailleBloc);
+            }
+        }
+        if (pos > b.limit())
+            throw new IOException("fichier tronque");
+    }
+
+    /**
+     * <p>
+     * Groupes de pièces encodés ensemble (même type et couleur ; le premier
+     * groupe réunit trois pièces uniques, ou les deux rois, ou les pions de
+     * tête) et multiplicateur de chacun dans l'indice.
+     * </p>
+     */
+    private void grouper(PairesSyzygy d, int[] ordre, int colonne) {
+        int n = 0;
+        int premier = avecPions ? 0 : piecesUniques ? 3 : 2;
+        d.longueursGroupes[n] = 1;
+        for (int i = 1; i < nbPieces; i++) {
+            if (--premier > 0 || d.pieces[i] == d.pieces[i - 1])
+                d.longueursGroupes[n]++;
+            else
+                d.longueursGroupes[++n] = 1;
+        }
+        d.longueursGroupes[++n] = 0;
+
+        boolean pionsDesDeuxCotes = avecPions && nbPions[1] > 0;
+        int suivant = pionsDesDeuxCotes ? 2 : 1;
+        int casesLibres = 64 - d.longueursGroupes[0] - (pionsDesDeuxCotes ? d.longueursGroupes[1] : 0);
+        long idx = 1;
+        for (int k = 0; suivant < n || k == ordre[0] || k == ordre[1]; k++) {
+            if (k == ordre[0]) {
+                d.indicesGroupes[0] = idx;
+                idx *= avecPions ? TAILLE_PIONS_TETE[d.longueursGroupes[0]][colonne]
+                        : piecesUniques ? 31332 : 462;
+            } else if (k == ordre[1]) {
+                d.indicesGroupes[1] = idx;
+                idx *= BINOMIAL[d.longueursGroupes[1]][48 - d.longueursGroupes[0]];
+            } else {
+                d.indicesGroupes[suivant] = idx;
+                idx *= BINOMIAL[d.longueursGroupes[suivant]][casesLibres];
+                casesLibres -= d.longueursGroupes[suivant++];
+            }
+        }
+        d.indicesGroupes[n] = idx;
+    }
+
+    /** Code de Huffman et dimensions des blocs ; renvoie la position suivante. */
+    private int lireTailles(PairesSyzygy d, int pos) {
+        d.drapeaux = u8(pos++);
+        if ((d.drapeaux & VALEUR_UNIQUE) != 0) {
+            d.longueurMin = u8(pos++);
+            return pos;
+        }
+
+        int g = 0;
+        while (d.longueursGroupes[g] != 0)
+            g++;
+        long taille = d.indicesGroupes[g];
+
+        d.tailleBloc = 1L << u8(pos++);
+        d.intervalle = 1L << u8(pos++);
+        d.tailleIndexEpars = (int) ((taille + d.intervalle - 1) / d.intervalle);
+        int bourrage = u8(pos++);
+        d.nbBlocs = octets.getInt(pos);
+        pos += 4;
+        d.tailleLongueursBlocs = d.nbBlocs + bourrage;
+        d.longueurMax = u8(pos++);
+        d.longueurMin = u8(pos++);
+        d.plusPetitsSymboles = pos;
+
+        // Code canonique : les codes longs ont les plus petites valeurs
+        int nb = d.longueurMax - d.longueurMin + 1;
+        d.base64 = new long[nb];
+        for (int i = nb - 2; i >= 0; i--) {
+            d.base64[i] = (d.base64[i + 1] + u16(d.plusPetitsSymboles + 2 * i)
+                    - u16(d.plusPetitsSymboles + 2 * (i + 1))) / 2;
+        }
+        for (int i = 0; i < nb; i++)
+            d.base64[i] <<= 64 - i - d.longueurMin;
+        pos += nb * 2;
+
+        int nbSymboles = u16(pos);
+        pos += 2;
+        d.arbre = pos;
+        d.longueursSymboles = new int[nbSymboles];
+        boolean[] vus = new boolean[nbSymboles];
+        for (int s = 0; s < nbSymboles; s++) {
+            if (!vus[s])
+                d.longueursSymboles[s] = longueurSymbole(d, s, vus);
+        }
+        return pos + nbSymboles * 3 + (nbSymboles & 1);
+    }
+
+    /** Appariement récursif : un symbole vaut ses deux enfants (ou une seule valeur s'il est une feuille). */
+    private int longueurSymbole(PairesSyzygy d, int s, boolean[] vus) {
+        vus[s] = true;
+        int droite = droite(d, s);
+        if (droite == 0xFFF)
+            return 0;
+        int gauche = gauche(d, s);
+        if (!vus[gauche])
+            d.longueursSymboles[gauche] = longueurSymbole(d, gauche, vus);
+        if (!vus[droite])
+            d.longueursSymboles[droite] = longueurSymbole(d, droite, vus);
+        return d.longueursSymboles[gauche] + d.longueursSymboles[droite] + 1;
+    }
+
+    /** Tables DTZ : correspondance valeur stockée → distance, par résultat. */
+    private int lireCartesDtz(int pos, int colonnes) {
+        carte = pos;
+        for (int f = 0; f < colonnes; f++) {
+            PairesSyzygy d = paires(0, f);
+            if ((d.drapeaux & CARTE) == 0)
+                continue;
+            if ((d.drapeaux & LARGE) != 0) {
+                pos += pos & 1;
+                for (int i = 0; i < 4; i++) {
+                    d.indicesCarte[i] = (pos - carte) / 2 + 1;
+                    pos += 2 * u16(pos) + 2;
+                }
+            } else {
+                for (int i = 0; i < 4; i++) {
+                    d.indicesCarte[i] = pos - carte + 1;
+                    pos += u8(pos) + 1;
+                }
+            }
+        }
+        return pos + (pos & 1);
+    }
+
+    // ------------------------------------------------------------------
+    // Sonde
+    // ------------------------------------------------------------------
+
+    /**
+     * <p>
+     * Valeur stockée pour la position (table déjà ouverte) : résultat de -2 à
+     * 2 (WDL) ou distance en demi-coups (DTZ, {@code wdl} = résultat connu).
+     * Une table DTZ qui ne stocke que l'autre camp au trait met
+     * {@link Syzygy#CHANGER_TRAIT} dans {@code b.etat}.
+     * </p>
+     */
+    int sonder(Plateau p, long cleMateriel, int wdl, Syzygy.Brouillon b) {
+        int[] cases = b.cases;
+        int[] pieces = b.pieces;
+        int taille = 0;
+        int nbTete = 0;
+        long pionsTete = 0L;
+        int colonne = 0;
+
+        // Les fichiers ont le camp fort en Blancs ; symétriques, seul le trait blanc est stocké
+        boolean noirAuTrait = p.trait() == Couleur.NOIR;
+        boolean retourner = (cle == cle2 && noirAuTrait) || cleMateriel != cle;
+        int inverserCouleur = retourner ? 8 : 0;
+        // a8 = 0 sur le plateau, a1 = 0 dans les tables : retourner = ne pas inverser les rangées
+        int inverserCases = retourner ? 0 : 56;
+        int trait = (retourner ? 1 : 0) ^ (noirAuTrait ? 1 : 0);
+
+        if (avecPions) {
+            int pion = paires(0, 0).pieces[0] ^ inverserCouleur;
+            pionsTete = p.bitboard(pion < 8 ? Piece.PION_BLANC : Piece.PION_NOIR);
+            for (long bb = pionsTete; bb != 0L; bb &= bb - 1)
+                cases[taille++] = Long.numberOfTrailingZeros(bb) ^ inverserCases;
+            nbTete = taille;
+            int max = 0;
+            for (int i = 1; i < nbTete; i++) {
+                if (CARTE_PIONS[cases[i]] > CARTE_PIONS[cases[max]])
+                    max = i;
+            }
+            echanger(cases, 0, max);
+            colonne = Math.min(cases[0] & 7, 7 - (cases[0] & 7));
+        }
+
+        if (type == DTZ) {
+            int drapeaux = paires(trait, colonne).drapeaux;
+            if ((drapeaux & TRAIT) != trait && !(cle == cle2 && !avecPions)) {
+                b.etat = Syzygy.CHANGER_TRAIT;
+                return 0;
+            }
+        }
+
+        for (int i = 0; i < PIECES.length; i++) {
+            int code = ((i < 6 ? 0 : 8) + i % 6 + 1) ^ inverserCouleur;
+            for (long bb = p.bitboard(PIECES[i]) & ~pionsTete; bb != 0L; bb &= bb - 1) {
+                cases[taille] = Long.numberOfTrailingZeros(bb) ^ inverserCases;
+                pieces[taille++] = code;
+            }
+        }
+
+        PairesSyzygy d = paires(trait, colonne);
+
+        // Même ordre de pièces que le fichier
+        for (int i = nbTete; i < taille - 1; i++) {
+            for (int j = i + 1; j < taille; j++) {
+                if (d.pieces[i] == pieces[j]) {
+                    echanger(pieces, i, j);
+                    echanger(cases, i, j);
+                    break;
+                }
+            }
+        }
+
+        // Première pièce sur les colonnes a à d
+        if ((cases[0] & 7) > 3) {
+            for (int i = 0; i < taille; i++)
+                cases[i] ^= 7;
+        }
+
+        long idx;
+        if (avecPions) {
+            idx = INDICE_PIONS_TETE[nbTete][cases[0]];
+            trierStable(cases, 1, nbTete);
+            for (int i = 1; i < nbTete; i++)
+                idx += BINOMIAL[i][CARTE_PIONS[cases[i]]];
+        } else {
+            idx = indicePremierGroupe(cases, taille, d);
+        }
+
+        idx *= d.indicesGroupes[0];
+        int debutGroupe = d.longueursGroupes[0];
+        boolean pionsRestants = avecPions && nbPions[1] > 0;
+        for (int g = 1; d.longueursGroupes[g] != 0; g++) {
+            int longueur = d.longueursGroupes[g];
+            java.util.Arrays.sort(cases, debutGroupe, debutGroupe + longueur);
+            long n = 0;
+            for (int i = 0; i < longueur; i++) {
+                int s = cases[debutGroupe + i];
+                int ajustement = 0;
+                for (int j = 0; j < debutGroupe; j++) {
+                    if (s > cases[j])
+                        ajustement++;
+                }
+                n += BINOMIAL[i + 1][s - ajustement - (pionsRestants ? 8 : 0)];
+            }
+            pionsRestants = false;
+            idx += n * d.indicesGroupes[g];
+            debutGroupe += longueur;
+        }
+
+        int valeur = decompresser(d, idx);
+        return type == WDL ? valeur - 2 : distance(colonne, valeur, wdl);
+    }
+
+    /** Sans pion : symétries du carré, puis trois pièces uniques ou la paire de rois. */
+    private int indicePremierGroupe(int[] cases, int taille, PairesSyzygy d) {
+        if ((cases[0] >> 3) > 3) {
+            for (int i = 0; i < taille; i++)
+                cases[i] ^= 56;
+        }
+        for (int i = 0; i < d.longueursGroupes[0]; i++) {
+            int h = horsDiagonale(cases[i]);
+            if (h == 0)
+                continue;
+            if (h > 0) {
+                for (int j = i; j < taille; j++)
+                    cases[j] = ((cases[j] >> 3) | (cases[j] << 3)) & 63;
+            }
+            break;
+        }
+
+        if (!piecesUniques)
+            return CARTE_ROIS[CARTE_A1D1D4[cases[0]]][cases[1]];
+
+        int s0 = cases[0];
+        int s1 = cases[1];
+        int s2 = cases[2];
+        int ajust1 = s1 > s0 ? 1 : 0;
+        int ajust2 = (s2 > s0 ? 1 : 0) + (s2 > s1 ? 1 : 0);
+        if (horsDiagonale(s0) != 0)
+            return (CARTE_A1D1D4[s0] * 63 + (s1 - ajust1)) * 62 + s2 - ajust2;
+        if (horsDiagonale(s1) != 0)
+            return (6 * 63 + (s0 >> 3) * 28 + CARTE_B1H1H7[s1]) * 62 + s2 - ajust2;
+        if (horsDiagonale(s2) != 0)
+            return 6 * 63 * 62 + 4 * 28 * 62 + (s0 >> 3) * 7 * 28 + ((s1 >> 3) - ajust1) * 28
+                    + CARTE_B1H1H7[s2];
+        return 6 * 63 * 62 + 4 * 28 * 62 + 4 * 7 * 28 + (s0 >> 3) * 7 * 6 + ((s1 >> 3) - ajust1) * 6
+                + ((s2 >> 3) - ajust2);
+    }
+
+    /**
+     * <p>
+     * DTZ : rangs de fréquence → distance, puis coups → demi-coups quand la
+     * table compte en coups.
+     * </p>
+     */
+    private int distance(int colonne, int valeur, int wdl) {
+        PairesSyzygy d = paires(0, colonne);
+        int drapeaux = d.drapeaux;
+        if ((drapeaux & CARTE) != 0) {
+            // Indices de carte : gain, perte, gain maudit, perte sauvée
+            int k = switch (wdl) {
+                case Syzygy.PERTE -> 1;
+                case Syzygy.PERTE_SAUVEE -> 3;
+                case Syzygy.GAIN_MAUDIT -> 2;
+                default -> 0;
+            };
+            int i = d.indicesCarte[k] + valeur;
+            valeur = (drapeaux & LARGE) != 0 ? u16(carte + 2 * i) : u8(carte + i);
+        }
+        if ((wdl == Syzygy.GAIN && (drapeaux & GAIN_EN_DEMI_COUPS) == 0)
+                || (wdl == Syzygy.PERTE && (drapeaux & PERTE_EN_DEMI_COUPS) == 0)
+                || wdl == Syzygy.GAIN_MAUDIT || wdl == Syzygy.PERTE_SAUVEE)
+            valeur *= 2;
+        return valeur + 1;
+    }
+
+    /**
+     * <p>
+     * Valeur d'indice {@code idx} : l'index épars donne un bloc proche, on
+     * avance de bloc en bloc, puis on lit les symboles de Huffman du bloc
+     * jusqu'à celui qui couvre l'indice, et on le développe (chaque symbole
+     * est une paire de symboles) jusqu'à la valeur.
+     * </p>
+     */
+    private int decompresser(PairesSyzygy d, long idx) {
+        if ((d.drapeaux & VALEUR_UNIQUE) != 0)
+            return d.longueurMin;
+
+        int k = (int) (idx / d.intervalle);
+        int entree = d.indexEpars + 6 * k;
+        int bloc = octets.getInt(entree);
+        int decalage = u16(entree + 4);
+        decalage += (int) (idx % d.intervalle - d.intervalle / 2);
+
+        while (decalage < 0)
+            decalage += longueurBloc(d, --bloc) + 1;
+        while (decalage > longueurBloc(d, bloc))
+            decalage -= longueurBloc(d, bloc++) + 1;
+
+        int ptr = d.donnees + (int) (bloc * d.tailleBloc);
+        long tampon = Long.reverseBytes(octets.getLong(ptr));
+        ptr += 8;
+        int bits = 64;
+        int sym;
+        while (true) {
+            int len = 0;
+            while (Long.compareUnsigned(tampon, d.base64[len]) < 0)
+                len++;
+            sym = (int) ((tampon - d.base64[len]) >>> (64 - len - d.longueurMin));
+            sym = (sym + u16(d.plusPetitsSymboles + 2 * len)) & 0xFFFF;
+            if (decalage < d.longueursSymboles[sym] + 1)
+                break;
+            decalage -= d.longueursSymboles[sym] + 1;
+            len += d.longueurMin;
+            tampon <<= len;
+            bits -= len;
+            if (bits <= 32) {
+                bits += 32;
+                tampon |= motGrosBout(ptr) << (64 - bits);
+                ptr += 4;
+            }
+        }
+
+        while (d.longueursSymboles[sym] != 0) {
+            int g = gauche(d, sym);
+            if (decalage < d.longueursSymboles[g] + 1) {
+                sym = g;
+            } else {
+                decalage -= d.longueursSymboles[g] + 1;
+                sym = droite(d, sym);
+            }
+        }
+        return gauche(d, sym);
+    }
+
+    private int longueurBloc(PairesSyzygy d, int bloc) {
+        return u16(d.longueursBlocs + 2 * bloc);
+    }
+
+    // Arbre : 3 octets par symbole, enfant gauche sur les 12 premiers bits, droit sur les 12 suivants
+    private int gauche(PairesSyzygy d, int sym) {
+        int a = d.arbre + 3 * sym;
+        return ((u8(a + 1) & 0xF) << 8) | u8(a);
+    }
+
+    private int droite(PairesSyzygy d, int sym) {
+        int a = d.arbre + 3 * sym;
+        return (u8(a + 2) << 4) | (u8(a + 1) >>> 4);
+    }
+
+    private long motGrosBout(int pos) {
+        // Le dernier bloc peut finir avant le mot : zéros au-delà
+        if (pos + 4 > octets.limit())
+            return 0L;
+        return Integer.reverseBytes(octets.getInt(pos)) & 0xFFFFFFFFL;
+    }
+
+    private int u8(int pos) {
+        return octets.get(pos) & 0xFF;
+    }
+
+    private int u16(int pos) {
+        return octets.getShort(pos) & 0xFFFF;
+    }
+
+    private static void echanger(int[] t, int i, int j) {
+        int x = t[i];
+        t[i] = t[j];
+        t[j] = x;
+    }
+
+    /** Tri par insertion (stable) des pions selon {@link #CARTE_PIONS}. */
+    private static void trierStable(int[] cases, int debut, int fin) {
+        for (int i = debut + 1; i < fin; i++) {
+            int s = cases[i];
+            int j = i - 1;
+            while (j >= debut && CARTE_PIONS[cases[j]] > CARTE_PIONS[s]) {
+                cases[j + 1] = cases[j];
+                j--;
+            }
+            cases[j + 1] = s;
+        }
+    }
+}
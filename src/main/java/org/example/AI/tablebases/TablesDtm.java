@@ -0,0 +1,240 @@
+package org.example.AI.tablebases;
+
+import org.example.chess.Couleur;
+import org.example.chess.Masques;
+import org.example.chess.Piece;
+import org.example.chess.Plateau;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Sonde des tables de distance au mat générées par {@link GenerateurDtm}
+ * (jusqu'à 4 pièces, un octet par position, projetées en mémoire).
+ * </p>
+ *
+ * <p>
+ * Les répertoires sont donnés par la propriété {@code -Dchess.dtm=...}
+ * (plusieurs séparés par {@link File#pathSeparator}) ou par
+ * {@link #initialiser(String)}. Une table sert aussi pour le matériel aux
+ * couleurs échangées (KvKR se lit dans KRvK).
+ * </p>
+ *
+ * <p>
+ * Codes, du point de vue du camp au trait :
+ * </p>
+ * <ul>
+ *   <li>{@link #NULLE} : nulle (pat, matériel insuffisant, forteresse) ;</li>
+ *   <li>1 à 127 : gain, mat en autant de coups ;</li>
+ *   <li>128 + n : perte, maté en n coups (128 : déjà mat) ;</li>
+ *   <li>{@link #INVALIDE} : position impossible (roi en prise) ou hors indice.</li>
+ * </ul>
+ *
+ * <p>
+ * Les tables ignorent la règle des 50 coups et ne contiennent ni droits de
+ * roque ni case de prise en passant ; le générateur tient compte des
+ * prises en passant qui suivent un double pas. Une position où le camp au
+ * trait peut prendre en passant, ou avec droits de roque, n'est pas
+ * sondée ; une case de prise en passant qu'aucun pion ne vise est
+ * ignorée.
+ * </p>
+ */
+public final class TablesDtm {
+
+    public static final String PROPRIETE_CHEMIN = "chess.dtm";
+
+    public static final int NULLE = 0;
+    public static final int PERTE = 128;
+    public static final int INVALIDE = 255;
+    /** Pas de table pour cette position. */
+    public static final int ABSENTE = -1;
+
+    private static final ThreadLocal<int[]> CASES = ThreadLocal.withInitial(() -> new int[4]);
+
+    private static volatile Registre registre = Registre.VIDE;
+
+    static {
+        String chemin = System.getProperty(PROPRIETE_CHEMIN);
+        if (chemin != null && !chemin.isBlank())
+            initialiser(chemin);
+    }
+
+    private TablesDtm() {
+    }
+
+    /**
+     * <p>
+     * Relève et projette les tables des répertoires donnés (séparés par
+     * {@link File#pathSeparator}) ; vide ou null : aucune table. À appeler
+     * hors recherche.
+     * </p>
+     *
+     * @return nombre de tables ouvertes
+     */
+    public static synchronized int initialiser(String chemins) {
+        List<TableDtm> tables = new ArrayList<>();
+        if (chemins != null) {
+            for (String chemin : chemins.split(File.pathSeparator)) {
+                if (!chemin.isBlank())
+                    relever(Path.of(chemin.trim()), tables);
+            }
+        }
+        registre = new Registre(tables);
+        if (!tables.isEmpty())
+            System.out.println("DTM : " + tables.size() + " tables, jusqu'a " + registre.cardinalite + " pieces");
+        return tables.size();
+    }
+
+    private static void relever(Path repertoire, List<TableDtm> tables) {
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(repertoire, "*" + TableDtm.EXTENSION)) {
+            for (Path f : fichiers) {
+                try {
+                    tables.add(TableDtm.ouvrir(f));
+                } catch (IOException e) {
+                    System.err.println("Table DTM ignoree : " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Repertoire DTM illisible (" + repertoire + ") : " + e.getMessage());
+        }
+    }
+
+    /** Ajoute une table fraîchement générée (utilisé par {@link GenerateurDtm}). */
+    static synchronized void ajouter(TableDtm table) {
+        List<TableDtm> tables = new ArrayList<>(List.of(registre.tables));
+        tables.removeIf(t -> t.index.nom.equals(table.index.nom));
+        tables.add(table);
+        registre = new Registre(tables);
+    }
+
+    /** Vrai si une table de cette configuration est chargée. */
+    static boolean presente(IndexDtm index) {
+        for (TableDtm t : registre.tables) {
+            if (t.index.nom.equals(index.nom))
+                return true;
+        }
+        return false;
+    }
+
+    /** Nombre de pièces de la plus grande table disponible (0 sans table). */
+    public static int cardinalite() {
+        return registre.cardinalite;
+    }
+
+    /**
+     * <p>
+     * Vrai si la position peut être dans une table : pas plus de pièces que
+     * la plus grande table, ni droits de roque, ni prise en passant
+     * possible. Test sur les bitboards seulement, avant de chercher la table
+     * du matériel.
+     * </p>
+     */
+    public static boolean sondable(Plateau p) {
+        return Long.bitCount(p.occupes()) <= registre.cardinalite
+                && !(p.getRoqueBlancRoi() || p.getRoqueBlancReine() || p.getRoqueNoirRoi() || p.getRoqueNoirReine())
+                && !priseEnPassant(p);
+    }
+
+    /** Un pion du camp au trait vise la case de prise en passant (légalité non vérifiée). */
+    private static boolean priseEnPassant(Plateau p) {
+        long ep = p.getEnPassant();
+        if (ep == 0L)
+            return false;
+        // Index 0 = a8 : un pion blanc prend vers les petits indices
+        boolean blanc = p.trait() == Couleur.BLANC;
+        long depuis = blanc
+                ? ((ep << 7) & ~Masques.FILE_H) | ((ep << 9) & ~Masques.FILE_A)
+                : ((ep >>> 7) & ~Masques.FILE_A) | ((ep >>> 9) & ~Masques.FILE_H);
+        return (depuis & p.bitboard(blanc ? Piece.PION_BLANC : Piece.PION_NOIR)) != 0L;
+    }
+
+    /**
+     * <p>
+     * Code de la position pour le camp au trait, ou {@link #ABSENTE} sans
+     * table (ou hors de {@link #sondable}). Les positions à deux rois sont
+     * nulles.
+     * </p>
+     */
+    public static int sonder(Plateau p) {
+        Registre r = registre;
+        if (!sondable(p))
+            return ABSENTE;
+        int n = Long.bitCount(p.occupes());
+        if (n == 2)
+            return NULLE;
+        long cle = Syzygy.cleMateriel(p);
+        long[] cles = r.cles;
+        for (int i = 0; i < cles.length; i++) {
+            if (cles[i] == cle)
+                return r.sondes[i].sonder(p, r.inverses[i], CASES.get());
+        }
+        return ABSENTE;
+    }
+
+    public static boolean estGain(int code) {
+        return code > NULLE && code < PERTE;
+    }
+
+    public static boolean estPerte(int code) {
+        return code >= PERTE && code < INVALIDE;
+    }
+
+    /**
+     * <p>
+     * Demi-coups jusqu'au mat (impair pour un gain, pair pour une perte) ;
+     * le code doit être un gain ou une perte.
+     * </p>
+     */
+    public static int demiCoups(int code) {
+        if (estGain(code))
+            return 2 * code - 1;
+        if (estPerte(code))
+            return 2 * (code - PERTE);
+        throw new IllegalArgumentException("ni gain ni perte : " + code);
+    }
+
+    /** Tables chargées ; chaque table y figure sous sa signature et celle aux couleurs échangées. */
+    private static final class Registre {
+
+        static final Registre VIDE = new Registre(List.of());
+
+        final int cardinalite;
+        final TableDtm[] tables;
+        final long[] cles;
+        final TableDtm[] sondes;
+        final boolean[] inverses;
+
+        Registre(List<TableDtm> liste) {
+            tables = liste.toArray(new TableDtm[0]);
+            List<TableDtm> s = new ArrayList<>();
+            List<Long> c = new ArrayList<>();
+            List<Boolean> inv = new ArrayList<>();
+            int max = 0;
+            for (TableDtm t : tables) {
+                s.add(t);
+                c.add(t.index.cle());
+                inv.add(false);
+                if (t.index.cleInverse() != t.index.cle()) {
+                    s.add(t);
+                    c.add(t.index.cleInverse());
+                    inv.add(true);
+                }
+                max = Math.max(max, 2 + t.index.pieces.length);
+            }
+            sondes = s.toArray(new TableDtm[0]);
+            cles = new long[c.size()];
+            inverses = new boolean[c.size()];
+            for (int i = 0; i < cles.length; i++) {
+                cles[i] = c.get(i);
+                inverses[i] = inv.get(i);
+            }
+            cardinalite = max;
+        }
+    }
+}
@@ -23,8 +23,42 @@ public final class Arbitre {
      */
     public static boolean estEnEchec(Plateau plateau, Couleur couleur) {
         long roi = (couleur == Couleur.BLANC) ? plateau.roiBlancBitboard() : plateau.roiNoirBitboard();
-        long attaquesAdverses = casesAttaqueesPar(plateau, couleur.inverse());
-        return (attaquesAdverses & roi) != 0L;
+        if (roi == 0L)
+            return false;
+        return attaquants(plateau, Long.numberOfTrailingZeros(roi), couleur.inverse()) != 0L;
+    }
+
+    /**
+     * <p>
+     * Pièces de la couleur donnée qui attaquent une case (on part de la case
+     * et on regarde "à l'envers" : beaucoup moins cher que de calculer
+     * toutes les cases attaquées).
+     * </p>
+     *
+     * @param plateau plateau
+     * @param indice  case visée
+     * @param couleur attaquant
+     * @return bitboard des attaquants
+     */
+    public static long attaquants(Plateau plateau, int indice, Couleur couleur) {
+        long occ = plateau.occupes();
+        long b = 1L << indice;
+        boolean blanc = (couleur == Couleur.BLANC);
+
+        // Un pion blanc attaque la case s'il est là où un pion noir de la case attaquerait
+        long pions = blanc
+                ? ((b << 7) & ~Masques.FILE_H) | ((b << 9) & ~Masques.FILE_A)
+                : ((b >>> 7) & ~Masques.FILE_A) | ((b >>> 9) & ~Masques.FILE_H);
+        long dames = blanc ? plateau.reineBlancheBitboard() : plateau.reineNoireBitboard();
+        long diag = (blanc ? plateau.fousBlancsBitboard() : plateau.fousNoirsBitboard()) | dames;
+        long hv = (blanc ? plateau.toursBlanchesBitboard() : plateau.toursNoiresBitboard()) | dames;
+
+        return (pions & (blanc ? plateau.pionsBlancsBitboard() : plateau.pionsNoirsBitboard()))
+                | (Masques.attaquesCavalier(indice)
+                        & (blanc ? plateau.cavaliersBlancsBitboard() : plateau.cavaliersNoirsBitboard()))
+                | (Masques.attaquesRoi(indice) & (blanc ? plateau.roiBlancBitboard() : plateau.roiNoirBitboard()))
+                | (Rayons.attaquesDiagonales(indice, occ) & diag)
+                | (Rayons.attaquesHorizontalesEtVerticales(indice, occ) & hv);
     }
 
     /**
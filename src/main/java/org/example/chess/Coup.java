@@ -18,6 +18,8 @@ package org.example.chess;
  */
 public final class Coup {
 
+    private static final Piece[] PIECES = Piece.values();
+
     private final Case depart;
     private final Case arrivee;
     private final Piece pieceDeplacee;
@@ -136,6 +138,64 @@ public final class Coup {
         return new Coup(depart, arrivee, placeholderPiece, false, null, promo, promotion, false, false);
     }
 
+    /**
+     * <p>
+     * Encode le coup dans un {@code int} (jamais 0, un coup ne va pas sur sa
+     * case de départ).
+     * </p>
+     *
+     * <p>
+     * Utile pour stocker des coups dans des tableaux primitifs (tables de
+     * hachage, arbres de recherche) sans garder d'objets.
+     * </p>
+     * <ul>
+     * <li>bits 0-5 : départ, 6-11 : arrivée</li>
+     * <li>bits 12-15 : pièce déplacée</li>
+     * <li>bits 16-19 / 20-23 : pièce capturée / promue (+1, 0 = aucune)</li>
+     * <li>bits 24-27 : capture, promotion, roque, en passant</li>
+     * </ul>
+     */
+    public int encoder() {
+        int code = depart.indice() | (arrivee.indice() << 6) | (pieceDeplacee.ordinal() << 12);
+        if (pieceCapturee != null)
+            code |= (pieceCapturee.ordinal() + 1) << 16;
+        if (piecePromotion != null)
+            code |= (piecePromotion.ordinal() + 1) << 20;
+        if (capture)
+            code |= 1 << 24;
+        if (promotion)
+            code |= 1 << 25;
+        if (roque)
+            code |= 1 << 26;
+        if (enPassant)
+            code |= 1 << 27;
+        return code;
+    }
+
+    /**
+     * <p>
+     * Reconstruit un coup encodé par {@link #encoder()}.
+     * </p>
+     *
+     * @param code valeur non nulle
+     * @return coup équivalent
+     */
+    public static Coup decoder(int code) {
+        Piece[] pieces = PIECES;
+        int capturee = (code >>> 16) & 0xF;
+        int promue = (code >>> 20) & 0xF;
+        return new Coup(
+                Case.depuisIndice(code & 63),
+                Case.depuisIndice((code >>> 6) & 63),
+                pieces[(code >>> 12) & 0xF],
+                (code & (1 << 24)) != 0,
+                capturee == 0 ? null : pieces[capturee - 1],
+                (code & (1 << 25)) != 0,
+                promue == 0 ? null : pieces[promue - 1],
+                (code & (1 << 26)) != 0,
+                (code & (1 << 27)) != 0);
+    }
+
     public boolean caseArriveeContientPiece(Plateau plateau) {
         return plateau.estOccupe(arrivee);
     }
@@ -8,11 +8,23 @@ package org.example.chess;
  * <p>
  * Utile pour l’IA : on joue un coup, on explore, puis on annule rapidement.
  * </p>
+ *
+ * <p>
+ * {@code nbCles} est la hauteur de la pile des clés précédentes : la
+ * restaurer suffit à "dépiler" les positions jouées depuis.
+ * </p>
  */
 public record EtatPlateau(
         long pionsBlancs, long cavaliersBlancs, long fousBlancs, long toursBlanches, long reineBlanche, long roiBlanc,
         long pionsNoirs, long cavaliersNoirs, long fousNoirs, long toursNoires, long reineNoire, long roiNoir,
         Couleur trait,
         boolean roqueBlancRoi, boolean roqueBlancReine, boolean roqueNoirRoi, boolean roqueNoirReine,
-        long enPassant
+        long enPassant,
+        long cle,
+        long clePions,
+        int demiCoupsSansPrise,
+        int nbCles,
+        int scorePacke,
+        int phase,
+        int versionScores
 ) {}
@@ -87,8 +87,64 @@ public final class GenerateurCoups {
     public static List<Coup> genererLegaux(Plateau plateau) {
         if (plateau == null) throw new IllegalArgumentException("plateau null");
 
-        Couleur joueurQuiJoue = plateau.trait();
+        return filtrerLegaux(plateau, genererPseudoLegaux(plateau));
+    }
+
+    /**
+     * <p>Génère les coups légaux d'un camp en échec (parades uniquement).</p>
+     *
+     * <p>
+     * Seuls les coups qui peuvent parer sont testés par jouer/annuler :
+     * </p>
+     * <ul>
+     *   <li>coups du roi (hors roque)</li>
+     *   <li>échec simple : prise de la pièce qui donne échec ou interposition</li>
+     *   <li>échec double : seul le roi peut bouger</li>
+     * </ul>
+     *
+     * @param plateau plateau courant (camp au trait en échec)
+     * @return liste de coups légaux
+     */
+    public static List<Coup> genererEvasions(Plateau plateau) {
+        if (plateau == null) throw new IllegalArgumentException("plateau null");
+
+        Couleur trait = plateau.trait();
+        long roi = plateau.bitboard(trait == Couleur.BLANC ? Piece.ROI_BLANC : Piece.ROI_NOIR);
+        if (roi == 0L) return genererLegaux(plateau);
+        int idxRoi = Long.numberOfTrailingZeros(roi);
+
+        long echecs = Arbitre.attaquants(plateau, idxRoi, trait.inverse());
+        if (echecs == 0L) return genererLegaux(plateau);
+
+        long cibles = 0L;
+        if (Long.bitCount(echecs) == 1) {
+            cibles = echecs | Lignes.entre(idxRoi, Long.numberOfTrailingZeros(echecs));
+        }
+
         List<Coup> pseudo = genererPseudoLegaux(plateau);
+        List<Coup> candidats = new ArrayList<>(pseudo.size());
+        for (Coup coup : pseudo) {
+            if (coup.estRoque()) continue;
+            boolean parade;
+            if (coup.depart().indice() == idxRoi) {
+                parade = true;
+            } else if (coup.estEnPassant()) {
+                int idxPris = (trait == Couleur.BLANC) ? coup.arrivee().indice() + 8 : coup.arrivee().indice() - 8;
+                parade = ((echecs & (1L << idxPris)) != 0L) || ((cibles & coup.arrivee().bit()) != 0L);
+            } else {
+                parade = (cibles & coup.arrivee().bit()) != 0L;
+            }
+            if (parade) candidats.add(coup);
+        }
+
+        return filtrerLegaux(plateau, candidats);
+    }
+
+    /**
+     * <p>Garde les coups qui ne laissent pas son roi en échec.</p>
+     */
+    private static List<Coup> filtrerLegaux(Plateau plateau, List<Coup> pseudo) {
+        Couleur joueurQuiJoue = plateau.trait();
 
         List<Coup> legaux = new ArrayList<>(pseudo.size());
 
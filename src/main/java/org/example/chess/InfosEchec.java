@@ -0,0 +1,134 @@
+package org.example.chess;
+
+/**
+ * <p>
+ * Informations d'échec calculées une fois par noeud, pour savoir en O(1) si
+ * un coup du camp au trait donne échec, sans le jouer.
+ * </p>
+ *
+ * <ul>
+ *   <li><b>Échec direct</b> : pour chaque type de pièce, les cases d'où elle
+ *   attaquerait le roi adverse.</li>
+ *   <li><b>Échec à la découverte</b> : nos pièces qui sont seules entre une
+ *   de nos pièces glissantes et le roi adverse ; si elles quittent la ligne,
+ *   le roi est en échec.</li>
+ * </ul>
+ *
+ * <p>
+ * Objet réutilisable (pas d'allocation par noeud) : on appelle
+ * {@link #calculer(Plateau)} puis {@link #donneEchec(Plateau, Coup)}. Les
+ * cas rares (roque, en passant, promotion) sont traités exactement, au
+ * besoin en jouant le coup.
+ * </p>
+ */
+public final class InfosEchec {
+
+    private static final int PION = 0;
+    private static final int CAVALIER = 1;
+    private static final int FOU = 2;
+    private static final int TOUR = 3;
+    private static final int DAME = 4;
+
+    /** Cases d'échec direct, indexées par type (ordinal % 6). */
+    private final long[] casesEchec = new long[6];
+
+    private long candidatsDecouverte;
+    private int roiAdverse = -1;
+
+    /**
+     * <p>Prépare les tests pour le camp au trait de ce plateau.</p>
+     */
+    public void calculer(Plateau plateau) {
+        Couleur trait = plateau.trait();
+        boolean blanc = (trait == Couleur.BLANC);
+        long roi = plateau.bitboard(blanc ? Piece.ROI_NOIR : Piece.ROI_BLANC);
+        if (roi == 0L) {
+            roiAdverse = -1;
+            java.util.Arrays.fill(casesEchec, 0L);
+            candidatsDecouverte = 0L;
+            return;
+        }
+        roiAdverse = Long.numberOfTrailingZeros(roi);
+        long occ = plateau.occupes();
+        long allies = blanc ? plateau.blancs() : plateau.noirs();
+
+        // Nos pions attaquent le roi depuis les cases où un pion adverse du roi attaquerait
+        casesEchec[PION] = blanc
+                ? ((roi << 7) & ~Masques.FILE_H) | ((roi << 9) & ~Masques.FILE_A)
+                : ((roi >>> 7) & ~Masques.FILE_A) | ((roi >>> 9) & ~Masques.FILE_H);
+        casesEchec[CAVALIER] = Masques.attaquesCavalier(roiAdverse);
+        long diag = Rayons.attaquesDiagonales(roiAdverse, occ);
+        long hv = Rayons.attaquesHorizontalesEtVerticales(roiAdverse, occ);
+        casesEchec[FOU] = diag;
+        casesEchec[TOUR] = hv;
+        casesEchec[DAME] = diag | hv;
+        casesEchec[5] = 0L;
+
+        // Rayons X depuis le roi à travers nos bloqueurs : nos glissants derrière
+        long dames = plateau.bitboard(blanc ? Piece.DAME_BLANCHE : Piece.DAME_NOIRE);
+        long glissantsDiag = plateau.bitboard(blanc ? Piece.FOU_BLANC : Piece.FOU_NOIR) | dames;
+        long glissantsHv = plateau.bitboard(blanc ? Piece.TOUR_BLANC : Piece.TOUR_NOIRE) | dames;
+
+        long candidats = 0L;
+        long xDiag = Rayons.attaquesDiagonales(roiAdverse, occ & ~(diag & allies)) & glissantsDiag & ~diag;
+        while (xDiag != 0L) {
+            int s = Long.numberOfTrailingZeros(xDiag);
+            candidats |= Lignes.entre(roiAdverse, s) & allies;
+            xDiag &= xDiag - 1;
+        }
+        long xHv = Rayons.attaquesHorizontalesEtVerticales(roiAdverse, occ & ~(hv & allies)) & glissantsHv & ~hv;
+        while (xHv != 0L) {
+            int s = Long.numberOfTrailingZeros(xHv);
+            candidats |= Lignes.entre(roiAdverse, s) & allies;
+            xHv &= xHv - 1;
+        }
+        candidatsDecouverte = candidats;
+    }
+
+    /**
+     * <p>
+     * Vrai si le coup (légal, du camp au trait lors de {@link #calculer})
+     * met le roi adverse en échec.
+     * </p>
+     */
+    public boolean donneEchec(Plateau plateau, Coup coup) {
+        if (roiAdverse < 0)
+            return false;
+
+        // Rares : la tour du roque ou le pion pris en passant changent les lignes
+        if (coup.estRoque() || coup.estEnPassant())
+            return donneEchecLent(plateau, coup);
+
+        int depart = coup.depart().indice();
+        int arrivee = coup.arrivee().indice();
+        long bitArrivee = 1L << arrivee;
+
+        if (coup.estPromotion()) {
+            // La case de départ se libère : on recalcule depuis l'arrivée
+            long occ = (plateau.occupes() & ~(1L << depart)) | bitArrivee;
+            long roi = 1L << roiAdverse;
+            long attaques = switch (coup.piecePromotion().ordinal() % 6) {
+                case CAVALIER -> Masques.attaquesCavalier(arrivee);
+                case FOU -> Rayons.attaquesDiagonales(arrivee, occ);
+                case TOUR -> Rayons.attaquesHorizontalesEtVerticales(arrivee, occ);
+                default -> Rayons.attaquesDiagonales(arrivee, occ)
+                        | Rayons.attaquesHorizontalesEtVerticales(arrivee, occ);
+            };
+            if ((attaques & roi) != 0L)
+                return true;
+        } else if ((casesEchec[coup.pieceDeplacee().ordinal() % 6] & bitArrivee) != 0L) {
+            return true;
+        }
+
+        // Découverte : le bloqueur quitte la ligne qui le relie au roi
+        return (candidatsDecouverte & (1L << depart)) != 0L
+                && (Lignes.ligne(depart, roiAdverse) & bitArrivee) == 0L;
+    }
+
+    private static boolean donneEchecLent(Plateau plateau, Coup coup) {
+        EtatPlateau s = plateau.jouerAvecSauvegarde(coup);
+        boolean echec = plateau.estEnEchec(plateau.trait());
+        plateau.annuler(s);
+        return echec;
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.chess;
+
+/**
+ * <p>
+ * Tables pré-calculées entre deux cases alignées (même ligne, colonne ou
+ * diagonale) :
+ * </p>
+ * <ul>
+ *   <li>{@link #entre(int, int)} : cases strictement entre les deux</li>
+ *   <li>{@link #ligne(int, int)} : toute la ligne passant par les deux</li>
+ * </ul>
+ *
+ * <p>
+ * Utile pour les interpositions (parade d'un échec) et les échecs à la
+ * découverte. 2 x 64 x 64 longs = 64 Ko.
+ * </p>
+ */
+public final class Lignes {
+
+    private static final long[] ENTRE = new long[64 * 64];
+    private static final long[] LIGNE = new long[64 * 64];
+
+    static {
+        for (int a = 0; a < 64; a++) {
+            long diagA = Rayons.attaquesDiagonales(a, 0L);
+            long hvA = Rayons.attaquesHorizontalesEtVerticales(a, 0L);
+            for (int b = 0; b < 64; b++) {
+                if (a == b)
+                    continue;
+                long bitA = 1L << a;
+                long bitB = 1L << b;
+                if ((diagA & bitB) != 0L) {
+                    LIGNE[a * 64 + b] = (diagA & Rayons.attaquesDiagonales(b, 0L)) | bitA | bitB;
+                    ENTRE[a * 64 + b] = Rayons.attaquesDiagonales(a, bitB) & Rayons.attaquesDiagonales(b, bitA);
+                } else if ((hvA & bitB) != 0L) {
+                    LIGNE[a * 64 + b] = (hvA & Rayons.attaquesHorizontalesEtVerticales(b, 0L)) | bitA | bitB;
+                    ENTRE[a * 64 + b] = Rayons.attaquesHorizontalesEtVerticales(a, bitB)
+                            & Rayons.attaquesHorizontalesEtVerticales(b, bitA);
+                }
+            }
+        }
+    }
+
+    private Lignes() {}
+
+    /**
+     * <p>Cases strictement entre a et b (0 si non alignées).</p>
+     */
+    public static long entre(int a, int b) {
+        return ENTRE[a * 64 + b];
+    }
+
+    /**
+     * <p>Ligne complète passant par a et b (0 si non alignées).</p>
+     */
+    public static long ligne(int a, int b) {
+        return LIGNE[a * 64 + b];
+    }
+}
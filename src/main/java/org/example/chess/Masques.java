@@ -20,6 +20,9 @@ public final class Masques {
     /** Colonne H (h8, h7, ... h1) */
     public static final long FILE_H = 0x8080808080808080L;
 
+    /** Cases blanches (a8, c8, ... h1) */
+    public static final long CASES_BLANCHES = 0xAA55AA55AA55AA55L;
+
     private static final long[] ATTAQUES_ROI = new long[64];
     private static final long[] ATTAQUES_CAVALIER = new long[64];
 
@@ -0,0 +1,169 @@
+package org.example.chess;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Notation algébrique abrégée (SAN, celle des parties PGN) : {@code Nf3},
+ * {@code exd5}, {@code O-O}, {@code e8=Q+}.
+ * </p>
+ *
+ * <p>
+ * Les deux sens travaillent sur la liste des coups légaux de la position
+ * (déjà calculée par l'appelant) : écrire un coup demande de savoir quelles
+ * autres pièces pouvaient aller sur la même case, lire un coup revient à
+ * chercher le seul coup légal qui correspond.
+ * </p>
+ */
+public final class NotationEchecs {
+
+    private static final String LETTRES = "PNBRQK";
+
+    private NotationEchecs() {}
+
+    /**
+     * <p>
+     * Notation SAN d'un coup légal, avec {@code +} ou {@code #}. Le plateau
+     * est celui d'avant le coup ; il est rendu dans son état.
+     * </p>
+     *
+     * @param plateau position avant le coup
+     * @param coup    coup à écrire (parmi {@code legaux})
+     * @param legaux  coups légaux de la position
+     */
+    public static String versSAN(Plateau plateau, Coup coup, List<Coup> legaux) {
+        if (plateau == null || coup == null || legaux == null)
+            throw new IllegalArgumentException("plateau, coup et coups legaux requis");
+        StringBuilder sb = new StringBuilder(8);
+        int depart = coup.depart().indice();
+        int arrivee = coup.arrivee().indice();
+        int type = coup.pieceDeplacee().ordinal() % 6;
+
+        if (coup.estRoque()) {
+            sb.append((arrivee & 7) == 6 ? "O-O" : "O-O-O");
+        } else if (type == 0) {
+            if (coup.estCapture())
+                sb.append((char) ('a' + (depart & 7))).append('x');
+            sb.append(coup.arrivee().versAlgebrique());
+            if (coup.estPromotion())
+                sb.append('=').append(LETTRES.charAt(coup.piecePromotion().ordinal() % 6));
+        } else {
+            sb.append(LETTRES.charAt(type));
+            // Levée d'ambiguïté : colonne si elle suffit, sinon rangée, sinon les deux
+            boolean autre = false;
+            boolean memeColonne = false;
+            boolean memeRangee = false;
+            for (Coup c : legaux) {
+                int d = c.depart().indice();
+                if (c.pieceDeplacee() != coup.pieceDeplacee() || c.arrivee().indice() != arrivee || d == depart)
+                    continue;
+                autre = true;
+                memeColonne |= (d & 7) == (depart & 7);
+                memeRangee |= (d >> 3) == (depart >> 3);
+            }
+            if (autre && (!memeColonne || memeRangee))
+                sb.append((char) ('a' + (depart & 7)));
+            if (autre && memeColonne)
+                sb.append((char) ('8' - (depart >> 3)));
+            if (coup.estCapture())
+                sb.append('x');
+            sb.append(coup.arrivee().versAlgebrique());
+        }
+
+        EtatPlateau sauvegarde = plateau.jouerAvecSauvegarde(coup);
+        try {
+            if (plateau.estEnEchec(plateau.trait()))
+                sb.append(GenerateurCoups.genererLegaux(plateau).isEmpty() ? '#' : '+');
+        } finally {
+            plateau.annuler(sauvegarde);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * <p>
+     * Coup légal désigné par une notation SAN ({@code 0-0} et les
+     * annotations {@code + # ! ?} sont acceptés), ou null si aucun coup
+     * (ou plus d'un) ne correspond.
+     * </p>
+     *
+     * @param san    notation lue
+     * @param legaux coups légaux de la position
+     */
+    public static Coup depuisSAN(String san, List<Coup> legaux) {
+        if (san == null || legaux == null)
+            throw new IllegalArgumentException("notation et coups legaux requis");
+        int fin = san.length();
+        while (fin > 0 && "+#!?".indexOf(san.charAt(fin - 1)) >= 0)
+            fin--;
+        if (fin < 2)
+            return null;
+
+        if (san.startsWith("O-O") || san.startsWith("0-0")) {
+            int colonne = fin >= 5 ? 2 : 6;
+            for (Coup c : legaux) {
+                if (c.estRoque() && (c.arrivee().indice() & 7) == colonne)
+                    return c;
+            }
+            return null;
+        }
+
+        int debut = 0;
+        int type = 0;
+        int t = LETTRES.indexOf(san.charAt(0));
+        if (t > 0) {
+            type = t;
+            debut = 1;
+        }
+        int promotion = -1;
+        if (type == 0) {
+            char dernier = san.charAt(fin - 1);
+            int p = LETTRES.indexOf(Character.toUpperCase(dernier));
+            // "e8Q", "e8=Q" ou "e8=q" (mais "exb" n'est pas une promotion)
+            if (p > 0 && p < 5 && (Character.isUpperCase(dernier) || san.charAt(fin - 2) == '=')) {
+                promotion = p;
+                fin--;
+                if (fin > 0 && san.charAt(fin - 1) == '=')
+                    fin--;
+            }
+        }
+        if (fin - debut < 2)
+            return null;
+        int colonneArrivee = san.charAt(fin - 2) - 'a';
+        int rangeeArrivee = san.charAt(fin - 1) - '1';
+        if (colonneArrivee < 0 || colonneArrivee > 7 || rangeeArrivee < 0 || rangeeArrivee > 7)
+            return null;
+        int arrivee = (7 - rangeeArrivee) * 8 + colonneArrivee;
+
+        // Entre la pièce et l'arrivée : colonne et/ou rangée de départ, et le 'x'
+        int colonneDepart = -1;
+        int rangeeDepart = -1;
+        for (int i = debut; i < fin - 2; i++) {
+            char ch = san.charAt(i);
+            if (ch >= 'a' && ch <= 'h')
+                colonneDepart = ch - 'a';
+            else if (ch >= '1' && ch <= '8')
+                rangeeDepart = ch - '1';
+            else if (ch != 'x' && ch != ':' && ch != '-')
+                return null;
+        }
+
+        Coup trouve = null;
+        for (Coup c : legaux) {
+            int d = c.depart().indice();
+            if (c.pieceDeplacee().ordinal() % 6 != type || c.arrivee().indice() != arrivee || c.estRoque())
+                continue;
+            if (colonneDepart >= 0 && (d & 7) != colonneDepart)
+                continue;
+            if (rangeeDepart >= 0 && 7 - (d >> 3) != rangeeDepart)
+                continue;
+            int p = c.estPromotion() ? c.piecePromotion().ordinal() % 6 : -1;
+            if (p != promotion)
+                continue;
+            if (trouve != null)
+                return null;
+            trouve = c;
+        }
+        return trouve;
+    }
+}
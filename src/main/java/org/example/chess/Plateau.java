@@ -45,6 +45,25 @@ public final class Plateau {
 
     private long enPassant; // bitboard 1 case ou 0
 
+    // Clé de Zobrist (mise à jour incrémentale) et clé des seuls pions
+    private long cle;
+    private long clePions;
+
+    // Observateur des pièces (non copié : propre à ce plateau)
+    private SuiviPieces suivi;
+
+    // Demi-coups depuis la dernière prise ou le dernier coup de pion (règle des 50 coups)
+    private int demiCoupsSansPrise;
+
+    // Matériel + position (mg/eg packés) et phase, tenus à jour à chaque coup
+    private int scorePacke;
+    private int phase;
+    private int versionScores;
+
+    // Clés des positions précédentes (partie + recherche), la plus récente en dernier
+    private long[] historiqueCles = new long[256];
+    private int nbCles;
+
     // Dérivés (performance)
     private long occupes;
     private long blancs;
@@ -69,6 +88,9 @@ public final class Plateau {
         this.roqueNoirReine = false;
         this.enPassant = 0L;
         recalculerDerives();
+        this.cle = Zobrist.calculer(this);
+        this.clePions = Zobrist.calculerPions(this);
+        recalculerScores();
     }
 
     /**
@@ -97,6 +119,15 @@ public final class Plateau {
         copie.roqueNoirRoi = this.roqueNoirRoi;
         copie.roqueNoirReine = this.roqueNoirReine;
         copie.enPassant = this.enPassant;
+        copie.cle = this.cle;
+        copie.clePions = this.clePions;
+        copie.demiCoupsSansPrise = this.demiCoupsSansPrise;
+        copie.scorePacke = this.scorePacke;
+        copie.phase = this.phase;
+        copie.versionScores = this.versionScores;
+        copie.historiqueCles = java.util.Arrays.copyOf(this.historiqueCles,
+                Math.max(256, this.nbCles + 128));
+        copie.nbCles = this.nbCles;
         copie.recalculerDerives();
         return copie;
     }
@@ -237,7 +268,19 @@ public final class Plateau {
             p.enPassant = ep.bit();
         }
 
+        // demi-coups (optionnel)
+        if (parts.length >= 5) {
+            try {
+                p.demiCoupsSansPrise = Integer.parseInt(parts[4]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("FEN invalide (demi-coups) : " + parts[4]);
+            }
+        }
+
         p.recalculerDerives();
+        p.cle = Zobrist.calculer(p);
+        p.clePions = Zobrist.calculerPions(p);
+        p.recalculerScores();
         return p;
     }
 
@@ -250,6 +293,24 @@ public final class Plateau {
         return trait;
     }
 
+    /**
+     * <p>
+     * Clé de Zobrist de la position (voir {@link Zobrist}).
+     * </p>
+     */
+    public long cle() {
+        return cle;
+    }
+
+    /**
+     * <p>
+     * Clé de Zobrist des seuls pions (table de hachage des pions).
+     * </p>
+     */
+    public long clePions() {
+        return clePions;
+    }
+
     /**
      * <p>
      * Bitboard d’une pièce exacte.
@@ -355,7 +416,8 @@ public final class Plateau {
         return new EtatPlateau(
                 pionsBlancs, cavaliersBlancs, fousBlancs, toursBlanches, reineBlanche, roiBlanc,
                 pionsNoirs, cavaliersNoirs, fousNoirs, toursNoires, reineNoire, roiNoir,
-                trait, roqueBlancRoi, roqueBlancReine, roqueNoirRoi, roqueNoirReine, enPassant);
+                trait, roqueBlancRoi, roqueBlancReine, roqueNoirRoi, roqueNoirReine, enPassant, cle, clePions,
+                demiCoupsSansPrise, nbCles, scorePacke, phase, versionScores);
     }
 
     /**
@@ -365,10 +427,88 @@ public final class Plateau {
      */
     public EtatPlateau jouerAvecSauvegarde(Coup coup) {
         EtatPlateau s = sauvegarderEtat();
+        if (suivi != null)
+            suivi.avantCoup();
         jouerSansSauvegarde(coup);
         return s;
     }
 
+    /** Nombre de {@code long} d'une sauvegarde primitive ({@link #jouerAvecSauvegarde(Coup, long[], int)}). */
+    public static final int TAILLE_SAUVEGARDE = 18;
+
+    /**
+     * <p>
+     * Comme {@link #jouerAvecSauvegarde(Coup)}, mais l'état est écrit dans
+     * {@code tampon} à partir de {@code debut} ({@link #TAILLE_SAUVEGARDE}
+     * cases) au lieu d'un {@link EtatPlateau} : aucune allocation, pour les
+     * sondes appelées à chaque noeud. Annuler avec
+     * {@link #annuler(long[], int)}.
+     * </p>
+     */
+    public void jouerAvecSauvegarde(Coup coup, long[] tampon, int debut) {
+        tampon[debut] = pionsBlancs;
+        tampon[debut + 1] = cavaliersBlancs;
+        tampon[debut + 2] = fousBlancs;
+        tampon[debut + 3] = toursBlanches;
+        tampon[debut + 4] = reineBlanche;
+        tampon[debut + 5] = roiBlanc;
+        tampon[debut + 6] = pionsNoirs;
+        tampon[debut + 7] = cavaliersNoirs;
+        tampon[debut + 8] = fousNoirs;
+        tampon[debut + 9] = toursNoires;
+        tampon[debut + 10] = reineNoire;
+        tampon[debut + 11] = roiNoir;
+        tampon[debut + 12] = enPassant;
+        tampon[debut + 13] = cle;
+        tampon[debut + 14] = clePions;
+        int drapeaux = (trait == Couleur.BLANC ? 0 : 1) | (roqueBlancRoi ? 2 : 0) | (roqueBlancReine ? 4 : 0)
+                | (roqueNoirRoi ? 8 : 0) | (roqueNoirReine ? 16 : 0);
+        tampon[debut + 15] = (drapeaux & 0xFFFFFFFFL) | ((long) demiCoupsSansPrise << 32);
+        tampon[debut + 16] = (nbCles & 0xFFFFFFFFL) | ((long) scorePacke << 32);
+        tampon[debut + 17] = (phase & 0xFFFFFFFFL) | ((long) versionScores << 32);
+        if (suivi != null)
+            suivi.avantCoup();
+        jouerSansSauvegarde(coup);
+    }
+
+    /**
+     * <p>
+     * Annule un coup joué par {@link #jouerAvecSauvegarde(Coup, long[], int)}.
+     * </p>
+     */
+    public void annuler(long[] tampon, int debut) {
+        pionsBlancs = tampon[debut];
+        cavaliersBlancs = tampon[debut + 1];
+        fousBlancs = tampon[debut + 2];
+        toursBlanches = tampon[debut + 3];
+        reineBlanche = tampon[debut + 4];
+        roiBlanc = tampon[debut + 5];
+        pionsNoirs = tampon[debut + 6];
+        cavaliersNoirs = tampon[debut + 7];
+        fousNoirs = tampon[debut + 8];
+        toursNoires = tampon[debut + 9];
+        reineNoire = tampon[debut + 10];
+        roiNoir = tampon[debut + 11];
+        enPassant = tampon[debut + 12];
+        cle = tampon[debut + 13];
+        clePions = tampon[debut + 14];
+        int drapeaux = (int) tampon[debut + 15];
+        trait = (drapeaux & 1) == 0 ? Couleur.BLANC : Couleur.NOIR;
+        roqueBlancRoi = (drapeaux & 2) != 0;
+        roqueBlancReine = (drapeaux & 4) != 0;
+        roqueNoirRoi = (drapeaux & 8) != 0;
+        roqueNoirReine = (drapeaux & 16) != 0;
+        demiCoupsSansPrise = (int) (tampon[debut + 15] >>> 32);
+        nbCles = (int) tampon[debut + 16];
+        scorePacke = (int) (tampon[debut + 16] >>> 32);
+        phase = (int) tampon[debut + 17];
+        versionScores = (int) (tampon[debut + 17] >>> 32);
+
+        recalculerDerives();
+        if (suivi != null)
+            suivi.annulation();
+    }
+
     /**
      * <p>
      * Annule en restaurant la sauvegarde.
@@ -395,8 +535,126 @@ public final class Plateau {
         this.roqueNoirRoi = sauvegarde.roqueNoirRoi();
         this.roqueNoirReine = sauvegarde.roqueNoirReine();
         this.enPassant = sauvegarde.enPassant();
+        this.cle = sauvegarde.cle();
+        this.clePions = sauvegarde.clePions();
+        this.demiCoupsSansPrise = sauvegarde.demiCoupsSansPrise();
+        this.nbCles = sauvegarde.nbCles();
+        this.scorePacke = sauvegarde.scorePacke();
+        this.phase = sauvegarde.phase();
+        this.versionScores = sauvegarde.versionScores();
 
         recalculerDerives();
+        if (suivi != null)
+            suivi.annulation();
+    }
+
+    /**
+     * <p>
+     * Branche (ou retire, avec {@code null}) l'observateur des pièces de ce
+     * plateau. Un seul à la fois ; {@link #copie()} ne le copie pas.
+     * </p>
+     */
+    public void definirSuivi(SuiviPieces suivi) {
+        this.suivi = suivi;
+    }
+
+    public SuiviPieces suivi() {
+        return suivi;
+    }
+
+    /**
+     * <p>
+     * Matériel + tables pièce-case, milieu et finale packés (voir
+     * {@link ScoresIncrementaux}), tenus à jour à chaque coup.
+     * </p>
+     */
+    public int scorePacke() {
+        if (versionScores != ScoresIncrementaux.version())
+            recalculerScores();
+        return scorePacke;
+    }
+
+    /**
+     * <p>
+     * Phase de jeu entière (24 au départ, 0 sans pièces) ; peut dépasser 24
+     * après promotion.
+     * </p>
+     */
+    public int phase() {
+        if (versionScores != ScoresIncrementaux.version())
+            recalculerScores();
+        return phase;
+    }
+
+    private void recalculerScores() {
+        versionScores = ScoresIncrementaux.version();
+        scorePacke = ScoresIncrementaux.calculerScore(this);
+        phase = ScoresIncrementaux.calculerPhase(this);
+    }
+
+    /**
+     * <p>
+     * Demi-coups joués depuis la dernière prise ou le dernier coup de pion.
+     * </p>
+     */
+    public int demiCoupsSansPrise() {
+        return demiCoupsSansPrise;
+    }
+
+    /**
+     * <p>Vrai si la règle des 50 coups s'applique (100 demi-coups).</p>
+     */
+    public boolean estNulCinquanteCoups() {
+        return demiCoupsSansPrise >= 100;
+    }
+
+    /**
+     * <p>
+     * Vrai si aucun camp ne peut plus mater, quelle que soit la suite : rois
+     * seuls, un seul cavalier ou fou en tout, ou uniquement des fous tous
+     * sur des cases de même couleur. La partie est alors nulle.
+     * </p>
+     */
+    public boolean estMaterielInsuffisant() {
+        if ((pionsBlancs | pionsNoirs | toursBlanches | toursNoires | reineBlanche | reineNoire) != 0L)
+            return false;
+        long cavaliers = cavaliersBlancs | cavaliersNoirs;
+        long fous = fousBlancs | fousNoirs;
+        if (cavaliers == 0L)
+            return (fous & Masques.CASES_BLANCHES) == 0L || (fous & ~Masques.CASES_BLANCHES) == 0L;
+        return fous == 0L && Long.bitCount(cavaliers) == 1;
+    }
+
+    /**
+     * <p>
+     * Vrai si la position courante est déjà apparue (même camp au trait)
+     * depuis le dernier coup irréversible. Suffit pour la recherche : une
+     * répétition y vaut nulle.
+     * </p>
+     */
+    public boolean estRepetition() {
+        int limite = Math.max(0, nbCles - demiCoupsSansPrise);
+        for (int i = nbCles - 2; i >= limite; i -= 2) {
+            if (historiqueCles[i] == cle)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * <p>
+     * Nombre d'occurrences de la position courante (elle comprise) depuis le
+     * dernier coup irréversible : 3 = nulle par triple répétition.
+     * </p>
+     */
+    public int nombreRepetitions() {
+        int n = 1;
+        int limite = Math.max(0, nbCles - demiCoupsSansPrise);
+        for (int i = nbCles - 2; i >= limite; i -= 2) {
+            if (historiqueCles[i] == cle)
+                n++;
+        }
+        return n;
     }
 
     /**
@@ -518,8 +776,21 @@ public final class Plateau {
         long depart = coup.depart().bit();
         long arrivee = coup.arrivee().bit();
 
+        // Historique des clés et règle des 50 coups
+        if (nbCles == historiqueCles.length)
+            historiqueCles = java.util.Arrays.copyOf(historiqueCles, nbCles * 2);
+        historiqueCles[nbCles++] = cle;
+        if (coup.estCapture() || piece == Piece.PION_BLANC || piece == Piece.PION_NOIR)
+            demiCoupsSansPrise = 0;
+        else
+            demiCoupsSansPrise++;
+
+        // La clé perd l'ancien en passant et les anciens roques (remis en 6/7)
+        cle ^= Zobrist.enPassant(enPassant);
+        cle ^= Zobrist.roques(roqueBlancRoi, roqueBlancReine, roqueNoirRoi, roqueNoirReine);
+
         // 1) Capture (case d'arrivée)
-        if (coup.estCapture()) {
+        if (coup.estCapture() && !coup.estEnPassant()) {
             Piece cap = coup.pieceCapturee();
             if (cap == null) {
                 supprimerPieceSurMasque(arrivee);
@@ -534,9 +805,9 @@ public final class Plateau {
             int idxPionCapture = (trait == Couleur.BLANC) ? (idxArr + 8) : (idxArr - 8);
             long bitPionCapture = 1L << idxPionCapture;
             if (trait == Couleur.BLANC)
-                pionsNoirs &= ~bitPionCapture;
+                supprimerPiece(Piece.PION_NOIR, bitPionCapture);
             else
-                pionsBlancs &= ~bitPionCapture;
+                supprimerPiece(Piece.PION_BLANC, bitPionCapture);
         }
 
         // 3) Déplacement de la pièce
@@ -548,10 +819,7 @@ public final class Plateau {
             if (promo == null)
                 throw new IllegalArgumentException("Promotion sans piècePromotion");
 
-            if (piece == Piece.PION_BLANC)
-                pionsBlancs &= ~arrivee;
-            if (piece == Piece.PION_NOIR)
-                pionsNoirs &= ~arrivee;
+            supprimerPiece(piece, arrivee);
 
             ajouterPiece(promo, arrivee);
         }
@@ -563,20 +831,20 @@ public final class Plateau {
                 int arr = coup.arrivee().indice();
                 if (dep == 60 && arr == 62) { // petit roque
                     long h1 = 1L << 63, f1 = 1L << 61;
-                    toursBlanches = (toursBlanches & ~h1) | f1;
+                    deplacerPiece(Piece.TOUR_BLANC, h1, f1);
                 } else if (dep == 60 && arr == 58) { // grand roque
                     long a1 = 1L << 56, d1 = 1L << 59;
-                    toursBlanches = (toursBlanches & ~a1) | d1;
+                    deplacerPiece(Piece.TOUR_BLANC, a1, d1);
                 }
             } else if (piece == Piece.ROI_NOIR) {
                 int dep = coup.depart().indice();
                 int arr = coup.arrivee().indice();
                 if (dep == 4 && arr == 6) { // petit roque
                     long h8 = 1L << 7, f8 = 1L << 5;
-                    toursNoires = (toursNoires & ~h8) | f8;
+                    deplacerPiece(Piece.TOUR_NOIRE, h8, f8);
                 } else if (dep == 4 && arr == 2) { // grand roque
                     long a8 = 1L << 0, d8 = 1L << 3;
-                    toursNoires = (toursNoires & ~a8) | d8;
+                    deplacerPiece(Piece.TOUR_NOIRE, a8, d8);
                 }
             }
         }
@@ -603,14 +871,27 @@ public final class Plateau {
         // 7) Droits de roque
         mettreAJourDroitsRoque(coup);
 
+        cle ^= Zobrist.enPassant(enPassant);
+        cle ^= Zobrist.roques(roqueBlancRoi, roqueBlancReine, roqueNoirRoi, roqueNoirReine);
+
         // 8) Trait
         trait = trait.inverse();
+        cle ^= Zobrist.traitNoir();
 
         // 9) Dérivés
         recalculerDerives();
     }
 
     private void deplacerPiece(Piece piece, long depart, long arrivee) {
+        int idxDepart = Long.numberOfTrailingZeros(depart);
+        int idxArrivee = Long.numberOfTrailingZeros(arrivee);
+        long z = Zobrist.piece(piece, idxDepart) ^ Zobrist.piece(piece, idxArrivee);
+        cle ^= z;
+        if (piece == Piece.PION_BLANC || piece == Piece.PION_NOIR)
+            clePions ^= z;
+        scorePacke += ScoresIncrementaux.score(piece, idxArrivee) - ScoresIncrementaux.score(piece, idxDepart);
+        if (suivi != null)
+            suivi.deplacement(piece, idxDepart, idxArrivee);
         switch (piece) {
             case PION_BLANC -> pionsBlancs = (pionsBlancs & ~depart) | arrivee;
             case CAVALIER_BLANC -> cavaliersBlancs = (cavaliersBlancs & ~depart) | arrivee;
@@ -629,6 +910,15 @@ public final class Plateau {
     }
 
     private void ajouterPiece(Piece piece, long masque) {
+        int idx = Long.numberOfTrailingZeros(masque);
+        long z = Zobrist.piece(piece, idx);
+        cle ^= z;
+        if (piece == Piece.PION_BLANC || piece == Piece.PION_NOIR)
+            clePions ^= z;
+        scorePacke += ScoresIncrementaux.score(piece, idx);
+        phase += ScoresIncrementaux.phase(piece);
+        if (suivi != null)
+            suivi.ajout(piece, idx);
         switch (piece) {
             case PION_BLANC -> pionsBlancs |= masque;
             case CAVALIER_BLANC -> cavaliersBlancs |= masque;
@@ -647,6 +937,15 @@ public final class Plateau {
     }
 
     private void supprimerPiece(Piece piece, long masque) {
+        int idx = Long.numberOfTrailingZeros(masque);
+        long z = Zobrist.piece(piece, idx);
+        cle ^= z;
+        if (piece == Piece.PION_BLANC || piece == Piece.PION_NOIR)
+            clePions ^= z;
+        scorePacke -= ScoresIncrementaux.score(piece, idx);
+        phase -= ScoresIncrementaux.phase(piece);
+        if (suivi != null)
+            suivi.retrait(piece, idx);
         switch (piece) {
             case PION_BLANC -> pionsBlancs &= ~masque;
             case CAVALIER_BLANC -> cavaliersBlancs &= ~masque;
@@ -665,19 +964,9 @@ public final class Plateau {
     }
 
     private void supprimerPieceSurMasque(long masque) {
-        pionsBlancs &= ~masque;
-        cavaliersBlancs &= ~masque;
-        fousBlancs &= ~masque;
-        toursBlanches &= ~masque;
-        reineBlanche &= ~masque;
-        roiBlanc &= ~masque;
-
-        pionsNoirs &= ~masque;
-        cavaliersNoirs &= ~masque;
-        fousNoirs &= ~masque;
-        toursNoires &= ~masque;
-        reineNoire &= ~masque;
-        roiNoir &= ~masque;
+        Piece piece = pieceEn(Case.depuisIndice(Long.numberOfTrailingZeros(masque)));
+        if (piece != null)
+            supprimerPiece(piece, masque);
     }
 
     private void mettreAJourDroitsRoque(Coup coup) {
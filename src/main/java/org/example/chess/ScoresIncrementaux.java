@@ -0,0 +1,99 @@
+package org.example.chess;
+
+/**
+ * <p>
+ * Scores "matériel + position" tenus à jour par {@link Plateau} à chaque
+ * coup joué/annulé, pour que l'évaluation n'ait plus à parcourir les pièces.
+ * </p>
+ *
+ * <p>
+ * Une seule table [pièce][case] de scores <b>packés</b> : milieu de partie
+ * (mg) dans les 16 bits bas, finale (eg) dans les 16 bits hauts. Une somme
+ * de scores packés est le score packé des sommes, donc une seule addition
+ * par pièce déplacée. La phase (cavalier/fou 1, tour 2, dame 4) est tenue à
+ * jour de la même façon.
+ * </p>
+ *
+ * <p>
+ * Le contenu de la table est fourni par l'évaluation
+ * ({@link #installer(int[])}). Chaque installation change la version : un
+ * plateau dont les scores datent d'une autre version les recalcule au
+ * prochain accès.
+ * </p>
+ */
+public final class ScoresIncrementaux {
+
+    /** Phase de la position de départ (et maximum utilisé pour l'interpolation). */
+    public static final int PHASE_MAX = 24;
+
+    private static final int[] PHASE_PAR_TYPE = { 0, 1, 1, 2, 4, 0 };
+    private static final Piece[] PIECES = Piece.values();
+
+    private static volatile int[] table = new int[12 * 64];
+    private static volatile int version = 1;
+
+    private ScoresIncrementaux() {}
+
+    /**
+     * <p>Installe une nouvelle table [pièce.ordinal() * 64 + case] de scores packés.</p>
+     */
+    public static synchronized void installer(int[] scoresPackes) {
+        if (scoresPackes == null || scoresPackes.length != 12 * 64)
+            throw new IllegalArgumentException("table de 12 x 64 scores attendue");
+        table = scoresPackes.clone();
+        version++;
+    }
+
+    public static int version() {
+        return version;
+    }
+
+    public static int packer(int mg, int eg) {
+        return (eg << 16) + mg;
+    }
+
+    public static int mg(int packe) {
+        return (short) packe;
+    }
+
+    public static int eg(int packe) {
+        return (short) ((packe + 0x8000) >> 16);
+    }
+
+    /** Score packé d'une pièce sur une case (signé : positif pour les Blancs). */
+    static int score(Piece piece, int indice) {
+        return table[piece.ordinal() * 64 + indice];
+    }
+
+    /** Poids de la pièce dans la phase de jeu. */
+    static int phase(Piece piece) {
+        return PHASE_PAR_TYPE[piece.ordinal() % 6];
+    }
+
+    /**
+     * <p>Somme complète des scores packés (recalcul sans incrémental).</p>
+     */
+    public static int calculerScore(Plateau plateau) {
+        int[] t = table;
+        int total = 0;
+        for (Piece piece : PIECES) {
+            long bb = plateau.bitboard(piece);
+            while (bb != 0L) {
+                total += t[piece.ordinal() * 64 + Long.numberOfTrailingZeros(bb)];
+                bb &= bb - 1;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * <p>Phase complète (non bornée : les promotions peuvent dépasser {@link #PHASE_MAX}).</p>
+     */
+    public static int calculerPhase(Plateau plateau) {
+        int total = 0;
+        for (Piece piece : PIECES) {
+            total += Long.bitCount(plateau.bitboard(piece)) * phase(piece);
+        }
+        return total;
+    }
+}
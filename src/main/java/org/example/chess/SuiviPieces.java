@@ -0,0 +1,34 @@
+package org.example.chess;
+
+/**
+ * <p>
+ * Observateur des changements de pièces d'un {@link Plateau}, pour tenir à
+ * jour une structure dérivée (accumulateur d'un réseau de neurones...) sans
+ * relire tout l'échiquier.
+ * </p>
+ *
+ * <p>
+ * {@link Plateau#jouerAvecSauvegarde(Coup)} appelle {@link #avantCoup()},
+ * puis signale chaque pièce retirée, ajoutée ou déplacée ;
+ * {@link Plateau#annuler(EtatPlateau)} appelle {@link #annulation()}, qui
+ * doit revenir à l'état d'avant le coup (pile). Un coup joué sans sauvegarde
+ * ({@link Plateau#jouer(Coup)}) ne signale que les pièces.
+ * </p>
+ */
+public interface SuiviPieces {
+
+    /** Un coup annulable commence : empiler l'état courant. */
+    void avantCoup();
+
+    /** Le dernier coup annulable est annulé : dépiler. */
+    void annulation();
+
+    void ajout(Piece piece, int indice);
+
+    void retrait(Piece piece, int indice);
+
+    default void deplacement(Piece piece, int depart, int arrivee) {
+        retrait(piece, depart);
+        ajout(piece, arrivee);
+    }
+}
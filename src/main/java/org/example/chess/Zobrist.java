@@ -0,0 +1,129 @@
+package org.example.chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * <p>
+ * Clés de Zobrist : une empreinte 64 bits de la position.
+ * </p>
+ *
+ * <p>
+ * La clé est mise à jour de façon incrémentale par {@link Plateau} (un XOR par
+ * pièce ajoutée/retirée), ce qui permet aux tables de hachage de l’IA
+ * d’identifier une position sans la recalculer.
+ * </p>
+ *
+ * <p>
+ * La graine est fixe : deux exécutions donnent les mêmes clés.
+ * </p>
+ */
+public final class Zobrist {
+
+    private Zobrist() {}
+
+    private static final long[][] PIECES = new long[12][64];
+    private static final long[] ROQUES = new long[4];
+    private static final long[] EN_PASSANT = new long[8];
+    private static final long TRAIT_NOIR;
+
+    static {
+        SplittableRandom rnd = new SplittableRandom(0x5EEDC0FFEEL);
+        for (int p = 0; p < 12; p++) {
+            for (int i = 0; i < 64; i++) {
+                PIECES[p][i] = rnd.nextLong();
+            }
+        }
+        for (int i = 0; i < 4; i++) {
+            ROQUES[i] = rnd.nextLong();
+        }
+        for (int i = 0; i < 8; i++) {
+            EN_PASSANT[i] = rnd.nextLong();
+        }
+        TRAIT_NOIR = rnd.nextLong();
+    }
+
+    /**
+     * <p>Clé d’une pièce sur une case.</p>
+     *
+     * @param piece  pièce exacte
+     * @param indice 0..63
+     * @return clé 64 bits
+     */
+    public static long piece(Piece piece, int indice) {
+        return PIECES[piece.ordinal()][indice];
+    }
+
+    /**
+     * <p>Clé combinée des droits de roque.</p>
+     */
+    public static long roques(boolean blancRoi, boolean blancReine, boolean noirRoi, boolean noirReine) {
+        long k = 0L;
+        if (blancRoi) k ^= ROQUES[0];
+        if (blancReine) k ^= ROQUES[1];
+        if (noirRoi) k ^= ROQUES[2];
+        if (noirReine) k ^= ROQUES[3];
+        return k;
+    }
+
+    /**
+     * <p>Clé de la case en passant (0 si pas d’en passant).</p>
+     *
+     * @param enPassant bitboard 1 case ou 0
+     */
+    public static long enPassant(long enPassant) {
+        if (enPassant == 0L) return 0L;
+        return EN_PASSANT[Long.numberOfTrailingZeros(enPassant) % 8];
+    }
+
+    /**
+     * <p>Clé du trait (XOR quand les noirs jouent).</p>
+     */
+    public static long traitNoir() {
+        return TRAIT_NOIR;
+    }
+
+    /**
+     * <p>
+     * Recalcule la clé complète d’un plateau (sans incrémental).
+     * </p>
+     *
+     * @param plateau plateau
+     * @return clé 64 bits
+     */
+    public static long calculer(Plateau plateau) {
+        long k = 0L;
+        for (Piece piece : Piece.values()) {
+            long tmp = plateau.bitboard(piece);
+            while (tmp != 0L) {
+                int idx = Long.numberOfTrailingZeros(tmp);
+                k ^= PIECES[piece.ordinal()][idx];
+                tmp &= tmp - 1;
+            }
+        }
+        k ^= roques(plateau.getRoqueBlancRoi(), plateau.getRoqueBlancReine(),
+                plateau.getRoqueNoirRoi(), plateau.getRoqueNoirReine());
+        k ^= enPassant(plateau.getEnPassant());
+        if (plateau.trait() == Couleur.NOIR) k ^= TRAIT_NOIR;
+        return k;
+    }
+
+    /**
+     * <p>
+     * Recalcule la clé des seuls pions (table de hachage des pions).
+     * </p>
+     *
+     * @param plateau plateau
+     * @return clé 64 bits
+     */
+    public static long calculerPions(Plateau plateau) {
+        long k = 0L;
+        for (Piece piece : new Piece[] { Piece.PION_BLANC, Piece.PION_NOIR }) {
+            long tmp = plateau.bitboard(piece);
+            while (tmp != 0L) {
+                k ^= PIECES[piece.ordinal()][Long.numberOfTrailingZeros(tmp)];
+                tmp &= tmp - 1;
+            }
+        }
+        return k;
+    }
+}
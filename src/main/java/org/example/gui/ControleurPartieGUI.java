@@ -10,12 +10,15 @@ import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
+import org.example.AI.AnalyseContinue;
 import org.example.AI.Niveau;
 import org.example.AI.RechercheMinimaxAlphaBeta;
 import org.example.chess.*;
 
 import java.util.List;
 import java.util.Stack;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Contrôleur principal de la partie GUI.
@@ -23,6 +26,13 @@ import java.util.Stack;
  */
 public class ControleurPartieGUI {
 
+    // Un seul thread (réutilisé) pour les calculs de l'IA, au lieu d'un Thread par coup
+    private static final ExecutorService executeurIA = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ia-gui");
+        t.setDaemon(true);
+        return t;
+    });
+
     private final Plateau plateau;
     private final VueEchiquier vue;
     private final SelecteurCoup selecteur;
@@ -52,6 +62,10 @@ public class ControleurPartieGUI {
     // Nom de l'ouverture courante
     private final SimpleStringProperty nomOuverture = new SimpleStringProperty("Unknown");
 
+    // Analyse continue (créée à la première activation)
+    private AnalyseContinue analyse;
+    private boolean analyseActive;
+
     public ControleurPartieGUI(boolean iaBlanc, boolean iaNoir, Niveau niveauBlanc, Niveau niveauNoir) {
         this.plateau = Plateau.positionInitiale();
         this.selecteur = new SelecteurCoup();
@@ -236,7 +250,41 @@ public class ControleurPartieGUI {
                 taskIA.getException().printStackTrace();
             });
 
-            new Thread(taskIA).start();
+            executeurIA.submit(taskIA);
+        }
+    }
+
+    /**
+     * Active/désactive l'analyse continue de la position (tours humains
+     * uniquement : elle se met en pause pendant que l'IA réfléchit).
+     */
+    public void basculerAnalyse() {
+        analyseActive = !analyseActive;
+        if (analyseActive && analyse == null) {
+            analyse = new AnalyseContinue(info -> Platform.runLater(() -> calculAIAffichage.add(info)));
+        }
+        mettreAJourAnalyse();
+    }
+
+    /**
+     * Arrête définitivement l'analyse (retour au menu).
+     */
+    public void arreterAnalyse() {
+        analyseActive = false;
+        if (analyse != null) {
+            analyse.arreter();
+            analyse = null;
+        }
+    }
+
+    private void mettreAJourAnalyse() {
+        if (analyse == null)
+            return;
+        if (analyseActive && !partieTerminee && !estTourIA()) {
+            Platform.runLater(() -> calculAIAffichage.clear());
+            analyse.definirPosition(plateau);
+        } else {
+            analyse.suspendre();
         }
     }
 
@@ -274,6 +322,8 @@ public class ControleurPartieGUI {
     }
 
     private void preparerTourSuivant() {
+        mettreAJourAnalyse();
+
         // Mettre à jour les coups légaux pour le sélecteur (pour l'humain)
         // On le fait ici pour que le sélecteur soit prêt quand l'humain clique.
         if (!estTourIA()) {
@@ -289,35 +339,40 @@ public class ControleurPartieGUI {
     }
 
     private void interpreterFinDePartie() {
-        // Règle des 3 coups (triple répétition)
-        EtatPlateau etatCourant = plateau.sauvegarderEtat();
-        int repetitions = 1; // L'état actuel compte pour 1
-        for (EntreeHistorique entree : historique) {
-            if (entree.etatAvant().equals(etatCourant)) {
-                repetitions++;
-            }
+        // Mat ou pat d'abord : un mat donné au 100e demi-coup sans prise
+        // ni poussée de pion gagne la partie
+        List<Coup> legaux = GenerateurCoups.genererLegaux(plateau);
+        if (legaux.isEmpty()) {
+            partieTerminee = true;
+            boolean echec = plateau.estEnEchec(plateau.trait());
+            String vainqueur = echec ? plateau.trait().inverse().toString() : "Nul";
+            profiler.marquerFinDePartie(vainqueur);
+
+            String message = echec ? "ECHEC ET MAT ! " + vainqueur + " gagne." : "PAT ! Match nul.";
+            afficherFin(message);
+            return;
         }
 
-        if (repetitions >= 3) {
+        // Règle des 3 coups (triple répétition) : le plateau garde les clés
+        // des positions depuis le dernier coup irréversible
+        if (plateau.nombreRepetitions() >= 3) {
             partieTerminee = true;
             profiler.marquerFinDePartie("Nul");
             afficherFin("Match Nul par triple répétition !");
             return;
         }
 
-        // On regarde si le joueur au trait a des coups légaux
-        List<Coup> legaux = GenerateurCoups.genererLegaux(plateau);
-        if (legaux.isEmpty()) {
+        if (plateau.estNulCinquanteCoups()) {
             partieTerminee = true;
-            boolean echec = plateau.estEnEchec(plateau.trait());
-            String vainqueur = echec ? plateau.trait().inverse().toString() : "Nul";
-            profiler.marquerFinDePartie(vainqueur);
+            profiler.marquerFinDePartie("Nul");
+            afficherFin("Match Nul par la règle des 50 coups !");
+            return;
+        }
 
-            String message = echec ? "ECHEC ET MAT ! " + vainqueur + " gagne." : "PAT ! Match nul.";
-            afficherFin(message);
-        } else {
-            // Règle des 50 coups non gérée pour le moment,
-            // mais la répétition est désormais implémentée ci-dessus.
+        if (plateau.estMaterielInsuffisant()) {
+            partieTerminee = true;
+            profiler.marquerFinDePartie("Nul");
+            afficherFin("Match Nul par manque de matériel !");
         }
     }
 
@@ -183,9 +183,16 @@ public class MainFX extends Application {
             toolbar.getChildren().add(btnAnnuler);
         }
 
+        Button btnAnalyse = new Button("Analyse");
+        btnAnalyse.setOnAction(e -> controleur.basculerAnalyse());
+        toolbar.getChildren().add(btnAnalyse);
+
         Button btnMenu = new Button("Menu Principal");
         btnMenu.getStyleClass().add("button-accent");
-        btnMenu.setOnAction(e -> montrerMenuPrincipal());
+        btnMenu.setOnAction(e -> {
+            controleur.arreterAnalyse();
+            montrerMenuPrincipal();
+        });
         toolbar.getChildren().add(btnMenu);
 
         borderPane.setBottom(toolbar);
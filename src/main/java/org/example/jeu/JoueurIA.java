@@ -1,29 +1,73 @@
 package org.example.jeu;
 
+import org.example.AI.Evaluation;
+import org.example.AI.ModeEvaluation;
+import org.example.AI.Moteur;
+import org.example.AI.RechercheMCTS;
 import org.example.AI.RechercheMinimaxAlphaBeta;
+import org.example.AI.SolveurMat;
 import org.example.chess.Coup;
 import org.example.chess.Plateau;
 import org.example.AI.Niveau;
 
 /**
  * <p>
- * Joueur IA : choisit un coup automatiquement via Minimax + Alpha-Bêta.
+ * Joueur IA : choisit un coup automatiquement via le moteur choisi
+ * (Minimax + Alpha-Bêta par défaut).
+ * </p>
+ *
+ * <p>
+ * Chaque joueur peut imposer sa fonction d'évaluation (classique ou NNUE) :
+ * deux joueurs IA aux modes différents donnent un match A/B. Le mode change
+ * alors à chaque coup, et l'état de la recherche est effacé à chaque fois
+ * ({@link Evaluation#definirMode}).
  * </p>
  */
 public final class JoueurIA {
 
     private final Niveau niveau;
+    private final Moteur moteur;
+    private final ModeEvaluation modeEvaluation;
 
     public JoueurIA(Niveau niveau) {
+        this(niveau, Moteur.ALPHA_BETA);
+    }
+
+    public JoueurIA(Niveau niveau, Moteur moteur) {
+        this(niveau, moteur, null);
+    }
+
+    /**
+     * @param modeEvaluation évaluation imposée à chaque coup, ou {@code null}
+     *                       pour garder le mode global
+     */
+    public JoueurIA(Niveau niveau, Moteur moteur, ModeEvaluation modeEvaluation) {
         if (niveau == null) throw new IllegalArgumentException("niveau null");
+        if (moteur == null) throw new IllegalArgumentException("moteur null");
         this.niveau = niveau;
+        this.moteur = moteur;
+        this.modeEvaluation = modeEvaluation;
     }
 
     public Coup choisirCoup(Plateau plateau) {
-        return RechercheMinimaxAlphaBeta.meilleurCoup(plateau, niveau);
+        if (modeEvaluation != null)
+            Evaluation.definirMode(modeEvaluation);
+        return switch (moteur) {
+            case ALPHA_BETA -> RechercheMinimaxAlphaBeta.meilleurCoup(plateau, niveau);
+            case SOLVEUR_MAT -> SolveurMat.meilleurCoup(plateau, niveau, null, null);
+            case MCTS -> RechercheMCTS.meilleurCoup(plateau, niveau);
+        };
     }
 
     public Niveau niveau() {
         return niveau;
     }
+
+    public Moteur moteur() {
+        return moteur;
+    }
+
+    public ModeEvaluation modeEvaluation() {
+        return modeEvaluation;
+    }
 }
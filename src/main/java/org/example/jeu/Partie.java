@@ -3,8 +3,6 @@ package org.example.jeu;
 import org.example.AI.Niveau;
 import org.example.chess.*;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Scanner;
 
@@ -49,8 +47,6 @@ public final class Partie {
     private JoueurIA iaBlanche;
     private JoueurIA iaNoire;
 
-    private List<EtatPlateau> historiqueEtats;
-
     public Partie() {
         // On initialise au lancement
     }
@@ -76,9 +72,6 @@ public final class Partie {
             this.iaNoire = new JoueurIA(niveauIANoire);
         }
 
-        this.historiqueEtats = new ArrayList<>();
-        this.historiqueEtats.add(plateau.sauvegarderEtat());
-
         boucleJeu();
     }
 
@@ -175,7 +168,6 @@ public final class Partie {
 
             System.out.println("Coup joué : " + coupEnAlgebriqueSimple(coup));
             plateau.jouer(coup);
-            historiqueEtats.add(plateau.sauvegarderEtat());
         }
     }
 
@@ -198,24 +190,30 @@ public final class Partie {
     }
 
     private FinDePartie verifierFin() {
-        if (historiqueEtats != null && !historiqueEtats.isEmpty()) {
-            EtatPlateau etatCourant = historiqueEtats.get(historiqueEtats.size() - 1);
-            if (Collections.frequency(historiqueEtats, etatCourant) >= 3) {
-                return FinDePartie.nulRepetition();
+        // Mat ou pat d'abord : un mat donné au 100e demi-coup l'emporte sur
+        // la règle des 50 coups
+        List<Coup> coupsLegaux = GenerateurCoups.genererLegaux(plateau);
+        if (coupsLegaux.isEmpty()) {
+            boolean enEchec = plateau.estEnEchec(plateau.trait());
+            if (enEchec) {
+                Couleur gagnant = plateau.trait().inverse();
+                return FinDePartie.mat(gagnant);
+            } else {
+                return FinDePartie.pat();
             }
         }
 
-        List<Coup> coupsLegaux = GenerateurCoups.genererLegaux(plateau);
-        if (!coupsLegaux.isEmpty())
-            return null;
-
-        boolean enEchec = plateau.estEnEchec(plateau.trait());
-        if (enEchec) {
-            Couleur gagnant = plateau.trait().inverse();
-            return FinDePartie.mat(gagnant);
-        } else {
-            return FinDePartie.pat();
+        // Le plateau garde les clés des positions depuis le dernier coup irréversible
+        if (plateau.nombreRepetitions() >= 3) {
+            return FinDePartie.nulRepetition();
         }
+        if (plateau.estNulCinquanteCoups()) {
+            return FinDePartie.nulCinquanteCoups();
+        }
+        if (plateau.estMaterielInsuffisant()) {
+            return FinDePartie.nulMateriel();
+        }
+        return null;
     }
 
     private void afficherFin(FinDePartie fin) {
@@ -224,6 +222,10 @@ public final class Partie {
             System.out.println("Échec et mat ! Gagnant : " + fin.gagnant);
         } else if (fin.type == FinDePartie.Type.NUL_REPETITION) {
             System.out.println("🤝 Nul par triple répétition !");
+        } else if (fin.type == FinDePartie.Type.NUL_CINQUANTE_COUPS) {
+            System.out.println("🤝 Nul par la règle des 50 coups !");
+        } else if (fin.type == FinDePartie.Type.NUL_MATERIEL) {
+            System.out.println("🤝 Nul par manque de matériel !");
         } else {
             System.out.println("🤝 Pat ! Match nul.");
         }
@@ -247,7 +249,7 @@ public final class Partie {
 
     private static final class FinDePartie {
         enum Type {
-            MAT, PAT, NUL_REPETITION
+            MAT, PAT, NUL_REPETITION, NUL_CINQUANTE_COUPS, NUL_MATERIEL
         }
 
         final Type type;
@@ -269,5 +271,13 @@ public final class Partie {
         static FinDePartie nulRepetition() {
             return new FinDePartie(Type.NUL_REPETITION, null);
         }
+
+        static FinDePartie nulCinquanteCoups() {
+            return new FinDePartie(Type.NUL_CINQUANTE_COUPS, null);
+        }
+
+        static FinDePartie nulMateriel() {
+            return new FinDePartie(Type.NUL_MATERIEL, null);
+        }
     }
 }
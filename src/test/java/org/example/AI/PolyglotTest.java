@@ -0,0 +1,104 @@
+package org.example.AI;
+
+import org.example.chess.Coup;
+import org.example.chess.GenerateurCoups;
+import org.example.chess.Plateau;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clés et codage des coups Polyglot, sur les exemples publiés avec le
+ * format des livres.
+ */
+class PolyglotTest {
+
+    /** Coup légal en notation par cases ({@code e2e4}, {@code e1g1}, {@code a7a8q}). */
+    private static Coup coup(Plateau p, String texte) {
+        for (Coup c : GenerateurCoups.genererLegaux(p)) {
+            String s = c.depart().versAlgebrique() + c.arrivee().versAlgebrique();
+            if (c.estPromotion())
+                s += "nbrq".charAt(c.piecePromotion().ordinal() % 6 - 1);
+            if (s.equals(texte))
+                return c;
+        }
+        return null;
+    }
+
+    private static Plateau apres(String... coups) {
+        Plateau p = Plateau.positionInitiale();
+        for (String texte : coups) {
+            Coup c = coup(p, texte);
+            assertNotNull(c, texte);
+            p.jouer(c);
+        }
+        return p;
+    }
+
+    private static long cle(Plateau p) {
+        return Polyglot.standard().cle(p);
+    }
+
+    @Test
+    void cleDeLaPositionInitiale() {
+        assertEquals(Polyglot.CLE_DEPART, cle(Plateau.positionInitiale()));
+        assertEquals(0x463B96181691FC9CL, cle(Plateau.positionInitiale()));
+    }
+
+    @Test
+    void clesDesExemplesDuFormat() {
+        assertEquals(0x823C9B50FD114196L, cle(apres("e2e4")));
+        assertEquals(0x0756B94461C50FB0L, cle(apres("e2e4", "d7d5")));
+        assertEquals(0x662FAFB965DB29D4L, cle(apres("e2e4", "d7d5", "e4e5")));
+        // Prise en passant possible (e5xf6) : la colonne f entre dans la clé
+        assertEquals(0x22A48B5A8E47FF78L, cle(apres("e2e4", "d7d5", "e4e5", "f7f5")));
+        assertEquals(0x652A607CA3F242C1L, cle(apres("e2e4", "d7d5", "e4e5", "f7f5", "e1e2")));
+        assertEquals(0x00FDD303C946BDD9L, cle(apres("e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7")));
+        // Prise en passant impossible après c4 (aucun pion noir à côté) : pas de colonne
+        assertEquals(0x3C8123EA7B067637L, cle(apres("a2a4", "b7b5", "h2h4", "b5b4", "c2c4")));
+        assertEquals(0x5C3F9B829B279560L, cle(apres("a2a4", "b7b5", "h2h4", "b5b4", "c2c4", "b4c3", "a1a3")));
+    }
+
+    @Test
+    void cleIndependanteDuChemin() {
+        assertEquals(cle(apres("g1f3", "g8f6", "g2g3")), cle(apres("g2g3", "g8f6", "g1f3")));
+    }
+
+    @Test
+    void codageDesCoups() {
+        Plateau p = Plateau.positionInitiale();
+        // e2e4 : départ e2 (12), arrivée e4 (28)
+        assertEquals((12 << 6) | 28, Polyglot.encoder(coup(p, "e2e4")));
+        assertEquals((6 << 6) | 21, Polyglot.encoder(coup(p, "g1f3")));
+    }
+
+    @Test
+    void roqueCodeCommeLeRoiPrenantSaTour() {
+        Plateau p = Plateau.depuisFEN("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        Coup petit = coup(p, "e1g1");
+        Coup grand = coup(p, "e1c1");
+        assertTrue(petit.estRoque() && grand.estRoque());
+        // e1h1 et e1a1
+        assertEquals((4 << 6) | 7, Polyglot.encoder(petit));
+        assertEquals((4 << 6) | 0, Polyglot.encoder(grand));
+        assertTrue(Polyglot.correspond((4 << 6) | 7, petit));
+
+        Plateau noir = Plateau.depuisFEN("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 1");
+        Coup petitNoir = coup(noir, "e8g8");
+        // e8h8
+        assertEquals((60 << 6) | 63, Polyglot.encoder(petitNoir));
+    }
+
+    @Test
+    void codageDesPromotions() {
+        Plateau p = Plateau.depuisFEN("8/P6k/8/8/8/8/8/K7 w - - 0 1");
+        // a7a8 : départ 48, arrivée 56 ; cavalier 1 ... dame 4
+        int coupSimple = (48 << 6) | 56;
+        assertEquals((4 << 12) | coupSimple, Polyglot.encoder(coup(p, "a7a8q")));
+        assertEquals((3 << 12) | coupSimple, Polyglot.encoder(coup(p, "a7a8r")));
+        assertEquals((2 << 12) | coupSimple, Polyglot.encoder(coup(p, "a7a8b")));
+        assertEquals((1 << 12) | coupSimple, Polyglot.encoder(coup(p, "a7a8n")));
+    }
+}
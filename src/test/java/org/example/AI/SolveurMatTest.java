@@ -0,0 +1,43 @@
+package org.example.AI;
+
+import org.example.chess.Plateau;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/** Solveur de mat (recherche par nombres de preuve). */
+class SolveurMatTest {
+
+    @Test
+    void matEnUn() {
+        SolveurMat.Resultat r = SolveurMat.resoudre(Plateau.depuisFEN("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), 3, 0);
+        assertEquals(SolveurMat.Statut.PROUVE, r.statut());
+        assertEquals(1, r.coups());
+        assertEquals("a8", r.coup().arrivee().versAlgebrique());
+    }
+
+    @Test
+    void matEnDeux() {
+        // Problème de Morphy : 1. Ra6 bxa6 (ou ...) 2. b7#
+        SolveurMat.Resultat r = SolveurMat.resoudre(Plateau.depuisFEN("kbK5/pp6/1P6/8/8/8/8/R7 w - - 0 1"), 3, 0);
+        assertEquals(SolveurMat.Statut.PROUVE, r.statut());
+        assertEquals(2, r.coups());
+        assertEquals("a6", r.coup().arrivee().versAlgebrique());
+    }
+
+    @Test
+    void pasDeMatCourt() {
+        SolveurMat.Resultat r = SolveurMat.resoudre(Plateau.positionInitiale(), 2, 0);
+        assertEquals(SolveurMat.Statut.REFUTE, r.statut());
+        assertNull(r.coup());
+    }
+
+    @Test
+    void budgetEpuise() {
+        // Roi et tour contre roi : mat lointain, le budget s'épuise avant
+        SolveurMat.Resultat r = SolveurMat.resoudre(Plateau.depuisFEN("8/8/8/4k3/8/8/8/R3K3 w - - 0 1"), 12, 2_000);
+        assertEquals(SolveurMat.Statut.INCONNU, r.statut());
+        assertNull(r.coup());
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.AI.evaluation;
+
+import org.example.chess.Plateau;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Bitbase roi et pion contre roi, sur des positions de manuel. */
+class BitbaseKpkTest {
+
+    @BeforeAll
+    static void generer() throws InterruptedException {
+        BitbaseKpk.lancer();
+        long limite = System.nanoTime() + 60_000_000_000L;
+        while (!BitbaseKpk.prete() && System.nanoTime() < limite)
+            Thread.sleep(10);
+        assertTrue(BitbaseKpk.prete(), "bitbase non generee");
+    }
+
+    private static int sonder(String fen) {
+        return BitbaseKpk.sonder(Plateau.depuisFEN(fen));
+    }
+
+    @Test
+    void pionHorsDuCarre() {
+        assertEquals(BitbaseKpk.GAIN, sonder("7k/8/8/8/8/8/P7/K7 w - - 0 1"));
+        // Même position, couleurs échangées
+        assertEquals(BitbaseKpk.GAIN, sonder("k7/p7/8/8/8/8/8/7K b - - 0 1"));
+    }
+
+    @Test
+    void pionTour() {
+        // Roi du défenseur dans le coin de promotion
+        assertEquals(BitbaseKpk.NUL, sonder("k7/8/8/8/8/8/P7/7K w - - 0 1"));
+        assertEquals(BitbaseKpk.NUL, sonder("7k/p7/8/8/8/8/8/K7 b - - 0 1"));
+    }
+
+    @Test
+    void roiEnSixiemeDevantSonPion() {
+        // Gagné quel que soit le trait
+        assertEquals(BitbaseKpk.GAIN, sonder("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1"));
+        assertEquals(BitbaseKpk.GAIN, sonder("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1"));
+        // Symétrie horizontale (pion au-delà de la colonne d)
+        assertEquals(BitbaseKpk.GAIN, sonder("3k4/8/3K4/3P4/8/8/8/8 w - - 0 1"));
+    }
+
+    @Test
+    void patEtPionPerdu() {
+        // Noirs au trait et pat
+        assertEquals(BitbaseKpk.NUL, sonder("4k3/4P3/4K3/8/8/8/8/8 b - - 0 1"));
+        // Le pion tombe
+        assertEquals(BitbaseKpk.NUL, sonder("8/8/8/8/8/8/3kP3/7K b - - 0 1"));
+    }
+
+    @Test
+    void horsMateriel() {
+        assertEquals(BitbaseKpk.INCONNU, sonder("4k3/8/8/8/8/8/4P3/4K2R w - - 0 1"));
+    }
+}
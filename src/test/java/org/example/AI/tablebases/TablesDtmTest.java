@@ -0,0 +1,85 @@
+package org.example.AI.tablebases;
+
+import org.example.chess.Plateau;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Tables de distance au mat à 3 pièces, générées dans un répertoire temporaire. */
+class TablesDtmTest {
+
+    @TempDir
+    static Path repertoire;
+
+    private static GenerateurDtm generateur;
+    private static List<GenerateurDtm.Rapport> rapports;
+
+    @BeforeAll
+    static void generer() throws IOException {
+        generateur = new GenerateurDtm(repertoire, Runtime.getRuntime().availableProcessors());
+        rapports = new java.util.ArrayList<>(generateur.generer("KQvK"));
+        rapports.addAll(generateur.generer("KRvK"));
+    }
+
+    @AfterAll
+    static void fermer() {
+        generateur.fermer();
+        TablesDtm.initialiser(null);
+    }
+
+    private static GenerateurDtm.Rapport rapport(String nom) {
+        return rapports.stream().filter(r -> r.nom().equals(nom)).findFirst().orElseThrow();
+    }
+
+    private static int sonder(String fen) {
+        return TablesDtm.sonder(Plateau.depuisFEN(fen));
+    }
+
+    @Test
+    void distancesMaximales() {
+        // Valeurs connues : mat en 10 coups au plus avec la dame, 16 avec la tour
+        assertEquals(10, rapport("KQvK").dtmMax());
+        assertEquals(16, rapport("KRvK").dtmMax());
+    }
+
+    @Test
+    void matEnUn() {
+        assertEquals(1, sonder("7k/5Q2/6K1/8/8/8/8/8 w - - 0 1"));
+        assertEquals(1, sonder("7k/8/6K1/8/8/8/8/R7 w - - 0 1"));
+        // Couleurs échangées : lu dans la table KRvK
+        assertEquals(1, sonder("r7/8/8/8/8/6k1/8/7K b - - 0 1"));
+    }
+
+    @Test
+    void dejaMatEtPat() {
+        assertEquals(TablesDtm.PERTE, sonder("7k/6Q1/6K1/8/8/8/8/8 b - - 0 1"));
+        assertEquals(0, TablesDtm.demiCoups(sonder("R6k/8/6K1/8/8/8/8/8 b - - 0 1")));
+        assertEquals(TablesDtm.NULLE, sonder("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"));
+    }
+
+    @Test
+    void perteEtDemiCoups() {
+        // Seul coup Rg8, puis Ta8 mat : perte en 2 demi-coups
+        int code = sonder("7k/8/6K1/8/8/8/8/R7 b - - 0 1");
+        assertTrue(TablesDtm.estPerte(code));
+        assertEquals(2, TablesDtm.demiCoups(code));
+        // Prise de la dame : nulle
+        assertEquals(TablesDtm.NULLE, sonder("8/8/8/8/8/8/1Q6/k6K b - - 0 1"));
+    }
+
+    @Test
+    void sondable() {
+        assertTrue(TablesDtm.sondable(Plateau.depuisFEN("7k/8/6K1/8/8/8/8/R7 w - - 0 1")));
+        assertFalse(TablesDtm.sondable(Plateau.positionInitiale()));
+        assertFalse(TablesDtm.sondable(Plateau.depuisFEN("4k3/8/8/8/8/8/8/R3K3 w Q - 0 1")));
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Écriture et lecture de la notation SAN. */
+class NotationEchecsTest {
+
+    @Test
+    void allerRetourSurDesPartiesAleatoires() {
+        Random hasard = new Random(1);
+        for (int partie = 0; partie < 50; partie++) {
+            Plateau p = Plateau.positionInitiale();
+            for (int ply = 0; ply < 150; ply++) {
+                List<Coup> legaux = GenerateurCoups.genererLegaux(p);
+                if (legaux.isEmpty())
+                    break;
+                for (Coup coup : legaux) {
+                    String san = NotationEchecs.versSAN(p, coup, legaux);
+                    assertSame(coup, NotationEchecs.depuisSAN(san, legaux), san);
+                }
+                p.jouer(legaux.get(hasard.nextInt(legaux.size())));
+            }
+        }
+    }
+
+    @Test
+    void roquesAvecZerosOuLettres() {
+        Plateau p = Plateau.depuisFEN("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        List<Coup> legaux = GenerateurCoups.genererLegaux(p);
+        Coup petit = NotationEchecs.depuisSAN("O-O", legaux);
+        Coup grand = NotationEchecs.depuisSAN("O-O-O", legaux);
+        assertNotNull(petit);
+        assertNotNull(grand);
+        assertTrue(petit.estRoque() && petit.arrivee().indice() == 62);
+        assertTrue(grand.estRoque() && grand.arrivee().indice() == 58);
+
+        assertSame(petit, NotationEchecs.depuisSAN("0-0", legaux));
+        assertSame(grand, NotationEchecs.depuisSAN("0-0-0", legaux));
+        assertSame(petit, NotationEchecs.depuisSAN("0-0+", legaux));
+        assertEquals("O-O", NotationEchecs.versSAN(p, petit, legaux));
+        assertEquals("O-O-O", NotationEchecs.versSAN(p, grand, legaux));
+    }
+
+    @Test
+    void roqueDansUnePartie() {
+        Plateau p = Plateau.positionInitiale();
+        for (String san : new String[] { "e4", "e5", "Nf3", "Nc6", "Bc4", "Bc5", "0-0", "Nf6", "d3", "0-0" }) {
+            Coup coup = NotationEchecs.depuisSAN(san, GenerateurCoups.genererLegaux(p));
+            assertNotNull(coup, san);
+            p.jouer(coup);
+        }
+        assertTrue(p.contientPiece(Case.depuisIndice(62), Piece.ROI_BLANC));
+        assertTrue(p.contientPiece(Case.depuisIndice(6), Piece.ROI_NOIR));
+    }
+
+    @Test
+    void echecEtMatEtLeveeDAmbiguite() {
+        Plateau p = Plateau.depuisFEN("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        List<Coup> legaux = GenerateurCoups.genererLegaux(p);
+        assertEquals("Ra8#", NotationEchecs.versSAN(p, NotationEchecs.depuisSAN("Ra8", legaux), legaux));
+
+        Plateau cavaliers = Plateau.depuisFEN("4k3/8/8/8/8/5N2/8/1N2K3 w - - 0 1");
+        legaux = GenerateurCoups.genererLegaux(cavaliers);
+        assertNull(NotationEchecs.depuisSAN("Nd2", legaux));
+        assertEquals("Nbd2", NotationEchecs.versSAN(cavaliers, NotationEchecs.depuisSAN("Nbd2", legaux), legaux));
+    }
+}